@@ -0,0 +1,152 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test della contesa sul lock pessimistico di completeOrder.
+ *
+ * <p>Tiene il lock FOR UPDATE su un ordine IN_PROGRESS da una connessione JDBC esterna,
+ * invia molte richieste concorrenti di completamento (ognuna resta bloccata sul lock fino
+ * al timeout di 3s, occupando una connessione del pool) e nel frattempo misura la latenza di
+ * richieste di stato che non toccano il database (servite dalla cache):
+ * <ul>
+ *   <li>thread di piattaforma: i worker di Tomcat sono tutti bloccati, anche le richieste
+ *       di stato restano in coda (limite = thread); risultati misurati nel README</li>
+ *   <li>virtual thread (Java 21): ci si aspetta che le richieste di stato restino veloci e che i completamenti
+ *       siano limitati dal pool di connessioni (limite = connessioni); non ancora misurato</li>
+ * </ul>
+ *
+ * <p>Richiede l'applicazione avviata su un database appena creato e il driver PostgreSQL nel classpath:
+ * <pre>
+ * ./mvnw -q dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp $(cat target/cp.txt) load-test/LockContentionLoadTest.java [richieste-bloccate] [richieste-stato]
+ * </pre>
+ * URL e credenziali si possono cambiare con -Dbase-url, -Djdbc-url, -Djdbc-user, -Djdbc-password.
+ */
+public class LockContentionLoadTest {
+
+	private static final Pattern ORDER_CODE = Pattern.compile("\"orderCode\"\\s*:\\s*\"([^\"]+)\"");
+	private static final String ORDER_JSON = "{\"customerName\":\"Load Test\",\"items\":[{\"pizzaName\":\"Margherita\",\"quantity\":1}]}";
+	private static final Duration LOCK_HOLD = Duration.ofSeconds(10);
+
+	private static final String BASE_URL = System.getProperty("base-url", "http://localhost:8080");
+	private static final String JDBC_URL = System.getProperty("jdbc-url", "jdbc:postgresql://localhost:5437/awesome-pizza");
+	private static final String JDBC_USER = System.getProperty("jdbc-user", "awesome-pizza");
+	private static final String JDBC_PASSWORD = System.getProperty("jdbc-password", "awesome-pizza");
+
+	private static final HttpClient CLIENT = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	public static void main(String[] args) throws Exception {
+		int blockedRequests = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+		int statusRequests = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+		String lockedOrder = createOrder();
+		expect(send("POST", "/api/orders/next", null), 200, "presa in carico");
+		String probeOrder = createOrder();
+		expect(send("GET", "/api/orders/" + probeOrder + "/status", null), 200, "lettura stato");
+
+		try (Connection connection = DriverManager.getConnection(JDBC_URL, JDBC_USER, JDBC_PASSWORD)) {
+			connection.setAutoCommit(false);
+			try (PreparedStatement lock = connection.prepareStatement(
+					"SELECT id FROM orders WHERE order_code = ?::uuid FOR UPDATE")) {
+				lock.setString(1, lockedOrder);
+				lock.executeQuery();
+			}
+			System.out.printf("Lock tenuto su %s per %ds, %d richieste di completamento concorrenti%n",
+					lockedOrder, LOCK_HOLD.toSeconds(), blockedRequests);
+
+			long start = System.nanoTime();
+			CompletableFuture<Void> release = CompletableFuture.runAsync(() -> {
+				try {
+					Thread.sleep(LOCK_HOLD.toMillis());
+					connection.rollback();
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			List<CompletableFuture<Integer>> blocked = new ArrayList<>();
+			for (int i = 0; i < blockedRequests; i++) {
+				blocked.add(sendAsync("PUT", "/api/orders/" + lockedOrder + "/complete"));
+			}
+			Thread.sleep(1000);
+
+			// Richieste di stato distribuite nella finestra in cui il lock è tenuto
+			List<CompletableFuture<Long>> probes = new ArrayList<>();
+			long interval = (LOCK_HOLD.toMillis() - 2000) / statusRequests;
+			for (int i = 0; i < statusRequests; i++) {
+				probes.add(timedAsync("GET", "/api/orders/" + probeOrder + "/status"));
+				Thread.sleep(interval);
+			}
+			release.join();
+			List<Long> latencies = new ArrayList<>(probes.stream().map(CompletableFuture::join).toList());
+
+			Map<Integer, Integer> outcomes = new TreeMap<>();
+			blocked.forEach(response -> outcomes.merge(response.join(), 1, Integer::sum));
+			long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+			latencies.sort(null);
+			System.out.printf("Richieste di stato durante la contesa: p50=%dms p99=%dms max=%dms%n",
+					latencies.get(latencies.size() / 2),
+					latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1),
+					latencies.get(latencies.size() - 1));
+			System.out.printf("Completamenti per codice HTTP (0 = nessuna risposta): %s in %dms%n", outcomes, elapsed);
+		}
+	}
+
+	private static String createOrder() throws Exception {
+		HttpResponse<String> response = send("POST", "/api/orders", ORDER_JSON);
+		expect(response, 201, "creazione ordine");
+		Matcher matcher = ORDER_CODE.matcher(response.body());
+		if (!matcher.find()) {
+			throw new IllegalStateException("Codice ordine assente nella risposta: " + response.body());
+		}
+		return matcher.group(1);
+	}
+
+	private static HttpResponse<String> send(String method, String path, String json) throws Exception {
+		return CLIENT.send(request(method, path, json, Duration.ofSeconds(60)), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static CompletableFuture<Integer> sendAsync(String method, String path) {
+		return CLIENT.sendAsync(request(method, path, null, Duration.ofSeconds(120)), HttpResponse.BodyHandlers.discarding())
+				.thenApply(HttpResponse::statusCode)
+				.exceptionally(e -> 0);
+	}
+
+	private static CompletableFuture<Long> timedAsync(String method, String path) {
+		long start = System.nanoTime();
+		return sendAsync(method, path)
+				.thenApply(status -> Duration.ofNanos(System.nanoTime() - start).toMillis());
+	}
+
+	private static HttpRequest request(String method, String path, String json, Duration timeout) {
+		return HttpRequest.newBuilder(URI.create(BASE_URL + path))
+				.timeout(timeout)
+				.header("Content-Type", "application/json")
+				.method(method, json != null
+						? HttpRequest.BodyPublishers.ofString(json)
+						: HttpRequest.BodyPublishers.noBody())
+				.build();
+	}
+
+	private static void expect(HttpResponse<String> response, int status, String step) {
+		if (response.statusCode() != status) {
+			throw new IllegalStateException(step + ": atteso " + status + ", ricevuto "
+					+ response.statusCode() + " " + response.body());
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.awesomepizza.api.benchmark;
+
+import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Misura il primo tratto di POST /api/orders: lettura del body JSON in CreateOrderRequest
+ * e validazione Bean Validation, come fanno il message converter e @Valid nel controller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateOrderRequestBenchmark {
+
+	@Param({"1", "5"})
+	private int itemCount;
+
+	private ObjectReader reader;
+	private ValidatorFactory validatorFactory;
+	private Validator validator;
+	private byte[] body;
+	private CreateOrderRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		reader = objectMapper.readerFor(CreateOrderRequest.class);
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		body = OrderFixtures.createOrderJson(itemCount).getBytes(StandardCharsets.UTF_8);
+		request = reader.readValue(body);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public CreateOrderRequest deserialize() throws Exception {
+		return reader.readValue(body);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<CreateOrderRequest>> validate() {
+		return validator.validate(request);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<CreateOrderRequest>> deserializeAndValidate() throws Exception {
+		return validator.validate(reader.<CreateOrderRequest>readValue(body));
+	}
+}
@@ -0,0 +1,196 @@
+package com.awesomepizza.api.benchmark;
+
+import com.awesomepizza.api.controller.OrderController;
+import com.awesomepizza.api.dto.ErrorResponse;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.exception.GlobalExceptionHandler;
+import com.awesomepizza.api.exception.OrderNotFoundException;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.OrderRepository;
+import com.awesomepizza.api.service.KitchenQueueView;
+import com.awesomepizza.api.service.KitchenStationService;
+import com.awesomepizza.api.service.OrderCache;
+import com.awesomepizza.api.service.OrderCodeFilter;
+import com.awesomepizza.api.service.OrderEtaEstimator;
+import com.awesomepizza.api.service.OrderFactory;
+import com.awesomepizza.api.service.OrderLaneScheduler;
+import com.awesomepizza.api.service.OrderMetrics;
+import com.awesomepizza.api.service.OrderReadCoalescer;
+import com.awesomepizza.api.service.OrderServiceImpl;
+import com.awesomepizza.api.service.OrderStatusNotifier;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Misura le risposte senza risultato, le più frequenti a cucina ferma: coda vuota su POST /api/orders/next
+ * e codice ordine inesistente. I metodi legacy* riproducono il percorso precedente, con un'eccezione
+ * che registra lo stack trace; gli altri usano il risultato vuoto e le eccezioni di dominio senza stack trace.
+ * stackDepth simula i frame di Spring MVC sopra il controller, che rendono costoso lo stack trace.
+ * Il repository restituisce sempre Optional vuoto: si misura solo il costo applicativo, non la query.
+ * Servizio e controller sono creati da un contesto Spring, come nell'applicazione.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoResultBenchmark {
+
+	private static final String STATION = "forno-1";
+
+	@Param({"20", "100"})
+	private int stackDepth;
+
+	private AnnotationConfigApplicationContext context;
+	private OrderServiceImpl orderService;
+	private OrderController orderController;
+	private GlobalExceptionHandler exceptionHandler;
+	private String orderCode;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		OrderRepository orderRepository = (OrderRepository) Proxy.newProxyInstance(
+				OrderRepository.class.getClassLoader(), new Class<?>[] {OrderRepository.class},
+				// Il contesto Spring usa hashCode ed equals dei bean registrati
+				(proxy, method, args) -> switch (method.getName()) {
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "equals" -> proxy == args[0];
+					case "toString" -> OrderRepository.class.getSimpleName();
+					default -> Optional.empty();
+				});
+		context = new AnnotationConfigApplicationContext();
+		// Conversioni di Spring Boot per i valori di default nei @Value, ad esempio la durata "5m"
+		context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+		context.registerBean(OrderRepository.class, () -> orderRepository);
+		context.registerBean(OrderMetrics.class, () -> new OrderMetrics(orderRepository));
+		// Con la coda vuota gli altri collaboratori non vengono invocati: bastano dei mock
+		Stream.of(OrderMapper.class, KitchenStationService.class, OrderCache.class, OrderFactory.class,
+						ArchivedOrderRepository.class, KitchenQueueView.class, OrderReadCoalescer.class,
+						OrderCodeFilter.class, OrderLaneScheduler.class, OrderEtaEstimator.class, OrderStatusNotifier.class)
+				.forEach(this::registerMock);
+		context.registerBean(OrderServiceImpl.class);
+		context.registerBean(OrderController.class);
+		context.refresh();
+
+		orderService = context.getBean(OrderServiceImpl.class);
+		orderController = context.getBean(OrderController.class);
+		exceptionHandler = new GlobalExceptionHandler();
+		orderCode = UUID.randomUUID().toString();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	private <T> void registerMock(Class<T> type) {
+		context.registerBean(type, () -> Mockito.mock(type));
+	}
+
+	@Benchmark
+	public ResponseEntity<?> legacyEmptyQueue() {
+		try {
+			return legacyTakeNextOrder(stackDepth);
+		} catch (LegacyException ex) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND)
+					.body(ErrorResponse.builder()
+							.message("Coda ordini vuota")
+							.status(HttpStatus.NOT_FOUND.value())
+							.build());
+		}
+	}
+
+	@Benchmark
+	public ResponseEntity<?> emptyQueue() {
+		return takeNextOrder(stackDepth);
+	}
+
+	@Benchmark
+	public ResponseEntity<?> legacyOrderNotFound() {
+		try {
+			return legacyFindOrder(stackDepth);
+		} catch (LegacyException ex) {
+			return ResponseEntity.status(HttpStatus.NOT_FOUND)
+					.body(ErrorResponse.builder()
+							.message(ex.getMessage())
+							.status(HttpStatus.NOT_FOUND.value())
+							.build());
+		}
+	}
+
+	@Benchmark
+	public ResponseEntity<?> orderNotFound() {
+		try {
+			return findOrder(stackDepth);
+		} catch (OrderNotFoundException ex) {
+			return exceptionHandler.handleOrderNotFound(ex);
+		}
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private ResponseEntity<OrderResponse> legacyTakeNextOrder(int depth) {
+		if (depth > 0) {
+			return legacyTakeNextOrder(depth - 1);
+		}
+		return ResponseEntity.ok(orderService.takeNextOrder(STATION).orElseThrow(
+				() -> new LegacyException("Nessun ordine in coda da processare")));
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private ResponseEntity<OrderResponse> takeNextOrder(int depth) {
+		if (depth > 0) {
+			return takeNextOrder(depth - 1);
+		}
+		return orderController.takeNextOrder(STATION);
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private ResponseEntity<OrderResponse> legacyFindOrder(int depth) {
+		if (depth > 0) {
+			return legacyFindOrder(depth - 1);
+		}
+		throw new LegacyException("Ordine non trovato con codice: " + orderCode);
+	}
+
+	@CompilerControl(CompilerControl.Mode.DONT_INLINE)
+	private ResponseEntity<OrderResponse> findOrder(int depth) {
+		if (depth > 0) {
+			return findOrder(depth - 1);
+		}
+		throw new OrderNotFoundException(orderCode);
+	}
+
+	/**
+	 * Eccezione con stack trace, come le eccezioni di dominio prima della modifica.
+	 */
+	private static class LegacyException extends RuntimeException {
+
+		LegacyException(String message) {
+			super(message);
+		}
+	}
+}
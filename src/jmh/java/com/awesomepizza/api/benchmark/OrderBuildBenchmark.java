@@ -0,0 +1,57 @@
+package com.awesomepizza.api.benchmark;
+
+import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.service.OrderCodeGenerator;
+import com.awesomepizza.api.service.OrderFactory;
+import com.awesomepizza.api.service.TimeOrderedOrderCodeGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Misura la costruzione dell'entità in createOrder (generazione del codice UUIDv7 compresa),
+ * cioè tutto il lavoro di {@link OrderFactory} prima di corsia e salvataggio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBuildBenchmark {
+
+	@Param({"1", "5"})
+	private int itemCount;
+
+	private OrderFactory orderFactory;
+	private OrderCodeGenerator orderCodeGenerator;
+	private CreateOrderRequest request;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		orderCodeGenerator = new TimeOrderedOrderCodeGenerator();
+		orderFactory = new OrderFactory(orderCodeGenerator);
+		request = OrderFixtures.createOrderRequest(itemCount);
+	}
+
+	@Benchmark
+	public String generateOrderCode() {
+		return orderCodeGenerator.generate();
+	}
+
+	@Benchmark
+	public Order buildOrder() {
+		return orderFactory.create(request);
+	}
+}
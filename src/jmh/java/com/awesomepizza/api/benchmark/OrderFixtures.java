@@ -0,0 +1,66 @@
+package com.awesomepizza.api.benchmark;
+
+import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.OrderItemRequest;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderItem;
+import com.awesomepizza.api.model.OrderStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Dati di esempio condivisi dai benchmark, con un numero di pizze configurabile.
+ */
+public final class OrderFixtures {
+
+	private OrderFixtures() {
+	}
+
+	public static String createOrderJson(int itemCount) {
+		String items = IntStream.range(0, itemCount)
+				.mapToObj(i -> "{\"pizzaName\":\"" + pizzaName(i) + "\",\"quantity\":" + (i % 3 + 1) + "}")
+				.reduce((a, b) -> a + "," + b)
+				.orElse("");
+		return "{\"customerName\":\"Mario Rossi\",\"items\":[" + items + "]}";
+	}
+
+	public static CreateOrderRequest createOrderRequest(int itemCount) {
+		return CreateOrderRequest.builder()
+				.customerName("Mario Rossi")
+				.items(IntStream.range(0, itemCount)
+						.mapToObj(i -> OrderItemRequest.builder()
+								.pizzaName(pizzaName(i))
+								.quantity(i % 3 + 1)
+								.build())
+						.toList())
+				.build();
+	}
+
+	/**
+	 * Ordine come lo restituisce il repository dopo il salvataggio: id assegnati e stato PENDING.
+	 */
+	public static Order savedOrder(int itemCount) {
+		Order order = Order.builder()
+				.id(1L)
+				.orderCode(UUID.randomUUID().toString())
+				.customerName("Mario Rossi")
+				.status(OrderStatus.PENDING)
+				.createdAt(LocalDateTime.of(2026, 1, 1, 20, 0))
+				.build();
+		List<OrderItem> items = IntStream.range(0, itemCount)
+				.mapToObj(i -> OrderItem.builder()
+						.id((long) i + 1)
+						.pizzaName(pizzaName(i))
+						.quantity(i % 3 + 1)
+						.build())
+				.toList();
+		items.forEach(order::addItem);
+		return order;
+	}
+
+	private static String pizzaName(int index) {
+		return "Pizza " + (index + 1);
+	}
+}
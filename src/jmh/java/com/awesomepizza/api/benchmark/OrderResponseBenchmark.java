@@ -0,0 +1,65 @@
+package com.awesomepizza.api.benchmark;
+
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.mapper.OrderMapperImpl;
+import com.awesomepizza.api.model.Order;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Misura l'ultimo tratto delle risposte sugli ordini: mapping MapStruct da entità a DTO
+ * e serializzazione JSON con la stessa configurazione Jackson usata da Spring MVC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderResponseBenchmark {
+
+	@Param({"1", "5"})
+	private int itemCount;
+
+	private OrderMapper orderMapper;
+	private ObjectWriter writer;
+	private Order order;
+	private OrderResponse response;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		orderMapper = new OrderMapperImpl();
+		writer = Jackson2ObjectMapperBuilder.json().build().writerFor(OrderResponse.class);
+		order = OrderFixtures.savedOrder(itemCount);
+		response = orderMapper.toOrderResponse(order);
+	}
+
+	@Benchmark
+	public OrderResponse map() {
+		return orderMapper.toOrderResponse(order);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws Exception {
+		return writer.writeValueAsBytes(response);
+	}
+
+	@Benchmark
+	public byte[] mapAndSerialize() throws Exception {
+		return writer.writeValueAsBytes(orderMapper.toOrderResponse(order));
+	}
+}
@@ -0,0 +1,42 @@
+package com.awesomepizza.api.config;
+
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione delle stazioni della cucina (forni).
+ * Esempio:
+ * <pre>
+ * awesome-pizza.kitchen.default-station=forno-1
+ * awesome-pizza.kitchen.stations.forno-1=1
+ * awesome-pizza.kitchen.stations.forno-2=3
+ * </pre>
+ *
+ * @param defaultStation stazione usata da {@code POST /api/orders/next} senza parametro {@code station}
+ * @param stations       capacità (ordini IN_PROGRESS contemporanei) per ciascuna stazione
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.kitchen")
+public record KitchenProperties(
+		@DefaultValue(KitchenProperties.DEFAULT_STATION) String defaultStation,
+		Map<String, Integer> stations) {
+
+	public static final String DEFAULT_STATION = "default";
+
+	/**
+	 * Capacità della stazione di default se non configurata: un solo ordine alla volta.
+	 */
+	public static final int DEFAULT_CAPACITY = 1;
+
+	public KitchenProperties {
+		stations = stations == null ? Map.of() : Map.copyOf(stations);
+	}
+
+	/**
+	 * Ordini IN_PROGRESS contemporanei su tutte le stazioni, compresa la stazione di default se non configurata.
+	 */
+	public int totalCapacity() {
+		int total = stations.values().stream().mapToInt(Integer::intValue).sum();
+		return stations.containsKey(defaultStation) ? total : total + DEFAULT_CAPACITY;
+	}
+}
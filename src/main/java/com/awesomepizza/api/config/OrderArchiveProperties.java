@@ -0,0 +1,30 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione della manutenzione delle partizioni giornaliere di orders e dell'archiviazione
+ * degli ordini completati nelle tabelle storiche.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.archive.enabled=true
+ * awesome-pizza.orders.archive.min-age=7d
+ * awesome-pizza.orders.archive.partitions-ahead=14
+ * awesome-pizza.orders.archive.interval=1h
+ * </pre>
+ *
+ * @param enabled         attiva il job di manutenzione (richiede PostgreSQL)
+ * @param minAge          età minima di un giorno di ordini per essere archiviato: la partizione
+ *                        si sposta quando il suo ultimo istante è più vecchio di minAge
+ * @param partitionsAhead giorni futuri per cui tenere pronte le partizioni di orders e order_items
+ * @param interval        pausa tra un'esecuzione del job e la successiva
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.archive")
+public record OrderArchiveProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("7d") Duration minAge,
+		@DefaultValue("14") int partitionsAhead,
+		@DefaultValue("1h") Duration interval) {
+}
@@ -0,0 +1,23 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione della cache in memoria degli ordini, usata dal polling dello stato.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.cache.maximum-size=10000
+ * awesome-pizza.orders.cache.ttl=30s
+ * </pre>
+ *
+ * @param maximumSize numero massimo di ordini in cache, oltre il quale i meno usati vengono rimossi
+ * @param ttl         durata di un elemento dall'ultima scrittura: limita quanto può restare
+ *                    obsoleto un ordine modificato da un'altra istanza dell'applicazione
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.cache")
+public record OrderCacheProperties(
+		@DefaultValue("10000") long maximumSize,
+		@DefaultValue("30s") Duration ttl) {
+}
@@ -0,0 +1,35 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configurazione del filtro di Bloom sui codici ordine esistenti, che risponde 404 ai codici
+ * sicuramente inesistenti senza interrogare il database.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.code-filter.enabled=true
+ * awesome-pizza.orders.code-filter.expected-codes=1000000
+ * awesome-pizza.orders.code-filter.false-positive-rate=0.01
+ * awesome-pizza.orders.code-filter.max-size=16MB
+ * awesome-pizza.orders.code-filter.recent-code-window=1m
+ * </pre>
+ *
+ * @param enabled           attiva il filtro; con più istanze richiede il canale LISTEN/NOTIFY,
+ *                          da cui riceve i codici creati dalle altre
+ * @param expectedCodes     codici per cui dimensionare il filtro, se più dei codici su database
+ * @param falsePositiveRate probabilità che un codice inesistente venga comunque cercato su database
+ * @param maxSize           memoria massima del filtro: oltre, la probabilità di falso positivo cresce
+ * @param recentCodeWindow  i codici UUID v7 generati da meno di questo tempo sono sempre cercati su database,
+ *                          perché la notifica della loro creazione da un'altra istanza potrebbe non essere arrivata
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.code-filter")
+public record OrderCodeFilterProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("1000000") long expectedCodes,
+		@DefaultValue("0.01") double falsePositiveRate,
+		@DefaultValue("16MB") DataSize maxSize,
+		@DefaultValue("1m") Duration recentCodeWindow) {
+}
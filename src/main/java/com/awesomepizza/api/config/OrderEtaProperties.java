@@ -0,0 +1,22 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione della stima dell'attesa restituita da {@code GET /api/orders/{orderCode}/position}.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.eta.window=100
+ * awesome-pizza.orders.eta.default-preparation-time=10m
+ * </pre>
+ *
+ * @param window                 preparazioni più recenti (da IN_PROGRESS a COMPLETED) su cui è calcolata la media
+ * @param defaultPreparationTime durata di una preparazione finché questa istanza non ne ha osservata nessuna
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.eta")
+public record OrderEtaProperties(
+		@DefaultValue("100") int window,
+		@DefaultValue("10m") Duration defaultPreparationTime) {
+}
@@ -0,0 +1,28 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione del canale PostgreSQL LISTEN/NOTIFY che propaga i cambi di stato degli ordini
+ * tra le istanze dell'applicazione. Esempio:
+ * <pre>
+ * awesome-pizza.orders.events.enabled=true
+ * awesome-pizza.orders.events.channel=order_events
+ * awesome-pizza.orders.events.poll-timeout=5s
+ * awesome-pizza.orders.events.reconnect-delay=5s
+ * </pre>
+ *
+ * @param enabled        abilita il canale; richiede PostgreSQL
+ * @param channel        nome del canale NOTIFY, condiviso da tutte le istanze
+ * @param pollTimeout    attesa massima di una notifica prima di ricontrollare lo stato del listener
+ * @param reconnectDelay attesa prima di riaprire la connessione del listener dopo un errore
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.events")
+public record OrderEventChannelProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("order_events") String channel,
+		@DefaultValue("5s") Duration pollTimeout,
+		@DefaultValue("5s") Duration reconnectDelay) {
+}
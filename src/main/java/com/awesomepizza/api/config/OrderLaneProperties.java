@@ -0,0 +1,47 @@
+package com.awesomepizza.api.config;
+
+import com.awesomepizza.api.model.OrderLane;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione delle corsie della coda ({@link OrderLane}) e dei loro pesi.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.lanes.enabled=true
+ * awesome-pizza.orders.lanes.express-max-pizzas=2
+ * awesome-pizza.orders.lanes.large-min-pizzas=10
+ * awesome-pizza.orders.lanes.express-weight=4
+ * awesome-pizza.orders.lanes.standard-weight=2
+ * awesome-pizza.orders.lanes.large-weight=1
+ * awesome-pizza.orders.lanes.pizza-time=30s
+ * </pre>
+ *
+ * @param enabled          se false tutti gli ordini sono STANDARD e la coda è FIFO per data di creazione
+ * @param expressMaxPizzas ordini con al massimo questo numero di pizze nella corsia EXPRESS
+ * @param largeMinPizzas   ordini con almeno questo numero di pizze nella corsia LARGE
+ * @param expressWeight    peso della corsia EXPRESS
+ * @param standardWeight   peso della corsia STANDARD
+ * @param largeWeight      peso della corsia LARGE
+ * @param pizzaTime        tempo virtuale di una pizza in una corsia di peso 1: più è grande rispetto all'intervallo
+ *                         tra un ordine e il successivo, più conta la corsia rispetto all'ordine di arrivo
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.lanes")
+public record OrderLaneProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("2") int expressMaxPizzas,
+		@DefaultValue("10") int largeMinPizzas,
+		@DefaultValue("4") int expressWeight,
+		@DefaultValue("2") int standardWeight,
+		@DefaultValue("1") int largeWeight,
+		@DefaultValue("30s") Duration pizzaTime) {
+
+	public int weight(OrderLane lane) {
+		return switch (lane) {
+			case EXPRESS -> expressWeight;
+			case STANDARD -> standardWeight;
+			case LARGE -> largeWeight;
+		};
+	}
+}
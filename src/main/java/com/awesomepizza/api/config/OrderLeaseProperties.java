@@ -0,0 +1,29 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione delle prese in carico a scadenza: una stazione che non rinnova la presa in carico
+ * con l'heartbeat entro duration perde l'ordine, che torna in coda.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.lease.enabled=true
+ * awesome-pizza.orders.lease.duration=5m
+ * awesome-pizza.orders.lease.reap-interval=30s
+ * awesome-pizza.orders.lease.reap-batch-size=100
+ * </pre>
+ *
+ * @param enabled       attiva il job che riporta in PENDING gli ordini con la presa in carico scaduta
+ * @param duration      durata della presa in carico, dalla presa o dall'ultimo heartbeat
+ * @param reapInterval  pausa tra un'esecuzione del job e la successiva
+ * @param reapBatchSize ordini scaduti riportati in coda al massimo per esecuzione
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.lease")
+public record OrderLeaseProperties(
+		@DefaultValue("true") boolean enabled,
+		@DefaultValue("5m") Duration duration,
+		@DefaultValue("30s") Duration reapInterval,
+		@DefaultValue("100") int reapBatchSize) {
+}
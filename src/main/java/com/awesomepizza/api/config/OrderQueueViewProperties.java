@@ -0,0 +1,19 @@
+package com.awesomepizza.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione della vista in memoria della coda, servita ai display della cucina.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.queue-view.max-changes=1000
+ * </pre>
+ *
+ * @param maxChanges numero di modifiche conservate per rispondere a "cosa è cambiato dalla versione N":
+ *                   un display rimasto indietro di più modifiche riceve la vista completa
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.queue-view")
+public record OrderQueueViewProperties(
+		@DefaultValue("1000") int maxChanges) {
+}
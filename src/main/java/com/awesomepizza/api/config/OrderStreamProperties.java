@@ -0,0 +1,22 @@
+package com.awesomepizza.api.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configurazione delle notifiche di cambio stato verso i clienti.
+ * Esempio:
+ * <pre>
+ * awesome-pizza.orders.stream.sse-timeout=10m
+ * awesome-pizza.orders.stream.long-poll-timeout=30s
+ * </pre>
+ *
+ * @param sseTimeout      durata massima di una connessione SSE, poi il client si riconnette
+ * @param longPollTimeout attesa massima di una richiesta long-poll prima di restituire lo stato attuale
+ */
+@ConfigurationProperties(prefix = "awesome-pizza.orders.stream")
+public record OrderStreamProperties(
+		@DefaultValue("10m") Duration sseTimeout,
+		@DefaultValue("30s") Duration longPollTimeout) {
+}
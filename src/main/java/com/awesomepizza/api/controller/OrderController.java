@@ -1,29 +1,56 @@
 package com.awesomepizza.api.controller;
 
+import com.awesomepizza.api.dto.CreateOrderBatchRequest;
 import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
+import com.awesomepizza.api.dto.OrderLeaseResponse;
+import com.awesomepizza.api.dto.OrderPositionResponse;
+import com.awesomepizza.api.dto.OrderQueueSliceResponse;
 import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.dto.OrderStatusBatchRequest;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.model.OrderStatus;
 import com.awesomepizza.api.service.OrderService;
+import com.awesomepizza.api.service.OrderStatusNotifier;
 import jakarta.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+/**
+ * Le GET su ordini e coda restituiscono un ETag forte: se coincide con l'header If-None-Match
+ * della richiesta Spring risponde 304 Not Modified senza serializzare il corpo.
+ */
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+	/**
+	 * Risposta alla coda vuota, immutabile e condivisa tra le richieste e tra gli endpoint, vedi {@link #queueEmpty()}.
+	 */
+	private static final ResponseEntity<Object> QUEUE_EMPTY = ResponseEntity.noContent().build();
+
 	private final OrderService orderService;
+	private final OrderStatusNotifier orderStatusNotifier;
 
 	/**
 	 * Crea un nuovo ordine.
@@ -36,23 +63,74 @@ public class OrderController {
 	}
 
 	/**
-	 * Recupera un ordine tramite il suo codice.
+	 * Crea più ordini in un'unica chiamata (max {@value CreateOrderBatchRequest#MAX_ORDERS}).
+	 * POST /api/orders/batch
+	 */
+	@PostMapping("/batch")
+	public ResponseEntity<List<OrderResponse>> createOrders(@Valid @RequestBody CreateOrderBatchRequest request) {
+		List<OrderResponse> response = orderService.createOrders(request.getOrders());
+		return ResponseEntity.status(HttpStatus.CREATED).body(response);
+	}
+
+	/**
+	 * Recupera un ordine tramite il suo codice, con la versione dell'ordine come ETag.
 	 * GET /api/orders/{orderCode}
 	 */
 	@GetMapping("/{orderCode}")
 	public ResponseEntity<OrderResponse> getOrder(@PathVariable String orderCode) {
 		OrderResponse response = orderService.getOrderByCode(orderCode);
-		return ResponseEntity.ok(response);
+		return ResponseEntity.ok().eTag(versionTag(response.getVersion())).body(response);
 	}
 
 	/**
-	 * Recupera lo stato di un ordine tramite il suo codice.
+	 * Recupera lo stato di un ordine tramite il suo codice, con la versione dell'ordine come ETag.
 	 * GET /api/orders/{orderCode}/status
 	 */
 	@GetMapping("/{orderCode}/status")
 	public ResponseEntity<OrderStatusResponse> getOrderStatus(@PathVariable String orderCode) {
 		OrderStatusResponse response = orderService.getOrderStatusByCode(orderCode);
-		return ResponseEntity.ok(response);
+		return ResponseEntity.ok().eTag(versionTag(response.getVersion())).body(response);
+	}
+
+	/**
+	 * Restituisce la posizione dell'ordine in coda e una stima di quando sarà pronto.
+	 * GET /api/orders/{orderCode}/position
+	 */
+	@GetMapping("/{orderCode}/position")
+	public ResponseEntity<OrderPositionResponse> getOrderPosition(@PathVariable String orderCode) {
+		return ResponseEntity.ok(orderService.getOrderPosition(orderCode));
+	}
+
+	/**
+	 * Recupera lo stato di più ordini in un'unica chiamata (max {@value OrderStatusBatchRequest#MAX_ORDER_CODES}),
+	 * come mappa codice ordine → stato. I codici non trovati sono assenti dalla risposta.
+	 * POST /api/orders/status:batch
+	 */
+	@PostMapping("/status:batch")
+	public ResponseEntity<Map<String, OrderStatusResponse>> getOrderStatuses(
+			@Valid @RequestBody OrderStatusBatchRequest request) {
+		return ResponseEntity.ok(orderService.getOrderStatusesByCode(request.getOrderCodes()));
+	}
+
+	/**
+	 * Attende un cambio di stato dell'ordine (long-poll): risponde appena lo stato
+	 * è diverso da ifStatusNot, oppure con lo stato attuale allo scadere dell'attesa.
+	 * GET /api/orders/{orderCode}/status?ifStatusNot={status}
+	 */
+	@GetMapping(value = "/{orderCode}/status", params = "ifStatusNot")
+	public DeferredResult<OrderStatusResponse> awaitOrderStatusChange(
+			@PathVariable String orderCode,
+			@RequestParam OrderStatus ifStatusNot) {
+		return orderStatusNotifier.awaitStatusChange(orderCode, ifStatusNot);
+	}
+
+	/**
+	 * Apre uno stream Server-Sent Events con lo stato dell'ordine e i suoi cambiamenti.
+	 * GET /api/orders/{orderCode}/status/stream
+	 */
+	@GetMapping(value = "/{orderCode}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamOrderStatus(@PathVariable String orderCode) {
+		return orderStatusNotifier.subscribe(orderCode);
 	}
 
 	/**
@@ -62,26 +140,119 @@ public class OrderController {
 	@GetMapping("/queue")
 	public ResponseEntity<Page<OrderResponse>> getOrderQueue(Pageable pageable) {
 		Page<OrderResponse> queue = orderService.getOrderQueue(pageable);
-		return ResponseEntity.ok(queue);
+		return ResponseEntity.ok().eTag(queueTag(queue.getContent(), queue.getTotalElements())).body(queue);
 	}
 
 	/**
-	 * Prende in carico il prossimo ordine in coda.
-	 * POST /api/orders/next
+	 * Restituisce la coda degli ordini in attesa con paginazione a cursore.
+	 * GET /api/orders/queue/cursor?cursor={nextCursor}&size={size}
+	 */
+	@GetMapping("/queue/cursor")
+	public ResponseEntity<OrderQueueSliceResponse> getOrderQueueByCursor(
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		OrderQueueSliceResponse queue = orderService.getOrderQueue(cursor, size);
+		return ResponseEntity.ok().eTag(queueTag(queue.getOrders(), queue.getNextCursor())).body(queue);
+	}
+
+	/**
+	 * Restituisce la vista della cucina (ordini PENDING e IN_PROGRESS) servita dalla memoria.
+	 * Con epoch e sinceVersion dell'ultima risposta restituisce solo i cambiamenti successivi a quella versione,
+	 * se la vista è la stessa e sono ancora disponibili.
+	 * GET /api/orders/queue/snapshot?epoch={epoch}&sinceVersion={version}
+	 */
+	@GetMapping("/queue/snapshot")
+	public ResponseEntity<KitchenQueueResponse> getKitchenQueue(@RequestParam(required = false) String epoch,
+			@RequestParam(required = false) Long sinceVersion) {
+		KitchenQueueResponse queue = orderService.getKitchenQueue(epoch, sinceVersion);
+		return ResponseEntity.ok().eTag(kitchenQueueTag(queue)).body(queue);
+	}
+
+	/**
+	 * Prende in carico il prossimo ordine in coda, opzionalmente per una stazione specifica.
+	 * Con la coda vuota risponde 204 No Content.
+	 * POST /api/orders/next?station={stationId}
 	 */
 	@PostMapping("/next")
-	public ResponseEntity<OrderResponse> takeNextOrder() {
-		OrderResponse response = orderService.takeNextOrder();
-		return ResponseEntity.ok(response);
+	public ResponseEntity<OrderResponse> takeNextOrder(@RequestParam(required = false) String station) {
+		Optional<OrderResponse> response = station == null
+				? orderService.takeNextOrder()
+				: orderService.takeNextOrder(station);
+		return response.map(ResponseEntity::ok)
+				.orElse(queueEmpty());
+	}
+
+	/**
+	 * Prende in carico fino a count ordini in coda con una sola chiamata, opzionalmente per una stazione specifica.
+	 * Gli ordini presi sono al massimo i posti liberi della stazione; con la stazione piena risponde 409,
+	 * con count fuori da 1..20 risponde 400. Con la coda vuota risponde 204 No Content.
+	 * POST /api/orders/next?count={count}&station={stationId}
+	 */
+	@PostMapping(value = "/next", params = "count")
+	public ResponseEntity<List<OrderResponse>> takeNextOrders(@RequestParam int count,
+			@RequestParam(required = false) String station) {
+		List<OrderResponse> response = station == null
+				? orderService.takeNextOrders(count)
+				: orderService.takeNextOrders(station, count);
+		return response.isEmpty()
+				? queueEmpty()
+				: ResponseEntity.ok(response);
+	}
+
+	/**
+	 * {@link #QUEUE_EMPTY} con il tipo di corpo dell'endpoint: la risposta 204 non ha corpo, quindi il cast è sicuro.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> ResponseEntity<T> queueEmpty() {
+		return (ResponseEntity<T>) (ResponseEntity<?>) QUEUE_EMPTY;
 	}
 
 	/**
-	 * Segna un ordine come completato.
-	 * PUT /api/orders/{orderCode}/complete
+	 * Segna un ordine come completato. Solo la stazione che lo ha in carico (di default quella di default)
+	 * può completarlo: per le altre risponde 409.
+	 * PUT /api/orders/{orderCode}/complete?station={stationId}
 	 */
 	@PutMapping("/{orderCode}/complete")
-	public ResponseEntity<OrderResponse> completeOrder(@PathVariable String orderCode) {
-		OrderResponse response = orderService.completeOrder(orderCode);
+	public ResponseEntity<OrderResponse> completeOrder(@PathVariable String orderCode,
+			@RequestParam(required = false) String station) {
+		OrderResponse response = station == null
+				? orderService.completeOrder(orderCode)
+				: orderService.completeOrder(orderCode, station);
 		return ResponseEntity.ok(response);
 	}
+
+	/**
+	 * Rinnova la presa in carico di un ordine in lavorazione: la stazione lo invia periodicamente,
+	 * altrimenti alla scadenza l'ordine torna in coda. Come per il completamento, un'altra stazione riceve 409.
+	 * PUT /api/orders/{orderCode}/heartbeat?station={stationId}
+	 */
+	@PutMapping("/{orderCode}/heartbeat")
+	public ResponseEntity<OrderLeaseResponse> renewLease(@PathVariable String orderCode,
+			@RequestParam(required = false) String station) {
+		return ResponseEntity.ok(station == null
+				? orderService.renewLease(orderCode)
+				: orderService.renewLease(orderCode, station));
+	}
+
+	private static String versionTag(Long version) {
+		return version != null ? version.toString() : null;
+	}
+
+	/**
+	 * ETag della vista della cucina: la versione da sola coincide tra istanze diverse e dopo un riavvio.
+	 */
+	private static String kitchenQueueTag(KitchenQueueResponse queue) {
+		return queue.getEpoch() + "-" + queue.getVersion();
+	}
+
+	/**
+	 * ETag di una porzione della coda: lo stato di ogni ordine è identificato da codice e versione,
+	 * a cui si aggiunge ciò che la risposta espone oltre agli ordini (totale, cursore successivo).
+	 */
+	private static String queueTag(List<OrderResponse> orders, Object pageState) {
+		StringBuilder state = new StringBuilder();
+		orders.forEach(order -> state.append(order.getOrderCode()).append(':').append(order.getVersion()).append(','));
+		state.append(pageState);
+		return DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8));
+	}
 }
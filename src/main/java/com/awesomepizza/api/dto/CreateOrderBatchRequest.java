@@ -0,0 +1,24 @@
+package com.awesomepizza.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateOrderBatchRequest {
+
+	public static final int MAX_ORDERS = 500;
+
+	@NotEmpty(message = "Il batch deve contenere almeno un ordine")
+	@Size(max = MAX_ORDERS, message = "Il batch non può contenere più di " + MAX_ORDERS + " ordini")
+	@Valid
+	private List<CreateOrderRequest> orders;
+}
@@ -0,0 +1,26 @@
+package com.awesomepizza.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista della cucina: ordini PENDING e IN_PROGRESS nell'ordine della coda, alla versione indicata.
+ * La versione vale solo insieme all'epoca, che cambia a ogni avvio ed è diversa per ogni istanza.
+ * Con full=true orders contiene l'intera vista; altrimenti solo gli ordini cambiati dopo la versione
+ * richiesta dal display, e removedOrderCodes quelli usciti dalla vista perché completati.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitchenQueueResponse {
+
+	private String epoch;
+	private long version;
+	private boolean full;
+	private List<OrderResponse> orders;
+	private List<String> removedOrderCodes;
+}
@@ -0,0 +1,21 @@
+package com.awesomepizza.api.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Presa in carico rinnovata: la stazione deve inviare il prossimo heartbeat prima di leaseExpiresAt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLeaseResponse {
+
+	private String orderCode;
+	private LocalDateTime leaseExpiresAt;
+
+}
@@ -0,0 +1,26 @@
+package com.awesomepizza.api.dto;
+
+import com.awesomepizza.api.model.OrderStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Posizione di un ordine in coda: position è 1 per il prossimo ordine preso in carico e 0 per un ordine
+ * già in preparazione. Per un ordine non più in coda position e stima sono null.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPositionResponse {
+
+	private String orderCode;
+	private OrderStatus status;
+	private Integer position;
+	private Long estimatedWaitSeconds;
+	private LocalDateTime estimatedReadyAt;
+
+}
@@ -0,0 +1,21 @@
+package com.awesomepizza.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Porzione della coda ordini ottenuta con paginazione a cursore.
+ * nextCursor è null quando non ci sono altri ordini in coda.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderQueueSliceResponse {
+
+	private List<OrderResponse> orders;
+	private String nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.awesomepizza.api.dto;
 
+import com.awesomepizza.api.model.OrderLane;
 import com.awesomepizza.api.model.OrderStatus;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,6 +19,10 @@ public class OrderResponse {
 	private String customerName;
 	private OrderStatus status;
 	private LocalDateTime createdAt;
+	private OrderLane lane;
+	private LocalDateTime virtualFinishAt;
+	private String station;
+	private Long version;
 	private List<OrderItemResponse> items;
 
 }
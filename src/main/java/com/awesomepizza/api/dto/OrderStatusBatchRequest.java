@@ -0,0 +1,22 @@
+package com.awesomepizza.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusBatchRequest {
+
+	public static final int MAX_ORDER_CODES = 1000;
+
+	@NotEmpty(message = "La richiesta deve contenere almeno un codice ordine")
+	@Size(max = MAX_ORDER_CODES, message = "La richiesta non può contenere più di " + MAX_ORDER_CODES + " codici ordine")
+	private List<String> orderCodes;
+}
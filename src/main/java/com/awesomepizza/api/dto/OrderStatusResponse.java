@@ -13,5 +13,6 @@ import lombok.NoArgsConstructor;
 public class OrderStatusResponse {
 
 	private OrderStatus status;
+	private Long version;
 
 }
@@ -0,0 +1,23 @@
+package com.awesomepizza.api.event;
+
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.model.OrderStatus;
+
+/**
+ * Evento pubblicato da OrderServiceImpl a ogni transizione di stato di un ordine,
+ * creazione compresa. I listener lo ricevono dopo il commit della transazione.
+ * OrderEventChannel lo ripubblica, fuori da una transazione, per le transizioni delle altre istanze.
+ *
+ * @param order          ordine nel nuovo stato
+ * @param previousStatus stato precedente, null per un ordine appena creato
+ */
+public record OrderStatusChangedEvent(OrderResponse order, OrderStatus previousStatus) {
+
+	public String orderCode() {
+		return order.getOrderCode();
+	}
+
+	public OrderStatus status() {
+		return order.getStatus();
+	}
+}
@@ -0,0 +1,13 @@
+package com.awesomepizza.api.exception;
+
+/**
+ * Base delle eccezioni di dominio, tradotte in risposte HTTP da {@link GlobalExceptionHandler}.
+ * Descrivono esiti attesi (ordine inesistente, stazione piena, transizione non valida), non errori:
+ * non registrano lo stack trace, la parte più costosa della costruzione di un'eccezione, né eccezioni soppresse.
+ */
+public abstract class DomainException extends RuntimeException {
+
+	protected DomainException(String message) {
+		super(message, null, false, false);
+	}
+}
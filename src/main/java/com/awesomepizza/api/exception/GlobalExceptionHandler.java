@@ -1,23 +1,39 @@
 package com.awesomepizza.api.exception;
 
 import com.awesomepizza.api.dto.ErrorResponse;
+import java.time.Duration;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+/**
+ * Le eccezioni di dominio sono esiti attesi e possono arrivare a raffica (client che interrogano codici inesistenti,
+ * stazioni piene che richiedono il prossimo ordine): i loro log sono limitati a uno al secondo per tipo.
+ */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+	private static final Duration LOG_INTERVAL = Duration.ofSeconds(1);
+
+	private final RateLimitedLog orderNotFoundLog = new RateLimitedLog(log, LOG_INTERVAL);
+	private final RateLimitedLog kitchenStationNotFoundLog = new RateLimitedLog(log, LOG_INTERVAL);
+	private final RateLimitedLog orderAlreadyInProgressLog = new RateLimitedLog(log, LOG_INTERVAL);
+	private final RateLimitedLog invalidOrderStateLog = new RateLimitedLog(log, LOG_INTERVAL);
+	private final RateLimitedLog invalidQueueCursorLog = new RateLimitedLog(log, LOG_INTERVAL);
+	private final RateLimitedLog invalidClaimCountLog = new RateLimitedLog(log, LOG_INTERVAL);
+
 	@ExceptionHandler(OrderNotFoundException.class)
 	public ResponseEntity<ErrorResponse> handleOrderNotFound(OrderNotFoundException ex) {
-		log.warn("Ordine non trovato: {}", ex.getMessage());
+		orderNotFoundLog.warn("Ordine non trovato: {}", ex.getMessage());
 		return ResponseEntity.status(HttpStatus.NOT_FOUND)
 				.body(ErrorResponse.builder()
 						.message(ex.getMessage())
@@ -25,19 +41,28 @@ public class GlobalExceptionHandler {
 						.build());
 	}
 
-	@ExceptionHandler(NoOrdersInQueueException.class)
-	public ResponseEntity<ErrorResponse> handleNoOrdersInQueue(NoOrdersInQueueException ex) {
-		log.info("Coda ordini vuota: {}", ex.getMessage());
+	/**
+	 * Variante per i client SSE (Accept: text/event-stream), che non accettano un body JSON.
+	 */
+	@ExceptionHandler(value = OrderNotFoundException.class, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<Void> handleOrderNotFoundForEventStream(OrderNotFoundException ex) {
+		orderNotFoundLog.warn("Stream richiesto per ordine non trovato: {}", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+	}
+
+	@ExceptionHandler(KitchenStationNotFoundException.class)
+	public ResponseEntity<ErrorResponse> handleKitchenStationNotFound(KitchenStationNotFoundException ex) {
+		kitchenStationNotFoundLog.warn("Stazione non trovata: {}", ex.getMessage());
 		return ResponseEntity.status(HttpStatus.NOT_FOUND)
 				.body(ErrorResponse.builder()
-						.message("Coda ordini vuota")
+						.message(ex.getMessage())
 						.status(HttpStatus.NOT_FOUND.value())
 						.build());
 	}
 
 	@ExceptionHandler(OrderAlreadyInProgressException.class)
 	public ResponseEntity<ErrorResponse> handleOrderAlreadyInProgress(OrderAlreadyInProgressException ex) {
-		log.warn("Ordine già in lavorazione: {}", ex.getMessage());
+		orderAlreadyInProgressLog.warn("Ordine già in lavorazione: {}", ex.getMessage());
 		return ResponseEntity.status(HttpStatus.CONFLICT)
 				.body(ErrorResponse.builder()
 						.message(ex.getMessage())
@@ -47,7 +72,7 @@ public class GlobalExceptionHandler {
 
 	@ExceptionHandler(InvalidOrderStateException.class)
 	public ResponseEntity<ErrorResponse> handleInvalidOrderState(InvalidOrderStateException ex) {
-		log.warn("Stato ordine non valido: {}", ex.getMessage());
+		invalidOrderStateLog.warn("Stato ordine non valido: {}", ex.getMessage());
 		return ResponseEntity.status(HttpStatus.CONFLICT)
 				.body(ErrorResponse.builder()
 						.message(ex.getMessage())
@@ -55,6 +80,26 @@ public class GlobalExceptionHandler {
 						.build());
 	}
 
+	@ExceptionHandler(InvalidQueueCursorException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidQueueCursor(InvalidQueueCursorException ex) {
+		invalidQueueCursorLog.warn("Cursore coda non valido: {}", ex.getMessage());
+		return ResponseEntity.badRequest()
+				.body(ErrorResponse.builder()
+						.message(ex.getMessage())
+						.status(HttpStatus.BAD_REQUEST.value())
+						.build());
+	}
+
+	@ExceptionHandler(InvalidClaimCountException.class)
+	public ResponseEntity<ErrorResponse> handleInvalidClaimCount(InvalidClaimCountException ex) {
+		invalidClaimCountLog.warn("Presa in carico rifiutata: {}", ex.getMessage());
+		return ResponseEntity.badRequest()
+				.body(ErrorResponse.builder()
+						.message(ex.getMessage())
+						.status(HttpStatus.BAD_REQUEST.value())
+						.build());
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
 		String message = ex.getBindingResult().getFieldErrors().stream()
@@ -68,6 +113,16 @@ public class GlobalExceptionHandler {
 						.build());
 	}
 
+	@ExceptionHandler(MethodArgumentTypeMismatchException.class)
+	public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+		log.warn("Valore non valido per il parametro {}: {}", ex.getName(), ex.getValue());
+		return ResponseEntity.badRequest()
+				.body(ErrorResponse.builder()
+						.message("Valore non valido per il parametro " + ex.getName() + ": " + ex.getValue())
+						.status(HttpStatus.BAD_REQUEST.value())
+						.build());
+	}
+
 	@ExceptionHandler(IllegalStateException.class)
 	public ResponseEntity<ErrorResponse> handleIllegalState(IllegalStateException ex) {
 		log.warn("Illegal state: {}", ex.getMessage());
@@ -0,0 +1,11 @@
+package com.awesomepizza.api.exception;
+
+/**
+ * Eccezione lanciata quando il numero di ordini da prendere in carico con una sola chiamata è fuori dai limiti.
+ */
+public class InvalidClaimCountException extends DomainException {
+
+	public InvalidClaimCountException(int count, int maxCount) {
+		super("Numero di ordini da prendere in carico non valido: " + count + " (ammessi da 1 a " + maxCount + ")");
+	}
+}
@@ -0,0 +1,11 @@
+package com.awesomepizza.api.exception;
+
+/**
+ * Eccezione lanciata quando il cursore della coda ordini non è valido.
+ */
+public class InvalidQueueCursorException extends DomainException {
+
+	public InvalidQueueCursorException(String cursor) {
+		super("Cursore coda non valido: " + cursor);
+	}
+}
@@ -0,0 +1,8 @@
+package com.awesomepizza.api.exception;
+
+public class KitchenStationNotFoundException extends DomainException {
+
+	public KitchenStationNotFoundException(String stationId) {
+		super("Stazione non trovata: " + stationId);
+	}
+}
@@ -1,8 +1,25 @@
 package com.awesomepizza.api.exception;
 
-public class OrderAlreadyInProgressException extends RuntimeException {
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class OrderAlreadyInProgressException extends DomainException {
+
+	/**
+	 * Un'istanza per stazione, condivisa: una stazione piena la riceve a ogni richiesta del prossimo ordine.
+	 * Le stazioni sono poche e già verificate su database prima di arrivare qui.
+	 */
+	private static final Map<String, OrderAlreadyInProgressException> STATION_BUSY = new ConcurrentHashMap<>();
 
 	public OrderAlreadyInProgressException() {
 		super("È già presente un ordine in lavorazione. Completare l'ordine corrente prima di procedere.");
 	}
+
+	public OrderAlreadyInProgressException(String stationId) {
+		super("La stazione " + stationId + " ha già il numero massimo di ordini in lavorazione. Completare un ordine prima di procedere.");
+	}
+
+	public static OrderAlreadyInProgressException stationBusy(String stationId) {
+		return STATION_BUSY.computeIfAbsent(stationId, OrderAlreadyInProgressException::new);
+	}
 }
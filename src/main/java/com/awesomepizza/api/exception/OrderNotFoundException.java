@@ -1,8 +1,22 @@
 package com.awesomepizza.api.exception;
 
-public class OrderNotFoundException extends RuntimeException {
+public class OrderNotFoundException extends DomainException {
+
+	/**
+	 * Istanza condivisa per i codici sicuramente inesistenti, respinti senza interrogare il database:
+	 * senza codice nel messaggio, non costa nulla per richiesta.
+	 */
+	private static final OrderNotFoundException UNKNOWN_CODE = new OrderNotFoundException();
 
 	public OrderNotFoundException(String orderCode) {
 		super("Ordine non trovato con codice: " + orderCode);
 	}
+
+	private OrderNotFoundException() {
+		super("Ordine non trovato");
+	}
+
+	public static OrderNotFoundException unknownCode() {
+		return UNKNOWN_CODE;
+	}
 }
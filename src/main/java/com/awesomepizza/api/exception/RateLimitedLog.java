@@ -0,0 +1,50 @@
+package com.awesomepizza.api.exception;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+
+/**
+ * Scrive al massimo un messaggio per intervallo: gli altri vengono scartati e contati,
+ * e il totale è riportato nel messaggio successivo.
+ * Serve per gli esiti ad alto volume (ordini inesistenti, stazioni piene) che non devono inondare il log.
+ */
+final class RateLimitedLog {
+
+	private final Logger logger;
+	private final long intervalNanos;
+	private final LongSupplier nanoClock;
+	private final AtomicLong nextAllowedAt;
+	private final LongAdder suppressed = new LongAdder();
+
+	RateLimitedLog(Logger logger, Duration interval) {
+		this(logger, interval, System::nanoTime);
+	}
+
+	RateLimitedLog(Logger logger, Duration interval, LongSupplier nanoClock) {
+		this.logger = logger;
+		this.intervalNanos = interval.toNanos();
+		this.nanoClock = nanoClock;
+		this.nextAllowedAt = new AtomicLong(nanoClock.getAsLong());
+	}
+
+	void warn(String format, Object argument) {
+		if (!logger.isWarnEnabled()) {
+			return;
+		}
+		long now = nanoClock.getAsLong();
+		long allowedAt = nextAllowedAt.get();
+		if (now - allowedAt < 0 || !nextAllowedAt.compareAndSet(allowedAt, now + intervalNanos)) {
+			suppressed.increment();
+			return;
+		}
+		long skipped = suppressed.sumThenReset();
+		if (skipped == 0) {
+			logger.warn(format, argument);
+		} else {
+			logger.warn(format + " ({} messaggi simili soppressi)", argument, skipped);
+		}
+	}
+}
@@ -3,9 +3,16 @@ package com.awesomepizza.api.mapper;
 import com.awesomepizza.api.dto.OrderItemResponse;
 import com.awesomepizza.api.dto.OrderResponse;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.model.ArchivedOrder;
+import com.awesomepizza.api.model.ArchivedOrderItem;
 import com.awesomepizza.api.model.Order;
 import com.awesomepizza.api.model.OrderItem;
+import com.awesomepizza.api.repository.OrderQueueRow;
+import com.awesomepizza.api.repository.OrderStatusRow;
+import java.util.ArrayList;
+import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface OrderMapper {
@@ -20,8 +27,64 @@ public interface OrderMapper {
 	 */
 	OrderItemResponse toOrderItemResponse(OrderItem item);
 
+	/**
+	 * Converte un ordine archiviato in OrderResponse: per i clienti è indistinguibile da un ordine attivo.
+	 * L'istante virtuale serve solo a ordinare la coda e non viene archiviato.
+	 */
+	@Mapping(target = "virtualFinishAt", ignore = true)
+	OrderResponse toOrderResponse(ArchivedOrder order);
+
+	/**
+	 * Converte un'entità ArchivedOrderItem in OrderItemResponse.
+	 */
+	OrderItemResponse toOrderItemResponse(ArchivedOrderItem item);
+
+	/**
+	 * Raggruppa le righe piatte della coda (una per pizza, ordinate per ordine) in OrderResponse,
+	 * mantenendo l'ordine delle righe.
+	 */
+	default List<OrderResponse> toOrderResponses(List<OrderQueueRow> rows) {
+		List<OrderResponse> responses = new ArrayList<>();
+		OrderResponse current = null;
+		Long currentId = null;
+		for (OrderQueueRow row : rows) {
+			if (!row.orderId().equals(currentId)) {
+				currentId = row.orderId();
+				current = OrderResponse.builder()
+						.orderCode(row.orderCode())
+						.customerName(row.customerName())
+						.status(row.status())
+						.createdAt(row.createdAt())
+						.lane(row.lane())
+						.virtualFinishAt(row.virtualFinishAt())
+						.station(row.station())
+						.version(row.version())
+						.items(new ArrayList<>())
+						.build();
+				responses.add(current);
+			}
+			if (row.pizzaName() != null) {
+				current.getItems().add(OrderItemResponse.builder()
+						.pizzaName(row.pizzaName())
+						.quantity(row.quantity())
+						.build());
+			}
+		}
+		return responses;
+	}
+
 	/**
 	 * Converte un'entità Order in OrderStatusResponse.
 	 */
 	OrderStatusResponse toOrderStatusResponse(Order order);
+
+	/**
+	 * Converte un OrderResponse (ad esempio preso dalla cache) in OrderStatusResponse.
+	 */
+	OrderStatusResponse toOrderStatusResponse(OrderResponse order);
+
+	/**
+	 * Converte una riga di stato letta dal database in OrderStatusResponse.
+	 */
+	OrderStatusResponse toOrderStatusResponse(OrderStatusRow row);
 }
@@ -0,0 +1,86 @@
+package com.awesomepizza.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Ordine completato spostato nello storico dal job di archiviazione.
+ * Sola lettura: le righe arrivano nello storico con le partizioni giornaliere di orders che le contengono.
+ */
+@Entity
+@Immutable
+@Table(name = "orders_history")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+	@Id
+	private Long id;
+
+	@Convert(converter = OrderCodeConverter.class)
+	@Column(nullable = false, unique = true)
+	private String orderCode;
+
+	@Column(nullable = false)
+	private String customerName;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private OrderStatus status;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	@Builder.Default
+	private OrderLane lane = OrderLane.STANDARD;
+
+	@Column(length = 50)
+	private String station;
+
+	/**
+	 * Versione raggiunta dall'ordine prima dell'archiviazione.
+	 */
+	@Column(nullable = false)
+	@Builder.Default
+	private Long version = 0L;
+
+	@OneToMany(mappedBy = "order")
+	@OrderBy("id")
+	@Builder.Default
+	private List<ArchivedOrderItem> items = new ArrayList<>();
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		ArchivedOrder order = (ArchivedOrder) o;
+		return id != null && Objects.equals(id, order.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
+	}
+}
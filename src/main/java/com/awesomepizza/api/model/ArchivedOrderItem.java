@@ -0,0 +1,63 @@
+package com.awesomepizza.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Pizza di un ordine archiviato (vedi {@link ArchivedOrder}).
+ */
+@Entity
+@Immutable
+@Table(name = "order_items_history")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrderItem {
+
+	@Id
+	private Long id;
+
+	@Column(nullable = false)
+	private String pizzaName;
+
+	@Column(nullable = false)
+	private Integer quantity;
+
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "order_id", nullable = false)
+	private ArchivedOrder order;
+
+	/**
+	 * Chiave di partizionamento di order_items_history: created_at dell'ordine.
+	 */
+	@Column(nullable = false)
+	private LocalDateTime orderCreatedAt;
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		ArchivedOrderItem item = (ArchivedOrderItem) o;
+		return id != null && Objects.equals(id, item.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return getClass().hashCode();
+	}
+}
@@ -0,0 +1,58 @@
+package com.awesomepizza.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Stazione della cucina (forno) con il contatore degli ordini attualmente IN_PROGRESS.
+ */
+@Entity
+@Table(name = "kitchen_stations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KitchenStation {
+
+	@Id
+	@Column(length = 50)
+	private String id;
+
+	@Column(nullable = false)
+	private Integer capacity;
+
+	@Column(nullable = false)
+	@Builder.Default
+	private Integer inProgress = 0;
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		KitchenStation that = (KitchenStation) o;
+		return id != null && Objects.equals(id, that.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public String toString() {
+		return "KitchenStation{" +
+				"id='" + id + '\'' +
+				", capacity=" + capacity +
+				", inProgress=" + inProgress +
+				'}';
+	}
+}
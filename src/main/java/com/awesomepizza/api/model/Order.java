@@ -2,6 +2,7 @@ package com.awesomepizza.api.model;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -9,7 +10,10 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +24,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.PartitionKey;
 
 @Entity
 @Table(name = "orders")
@@ -30,11 +35,17 @@ import org.hibernate.annotations.NaturalId;
 @Builder
 public class Order {
 
+	/**
+	 * Id da sequenza con allocazione a blocchi (pooled): a differenza di IDENTITY
+	 * permette a Hibernate di raggruppare gli INSERT in batch JDBC.
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+	@SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
 	private Long id;
 
 	@NaturalId
+	@Convert(converter = OrderCodeConverter.class)
 	@Column(nullable = false, unique = true)
 	private String orderCode;
 
@@ -46,10 +57,50 @@ public class Order {
 	@Builder.Default
 	private OrderStatus status = OrderStatus.PENDING;
 
-	@Column(nullable = false)
+	/**
+	 * Chiave di partizionamento di orders: gli UPDATE e i DELETE dell'entità la confrontano insieme all'id,
+	 * così PostgreSQL li esegue sulla sola partizione giornaliera dell'ordine invece di cercare l'id in tutte.
+	 * Non viene mai modificata: un ordine non cambia partizione.
+	 */
+	@PartitionKey
+	@Column(nullable = false, updatable = false)
 	@Builder.Default
 	private LocalDateTime createdAt = LocalDateTime.now();
 
+	/**
+	 * Corsia della coda, decisa alla creazione in base al numero di pizze.
+	 */
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 20)
+	@Builder.Default
+	private OrderLane lane = OrderLane.STANDARD;
+
+	/**
+	 * Istante virtuale entro cui servire l'ordine secondo il peso della sua corsia: la coda PENDING
+	 * è servita per virtualFinishAt crescente. Se non assegnato alla creazione coincide con createdAt (FIFO).
+	 */
+	private LocalDateTime virtualFinishAt;
+
+	/**
+	 * Stazione della cucina che ha preso in carico l'ordine (null finché è PENDING).
+	 */
+	@Column(length = 50)
+	private String station;
+
+	/**
+	 * Scadenza della presa in carico, rinnovata dall'heartbeat della stazione (null se l'ordine non è IN_PROGRESS).
+	 * Scaduta, l'ordine torna PENDING: una stazione guasta non trattiene i suoi ordini per sempre.
+	 */
+	private LocalDateTime leaseExpiresAt;
+
+	/**
+	 * Versione per il locking ottimistico, incrementata da Hibernate a ogni modifica:
+	 * è anche l'ETag dell'ordine esposto dalle API. Null finché l'ordine non è salvato.
+	 */
+	@Version
+	@Column(nullable = false)
+	private Long version;
+
 	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
 	@Builder.Default
 	private List<OrderItem> items = new ArrayList<>();
@@ -59,6 +110,20 @@ public class Order {
 		item.setOrder(this);
 	}
 
+	/**
+	 * Numero totale di pizze dell'ordine.
+	 */
+	public int pizzaCount() {
+		return items.stream().mapToInt(OrderItem::getQuantity).sum();
+	}
+
+	@PrePersist
+	void defaultVirtualFinishAt() {
+		if (virtualFinishAt == null) {
+			virtualFinishAt = createdAt;
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -80,6 +145,11 @@ public class Order {
 				", customerName='" + customerName + '\'' +
 				", status=" + status +
 				", createdAt=" + createdAt +
+				", lane=" + lane +
+				", virtualFinishAt=" + virtualFinishAt +
+				", station='" + station + '\'' +
+				", leaseExpiresAt=" + leaseExpiresAt +
+				", version=" + version +
 				", itemsCount=" + (items != null ? items.size() : 0) +
 				'}';
 	}
@@ -0,0 +1,23 @@
+package com.awesomepizza.api.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.util.UUID;
+
+/**
+ * Salva il codice ordine nella colonna nativa uuid (16 byte invece di una stringa di 36 caratteri),
+ * mantenendolo String nel modello e nelle API.
+ */
+@Converter
+public class OrderCodeConverter implements AttributeConverter<String, UUID> {
+
+	@Override
+	public UUID convertToDatabaseColumn(String orderCode) {
+		return orderCode == null ? null : UUID.fromString(orderCode);
+	}
+
+	@Override
+	public String convertToEntityAttribute(UUID orderCode) {
+		return orderCode == null ? null : orderCode.toString();
+	}
+}
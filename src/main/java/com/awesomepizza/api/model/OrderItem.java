@@ -8,13 +8,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import java.time.LocalDateTime;
 import java.util.Objects;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.PartitionKey;
 
 @Entity
 @Table(name = "order_items")
@@ -25,8 +29,13 @@ import lombok.Setter;
 @Builder
 public class OrderItem {
 
+	/**
+	 * Id da sequenza con allocazione a blocchi (pooled): a differenza di IDENTITY
+	 * permette a Hibernate di raggruppare gli INSERT in batch JDBC.
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+	@SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(nullable = false)
@@ -40,6 +49,20 @@ public class OrderItem {
 	@JoinColumn(name = "order_id", nullable = false)
 	private Order order;
 
+	/**
+	 * Copia di createdAt dell'ordine: è la chiave di partizionamento di order_items,
+	 * che mette gli items nella stessa partizione giornaliera del loro ordine.
+	 * Come per {@link Order#getCreatedAt()}, UPDATE e DELETE dell'entità la confrontano insieme all'id.
+	 */
+	@PartitionKey
+	@Column(nullable = false, updatable = false)
+	private LocalDateTime orderCreatedAt;
+
+	@PrePersist
+	void copyOrderCreatedAt() {
+		orderCreatedAt = order.getCreatedAt();
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
@@ -0,0 +1,23 @@
+package com.awesomepizza.api.model;
+
+/**
+ * Corsia della coda in cui viene servito un ordine, decisa alla creazione in base al numero di pizze.
+ * Le corsie si dividono la cucina in proporzione al loro peso (weighted fair queuing):
+ * un ordine da una pizza non attende in coda dietro un catering da quaranta.
+ */
+public enum OrderLane {
+	/**
+	 * Ordini piccoli, ad esempio un cliente al banco.
+	 */
+	EXPRESS,
+
+	/**
+	 * Ordini ordinari.
+	 */
+	STANDARD,
+
+	/**
+	 * Ordini grandi, ad esempio catering ed eventi.
+	 */
+	LARGE
+}
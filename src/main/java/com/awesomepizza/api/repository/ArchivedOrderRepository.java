@@ -0,0 +1,62 @@
+package com.awesomepizza.api.repository;
+
+import com.awesomepizza.api.model.ArchivedOrder;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+	/**
+	 * Trova un ordine archiviato tramite il suo codice, caricando anche gli items.
+	 * Legge solo le partizioni dello storico dei giorni ricavati dal codice, vedi {@link CreatedAtRange}.
+	 */
+	default Optional<ArchivedOrder> findByOrderCode(String orderCode) {
+		CreatedAtRange range = CreatedAtRange.of(orderCode);
+		return findByOrderCodeCreatedBetween(orderCode, range.from(), range.to());
+	}
+
+	/**
+	 * Trova un ordine archiviato tramite il suo codice tra quelli creati nell'intervallo, caricando anche gli items
+	 * dalle stesse partizioni (vedi {@link OrderRepository#findByOrderCodeCreatedBetween}).
+	 */
+	@Query("SELECT o FROM ArchivedOrder o JOIN FETCH o.items i WHERE o.orderCode = :orderCode"
+			+ " AND o.createdAt BETWEEN :from AND :to AND i.orderCreatedAt BETWEEN :from AND :to")
+	Optional<ArchivedOrder> findByOrderCodeCreatedBetween(@Param("orderCode") String orderCode,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Legge in streaming i codici di tutti gli ordini archiviati, da consumare dentro una transazione
+	 * (vedi {@link OrderRepository#streamOrderCodes()}).
+	 */
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "10000"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	@Query("SELECT o.orderCode FROM ArchivedOrder o")
+	Stream<String> streamOrderCodes();
+
+	/**
+	 * Sposta nello storico la prima partizione giornaliera di orders e order_items successiva ad afterDay che
+	 * termina entro cutoff (funzione archive_next_order_partition, vedi V009).
+	 * La partizione viene staccata e riagganciata alle tabelle storiche nella stessa transazione,
+	 * senza copiare né cancellare righe: un ordine non è mai visibile in entrambe né in nessuna.
+	 * Gli ordini del giorno non ancora COMPLETED restano attivi, spostati nella partizione di default.
+	 * Una partizione per transazione, così il lock esclusivo su orders dura il tempo di un solo giorno.
+	 * Restituisce il giorno archiviato, vuoto se non ce ne sono altri. Solo PostgreSQL.
+	 */
+	@Transactional
+	@Query(value = "SELECT archived_day AS archivedDay, moved_orders AS movedOrders"
+			+ " FROM archive_next_order_partition(:afterDay, :cutoff)", nativeQuery = true)
+	Optional<ArchivedPartitionRow> archiveNextPartition(@Param("afterDay") LocalDate afterDay,
+			@Param("cutoff") LocalDateTime cutoff);
+}
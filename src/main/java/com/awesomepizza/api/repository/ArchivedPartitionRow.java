@@ -0,0 +1,19 @@
+package com.awesomepizza.api.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Esito dell'archiviazione di una partizione giornaliera (funzione archive_next_order_partition, vedi V009).
+ */
+public interface ArchivedPartitionRow {
+
+	/**
+	 * Giorno la cui partizione è stata spostata nello storico.
+	 */
+	LocalDate getArchivedDay();
+
+	/**
+	 * Ordini del giorno non ancora COMPLETED, rimasti attivi nella partizione di default.
+	 */
+	int getMovedOrders();
+}
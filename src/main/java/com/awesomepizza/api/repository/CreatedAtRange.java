@@ -0,0 +1,65 @@
+package com.awesomepizza.api.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Intervallo di created_at in cui cercare gli ordini con i codici indicati: passato alle query per codice,
+ * limita la lettura alle partizioni giornaliere di quei giorni invece di interrogarle tutte.
+ * I codici UUID v7 contengono nei primi 48 bit l'istante in cui sono stati generati, a pochi millisecondi
+ * dalla creazione dell'ordine; il margine di un giorno copre orologi sfasati e cambi di fuso della JVM
+ * e fa leggere al massimo tre partizioni. Per i codici di altre versioni (UUID v4, vedi
+ * {@code awesome-pizza.orders.code-generator}) l'intervallo è illimitato e vengono lette tutte le partizioni.
+ *
+ * @param from inizio dell'intervallo, incluso
+ * @param to   fine dell'intervallo, inclusa
+ */
+public record CreatedAtRange(LocalDateTime from, LocalDateTime to) {
+
+	static final Duration TOLERANCE = Duration.ofDays(1);
+
+	/**
+	 * Limiti rappresentabili da una colonna TIMESTAMP sia su PostgreSQL sia su H2.
+	 */
+	static final CreatedAtRange UNBOUNDED = new CreatedAtRange(
+			LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 0, 0));
+
+	private static final int VERSION_7 = 7;
+
+	/**
+	 * Intervallo di creazione dell'ordine con il codice indicato, illimitato se il codice non è un UUID v7.
+	 */
+	public static CreatedAtRange of(String orderCode) {
+		UUID code;
+		try {
+			code = UUID.fromString(orderCode);
+		} catch (IllegalArgumentException e) {
+			return UNBOUNDED;
+		}
+		return of(new UUID[] {code});
+	}
+
+	/**
+	 * Intervallo che copre la creazione di tutti gli ordini indicati, illimitato se uno dei codici non è un UUID v7.
+	 */
+	public static CreatedAtRange of(UUID[] orderCodes) {
+		LocalDateTime from = null;
+		LocalDateTime to = null;
+		for (UUID orderCode : orderCodes) {
+			if (orderCode.version() != VERSION_7) {
+				return UNBOUNDED;
+			}
+			LocalDateTime generatedAt = LocalDateTime.ofInstant(
+					Instant.ofEpochMilli(orderCode.getMostSignificantBits() >>> 16), ZoneId.systemDefault());
+			from = from == null || generatedAt.isBefore(from) ? generatedAt : from;
+			to = to == null || generatedAt.isAfter(to) ? generatedAt : to;
+		}
+		if (from == null) {
+			return UNBOUNDED;
+		}
+		return new CreatedAtRange(from.minus(TOLERANCE), to.plus(TOLERANCE));
+	}
+}
@@ -0,0 +1,36 @@
+package com.awesomepizza.api.repository;
+
+import com.awesomepizza.api.model.KitchenStation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface KitchenStationRepository extends JpaRepository<KitchenStation, String> {
+
+	/**
+	 * Occupa un posto nella stazione se la capacità non è ancora esaurita.
+	 * Restituisce 1 se il posto è stato occupato, 0 se la stazione è piena o non esiste.
+	 */
+	@Modifying
+	@Query("UPDATE KitchenStation s SET s.inProgress = s.inProgress + 1 WHERE s.id = :id AND s.inProgress < s.capacity")
+	int tryReserveSlot(@Param("id") String stationId);
+
+	/**
+	 * Occupa count posti nella stazione, tutti o nessuno.
+	 * Restituisce 1 se i posti sono stati occupati, 0 se non c'è abbastanza capacità o la stazione non esiste.
+	 */
+	@Modifying
+	@Query("UPDATE KitchenStation s SET s.inProgress = s.inProgress + :count"
+			+ " WHERE s.id = :id AND s.inProgress + :count <= s.capacity")
+	int tryReserveSlots(@Param("id") String stationId, @Param("count") int count);
+
+	/**
+	 * Libera un posto nella stazione.
+	 */
+	@Modifying
+	@Query("UPDATE KitchenStation s SET s.inProgress = s.inProgress - 1 WHERE s.id = :id AND s.inProgress > 0")
+	int releaseSlot(@Param("id") String stationId);
+}
@@ -0,0 +1,24 @@
+package com.awesomepizza.api.repository;
+
+import com.awesomepizza.api.model.OrderLane;
+import com.awesomepizza.api.model.OrderStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Riga piatta della coda ordini: un ordine ripetuto per ciascuna delle sue pizze
+ * (pizzaName e quantity null se l'ordine non ha items).
+ * Proiezione immutabile letta direttamente dalla query, senza entità gestite dal persistence context.
+ */
+public record OrderQueueRow(
+		Long orderId,
+		String orderCode,
+		String customerName,
+		OrderStatus status,
+		LocalDateTime createdAt,
+		OrderLane lane,
+		LocalDateTime virtualFinishAt,
+		String station,
+		Long version,
+		String pizzaName,
+		Integer quantity) {
+}
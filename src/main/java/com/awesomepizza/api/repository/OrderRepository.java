@@ -1,58 +1,332 @@
 package com.awesomepizza.api.repository;
 
 import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderLane;
 import com.awesomepizza.api.model.OrderStatus;
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.UUID;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
 	/**
-	 * Trova un ordine tramite il suo codice univoco.
+	 * Letterale JPQL dello stato PENDING.
 	 */
-	Optional<Order> findByOrderCode(String orderCode);
+	String PENDING = "com.awesomepizza.api.model.OrderStatus.PENDING";
+
+	/**
+	 * Letterale JPQL dello stato IN_PROGRESS.
+	 */
+	String IN_PROGRESS = "com.awesomepizza.api.model.OrderStatus.IN_PROGRESS";
+
+	/*
+	 * Le query con lock pessimistico in attesa (PESSIMISTIC_WRITE senza SKIP LOCKED) hanno anche il timeout
+	 * della query: su PostgreSQL Hibernate ignora jakarta.persistence.lock.timeout, e senza timeout un
+	 * SELECT ... FOR UPDATE attende indefinitamente. Il timeout vale solo per queste query, non per la connessione.
+	 */
+
+	/*
+	 * Le query per codice ricevono anche l'intervallo di created_at ricavato dal codice (vedi CreatedAtRange):
+	 * leggono solo le partizioni giornaliere di quei giorni invece di interrogare l'indice di ciascuna.
+	 */
+
+	/**
+	 * Trova un ordine tramite il suo codice univoco, caricando anche gli items.
+	 */
+	default Optional<Order> findByOrderCode(String orderCode) {
+		CreatedAtRange range = CreatedAtRange.of(orderCode);
+		return findByOrderCodeCreatedBetween(orderCode, range.from(), range.to());
+	}
+
+	/**
+	 * Trova un ordine tramite il suo codice univoco tra quelli creati nell'intervallo, caricando anche gli items.
+	 * Il filtro su order_created_at limita anche la lettura di order_items alle stesse partizioni:
+	 * un ordine ha sempre almeno una pizza, quindi la join interna non esclude ordini.
+	 */
+	@Query("SELECT o FROM Order o JOIN FETCH o.items i WHERE o.orderCode = :orderCode"
+			+ " AND o.createdAt BETWEEN :from AND :to AND i.orderCreatedAt BETWEEN :from AND :to")
+	Optional<Order> findByOrderCodeCreatedBetween(@Param("orderCode") String orderCode,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
 	/**
 	 * Trova un ordine tramite il suo codice univoco con pessimistic lock.
 	 */
+	default Optional<Order> findByOrderCodeWithLock(String orderCode) {
+		CreatedAtRange range = CreatedAtRange.of(orderCode);
+		return findByOrderCodeWithLock(orderCode, range.from(), range.to());
+	}
+
+	/**
+	 * Trova un ordine tramite il suo codice univoco tra quelli creati nell'intervallo, con pessimistic lock.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints({
+			@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"),
+			@QueryHint(name = "jakarta.persistence.query.timeout", value = "3000")
+	})
+	@Query("SELECT o FROM Order o WHERE o.orderCode = :orderCode AND o.createdAt BETWEEN :from AND :to")
+	Optional<Order> findByOrderCodeWithLock(@Param("orderCode") String orderCode,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/*
+	 * La coda PENDING è servita per (virtualFinishAt, id) crescente, vedi OrderLaneScheduler:
+	 * lettura, paginazione e presa in carico usano tutte lo stesso ordinamento.
+	 * Le query sulla coda usano lo stato come letterale e non come parametro: PostgreSQL può usare
+	 * l'indice parziale idx_orders_pending_virtual_finish_at (WHERE status = 'PENDING') solo se il predicato
+	 * è dimostrabile dalla query, cosa impossibile per il piano generico di uno statement con parametri.
+	 */
+
+	/**
+	 * Proiezione della coda: ordine e pizze in righe piatte, nell'ordine della coda.
+	 * La join sugli items confronta anche la chiave di partizionamento, così ogni ordine
+	 * legge solo la partizione di order_items del proprio giorno.
+	 */
+	String QUEUE_SELECT = "SELECT new com.awesomepizza.api.repository.OrderQueueRow("
+			+ "o.id, o.orderCode, o.customerName, o.status, o.createdAt, o.lane, o.virtualFinishAt, o.station, o.version,"
+			+ " i.pizzaName, i.quantity)"
+			+ " FROM Order o LEFT JOIN o.items i ON i.orderCreatedAt = o.createdAt";
+
+	String QUEUE_ROWS = QUEUE_SELECT
+			+ " WHERE (o.id, o.createdAt) IN (SELECT p.id, p.createdAt FROM Order p WHERE p.status = " + PENDING;
+
+	String QUEUE_PAGE = " ORDER BY p.virtualFinishAt ASC, p.id ASC LIMIT :limit";
+
+	String QUEUE_ROWS_ORDER = ") ORDER BY o.virtualFinishAt ASC, o.id ASC, i.id ASC";
+
+	/**
+	 * Legge una pagina della coda PENDING con le relative pizze in un'unica query:
+	 * la sottoquery seleziona limit ordini a partire da offset, la query esterna li restituisce
+	 * con i loro items come {@link OrderQueueRow}.
+	 */
+	@Query(QUEUE_ROWS + QUEUE_PAGE + " OFFSET :offset" + QUEUE_ROWS_ORDER)
+	List<OrderQueueRow> findPendingQueueRows(@Param("offset") long offset, @Param("limit") int limit);
+
+	/**
+	 * Legge i primi limit ordini PENDING con le relative pizze, in un'unica query.
+	 */
+	@Query(QUEUE_ROWS + QUEUE_PAGE + QUEUE_ROWS_ORDER)
+	List<OrderQueueRow> findFirstPendingQueueRows(@Param("limit") int limit);
+
+	/**
+	 * Legge i limit ordini PENDING successivi alla posizione (virtualFinishAt, id), nell'ordine della coda,
+	 * con le relative pizze, in un'unica query.
+	 * Il confronto sulla coppia permette di posizionarsi direttamente sull'indice parziale
+	 * (virtual_finish_at, id), quindi il costo non dipende dalla profondità della pagina.
+	 * Non c'è partition pruning: un ordine grande creato giorni prima può seguire la posizione nella coda.
+	 */
+	@Query(QUEUE_ROWS + " AND (p.virtualFinishAt, p.id) > (:virtualFinishAt, :id)" + QUEUE_PAGE + QUEUE_ROWS_ORDER)
+	List<OrderQueueRow> findPendingQueueRowsAfter(@Param("virtualFinishAt") LocalDateTime virtualFinishAt,
+			@Param("id") Long id, @Param("limit") int limit);
+
+	/**
+	 * Legge tutti gli ordini PENDING e IN_PROGRESS con le relative pizze, nell'ordine della coda.
+	 * Usata una sola volta all'avvio per popolare la vista in memoria della cucina.
+	 */
+	@Query(QUEUE_SELECT + " WHERE o.status IN (" + PENDING + ", " + IN_PROGRESS + ")"
+			+ " ORDER BY o.virtualFinishAt ASC, o.id ASC, i.id ASC")
+	List<OrderQueueRow> findActiveQueueRows();
+
+	/**
+	 * Legge stato e versione degli ordini con i codici indicati, attivi o archiviati, in un'unica query.
+	 * L'array è un solo parametro: lo statement e il suo piano sono gli stessi qualunque sia il numero
+	 * di codici, a differenza di una IN con un parametro per codice. I codici non trovati sono assenti
+	 * dal risultato.
+	 */
+	default List<OrderStatusRow> findStatusesByOrderCodes(UUID[] orderCodes) {
+		CreatedAtRange range = CreatedAtRange.of(orderCodes);
+		return findStatusesByOrderCodes(orderCodes, range.from(), range.to());
+	}
+
+	/**
+	 * Come {@link #findStatusesByOrderCodes(UUID[])}, leggendo solo le partizioni dei giorni dell'intervallo.
+	 */
+	@Query(value = """
+			SELECT CAST(order_code AS varchar) AS orderCode, status, version FROM orders
+			WHERE order_code = ANY(:orderCodes) AND created_at BETWEEN :from AND :to
+			UNION ALL
+			SELECT CAST(order_code AS varchar), status, version FROM orders_history
+			WHERE order_code = ANY(:orderCodes) AND created_at BETWEEN :from AND :to
+			""", nativeQuery = true)
+	List<OrderStatusRow> findStatusesByOrderCodes(@Param("orderCodes") UUID[] orderCodes,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Codici degli ordini IN_PROGRESS, tramite l'indice parziale idx_orders_in_progress_created_at.
+	 */
+	@Query("SELECT o.orderCode FROM Order o WHERE o.status = " + IN_PROGRESS)
+	List<String> findInProgressOrderCodes();
+
+	/**
+	 * Conta gli ordini PENDING sfruttando l'indice parziale della coda.
+	 */
+	@Query("SELECT COUNT(o) FROM Order o WHERE o.status = " + PENDING)
+	long countPending();
+
+	/**
+	 * Istante virtuale dell'ultimo ordine PENDING della corsia, tramite l'indice parziale
+	 * idx_orders_pending_lane_virtual_finish_at. Vuoto se la corsia non ha ordini in coda.
+	 */
+	@Query("SELECT MAX(o.virtualFinishAt) FROM Order o WHERE o.status = " + PENDING + " AND o.lane = :lane")
+	Optional<LocalDateTime> findLastPendingVirtualFinishAt(@Param("lane") OrderLane lane);
+
+	/**
+	 * Trova il primo ordine PENDING della coda con pessimistic lock.
+	 */
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	@QueryHints({
-			@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000")
+			@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"),
+			@QueryHint(name = "jakarta.persistence.query.timeout", value = "3000")
 	})
-	@Query("SELECT o FROM Order o WHERE o.orderCode = :orderCode")
-	Optional<Order> findByOrderCodeWithLock(@Param("orderCode") String orderCode);
+	@Query("SELECT o FROM Order o WHERE o.status = " + PENDING + " ORDER BY o.virtualFinishAt ASC, o.id ASC LIMIT 1")
+	Optional<Order> findFirstPendingWithLock();
 
 	/**
-	 * Trova gli ID degli ordini con un determinato stato.
+	 * Trova i primi limit ordini PENDING della coda con pessimistic lock.
 	 */
-	@Query("SELECT o.id FROM Order o WHERE o.status = :status ORDER BY o.createdAt ASC")
-	Page<Long> findIdsByStatusOrderByCreatedAtAsc(@Param("status") OrderStatus status, Pageable pageable);
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints({
+			@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"),
+			@QueryHint(name = "jakarta.persistence.query.timeout", value = "3000")
+	})
+	@Query("SELECT o FROM Order o WHERE o.status = " + PENDING
+			+ " ORDER BY o.virtualFinishAt ASC, o.id ASC LIMIT :limit")
+	List<Order> findFirstPendingWithLock(@Param("limit") int limit);
 
 	/**
-	 * Trova gli ordini con i relativi items dato un elenco di ID.
+	 * Prende in carico atomicamente il primo ordine PENDING della coda portandolo in IN_PROGRESS
+	 * e assegnandolo alla stazione indicata. Le righe già bloccate da altre transazioni vengono
+	 * saltate (SKIP LOCKED), quindi le chiamate concorrenti non si attendono a vicenda.
+	 * Restituisce Optional vuoto se la coda è vuota. Il confronto anche su created_at limita
+	 * l'UPDATE alla sola partizione dell'ordine selezionato. Solo PostgreSQL.
 	 */
-	@Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids ORDER BY o.createdAt ASC")
-	List<Order> findByIdsWithItems(@Param("ids") List<Long> ids);
+	@Query(value = """
+			UPDATE orders SET status = 'IN_PROGRESS', station = :station, lease_expires_at = :leaseExpiresAt,
+				version = version + 1
+			WHERE (id, created_at) = (
+				SELECT id, created_at FROM orders
+				WHERE status = 'PENDING'
+				ORDER BY virtual_finish_at, id
+				LIMIT 1
+				FOR UPDATE SKIP LOCKED)
+			RETURNING *
+			""", nativeQuery = true)
+	Optional<Order> claimNextPendingOrder(@Param("station") String station,
+			@Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
 
 	/**
-	 * Trova il primo ordine con lo stato specificato (FIFO) con pessimistic lock.
+	 * Come {@link #claimNextPendingOrder}, ma prende in carico fino a limit ordini PENDING
+	 * con un'unica istruzione. RETURNING non garantisce l'ordine delle righe: il chiamante le riordina.
+	 * Solo PostgreSQL.
+	 */
+	@Query(value = """
+			UPDATE orders SET status = 'IN_PROGRESS', station = :station, lease_expires_at = :leaseExpiresAt,
+				version = version + 1
+			WHERE (id, created_at) IN (
+				SELECT id, created_at FROM orders
+				WHERE status = 'PENDING'
+				ORDER BY virtual_finish_at, id
+				LIMIT :limit
+				FOR UPDATE SKIP LOCKED)
+			RETURNING *
+			""", nativeQuery = true)
+	List<Order> claimNextPendingOrders(@Param("station") String station,
+			@Param("leaseExpiresAt") LocalDateTime leaseExpiresAt, @Param("limit") int limit);
+
+	/**
+	 * Rinnova fino a leaseExpiresAt la presa in carico di un ordine IN_PROGRESS della stazione indicata.
+	 * Non è un cambio di stato: la versione dell'ordine (ETag) non cambia.
+	 * Restituisce 0 se l'ordine non esiste, non è IN_PROGRESS o è in carico a un'altra stazione.
+	 */
+	default int renewLease(String orderCode, String station, LocalDateTime leaseExpiresAt) {
+		CreatedAtRange range = CreatedAtRange.of(orderCode);
+		return renewLease(orderCode, station, leaseExpiresAt, range.from(), range.to());
+	}
+
+	/**
+	 * Come {@link #renewLease(String, String, LocalDateTime)}, tra gli ordini creati nell'intervallo.
+	 */
+	@Modifying
+	@Query("UPDATE Order o SET o.leaseExpiresAt = :leaseExpiresAt"
+			+ " WHERE o.orderCode = :orderCode AND o.createdAt BETWEEN :from AND :to AND o.status = " + IN_PROGRESS
+			+ " AND o.station = :station")
+	int renewLease(@Param("orderCode") String orderCode, @Param("station") String station,
+			@Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	/**
+	 * Assegna una presa in carico fino a leaseExpiresAt agli ordini IN_PROGRESS che non ne hanno una:
+	 * quelli già in lavorazione quando è stata introdotta la scadenza (migrazione V011).
+	 * Restituisce il numero di ordini aggiornati.
+	 */
+	@Modifying
+	@Query("UPDATE Order o SET o.leaseExpiresAt = :leaseExpiresAt"
+			+ " WHERE o.status = " + IN_PROGRESS + " AND o.leaseExpiresAt IS NULL")
+	int grantMissingLeases(@Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+	/**
+	 * Trova fino a limit ordini IN_PROGRESS con la presa in carico scaduta prima di now, dalla più vecchia,
+	 * tramite l'indice parziale idx_orders_in_progress_lease_expires_at. Le righe già bloccate
+	 * (ad esempio da un completamento in corso o dal reaper di un'altra istanza) vengono saltate.
 	 */
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	@QueryHints({
-			@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000")
+			@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")
+	})
+	@Query("SELECT o FROM Order o WHERE o.status = " + IN_PROGRESS + " AND o.leaseExpiresAt < :now"
+			+ " ORDER BY o.leaseExpiresAt ASC LIMIT :limit")
+	List<Order> findExpiredLeasesForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+	/**
+	 * Carica le pizze degli ordini indicati con una sola query e li restituisce nell'ordine della coda.
+	 * Gli ordini già nel persistence context (ad esempio appena presi in carico) ricevono la collezione inizializzata.
+	 */
+	@Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids"
+			+ " ORDER BY o.virtualFinishAt ASC, o.id ASC")
+	List<Order> findAllWithItemsByIdIn(@Param("ids") List<Long> ids);
+
+	/**
+	 * Crea le partizioni giornaliere di orders e order_items mancanti da oggi ai prossimi days giorni
+	 * (funzione create_order_partitions, vedi V009). Restituisce il numero di giorni creati.
+	 * Solo PostgreSQL.
+	 */
+	@Transactional
+	@Query(value = "SELECT create_order_partitions(current_date, current_date + CAST(:days AS integer))",
+			nativeQuery = true)
+	int createPartitionsAhead(@Param("days") int days);
+
+	/**
+	 * Invia payload sul canale NOTIFY indicato. PostgreSQL consegna la notifica ai listener
+	 * solo al commit della transazione corrente e la scarta in caso di rollback. Solo PostgreSQL.
+	 * Senza flush automatico: la query non legge entità, e il flush avverrà comunque al commit.
+	 */
+	@QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+	@Query(value = "SELECT CAST(pg_notify(:channel, :payload) AS text)", nativeQuery = true)
+	String notifyChannel(@Param("channel") String channel, @Param("payload") String payload);
+
+	/**
+	 * Legge in streaming i codici di tutti gli ordini attivi, per popolare il filtro dei codici esistenti.
+	 * Va consumato dentro una transazione: il driver PostgreSQL legge a blocchi di fetchSize righe
+	 * solo con autocommit disattivato, invece di caricare l'intero risultato in memoria.
+	 */
+	@QueryHints({
+			@QueryHint(name = "org.hibernate.fetchSize", value = "10000"),
+			@QueryHint(name = "org.hibernate.readOnly", value = "true")
 	})
-	Optional<Order> findFirstByStatusOrderByCreatedAtAsc(OrderStatus status);
+	@Query("SELECT o.orderCode FROM Order o")
+	Stream<String> streamOrderCodes();
 
 	/**
 	 * Verifica se esiste almeno un ordine con lo stato specificato.
@@ -0,0 +1,16 @@
+package com.awesomepizza.api.repository;
+
+import com.awesomepizza.api.model.OrderStatus;
+
+/**
+ * Stato e versione di un ordine, letti senza caricare l'entità né i suoi items.
+ * Proiezione a interfaccia: Spring Data converte i valori della query nativa (stato come testo) nei tipi dei getter.
+ */
+public interface OrderStatusRow {
+
+	String getOrderCode();
+
+	OrderStatus getStatus();
+
+	Long getVersion();
+}
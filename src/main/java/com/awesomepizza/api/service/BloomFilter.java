@@ -0,0 +1,90 @@
+package com.awesomepizza.api.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro di Bloom su UUID, a dimensione fissa e thread-safe: {@link #mightContain} non ha falsi negativi,
+ * mentre un UUID mai inserito risulta presente con probabilità circa falsePositiveRate finché gli
+ * inserimenti non superano expectedInsertions.
+ * Le k posizioni derivano da due hash a 64 bit dei due long dell'UUID (double hashing).
+ */
+final class BloomFilter {
+
+	private final AtomicLongArray words;
+	private final long bits;
+	private final int hashes;
+	private final long expectedInsertions;
+	private final LongAdder insertions = new LongAdder();
+
+	private BloomFilter(long bits, int hashes, long expectedInsertions) {
+		this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+		this.bits = bits;
+		this.hashes = hashes;
+		this.expectedInsertions = expectedInsertions;
+	}
+
+	/**
+	 * Dimensiona il filtro per expectedInsertions elementi con la probabilità di falso positivo indicata,
+	 * senza superare maxBytes.
+	 */
+	static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+		long n = Math.max(1, expectedInsertions);
+		double optimalBits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+		long bits = Math.max(64, Math.min((long) Math.ceil(optimalBits), maxBytes * 8));
+		int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+		return new BloomFilter(bits, hashes, n);
+	}
+
+	void put(UUID value) {
+		long h1 = mix(value.getMostSignificantBits());
+		long h2 = mix(value.getLeastSignificantBits() ^ h1);
+		for (int i = 0; i < hashes; i++) {
+			long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+			long mask = 1L << bit;
+			words.accumulateAndGet((int) (bit >>> 6), mask, (word, m) -> word | m);
+		}
+		insertions.increment();
+	}
+
+	boolean mightContain(UUID value) {
+		long h1 = mix(value.getMostSignificantBits());
+		long h2 = mix(value.getLeastSignificantBits() ^ h1);
+		for (int i = 0; i < hashes; i++) {
+			long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Inserimenti oltre la capacità per cui è stato dimensionato: la probabilità di falso positivo cresce.
+	 */
+	boolean isSaturated() {
+		return insertions.sum() > expectedInsertions;
+	}
+
+	long insertions() {
+		return insertions.sum();
+	}
+
+	long sizeInBytes() {
+		return words.length() * 8L;
+	}
+
+	/**
+	 * Finalizzatore a 64 bit di MurmurHash3: i bit del timestamp di un UUID v7 cambiano poco tra codici vicini.
+	 */
+	private static long mix(long value) {
+		long h = value;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb93fe53a87cdL;
+		h ^= h >>> 33;
+		return h;
+	}
+}
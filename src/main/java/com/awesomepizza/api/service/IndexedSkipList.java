@@ -0,0 +1,154 @@
+package com.awesomepizza.api.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list indicizzata ordinata secondo un comparatore: inserimento, rimozione e {@link #rank} in O(log n) atteso.
+ * Ogni collegamento conserva quanti elementi del livello più basso scavalca, così la posizione di un elemento
+ * è la somma dei collegamenti percorsi per raggiungerlo, senza scorrere quelli che lo precedono.
+ * Gli elementi sono distinti secondo il comparatore. Non è thread-safe: la sincronizzazione è del chiamante.
+ */
+final class IndexedSkipList<T> {
+
+	private static final int MAX_LEVEL = 32;
+
+	private final Comparator<? super T> comparator;
+	private final Node<T> head = new Node<>(null, MAX_LEVEL);
+	private int level = 1;
+	private int size;
+
+	private static final class Node<T> {
+
+		private final T value;
+		private final Node<T>[] next;
+		private final int[] span;
+
+		@SuppressWarnings("unchecked")
+		private Node(T value, int level) {
+			this.value = value;
+			this.next = new Node[level];
+			this.span = new int[level];
+		}
+	}
+
+	IndexedSkipList(Comparator<? super T> comparator) {
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Inserisce l'elemento; restituisce false se un elemento uguale secondo il comparatore è già presente.
+	 */
+	@SuppressWarnings("unchecked")
+	boolean add(T value) {
+		Node<T>[] update = new Node[MAX_LEVEL];
+		int[] rank = new int[MAX_LEVEL];
+		Node<T> node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			rank[i] = i == level - 1 ? 0 : rank[i + 1];
+			while (node.next[i] != null && comparator.compare(node.next[i].value, value) < 0) {
+				rank[i] += node.span[i];
+				node = node.next[i];
+			}
+			update[i] = node;
+		}
+		if (node.next[0] != null && comparator.compare(node.next[0].value, value) == 0) {
+			return false;
+		}
+
+		int nodeLevel = randomLevel();
+		if (nodeLevel > level) {
+			for (int i = level; i < nodeLevel; i++) {
+				rank[i] = 0;
+				update[i] = head;
+				head.span[i] = size;
+			}
+			level = nodeLevel;
+		}
+
+		Node<T> inserted = new Node<>(value, nodeLevel);
+		for (int i = 0; i < nodeLevel; i++) {
+			inserted.next[i] = update[i].next[i];
+			update[i].next[i] = inserted;
+			inserted.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+			update[i].span[i] = rank[0] - rank[i] + 1;
+		}
+		// I collegamenti più alti del nuovo nodo lo scavalcano
+		for (int i = nodeLevel; i < level; i++) {
+			update[i].span[i]++;
+		}
+		size++;
+		return true;
+	}
+
+	/**
+	 * Rimuove l'elemento uguale secondo il comparatore; restituisce false se non è presente.
+	 */
+	@SuppressWarnings("unchecked")
+	boolean remove(T value) {
+		Node<T>[] update = new Node[MAX_LEVEL];
+		Node<T> node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (node.next[i] != null && comparator.compare(node.next[i].value, value) < 0) {
+				node = node.next[i];
+			}
+			update[i] = node;
+		}
+		Node<T> removed = node.next[0];
+		if (removed == null || comparator.compare(removed.value, value) != 0) {
+			return false;
+		}
+
+		for (int i = 0; i < level; i++) {
+			if (update[i].next[i] == removed) {
+				update[i].span[i] += removed.span[i] - 1;
+				update[i].next[i] = removed.next[i];
+			} else {
+				update[i].span[i]--;
+			}
+		}
+		while (level > 1 && head.next[level - 1] == null) {
+			level--;
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * Numero di elementi che precedono value secondo il comparatore, che value sia presente o meno.
+	 */
+	int rank(T value) {
+		int rank = 0;
+		Node<T> node = head;
+		for (int i = level - 1; i >= 0; i--) {
+			while (node.next[i] != null && comparator.compare(node.next[i].value, value) < 0) {
+				rank += node.span[i];
+				node = node.next[i];
+			}
+		}
+		return rank;
+	}
+
+	int size() {
+		return size;
+	}
+
+	void clear() {
+		Arrays.fill(head.next, null);
+		Arrays.fill(head.span, 0);
+		level = 1;
+		size = 0;
+	}
+
+	/**
+	 * Livello con probabilità 1/4 di salire: in media 1.33 collegamenti per elemento.
+	 */
+	private static int randomLevel() {
+		int level = 1;
+		while (level < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+			level++;
+		}
+		return level;
+	}
+}
@@ -0,0 +1,274 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderQueueViewProperties;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Vista materializzata in memoria degli ordini PENDING e IN_PROGRESS, ordinati per (virtualFinishAt, orderCode),
+ * servita ai display della cucina senza accedere al database.
+ * Viene letta dal database una sola volta all'avvio e poi aggiornata in modo incrementale dagli eventi
+ * {@link OrderStatusChangedEvent} dopo il commit. Ogni modifica incrementa la versione e viene conservata
+ * in un registro limitato, così un display può chiedere solo i cambiamenti successivi all'ultima versione vista.
+ * Le versioni sono confrontabili solo con l'epoca in cui sono nate, generata a ogni avvio: un display che dopo
+ * un riavvio o dietro un load balancer arriva su una vista diversa riceve la vista completa.
+ * Con più istanze riceve anche le transizioni delle altre tramite {@link OrderEventChannel}, che possono
+ * arrivare in ritardo: un evento con una versione dell'ordine non successiva a quella nota viene ignorato.
+ * Gli ordini PENDING sono anche in una {@link IndexedSkipList}, da cui la posizione di un ordine in coda
+ * si ricava in O(log n) senza contare quelli che lo precedono.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KitchenQueueView implements ApplicationRunner {
+
+	private static final Set<OrderStatus> ACTIVE = Set.of(OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
+
+	/**
+	 * Ordine in cui la coda viene servita; a parità di istante virtuale decide il codice,
+	 * unico e (con UUID v7) crescente nel tempo. Senza istante virtuale, ad esempio negli eventi di un'istanza
+	 * non ancora aggiornata, l'ordine è in coda alla sua creazione, come su database.
+	 */
+	static final Comparator<OrderResponse> QUEUE_ORDER = Comparator
+			.comparing((OrderResponse order) -> order.getVirtualFinishAt() != null
+					? order.getVirtualFinishAt()
+					: order.getCreatedAt())
+			.thenComparing(OrderResponse::getOrderCode);
+
+	/**
+	 * Modifica della vista: order è null se l'ordine ne è uscito.
+	 */
+	private record Change(long version, String orderCode, OrderResponse order) {
+	}
+
+	/**
+	 * Posizione di un ordine nella vista.
+	 *
+	 * @param order       ordine come noto alla vista
+	 * @param ordersAhead ordini PENDING che saranno presi in carico prima di questo, 0 se è già IN_PROGRESS
+	 */
+	public record QueuePosition(OrderResponse order, int ordersAhead) {
+	}
+
+	private final OrderRepository orderRepository;
+	private final OrderMapper orderMapper;
+	private final OrderQueueViewProperties properties;
+
+	private final NavigableSet<OrderResponse> orders = new TreeSet<>(QUEUE_ORDER);
+	private final IndexedSkipList<OrderResponse> pendingOrders = new IndexedSkipList<>(QUEUE_ORDER);
+	private final Map<String, OrderResponse> ordersByCode = new HashMap<>();
+	private final Deque<Change> changes = new ArrayDeque<>();
+	private long version;
+
+	/**
+	 * Identifica questa vista: le versioni di un'altra istanza o di prima di un riavvio hanno un'altra epoca.
+	 */
+	private final String epoch = UUID.randomUUID().toString();
+
+	/**
+	 * Ultima versione nota degli ordini usciti dalla vista, per non farli rientrare con un evento in ritardo.
+	 */
+	private final Map<String, Long> removedVersions = new LinkedHashMap<>(16, 0.75f, false) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+			return size() > properties.maxChanges();
+		}
+	};
+
+	/**
+	 * Copia immutabile della vista, ricostruita alla prima lettura dopo una modifica.
+	 */
+	private List<OrderResponse> snapshot = List.of();
+
+	/**
+	 * Inserisce, aggiorna o rimuove l'ordine a seconda del nuovo stato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		if (isStale(event.order())) {
+			return;
+		}
+		OrderResponse order = ACTIVE.contains(event.status()) ? event.order() : null;
+		OrderResponse previous = put(event.orderCode(), order);
+		if (order == null) {
+			removedVersions.put(event.orderCode(), event.order().getVersion());
+		}
+		if (order == null && previous == null) {
+			return;
+		}
+		changes.addLast(new Change(++version, event.orderCode(), order));
+		if (changes.size() > properties.maxChanges()) {
+			changes.removeFirst();
+		}
+		snapshot = null;
+	}
+
+	/**
+	 * Restituisce la vista completa, oppure solo i cambiamenti successivi a sinceVersion
+	 * se la versione è di questa epoca e il registro delle modifiche li contiene ancora tutti.
+	 */
+	public synchronized KitchenQueueResponse changesSince(String sinceEpoch, Long sinceVersion) {
+		if (sinceVersion == null || !epoch.equals(sinceEpoch) || !canReplayFrom(sinceVersion)) {
+			return KitchenQueueResponse.builder()
+					.epoch(epoch)
+					.version(version)
+					.full(true)
+					.orders(snapshot())
+					.removedOrderCodes(List.of())
+					.build();
+		}
+
+		// Dal più recente al più vecchio: per ogni ordine conta solo l'ultima modifica
+		Map<String, OrderResponse> changed = new HashMap<>();
+		Iterator<Change> newestFirst = changes.descendingIterator();
+		while (newestFirst.hasNext()) {
+			Change change = newestFirst.next();
+			if (change.version() <= sinceVersion) {
+				break;
+			}
+			if (!changed.containsKey(change.orderCode())) {
+				changed.put(change.orderCode(), change.order());
+			}
+		}
+
+		List<OrderResponse> updated = new ArrayList<>();
+		List<String> removed = new ArrayList<>();
+		changed.forEach((orderCode, order) -> {
+			if (order != null) {
+				updated.add(order);
+			} else {
+				removed.add(orderCode);
+			}
+		});
+		updated.sort(QUEUE_ORDER);
+
+		return KitchenQueueResponse.builder()
+				.epoch(epoch)
+				.version(version)
+				.full(false)
+				.orders(updated)
+				.removedOrderCodes(removed)
+				.build();
+	}
+
+	/**
+	 * Posizione dell'ordine in coda, vuota se l'ordine non è PENDING né IN_PROGRESS o non è ancora noto alla vista.
+	 */
+	public synchronized Optional<QueuePosition> position(String orderCode) {
+		OrderResponse order = ordersByCode.get(orderCode);
+		if (order == null) {
+			return Optional.empty();
+		}
+		int ordersAhead = order.getStatus() == OrderStatus.PENDING ? pendingOrders.rank(order) : 0;
+		return Optional.of(new QueuePosition(order, ordersAhead));
+	}
+
+	/**
+	 * Una versione futura o già uscita dal registro non permette di ricostruire i cambiamenti.
+	 */
+	private boolean canReplayFrom(long sinceVersion) {
+		if (sinceVersion < 0 || sinceVersion > version) {
+			return false;
+		}
+		return sinceVersion == version || (!changes.isEmpty() && changes.peekFirst().version() <= sinceVersion + 1);
+	}
+
+	private boolean isStale(OrderResponse order) {
+		OrderResponse current = ordersByCode.get(order.getOrderCode());
+		Long known = current != null ? current.getVersion() : removedVersions.get(order.getOrderCode());
+		return known != null && order.getVersion() != null && order.getVersion() <= known;
+	}
+
+	private List<OrderResponse> snapshot() {
+		if (snapshot == null) {
+			snapshot = List.copyOf(orders);
+		}
+		return snapshot;
+	}
+
+	private OrderResponse put(String orderCode, OrderResponse order) {
+		OrderResponse previous = order != null ? ordersByCode.put(orderCode, order) : ordersByCode.remove(orderCode);
+		if (previous != null) {
+			orders.remove(previous);
+			pendingOrders.remove(previous);
+		}
+		if (order != null) {
+			orders.add(order);
+			if (order.getStatus() == OrderStatus.PENDING) {
+				pendingOrders.add(order);
+			}
+		}
+		return previous;
+	}
+
+	/**
+	 * Popola la vista con gli ordini attivi su database all'avvio.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		resync();
+	}
+
+	/**
+	 * Ricostruisce la vista dal database, ad esempio se alcuni eventi potrebbero essere stati persi.
+	 */
+	public void resync() {
+		long readVersion;
+		synchronized (this) {
+			readVersion = version;
+		}
+		load(orderMapper.toOrderResponses(orderRepository.findActiveQueueRows()), readVersion);
+	}
+
+	/**
+	 * Sostituisce la vista con gli ordini letti dopo readVersion. Gli ordini modificati da un evento
+	 * durante la lettura mantengono lo stato dell'evento, mai più vecchio di quello letto.
+	 * La nuova versione invalida i cambiamenti precedenti.
+	 */
+	synchronized void load(List<OrderResponse> activeOrders, long readVersion) {
+		Set<String> changedWhileReading = changes.stream()
+				.filter(change -> change.version() > readVersion)
+				.map(Change::orderCode)
+				.collect(Collectors.toSet());
+		Map<String, OrderResponse> changedOrders = new HashMap<>();
+		changedWhileReading.forEach(orderCode -> changedOrders.put(orderCode, ordersByCode.get(orderCode)));
+
+		orders.clear();
+		pendingOrders.clear();
+		ordersByCode.clear();
+		activeOrders.stream()
+				.filter(order -> !changedWhileReading.contains(order.getOrderCode()))
+				.forEach(order -> put(order.getOrderCode(), order));
+		changedOrders.forEach(this::put);
+
+		version++;
+		changes.clear();
+		snapshot = null;
+		log.info("Vista della coda caricata: {} ordini PENDING o IN_PROGRESS", orders.size());
+	}
+}
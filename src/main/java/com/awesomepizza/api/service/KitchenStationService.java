@@ -0,0 +1,113 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.KitchenProperties;
+import com.awesomepizza.api.exception.KitchenStationNotFoundException;
+import com.awesomepizza.api.exception.OrderAlreadyInProgressException;
+import com.awesomepizza.api.model.KitchenStation;
+import com.awesomepizza.api.repository.KitchenStationRepository;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Gestisce i contatori degli ordini IN_PROGRESS per ciascuna stazione della cucina.
+ * Il limite di capacità è applicato con un UPDATE condizionale sulla riga della stazione,
+ * senza scansioni della tabella orders: stazioni diverse lavorano in parallelo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KitchenStationService implements ApplicationRunner {
+
+	private final KitchenStationRepository kitchenStationRepository;
+	private final KitchenProperties kitchenProperties;
+	private final OrderMetrics orderMetrics;
+
+	public String getDefaultStation() {
+		return kitchenProperties.defaultStation();
+	}
+
+	/**
+	 * Occupa un posto nella stazione. Deve essere invocato nella stessa transazione
+	 * della presa in carico, così un rollback libera automaticamente il posto.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void reserveSlot(String stationId) {
+		if (kitchenStationRepository.tryReserveSlot(stationId) == 1) {
+			return;
+		}
+		throw reservationFailed(stationId);
+	}
+
+	/**
+	 * Occupa count posti nella stazione, tutti o nessuno, nella transazione della presa in carico.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void reserveSlots(String stationId, int count) {
+		if (kitchenStationRepository.tryReserveSlots(stationId, count) == 1) {
+			return;
+		}
+		throw reservationFailed(stationId);
+	}
+
+	/**
+	 * Posti che una presa in carico di count ordini può occupare nella stazione: quelli liberi, al massimo count.
+	 * La lettura è senza lock, quindi una presa in carico concorrente sulla stessa stazione può occuparli
+	 * prima: {@link #reserveSlots(String, int)} resta il controllo che lo rileva.
+	 * Lancia le stesse eccezioni di {@link #reserveSlots(String, int)} se la stazione non esiste o è piena.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public int claimableSlots(String stationId, int count) {
+		KitchenStation station = kitchenStationRepository.findById(stationId)
+				.orElseThrow(() -> new KitchenStationNotFoundException(stationId));
+		int freeSlots = station.getCapacity() - station.getInProgress();
+		if (freeSlots <= 0) {
+			orderMetrics.recordRejection(OrderMetrics.Rejection.STATION_BUSY);
+			throw OrderAlreadyInProgressException.stationBusy(stationId);
+		}
+		return Math.min(count, freeSlots);
+	}
+
+	private RuntimeException reservationFailed(String stationId) {
+		if (!kitchenStationRepository.existsById(stationId)) {
+			return new KitchenStationNotFoundException(stationId);
+		}
+		orderMetrics.recordRejection(OrderMetrics.Rejection.STATION_BUSY);
+		return OrderAlreadyInProgressException.stationBusy(stationId);
+	}
+
+	/**
+	 * Libera il posto occupato da un ordine nella stazione.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void releaseSlot(String stationId) {
+		if (kitchenStationRepository.releaseSlot(stationId) == 0) {
+			log.warn("Nessun posto da liberare per la stazione {}", stationId);
+		}
+	}
+
+	/**
+	 * Allinea all'avvio le stazioni su database con la configurazione: crea le stazioni
+	 * mancanti e aggiorna la capacità di quelle esistenti senza toccare i contatori.
+	 */
+	@Override
+	@Transactional
+	public void run(ApplicationArguments args) {
+		Map<String, Integer> configured = new LinkedHashMap<>(kitchenProperties.stations());
+		configured.putIfAbsent(kitchenProperties.defaultStation(), KitchenProperties.DEFAULT_CAPACITY);
+
+		configured.forEach((stationId, capacity) -> {
+			KitchenStation station = kitchenStationRepository.findById(stationId)
+					.orElseGet(() -> KitchenStation.builder().id(stationId).build());
+			station.setCapacity(capacity);
+			kitchenStationRepository.save(station);
+			log.info("Stazione {} configurata con capacità {}", stationId, capacity);
+		});
+	}
+}
@@ -0,0 +1,88 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderArchiveProperties;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.ArchivedPartitionRow;
+import com.awesomepizza.api.repository.OrderRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Job di manutenzione delle partizioni giornaliere (per created_at) di orders e order_items:
+ * crea in anticipo le partizioni dei prossimi {@link OrderArchiveProperties#partitionsAhead()} giorni
+ * e sposta nelle tabelle storiche i giorni più vecchi di {@link OrderArchiveProperties#minAge()}.
+ * L'archiviazione stacca e riaggancia intere partizioni, quindi non cancella righe una per una:
+ * il costo non dipende dal numero di ordini e non lascia tuple morte da ripulire con VACUUM.
+ * Ogni giorno viene archiviato in una transazione separata: il DETACH richiede un lock esclusivo su orders,
+ * tenuto fino al commit. Se non lo ottiene entro il lock_timeout della funzione l'esecuzione fallisce e i giorni
+ * rimasti vengono ripresi alla successiva.
+ * Un ordine rimasto PENDING o IN_PROGRESS non trattiene il suo giorno nelle tabelle attive: la funzione lo sposta
+ * nella partizione di default e archivia il resto. Questi ordini sono registrati con un warning e contati da
+ * {@value #STRAGGLERS}: di solito sono ordini abbandonati da chiudere a mano.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "awesome-pizza.orders.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderArchiver implements MeterBinder {
+
+	static final String STRAGGLERS = "awesome-pizza.orders.archive.stragglers";
+
+	/**
+	 * Giorno precedente a qualunque partizione: la prima chiamata considera tutte le partizioni.
+	 */
+	private static final LocalDate FIRST_DAY = LocalDate.EPOCH;
+
+	private final OrderRepository orderRepository;
+	private final ArchivedOrderRepository archivedOrderRepository;
+	private final OrderArchiveProperties properties;
+	private final LongAdder stragglers = new LongAdder();
+
+	@Scheduled(initialDelayString = "${awesome-pizza.orders.archive.interval:1h}",
+			fixedDelayString = "${awesome-pizza.orders.archive.interval:1h}")
+	public int archiveCompletedOrders() {
+		int created = orderRepository.createPartitionsAhead(properties.partitionsAhead());
+		if (created > 0) {
+			log.info("Create le partizioni di {} nuovi giorni", created);
+		}
+
+		LocalDateTime cutoff = LocalDateTime.now().minus(properties.minAge());
+		int archived = 0;
+		Optional<ArchivedPartitionRow> partition = archivedOrderRepository.archiveNextPartition(FIRST_DAY, cutoff);
+		while (partition.isPresent()) {
+			ArchivedPartitionRow row = partition.get();
+			archived++;
+			if (row.getMovedOrders() > 0) {
+				stragglers.add(row.getMovedOrders());
+				log.warn("Giorno {} archiviato con {} ordini non completati, rimasti nella partizione di default",
+						row.getArchivedDay(), row.getMovedOrders());
+			}
+			partition = archivedOrderRepository.archiveNextPartition(row.getArchivedDay(), cutoff);
+		}
+		if (archived > 0) {
+			log.info("Archiviate le partizioni di {} giorni terminati prima di {}", archived, cutoff);
+		}
+		return archived;
+	}
+
+	long stragglers() {
+		return stragglers.sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(STRAGGLERS, stragglers, LongAdder::sum)
+				.description("Ordini non completati spostati nella partizione di default all'archiviazione del loro giorno")
+				.register(registry);
+	}
+}
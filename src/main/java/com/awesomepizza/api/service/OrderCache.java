@@ -0,0 +1,81 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderCacheProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cache in memoria degli ordini per codice, limitata per dimensione e con scadenza (TTL).
+ * Viene aggiornata dagli eventi {@link OrderStatusChangedEvent} dopo il commit, senza mai sostituire
+ * una versione dell'ordine con una precedente (gli eventi delle altre istanze possono arrivare in ritardo);
+ * le letture dal database inseriscono il valore solo se assente,
+ * per non sovrascrivere un aggiornamento più recente.
+ * Espone le metriche standard di Micrometer (cache.gets con result=hit/miss, cache.size, ...).
+ */
+@Component
+public class OrderCache implements MeterBinder {
+
+	static final String CACHE_NAME = "orders";
+
+	private final Cache<String, OrderResponse> cache;
+
+	public OrderCache(OrderCacheProperties properties) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(properties.maximumSize())
+				.expireAfterWrite(properties.ttl())
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 * Restituisce l'ordine in cache, oppure null se assente o scaduto.
+	 */
+	public OrderResponse get(String orderCode) {
+		return cache.getIfPresent(orderCode);
+	}
+
+	/**
+	 * Inserisce un ordine letto dal database se non già presente.
+	 */
+	public void putIfAbsent(OrderResponse order) {
+		cache.asMap().putIfAbsent(order.getOrderCode(), order);
+	}
+
+	/**
+	 * Sostituisce l'ordine in cache con la versione appena confermata.
+	 * Eseguito dopo il commit e prima degli altri listener, che possono così rileggere
+	 * dalla cache lo stato aggiornato; un rollback non lascia in cache uno stato mai salvato.
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		cache.asMap().merge(event.orderCode(), event.order(), OrderCache::newer);
+	}
+
+	/**
+	 * Svuota la cache, ad esempio quando alcuni eventi potrebbero essere stati persi.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	private static OrderResponse newer(OrderResponse cached, OrderResponse updated) {
+		boolean stale = cached.getVersion() != null && updated.getVersion() != null
+				&& updated.getVersion() < cached.getVersion();
+		return stale ? cached : updated;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+	}
+}
@@ -0,0 +1,18 @@
+package com.awesomepizza.api.service;
+
+/**
+ * Strategia con cui {@link OrderService#takeNextOrder()} prende in carico il prossimo ordine PENDING.
+ */
+public enum OrderClaimStrategy {
+	/**
+	 * Lock pessimistico sul primo ordine PENDING.
+	 * Portabile su qualsiasi database, ma i pizzaioli concorrenti si accodano sullo stesso record.
+	 */
+	PESSIMISTIC_LOCK,
+
+	/**
+	 * Singolo {@code UPDATE ... RETURNING} con {@code FOR UPDATE SKIP LOCKED}: le chiamate concorrenti
+	 * non si attendono mai a vicenda. Richiede PostgreSQL.
+	 */
+	SKIP_LOCKED
+}
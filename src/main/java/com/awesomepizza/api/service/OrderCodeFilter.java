@@ -0,0 +1,178 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderCodeFilterProperties;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Filtro di Bloom sui codici degli ordini esistenti, attivi e archiviati: un codice che il filtro
+ * non contiene sicuramente non esiste, e viene respinto senza interrogare il database
+ * (scraper, link vecchi, codici inventati).
+ * <ul>
+ *   <li>all'avvio viene popolato leggendo in streaming i codici di orders e orders_history;
+ *       finché non è pronto ogni codice viene cercato su database</li>
+ *   <li>poi riceve i codici dagli {@link OrderStatusChangedEvent}, comprese le creazioni delle altre istanze
+ *       tramite {@link OrderEventChannel}, che lo ricostruisce se il listener è rimasto disconnesso</li>
+ *   <li>un codice UUID v7 generato da meno di recentCodeWindow è sempre cercato su database:
+ *       la notifica della sua creazione da un'altra istanza potrebbe non essere ancora arrivata</li>
+ *   <li>la memoria è fissata alla costruzione; quando gli inserimenti superano la capacità
+ *       il filtro viene ricostruito in background, dimensionato sul doppio dei codici esistenti</li>
+ * </ul>
+ * Gli ordini inseriti su database senza passare da {@link OrderService} non vengono visti fino alla ricostruzione.
+ */
+@Slf4j
+@Component
+public class OrderCodeFilter implements ApplicationRunner {
+
+	private final OrderRepository orderRepository;
+	private final ArchivedOrderRepository archivedOrderRepository;
+	private final TransactionOperations transactionOperations;
+	private final OrderCodeFilterProperties properties;
+	private final Clock clock;
+
+	/**
+	 * Filtro in uso, null finché il primo caricamento non è terminato.
+	 */
+	private volatile BloomFilter filter;
+
+	/**
+	 * Filtro in costruzione: riceve anche i codici creati durante la lettura, che questa potrebbe non vedere.
+	 */
+	private volatile BloomFilter rebuilding;
+
+	private final AtomicBoolean rebuildRunning = new AtomicBoolean();
+
+	@Autowired
+	public OrderCodeFilter(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+			TransactionOperations transactionOperations, OrderCodeFilterProperties properties) {
+		this(orderRepository, archivedOrderRepository, transactionOperations, properties, Clock.systemUTC());
+	}
+
+	OrderCodeFilter(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository,
+			TransactionOperations transactionOperations, OrderCodeFilterProperties properties, Clock clock) {
+		this.orderRepository = orderRepository;
+		this.archivedOrderRepository = archivedOrderRepository;
+		this.transactionOperations = transactionOperations;
+		this.properties = properties;
+		this.clock = clock;
+	}
+
+	/**
+	 * Restituisce false solo se il codice (un UUID valido) sicuramente non appartiene ad alcun ordine.
+	 */
+	public boolean mightExist(String orderCode) {
+		BloomFilter current = filter;
+		if (current == null) {
+			return true;
+		}
+		UUID code = UUID.fromString(orderCode);
+		return isRecent(code) || current.mightContain(code);
+	}
+
+	/**
+	 * Aggiunge il codice dell'ordine a ogni evento, non solo alla creazione: è idempotente e recupera
+	 * anche gli ordini la cui creazione non è stata vista.
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		// rebuilding va letto prima di filter: rebuild() pubblica il nuovo filtro prima di azzerare rebuilding,
+		// quindi se la ricostruzione termina tra le due letture il codice finisce comunque nel filtro nuovo
+		BloomFilter next = rebuilding;
+		BloomFilter current = filter;
+		if (current == null && next == null) {
+			return;
+		}
+		UUID code = UUID.fromString(event.orderCode());
+		if (next != null) {
+			next.put(code);
+		}
+		if (current != null) {
+			current.put(code);
+			if (current.isSaturated()) {
+				rebuildInBackground();
+			}
+		}
+	}
+
+	/**
+	 * Popola il filtro all'avvio.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		rebuild();
+	}
+
+	/**
+	 * Ricostruisce il filtro da database e lo sostituisce a quello in uso, che resta valido durante la lettura.
+	 * Non fa nulla se una ricostruzione è già in corso.
+	 */
+	public void rebuild() {
+		if (!properties.enabled() || !rebuildRunning.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long existing = orderRepository.count() + archivedOrderRepository.count();
+			BloomFilter next = BloomFilter.create(Math.max(properties.expectedCodes(), existing * 2),
+					properties.falsePositiveRate(), properties.maxSize().toBytes());
+			rebuilding = next;
+			transactionOperations.executeWithoutResult(status -> {
+				putAll(next, orderRepository.streamOrderCodes());
+				putAll(next, archivedOrderRepository.streamOrderCodes());
+			});
+			filter = next;
+			log.info("Filtro dei codici ordine caricato: {} codici, {} KB", next.insertions(), next.sizeInBytes() / 1024);
+		} finally {
+			rebuilding = null;
+			rebuildRunning.set(false);
+		}
+	}
+
+	private void rebuildInBackground() {
+		if (rebuildRunning.get()) {
+			return;
+		}
+		Thread thread = new Thread(this::rebuildQuietly, "order-code-filter-rebuild");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void rebuildQuietly() {
+		try {
+			rebuild();
+		} catch (RuntimeException e) {
+			log.warn("Ricostruzione del filtro dei codici ordine non riuscita: {}", e.getMessage());
+		}
+	}
+
+	private static void putAll(BloomFilter target, Stream<String> orderCodes) {
+		try (orderCodes) {
+			orderCodes.forEach(orderCode -> target.put(UUID.fromString(orderCode)));
+		}
+	}
+
+	/**
+	 * I primi 48 bit di un UUID v7 sono il timestamp di generazione in millisecondi.
+	 */
+	private boolean isRecent(UUID code) {
+		if (code.version() != 7) {
+			return false;
+		}
+		long generatedAt = code.getMostSignificantBits() >>> 16;
+		return generatedAt > clock.millis() - properties.recentCodeWindow().toMillis();
+	}
+}
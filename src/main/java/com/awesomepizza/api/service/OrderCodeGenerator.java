@@ -0,0 +1,30 @@
+package com.awesomepizza.api.service;
+
+import java.util.UUID;
+
+/**
+ * Genera i codici univoci degli ordini. Tutte le implementazioni producono UUID
+ * in forma canonica, salvati nella colonna uuid di orders.
+ * L'implementazione si sceglie con la proprietà {@code awesome-pizza.orders.code-generator}.
+ */
+public interface OrderCodeGenerator {
+
+	int CANONICAL_LENGTH = 36;
+
+	String generate();
+
+	/**
+	 * Verifica che il codice sia un UUID in forma canonica, ad esempio prima di interrogare il database.
+	 */
+	static boolean isValid(String orderCode) {
+		if (orderCode == null || orderCode.length() != CANONICAL_LENGTH) {
+			return false;
+		}
+		try {
+			UUID.fromString(orderCode);
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.KitchenProperties;
+import com.awesomepizza.api.config.OrderEtaProperties;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Stima l'attesa di un ordine dalla media mobile delle ultime preparazioni, misurate dagli eventi
+ * {@link OrderStatusChangedEvent} come tempo tra la presa in carico (IN_PROGRESS) e il completamento.
+ * Con {@link OrderEventChannel} attivo misura anche le preparazioni delle altre istanze.
+ * La cucina è modellata come capacità totale posti in parallelo, su tutte le stazioni: i posti occupati dagli
+ * ordini IN_PROGRESS si liberano dopo la preparazione media meno il tempo già trascorso, quelli liberi subito,
+ * e gli ordini PENDING li occupano nell'ordine della coda per una preparazione media ciascuno.
+ * Le prese in carico sono tenute anche in ordine di inizio: i posti che si liberano per ultimi sono quelli
+ * presi più di recente, quindi una stima legge al massimo capacità prese in carico, senza ordinarle.
+ * All'avvio gli ordini già IN_PROGRESS su database contano come presi in carico in quell'istante: l'inizio reale
+ * non è salvato, e una stima per eccesso è preferibile a posti che risultano liberi senza esserlo.
+ * Per lo stesso motivo il loro completamento non entra nella media.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderEtaEstimator implements ApplicationRunner {
+
+	/**
+	 * Prese in carico ricordate al massimo: un evento IN_PROGRESS arrivato dopo il completamento
+	 * non deve restare in memoria per sempre.
+	 */
+	static final int MAX_TRACKED_ORDERS = 10_000;
+
+	/**
+	 * Presa in carico di un ordine.
+	 */
+	private record Start(LocalDateTime at, String orderCode) {
+	}
+
+	/**
+	 * Ordine di inizio delle prese in carico; a parità di istante decide il codice.
+	 */
+	private static final Comparator<Start> START_ORDER = Comparator.comparing(Start::at)
+			.thenComparing(Start::orderCode);
+
+	private final OrderEtaProperties properties;
+	private final KitchenProperties kitchenProperties;
+	private final OrderRepository orderRepository;
+
+	/**
+	 * Le stesse prese in carico di takenAt, in ordine di inizio.
+	 */
+	private final NavigableSet<Start> starts = new TreeSet<>(START_ORDER);
+
+	/**
+	 * Ordini registrati all'avvio: il loro completamento libera il posto ma non è una preparazione misurata.
+	 */
+	private final Set<String> seeded = new HashSet<>();
+
+	private final Map<String, LocalDateTime> takenAt = new LinkedHashMap<>(16, 0.75f, false) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LocalDateTime> eldest) {
+			if (size() <= MAX_TRACKED_ORDERS) {
+				return false;
+			}
+			starts.remove(new Start(eldest.getValue(), eldest.getKey()));
+			seeded.remove(eldest.getKey());
+			return true;
+		}
+	};
+
+	/**
+	 * Ultime preparazioni in millisecondi, in un buffer circolare con la loro somma.
+	 */
+	private long[] samples;
+	private int sampleCount;
+	private int nextSample;
+	private long sampleSum;
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		onOrderStatusChanged(event, LocalDateTime.now());
+	}
+
+	synchronized void onOrderStatusChanged(OrderStatusChangedEvent event, LocalDateTime now) {
+		if (event.status() == OrderStatus.IN_PROGRESS) {
+			track(event.orderCode(), now);
+			return;
+		}
+		boolean measured = !seeded.contains(event.orderCode());
+		LocalDateTime start = untrack(event.orderCode());
+		if (start != null && measured && event.status() == OrderStatus.COMPLETED) {
+			addSample(Duration.between(start, now));
+		}
+	}
+
+	/**
+	 * Registra come prese in carico all'avvio gli ordini già IN_PROGRESS su database.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		List<String> inProgress = orderRepository.findInProgressOrderCodes();
+		seed(inProgress, LocalDateTime.now());
+		log.info("Stima delle attese avviata con {} ordini IN_PROGRESS", inProgress.size());
+	}
+
+	/**
+	 * Non sovrascrive le prese in carico già viste da un evento durante la lettura.
+	 */
+	synchronized void seed(List<String> inProgressOrderCodes, LocalDateTime now) {
+		for (String orderCode : inProgressOrderCodes) {
+			if (!takenAt.containsKey(orderCode)) {
+				track(orderCode, now);
+				seeded.add(orderCode);
+			}
+		}
+	}
+
+	/**
+	 * Media delle ultime preparazioni, o la durata di default se non ne è stata ancora osservata nessuna.
+	 */
+	public synchronized Duration averagePreparationTime() {
+		if (sampleCount == 0) {
+			return properties.defaultPreparationTime();
+		}
+		return Duration.ofMillis(sampleSum / sampleCount);
+	}
+
+	/**
+	 * Attesa stimata perché l'ordine sia pronto: per uno IN_PROGRESS la preparazione media meno il tempo già
+	 * trascorso; per uno PENDING con k ordini davanti, il (k mod capacità)-esimo posto a liberarsi, più una
+	 * preparazione media per ogni giro completo dei posti (k / capacità) e una per l'ordine stesso.
+	 */
+	public Duration estimateWait(KitchenQueueView.QueuePosition position) {
+		return estimateWait(position, LocalDateTime.now());
+	}
+
+	synchronized Duration estimateWait(KitchenQueueView.QueuePosition position, LocalDateTime now) {
+		Duration average = averagePreparationTime();
+		if (position.order().getStatus() == OrderStatus.IN_PROGRESS) {
+			LocalDateTime start = takenAt.get(position.order().getOrderCode());
+			return start != null ? remaining(average, start, now) : average;
+		}
+		int capacity = Math.max(1, kitchenProperties.totalCapacity());
+		int ordersAhead = position.ordersAhead();
+		Duration slotFreeAt = slotsFreeAt(average, now, capacity)[ordersAhead % capacity];
+		return slotFreeAt.plus(average.multipliedBy(ordersAhead / capacity + 1L));
+	}
+
+	/**
+	 * Tra quanto si libera ciascun posto della cucina, in ordine crescente: i posti occupati si liberano
+	 * a partire dalla presa in carico più vecchia. Se gli ordini presi in carico sono più dei posti,
+	 * ad esempio per un completamento non visto, contano i capacità più recenti, con più tempo residuo.
+	 */
+	private Duration[] slotsFreeAt(Duration average, LocalDateTime now, int capacity) {
+		Duration[] freeAt = new Duration[capacity];
+		Arrays.fill(freeAt, Duration.ZERO);
+		Iterator<Start> latest = starts.descendingIterator();
+		for (int slot = capacity - 1; slot >= 0 && latest.hasNext(); slot--) {
+			freeAt[slot] = remaining(average, latest.next().at(), now);
+		}
+		return freeAt;
+	}
+
+	private void track(String orderCode, LocalDateTime start) {
+		untrack(orderCode);
+		takenAt.put(orderCode, start);
+		starts.add(new Start(start, orderCode));
+	}
+
+	private LocalDateTime untrack(String orderCode) {
+		seeded.remove(orderCode);
+		LocalDateTime start = takenAt.remove(orderCode);
+		if (start != null) {
+			starts.remove(new Start(start, orderCode));
+		}
+		return start;
+	}
+
+	private static Duration remaining(Duration average, LocalDateTime start, LocalDateTime now) {
+		Duration elapsed = Duration.between(start, now);
+		return elapsed.compareTo(average) < 0 ? average.minus(elapsed) : Duration.ZERO;
+	}
+
+	private void addSample(Duration preparation) {
+		if (samples == null) {
+			samples = new long[Math.max(1, properties.window())];
+		}
+		long millis = Math.max(0, preparation.toMillis());
+		if (sampleCount == samples.length) {
+			sampleSum -= samples[nextSample];
+		} else {
+			sampleCount++;
+		}
+		samples[nextSample] = millis;
+		sampleSum += millis;
+		nextSample = (nextSample + 1) % samples.length;
+	}
+}
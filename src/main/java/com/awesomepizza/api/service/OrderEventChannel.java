@@ -0,0 +1,215 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderEventChannelProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Propaga i cambi di stato degli ordini tra le istanze dell'applicazione con PostgreSQL LISTEN/NOTIFY,
+ * senza un broker esterno:
+ * <ul>
+ *   <li>ogni {@link OrderStatusChangedEvent} viene inviato con pg_notify nella stessa transazione
+ *       che lo ha prodotto: le altre istanze lo ricevono solo se e quando la transazione è confermata</li>
+ *   <li>un thread dedicato, con una propria connessione fuori dal pool, resta in LISTEN sul canale e
+ *       ripubblica localmente gli eventi delle altre istanze: cache, vista della cucina, metriche e
+ *       stream dei clienti li ricevono come quelli locali</li>
+ * </ul>
+ * Alla riconnessione del listener gli eventi persi non sono recuperabili: la cache degli ordini viene
+ * svuotata, la vista della cucina e il filtro dei codici ordine riletti dal database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "awesome-pizza.orders.events.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderEventChannel implements SmartLifecycle {
+
+	/**
+	 * Limite del payload di NOTIFY (8000 byte), con margine.
+	 */
+	static final int MAX_PAYLOAD_BYTES = 7900;
+
+	/**
+	 * Messaggio sul canale. order è null se l'ordine non entra nel payload: chi lo riceve lo rilegge dal database.
+	 */
+	record OrderEventMessage(String node, String orderCode, OrderStatus previousStatus, OrderResponse order) {
+	}
+
+	private final OrderRepository orderRepository;
+	private final OrderMapper orderMapper;
+	private final OrderCache orderCache;
+	private final KitchenQueueView kitchenQueueView;
+	private final OrderCodeFilter orderCodeFilter;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectMapper objectMapper;
+	private final JdbcConnectionDetails connectionDetails;
+	private final OrderEventChannelProperties properties;
+
+	/**
+	 * Identifica questa istanza nei messaggi, per ignorare le proprie notifiche.
+	 */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private volatile boolean running;
+	private Thread listener;
+
+	/**
+	 * Eseguito prima del commit, dentro la transazione: un rollback annulla anche la notifica.
+	 */
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		orderRepository.notifyChannel(properties.channel(), payload(event));
+	}
+
+	String payload(OrderStatusChangedEvent event) {
+		String payload = toJson(new OrderEventMessage(nodeId, event.orderCode(), event.previousStatus(), event.order()));
+		if (payload.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+			return payload;
+		}
+		return toJson(new OrderEventMessage(nodeId, event.orderCode(), event.previousStatus(), null));
+	}
+
+	/**
+	 * Ripubblica localmente l'evento di un'altra istanza. Fuori da una transazione i listener
+	 * degli eventi vengono eseguiti subito, questo compreso, che però non lo reinvia sul canale.
+	 */
+	void dispatch(String payload) {
+		OrderEventMessage message;
+		try {
+			message = objectMapper.readValue(payload, OrderEventMessage.class);
+		} catch (JsonProcessingException e) {
+			log.warn("Messaggio non valido sul canale {}: {}", properties.channel(), e.getMessage());
+			return;
+		}
+		if (nodeId.equals(message.node())) {
+			return;
+		}
+		OrderResponse order = message.order() != null
+				? message.order()
+				: orderRepository.findByOrderCode(message.orderCode()).map(orderMapper::toOrderResponse).orElse(null);
+		if (order != null) {
+			eventPublisher.publishEvent(new OrderStatusChangedEvent(order, message.previousStatus()));
+		}
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		listener = new Thread(this::listen, "order-events-listener");
+		listener.setDaemon(true);
+		listener.start();
+	}
+
+	/**
+	 * Non attende il thread: esce al più tardi dopo pollTimeout.
+	 */
+	@Override
+	public void stop() {
+		running = false;
+		listener.interrupt();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void listen() {
+		boolean reconnecting = false;
+		while (running) {
+			try (Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+					connectionDetails.getUsername(), connectionDetails.getPassword())) {
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN \"" + properties.channel() + "\"");
+				}
+				log.info("In ascolto sul canale {} come istanza {}", properties.channel(), nodeId);
+				if (reconnecting) {
+					resync();
+				}
+				receive(connection.unwrap(PGConnection.class));
+			} catch (SQLException | RuntimeException e) {
+				if (!running) {
+					return;
+				}
+				log.warn("Listener del canale {} interrotto, nuovo tentativo tra {}: {}",
+						properties.channel(), properties.reconnectDelay(), e.getMessage());
+				if (!pause()) {
+					return;
+				}
+			}
+			reconnecting = true;
+		}
+	}
+
+	private void receive(PGConnection connection) throws SQLException {
+		int timeoutMillis = (int) properties.pollTimeout().toMillis();
+		while (running) {
+			PGNotification[] notifications = connection.getNotifications(timeoutMillis);
+			if (notifications != null) {
+				for (PGNotification notification : notifications) {
+					dispatchQuietly(notification.getParameter());
+				}
+			}
+		}
+	}
+
+	/**
+	 * L'errore di un listener locale non deve interrompere la ricezione degli eventi successivi.
+	 */
+	private void dispatchQuietly(String payload) {
+		try {
+			dispatch(payload);
+		} catch (RuntimeException e) {
+			log.warn("Evento del canale {} non applicato: {}", properties.channel(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Gli eventi arrivati mentre il listener era disconnesso sono persi.
+	 */
+	private void resync() {
+		orderCache.invalidateAll();
+		kitchenQueueView.resync();
+		orderCodeFilter.rebuild();
+	}
+
+	private boolean pause() {
+		try {
+			Thread.sleep(properties.reconnectDelay().toMillis());
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private String toJson(OrderEventMessage message) {
+		try {
+			return objectMapper.writeValueAsString(message);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderLaneProperties;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderLane;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assegna ai nuovi ordini la corsia e l'istante virtuale entro cui servirli (weighted fair queuing
+ * con l'algoritmo VirtualClock). La coda PENDING è servita per istante virtuale crescente:
+ * <ul>
+ *   <li>un ordine parte dal più tardo tra la sua creazione e l'istante virtuale dell'ultimo ordine in coda
+ *       nella stessa corsia, e aggiunge pizzaTime per ogni pizza diviso il peso della corsia</li>
+ *   <li>con tutte le corsie piene, ciascuna ottiene la cucina in proporzione al proprio peso:
+ *       gli ordini piccoli non attendono dietro i catering, che avanzano comunque al loro ritmo</li>
+ *   <li>nessun ordine attende per sempre: i nuovi ordini partono almeno dalla loro creazione,
+ *       quindi passato il suo istante virtuale nessun ordine successivo può più scavalcarlo</li>
+ * </ul>
+ * Nessun lock in creazione: due ordini concorrenti nella stessa corsia possono ricevere lo stesso punto di partenza,
+ * e a parità di istante virtuale decide l'id.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderLaneScheduler {
+
+	private final OrderRepository orderRepository;
+	private final OrderLaneProperties properties;
+
+	/**
+	 * Assegna corsia e istante virtuale agli ordini non ancora salvati, nell'ordine della lista:
+	 * legge l'ultimo ordine in coda una sola volta per corsia.
+	 * Con le corsie disabilitate gli ordini restano STANDARD e l'istante virtuale coincide con la creazione.
+	 */
+	public void schedule(List<Order> orders) {
+		if (!properties.enabled()) {
+			return;
+		}
+		Map<OrderLane, LocalDateTime> lastFinish = new EnumMap<>(OrderLane.class);
+		for (Order order : orders) {
+			int pizzas = order.pizzaCount();
+			OrderLane lane = laneOf(pizzas);
+			LocalDateTime previous = lastFinish.containsKey(lane)
+					? lastFinish.get(lane)
+					: orderRepository.findLastPendingVirtualFinishAt(lane).orElse(null);
+			LocalDateTime start = previous != null && previous.isAfter(order.getCreatedAt())
+					? previous
+					: order.getCreatedAt();
+			LocalDateTime finish = start.plus(cost(lane, pizzas));
+
+			order.setLane(lane);
+			order.setVirtualFinishAt(finish);
+			lastFinish.put(lane, finish);
+		}
+	}
+
+	OrderLane laneOf(int pizzas) {
+		if (pizzas <= properties.expressMaxPizzas()) {
+			return OrderLane.EXPRESS;
+		}
+		return pizzas >= properties.largeMinPizzas() ? OrderLane.LARGE : OrderLane.STANDARD;
+	}
+
+	private Duration cost(OrderLane lane, int pizzas) {
+		return properties.pizzaTime().multipliedBy(pizzas).dividedBy(properties.weight(lane));
+	}
+}
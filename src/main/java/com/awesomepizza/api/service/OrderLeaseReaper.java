@@ -0,0 +1,78 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderLeaseProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Job che riporta in coda gli ordini IN_PROGRESS la cui presa in carico è scaduta, ad esempio perché il tablet
+ * della stazione si è spento: senza, l'ordine e il posto nella stazione resterebbero occupati per sempre.
+ * <ul>
+ *   <li>legge al massimo reapBatchSize ordini scaduti dall'indice parziale sulla scadenza, saltando le righe bloccate:
+ *       più istanze possono eseguirlo insieme senza attendersi né riportare in coda lo stesso ordine</li>
+ *   <li>ogni ordine torna PENDING senza stazione, nella sua posizione originale (virtual_finish_at non cambia),
+ *       e libera il posto nella stazione</li>
+ *   <li>pubblica un {@link OrderStatusChangedEvent} IN_PROGRESS → PENDING per cache, vista della cucina e notifiche</li>
+ * </ul>
+ * Scadenze e confronti usano l'orologio dell'applicazione, come created_at: gli ordini in lavorazione senza
+ * scadenza (precedenti alla migrazione V011) ricevono qui una presa in carico piena invece che dal database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "awesome-pizza.orders.lease.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderLeaseReaper {
+
+	private final OrderRepository orderRepository;
+	private final OrderMapper orderMapper;
+	private final KitchenStationService kitchenStationService;
+	private final ApplicationEventPublisher eventPublisher;
+	private final OrderLeaseProperties properties;
+
+	@Transactional
+	@Scheduled(initialDelayString = "${awesome-pizza.orders.lease.reap-interval:30s}",
+			fixedDelayString = "${awesome-pizza.orders.lease.reap-interval:30s}")
+	public int reapExpiredLeases() {
+		LocalDateTime now = LocalDateTime.now();
+		int granted = orderRepository.grantMissingLeases(now.plus(properties.duration()));
+		if (granted > 0) {
+			log.info("Assegnata una presa in carico a {} ordini in lavorazione che non ne avevano", granted);
+		}
+		List<Order> expired = orderRepository.findExpiredLeasesForUpdate(now, properties.reapBatchSize());
+		if (expired.isEmpty()) {
+			return 0;
+		}
+
+		for (Order order : expired) {
+			log.warn("Presa in carico dell'ordine {} da parte della stazione {} scaduta alle {}: l'ordine torna in coda",
+					order.getOrderCode(), order.getStation(), order.getLeaseExpiresAt());
+			if (order.getStation() != null) {
+				kitchenStationService.releaseSlot(order.getStation());
+			}
+			order.setStatus(OrderStatus.PENDING);
+			order.setStation(null);
+			order.setLeaseExpiresAt(null);
+		}
+		// Flush immediato: gli eventi devono avere la versione incrementata
+		orderRepository.flush();
+
+		for (Order order : expired) {
+			OrderResponse response = orderMapper.toOrderResponse(order);
+			eventPublisher.publishEvent(new OrderStatusChangedEvent(response, OrderStatus.IN_PROGRESS));
+		}
+		return expired.size();
+	}
+}
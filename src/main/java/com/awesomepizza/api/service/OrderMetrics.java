@@ -0,0 +1,115 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Metriche applicative degli ordini, oltre ai timer delle operazioni di {@link OrderService}:
+ * <ul>
+ *   <li>{@value #REJECTIONS}: richieste rifiutate per contesa, con tag reason
+ *       (lock-timeout, station-busy, queue-empty)</li>
+ *   <li>{@value #DEPTH}: ordini PENDING e IN_PROGRESS, con tag status</li>
+ * </ul>
+ * I gauge sono contati all'avvio e poi aggiornati in modo incrementale dagli eventi
+ * {@link OrderStatusChangedEvent} dopo il commit, così lo scrape non esegue query.
+ * Con {@link OrderEventChannel} attivo ogni istanza riceve anche le transizioni delle altre e i gauge
+ * riportano il totale di tutte le istanze (da aggregare con max, non con sum); senza, sono esatti solo all'avvio.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderMetrics implements MeterBinder, ApplicationRunner {
+
+	static final String OPERATIONS = "awesome-pizza.orders.operations";
+	static final String REJECTIONS = "awesome-pizza.orders.rejections";
+	static final String DEPTH = "awesome-pizza.orders.depth";
+
+	/**
+	 * Motivo per cui una richiesta sugli ordini è stata rifiutata.
+	 */
+	public enum Rejection {
+		/** Il lock pessimistico su un ordine non è stato ottenuto entro il timeout. */
+		LOCK_TIMEOUT,
+		/** La stazione della cucina è già alla capacità massima. */
+		STATION_BUSY,
+		/** Nessun ordine PENDING da prendere in carico. */
+		QUEUE_EMPTY;
+
+		String tag() {
+			return name().toLowerCase(Locale.ROOT).replace('_', '-');
+		}
+	}
+
+	private final OrderRepository orderRepository;
+
+	private final Map<Rejection, LongAdder> rejections = new EnumMap<>(Map.of(
+			Rejection.LOCK_TIMEOUT, new LongAdder(),
+			Rejection.STATION_BUSY, new LongAdder(),
+			Rejection.QUEUE_EMPTY, new LongAdder()));
+
+	private final Map<OrderStatus, AtomicLong> depth = new EnumMap<>(Map.of(
+			OrderStatus.PENDING, new AtomicLong(),
+			OrderStatus.IN_PROGRESS, new AtomicLong()));
+
+	public void recordRejection(Rejection reason) {
+		rejections.get(reason).increment();
+	}
+
+	/**
+	 * Sposta l'ordine dal contatore dello stato precedente a quello del nuovo stato.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		adjustDepth(event.previousStatus(), -1);
+		adjustDepth(event.status(), 1);
+	}
+
+	private void adjustDepth(OrderStatus status, long delta) {
+		AtomicLong counter = status != null ? depth.get(status) : null;
+		if (counter != null) {
+			counter.addAndGet(delta);
+		}
+	}
+
+	long depth(OrderStatus status) {
+		return depth.get(status).get();
+	}
+
+	/**
+	 * Inizializza i gauge con il conteggio su database: l'unica query di conteggio eseguita.
+	 */
+	@Override
+	public void run(ApplicationArguments args) {
+		depth.forEach((status, counter) -> counter.set(orderRepository.countByStatus(status)));
+		log.info("Metriche ordini inizializzate: {} PENDING, {} IN_PROGRESS",
+				depth(OrderStatus.PENDING), depth(OrderStatus.IN_PROGRESS));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		rejections.forEach((reason, counter) -> FunctionCounter.builder(REJECTIONS, counter, LongAdder::sum)
+				.description("Richieste sugli ordini rifiutate per contesa o coda vuota")
+				.tag("reason", reason.tag())
+				.register(registry));
+		depth.forEach((status, counter) -> Gauge.builder(DEPTH, counter, AtomicLong::get)
+				.description("Ordini per stato")
+				.tag("status", status.name())
+				.register(registry));
+	}
+}
@@ -0,0 +1,81 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.dto.OrderResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+/**
+ * Accorpa le letture concorrenti dello stesso ordine non presente in cache (single-flight):
+ * quando un ordine diventa pronto decine di dispositivi lo rileggono insieme, ma solo la prima
+ * richiesta esegue la query, le altre attendono e ne condividono il risultato o l'eccezione.
+ * Terminata la lettura l'ordine è in {@link OrderCache}, quindi le richieste successive non arrivano qui.
+ * Le richieste accorpate sono contate da {@value #COALESCED}.
+ */
+@Component
+public class OrderReadCoalescer implements MeterBinder {
+
+	static final String COALESCED = "awesome-pizza.orders.coalesced";
+
+	private final ConcurrentMap<String, CompletableFuture<OrderResponse>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder coalesced = new LongAdder();
+
+	/**
+	 * Restituisce l'ordine letto da loader, oppure attende la lettura già in corso per lo stesso codice.
+	 */
+	public OrderResponse load(String orderCode, Function<String, OrderResponse> loader) {
+		CompletableFuture<OrderResponse> call = new CompletableFuture<>();
+		CompletableFuture<OrderResponse> running = inFlight.putIfAbsent(orderCode, call);
+		if (running != null) {
+			coalesced.increment();
+			return await(running);
+		}
+
+		try {
+			OrderResponse order = loader.apply(orderCode);
+			call.complete(order);
+			return order;
+		} catch (Throwable e) {
+			// Anche Error ed eccezioni checked rilanciate senza dichiararle: chi attende deve sempre ricevere un esito
+			call.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(orderCode, call);
+		}
+	}
+
+	/**
+	 * Rilancia l'eccezione originale (ad esempio OrderNotFoundException) o l'Error, non la CompletionException che li contiene.
+	 */
+	private static OrderResponse await(CompletableFuture<OrderResponse> running) {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			if (e.getCause() instanceof Error cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	long coalesced() {
+		return coalesced.sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder(COALESCED, coalesced, LongAdder::sum)
+				.description("Letture di un ordine accorpate a una lettura già in corso")
+				.register(registry);
+	}
+}
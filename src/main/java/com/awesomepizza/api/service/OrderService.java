@@ -1,8 +1,15 @@
 package com.awesomepizza.api.service;
 
 import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
+import com.awesomepizza.api.dto.OrderLeaseResponse;
+import com.awesomepizza.api.dto.OrderPositionResponse;
+import com.awesomepizza.api.dto.OrderQueueSliceResponse;
 import com.awesomepizza.api.dto.OrderResponse;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,13 +17,35 @@ public interface OrderService {
 
 	OrderResponse createOrder(CreateOrderRequest request);
 
+	List<OrderResponse> createOrders(List<CreateOrderRequest> requests);
+
 	OrderResponse getOrderByCode(String orderCode);
 
 	OrderStatusResponse getOrderStatusByCode(String orderCode);
 
+	OrderPositionResponse getOrderPosition(String orderCode);
+
+	Map<String, OrderStatusResponse> getOrderStatusesByCode(List<String> orderCodes);
+
 	Page<OrderResponse> getOrderQueue(Pageable pageable);
 
-	OrderResponse takeNextOrder();
+	OrderQueueSliceResponse getOrderQueue(String cursor, int size);
+
+	KitchenQueueResponse getKitchenQueue(String sinceEpoch, Long sinceVersion);
+
+	Optional<OrderResponse> takeNextOrder();
+
+	Optional<OrderResponse> takeNextOrder(String stationId);
+
+	List<OrderResponse> takeNextOrders(int count);
+
+	List<OrderResponse> takeNextOrders(String stationId, int count);
 
 	OrderResponse completeOrder(String orderCode);
+
+	OrderResponse completeOrder(String orderCode, String stationId);
+
+	OrderLeaseResponse renewLease(String orderCode);
+
+	OrderLeaseResponse renewLease(String orderCode, String stationId);
 }
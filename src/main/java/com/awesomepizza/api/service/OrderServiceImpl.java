@@ -1,152 +1,508 @@
 package com.awesomepizza.api.service;
 
 import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
+import com.awesomepizza.api.dto.OrderLeaseResponse;
+import com.awesomepizza.api.dto.OrderPositionResponse;
+import com.awesomepizza.api.dto.OrderQueueSliceResponse;
 import com.awesomepizza.api.dto.OrderResponse;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.exception.InvalidClaimCountException;
 import com.awesomepizza.api.exception.InvalidOrderStateException;
-import com.awesomepizza.api.exception.NoOrdersInQueueException;
-import com.awesomepizza.api.exception.OrderAlreadyInProgressException;
 import com.awesomepizza.api.exception.OrderNotFoundException;
 import com.awesomepizza.api.mapper.OrderMapper;
 import com.awesomepizza.api.model.Order;
-import com.awesomepizza.api.model.OrderItem;
 import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.OrderQueueRow;
 import com.awesomepizza.api.repository.OrderRepository;
+import com.awesomepizza.api.service.OrderMetrics.Rejection;
+import io.micrometer.core.annotation.Timed;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Ogni operazione pubblica è misurata da un timer {@value OrderMetrics#OPERATIONS}
+ * con tag method ed exception, e istogramma per i percentili.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = OrderMetrics.OPERATIONS, histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class OrderServiceImpl implements OrderService {
 
+	static final int MAX_QUEUE_PAGE_SIZE = 100;
+	static final int MAX_CLAIM_COUNT = 20;
+
 	private final OrderRepository orderRepository;
 	private final OrderMapper orderMapper;
+	private final KitchenStationService kitchenStationService;
+	private final OrderCache orderCache;
+	private final ApplicationEventPublisher eventPublisher;
+	private final OrderFactory orderFactory;
+	private final OrderMetrics orderMetrics;
+	private final ArchivedOrderRepository archivedOrderRepository;
+	private final KitchenQueueView kitchenQueueView;
+	private final OrderReadCoalescer orderReadCoalescer;
+	private final OrderCodeFilter orderCodeFilter;
+	private final OrderLaneScheduler orderLaneScheduler;
+	private final OrderEtaEstimator orderEtaEstimator;
+
+	@Value("${awesome-pizza.orders.claim-strategy:PESSIMISTIC_LOCK}")
+	private OrderClaimStrategy claimStrategy = OrderClaimStrategy.PESSIMISTIC_LOCK;
+
+	/**
+	 * Durata della presa in carico, vedi {@link com.awesomepizza.api.config.OrderLeaseProperties}.
+	 */
+	@Value("${awesome-pizza.orders.lease.duration:5m}")
+	private Duration leaseDuration = Duration.ofMinutes(5);
 
 	/**
-	 * Crea un nuovo ordine a partire dalla richiesta del cliente.
+	 * Crea un nuovo ordine a partire dalla richiesta del cliente, nella corsia della coda adatta alle sue dimensioni.
 	 */
 	@Transactional
 	public OrderResponse createOrder(CreateOrderRequest request) {
-		Order order = Order.builder()
-				.orderCode(generateOrderCode())
-				.customerName(request.getCustomerName())
-				.status(OrderStatus.PENDING)
-				.build();
+		Order order = orderFactory.create(request);
+		orderLaneScheduler.schedule(List.of(order));
+		Order savedOrder = orderRepository.save(order);
+		log.info("Ordine creato: {} per cliente: {}", savedOrder.getOrderCode(), savedOrder.getCustomerName());
+		return publishStatusChange(orderMapper.toOrderResponse(savedOrder), null);
+	}
+
+	/**
+	 * Crea più ordini in un'unica transazione, ad esempio per gli aggregatori partner.
+	 * Gli id da sequenza pooled permettono a Hibernate di inviare gli INSERT
+	 * di ordini e items in batch JDBC invece che uno per round trip.
+	 */
+	@Transactional
+	public List<OrderResponse> createOrders(List<CreateOrderRequest> requests) {
+		List<Order> orders = requests.stream()
+				.map(orderFactory::create)
+				.toList();
+		orderLaneScheduler.schedule(orders);
+		List<Order> savedOrders = orderRepository.saveAll(orders);
+		log.info("Batch di {} ordini creato", savedOrders.size());
+		return savedOrders.stream()
+				.map(orderMapper::toOrderResponse)
+				.map(response -> publishStatusChange(response, null))
+				.toList();
+	}
 
-		request.getItems().forEach(itemRequest -> {
-			OrderItem item = OrderItem.builder()
-					.pizzaName(itemRequest.getPizzaName())
-					.quantity(itemRequest.getQuantity())
+	/**
+	 * Recupera un ordine tramite il suo codice, servendolo dalla cache quando presente.
+	 * Senza transazione: in caso di hit non viene acquisita alcuna connessione al database.
+	 * Le richieste concorrenti per lo stesso ordine non in cache eseguono una sola lettura.
+	 */
+	public OrderResponse getOrderByCode(String requestedCode) {
+		String orderCode = canonicalOrderCode(requestedCode);
+		OrderResponse cached = orderCache.get(orderCode);
+		if (cached != null) {
+			return cached;
+		}
+		requireExistingOrderCode(orderCode);
+		return orderReadCoalescer.load(orderCode, this::loadAndCache);
+	}
+
+	/**
+	 * Recupera lo stato di un ordine tramite il suo codice, servendolo dalla cache quando presente.
+	 */
+	public OrderStatusResponse getOrderStatusByCode(String requestedCode) {
+		String orderCode = canonicalOrderCode(requestedCode);
+		OrderResponse cached = orderCache.get(orderCode);
+		if (cached != null) {
+			return orderMapper.toOrderStatusResponse(cached);
+		}
+		requireExistingOrderCode(orderCode);
+		return orderMapper.toOrderStatusResponse(orderReadCoalescer.load(orderCode, this::loadAndCache));
+	}
+
+	/**
+	 * Restituisce la posizione in coda dell'ordine e l'attesa stimata dalla vista in memoria, in O(log n)
+	 * senza contare su database gli ordini che lo precedono.
+	 * Per un ordine non più in coda, o non ancora noto alla vista, riporta solo lo stato.
+	 */
+	public OrderPositionResponse getOrderPosition(String requestedCode) {
+		String orderCode = canonicalOrderCode(requestedCode);
+		Optional<KitchenQueueView.QueuePosition> queuePosition = kitchenQueueView.position(orderCode);
+		if (queuePosition.isEmpty()) {
+			return OrderPositionResponse.builder()
+					.orderCode(orderCode)
+					.status(getOrderStatusByCode(orderCode).getStatus())
 					.build();
-			order.addItem(item);
+		}
+
+		KitchenQueueView.QueuePosition position = queuePosition.get();
+		OrderStatus status = position.order().getStatus();
+		Duration wait = orderEtaEstimator.estimateWait(position);
+		return OrderPositionResponse.builder()
+				.orderCode(orderCode)
+				.status(status)
+				.position(status == OrderStatus.PENDING ? position.ordersAhead() + 1 : 0)
+				.estimatedWaitSeconds(wait.toSeconds())
+				.estimatedReadyAt(LocalDateTime.now().plus(wait))
+				.build();
+	}
+
+	/**
+	 * Recupera lo stato di più ordini, ad esempio per gli aggregatori che ne seguono migliaia.
+	 * Quelli in cache non accedono al database, gli altri sono letti tutti con un'unica query,
+	 * esclusi i codici che il filtro dei codici sa inesistenti.
+	 * I codici non validi o inesistenti sono assenti dal risultato, che segue l'ordine della richiesta
+	 * ed è indicizzato per codice come inviato dal client: il database restituisce i codici in minuscolo.
+	 */
+	public Map<String, OrderStatusResponse> getOrderStatusesByCode(List<String> orderCodes) {
+		Map<String, OrderStatusResponse> statuses = new LinkedHashMap<>();
+		// Codice in forma canonica -> codici richiesti che lo indicano (ad esempio in maiuscolo e in minuscolo)
+		Map<String, List<String>> misses = new LinkedHashMap<>();
+		orderCodes.stream().distinct().forEach(orderCode -> {
+			String canonical = canonicalOrderCode(orderCode);
+			OrderResponse cached = orderCache.get(canonical);
+			if (cached != null) {
+				statuses.put(orderCode, orderMapper.toOrderStatusResponse(cached));
+			} else if (OrderCodeGenerator.isValid(canonical) && orderCodeFilter.mightExist(canonical)) {
+				// Segnaposto: mantiene la posizione nella risposta, rimosso se l'ordine non esiste
+				statuses.put(orderCode, null);
+				misses.computeIfAbsent(canonical, code -> new ArrayList<>()).add(orderCode);
+			}
 		});
 
-		Order savedOrder = orderRepository.save(order);
-		log.info("Ordine creato: {} per cliente: {}", savedOrder.getOrderCode(), savedOrder.getCustomerName());
-		return orderMapper.toOrderResponse(savedOrder);
+		if (!misses.isEmpty()) {
+			orderRepository.findStatusesByOrderCodes(misses.keySet().stream().map(UUID::fromString).toArray(UUID[]::new))
+					.forEach(row -> {
+						OrderStatusResponse status = orderMapper.toOrderStatusResponse(row);
+						misses.getOrDefault(row.getOrderCode(), List.of()).forEach(orderCode -> statuses.put(orderCode, status));
+					});
+			statuses.values().removeIf(Objects::isNull);
+		}
+		log.debug("Stato di {} ordini richiesto, {} letti dal database", orderCodes.size(), misses.size());
+		return statuses;
 	}
 
 	/**
-	 * Recupera un ordine tramite il suo codice.
+	 * Legge l'ordine dalle tabelle attive e, se non presente, dallo storico degli ordini archiviati.
 	 */
-	@Transactional(readOnly = true)
-	public OrderResponse getOrderByCode(String orderCode) {
-		Order order = orderRepository.findByOrderCode(orderCode)
+	private OrderResponse loadAndCache(String orderCode) {
+		OrderResponse response = orderRepository.findByOrderCode(orderCode)
+				.map(orderMapper::toOrderResponse)
+				.or(() -> archivedOrderRepository.findByOrderCode(orderCode).map(orderMapper::toOrderResponse))
 				.orElseThrow(() -> new OrderNotFoundException(orderCode));
-		return orderMapper.toOrderResponse(order);
+		orderCache.putIfAbsent(response);
+		return response;
 	}
 
 	/**
-	 * Recupera lo stato di un ordine tramite il suo codice.
+	 * Restituisce la coda degli ordini in stato PENDING, nell'ordine in cui verranno presi in carico.
+	 * Ordini e pizze arrivano da un'unica query come proiezioni immutabili; il conteggio
+	 * viene eseguito solo se la pagina non basta a determinare il totale.
 	 */
 	@Transactional(readOnly = true)
-	public OrderStatusResponse getOrderStatusByCode(String orderCode) {
-		Order order = orderRepository.findByOrderCode(orderCode)
-				.orElseThrow(() -> new OrderNotFoundException(orderCode));
-		return orderMapper.toOrderStatusResponse(order);
-	}
+	public Page<OrderResponse> getOrderQueue(Pageable pageable) {
+		List<OrderResponse> responses = orderMapper.toOrderResponses(
+				orderRepository.findPendingQueueRows(pageable.getOffset(), pageable.getPageSize()));
 
+		log.debug("Coda ordini richiesta, pagina {}, {} ordini", pageable.getPageNumber(), responses.size());
+
+		return PageableExecutionUtils.getPage(responses, pageable, orderRepository::countPending);
+	}
 
 	/**
-	 * Restituisce la coda degli ordini in stato PENDING, ordinati per data creazione (FIFO).
+	 * Restituisce la coda degli ordini PENDING con paginazione keyset, nell'ordine in cui verranno presi in carico.
+	 * Il cursore è opaco: null per la prima pagina, poi quello restituito dalla pagina precedente.
+	 * Viene letto un ordine in più per sapere se esiste una pagina successiva, senza query di conteggio:
+	 * ordini e pizze arrivano da un'unica query, senza entità gestite né dirty checking.
 	 */
 	@Transactional(readOnly = true)
-	public Page<OrderResponse> getOrderQueue(Pageable pageable) {
-		Page<Long> orderIds = orderRepository.findIdsByStatusOrderByCreatedAtAsc(
-				OrderStatus.PENDING, pageable);
+	public OrderQueueSliceResponse getOrderQueue(String cursor, int size) {
+		int pageSize = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
 
-		if (orderIds.isEmpty()) {
-			return Page.empty(pageable);
+		List<OrderQueueRow> rows;
+		if (cursor == null || cursor.isBlank()) {
+			rows = orderRepository.findFirstPendingQueueRows(pageSize + 1);
+		} else {
+			QueueCursor position = QueueCursor.decode(cursor);
+			rows = orderRepository.findPendingQueueRowsAfter(position.virtualFinishAt(), position.id(), pageSize + 1);
 		}
 
-		List<Order> orders = orderRepository.findByIdsWithItems(orderIds.getContent());
+		// Una posizione per ordine, nello stesso ordine dei gruppi prodotti dal mapper
+		List<QueueCursor> positions = rows.stream().map(QueueCursor::of).distinct().toList();
+		List<OrderResponse> orders = orderMapper.toOrderResponses(rows);
 
-		List<OrderResponse> responses = orders.stream()
-				.map(orderMapper::toOrderResponse)
-				.toList();
+		boolean hasNext = positions.size() > pageSize;
+		String nextCursor = hasNext ? positions.get(pageSize - 1).encode() : null;
 
-		log.debug("Coda ordini richiesta, pagina {}/{}, {} ordini",
-				pageable.getPageNumber(), orderIds.getTotalPages(), responses.size());
+		log.debug("Coda ordini richiesta con cursore, {} ordini, altre pagine: {}",
+				Math.min(orders.size(), pageSize), hasNext);
 
-		return new PageImpl<>(responses, pageable, orderIds.getTotalElements());
+		return OrderQueueSliceResponse.builder()
+				.orders(hasNext ? orders.subList(0, pageSize) : orders)
+				.nextCursor(nextCursor)
+				.build();
 	}
 
 	/**
-	 * Prende in carico il prossimo ordine in coda (FIFO).
+	 * Restituisce la vista della cucina (ordini PENDING e IN_PROGRESS) dalla memoria, senza accedere al database:
+	 * completa, oppure con i soli cambiamenti successivi a sinceVersion se è una versione dell'epoca sinceEpoch.
+	 */
+	public KitchenQueueResponse getKitchenQueue(String sinceEpoch, Long sinceVersion) {
+		return kitchenQueueView.changesSince(sinceEpoch, sinceVersion);
+	}
+
+	/**
+	 * Prende in carico il prossimo ordine in coda con la stazione di default.
+	 */
+	@Transactional
+	public Optional<OrderResponse> takeNextOrder() {
+		return takeNextOrder(kitchenStationService.getDefaultStation());
+	}
+
+	/**
+	 * Prende in carico il prossimo ordine in coda assegnandolo alla stazione indicata.
+	 * L'ordine della coda alterna le corsie in proporzione al loro peso, vedi {@link OrderLaneScheduler}.
 	 * Cambia lo stato da PENDING a IN_PROGRESS.
-	 * Può esserci un solo ordine IN_PROGRESS contemporaneamente.
-	 * Usa il pattern double-check per prevenire race condition:
-	 * 1. Acquisisce lock pessimistico sul primo ordine PENDING
-	 * 2. Verifica che non esista già un ordine IN_PROGRESS
-	 * 3. Solo allora procede con il cambio di stato
+	 * Ogni stazione può avere al massimo "capacità" ordini IN_PROGRESS contemporaneamente:
+	 * 1. Con la stazione piena 409 senza toccare la coda: una stazione piena che continua a chiedere ordini
+	 *    non blocca e non aggiorna righe di orders
+	 * 2. Prende in carico il primo ordine PENDING secondo {@link OrderClaimStrategy}
+	 * 3. Occupa un posto nella stazione con un UPDATE condizionale sul suo contatore
+	 * 4. Se una presa in carico concorrente ha occupato l'ultimo posto l'eccezione annulla la transazione,
+	 *    presa in carico compresa
+	 * La coda vuota viene rilevata senza toccare i contatori delle stazioni e restituita come Optional vuoto,
+	 * senza eccezioni: le stazioni inattive interrogano la coda di continuo e non devono costare nulla.
 	 */
 	@Transactional
-	public OrderResponse takeNextOrder() {
-		// STEP 1: Acquisisce lock pessimistico sul primo ordine PENDING (FIFO)
-		// Questo serializza l'accesso: altri thread aspettano qui
-		Order order = orderRepository.findFirstByStatusOrderByCreatedAtAsc(OrderStatus.PENDING)
-				.orElseThrow(NoOrdersInQueueException::new);
-
-		// STEP 2: Double-check - ora che abbiamo il lock, verifichiamo
-		// Se un altro thread ha completato prima di noi, esiste già un ordine in IN_PROGRESS
-		checkNoOrderInProgress();
-
-		// STEP 3: Sicuri di essere l'unico, procediamo
-		order.setStatus(OrderStatus.IN_PROGRESS);
-		Order savedOrder = orderRepository.save(order);
-		log.info("Ordine {} preso in carico ({} -> {})", savedOrder.getOrderCode(), OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
-		return orderMapper.toOrderResponse(savedOrder);
+	public Optional<OrderResponse> takeNextOrder(String stationId) {
+		kitchenStationService.claimableSlots(stationId, 1);
+		Optional<Order> claimed = switch (claimStrategy) {
+			case SKIP_LOCKED -> orderRepository.claimNextPendingOrder(stationId, leaseExpiresAt());
+			case PESSIMISTIC_LOCK -> claimWithPessimisticLock(stationId);
+		};
+		if (claimed.isEmpty()) {
+			orderMetrics.recordRejection(Rejection.QUEUE_EMPTY);
+			return Optional.empty();
+		}
+		Order savedOrder = claimed.get();
+
+		kitchenStationService.reserveSlot(stationId);
+
+		log.info("Ordine {} preso in carico dalla stazione {} ({} -> {})",
+				savedOrder.getOrderCode(), stationId, OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
+		return Optional.of(publishStatusChange(orderMapper.toOrderResponse(savedOrder), OrderStatus.PENDING));
+	}
+
+	/**
+	 * Prende in carico i prossimi count ordini in coda con la stazione di default.
+	 */
+	@Transactional
+	public List<OrderResponse> takeNextOrders(int count) {
+		return takeNextOrders(kitchenStationService.getDefaultStation(), count);
 	}
 
-	private void checkNoOrderInProgress() {
-		if (orderRepository.existsByStatus(OrderStatus.IN_PROGRESS)) {
-			log.warn("Tentativo di prendere un ordine mentre un altro è già in lavorazione");
-			throw new OrderAlreadyInProgressException();
+	/**
+	 * Prende in carico fino a count ordini (al massimo {@value #MAX_CLAIM_COUNT}) in una sola transazione,
+	 * per le stazioni che preparano più ordini insieme. Come {@link #takeNextOrder(String)}, ma:
+	 * 1. Con SKIP_LOCKED gli ordini sono presi in carico da un unico UPDATE ... RETURNING
+	 * 2. Gli ordini presi sono al massimo i posti liberi della stazione: con la stazione piena 409, senza prenderne
+	 *    nessuno; se una presa in carico concorrente occupa i posti nel frattempo la transazione viene annullata
+	 * 3. Le pizze di tutti gli ordini sono lette con una sola query
+	 * Restituisce gli ordini nell'ordine della coda; con la coda vuota una lista vuota.
+	 * Un count fuori da 1..{@value #MAX_CLAIM_COUNT} viene rifiutato.
+	 */
+	@Transactional
+	public List<OrderResponse> takeNextOrders(String stationId, int count) {
+		if (count < 1 || count > MAX_CLAIM_COUNT) {
+			throw new InvalidClaimCountException(count, MAX_CLAIM_COUNT);
+		}
+		int limit = kitchenStationService.claimableSlots(stationId, count);
+		List<Order> claimed = switch (claimStrategy) {
+			case SKIP_LOCKED -> orderRepository.claimNextPendingOrders(stationId, leaseExpiresAt(), limit);
+			case PESSIMISTIC_LOCK -> claimWithPessimisticLock(stationId, limit);
+		};
+		if (claimed.isEmpty()) {
+			orderMetrics.recordRejection(Rejection.QUEUE_EMPTY);
+			return List.of();
+		}
+
+		kitchenStationService.reserveSlots(stationId, claimed.size());
+
+		List<Order> orders = orderRepository.findAllWithItemsByIdIn(claimed.stream().map(Order::getId).toList());
+		List<OrderResponse> responses = new ArrayList<>(orders.size());
+		for (Order order : orders) {
+			responses.add(publishStatusChange(orderMapper.toOrderResponse(order), OrderStatus.PENDING));
 		}
+		log.info("{} ordini presi in carico dalla stazione {} ({} -> {})",
+				responses.size(), stationId, OrderStatus.PENDING, OrderStatus.IN_PROGRESS);
+		return responses;
 	}
 
 	/**
-	 * Segna un ordine come completato.
+	 * Acquisisce lock pessimistico sul primo ordine PENDING e lo porta in IN_PROGRESS.
+	 * Portabile, ma le chiamate concorrenti si accodano sullo stesso record.
+	 * Il flush immediato aggiorna la versione dell'ordine prima di costruire la risposta.
+	 */
+	private Optional<Order> claimWithPessimisticLock(String stationId) {
+		return countingLockTimeouts(orderRepository::findFirstPendingWithLock)
+				.map(order -> {
+					order.setStatus(OrderStatus.IN_PROGRESS);
+					order.setStation(stationId);
+					order.setLeaseExpiresAt(leaseExpiresAt());
+					return orderRepository.saveAndFlush(order);
+				});
+	}
+
+	/**
+	 * Come {@link #claimWithPessimisticLock(String)}, per i primi limit ordini PENDING.
+	 */
+	private List<Order> claimWithPessimisticLock(String stationId, int limit) {
+		List<Order> orders = countingLockTimeouts(() -> orderRepository.findFirstPendingWithLock(limit));
+		LocalDateTime leaseExpiresAt = leaseExpiresAt();
+		for (Order order : orders) {
+			order.setStatus(OrderStatus.IN_PROGRESS);
+			order.setStation(stationId);
+			order.setLeaseExpiresAt(leaseExpiresAt);
+		}
+		return orderRepository.saveAllAndFlush(orders);
+	}
+
+	/**
+	 * Segna come completato un ordine in carico alla stazione di default.
 	 */
 	@Transactional
 	public OrderResponse completeOrder(String orderCode) {
-		Order order = orderRepository.findByOrderCodeWithLock(orderCode)
+		return completeOrder(orderCode, kitchenStationService.getDefaultStation());
+	}
+
+	/**
+	 * Segna come completato un ordine in carico alla stazione indicata.
+	 * Solo la stazione che ha l'ordine può completarlo: se la sua presa in carico è scaduta
+	 * l'ordine può essere già passato a un'altra stazione.
+	 */
+	@Transactional
+	public OrderResponse completeOrder(String orderCode, String stationId) {
+		requireExistingOrderCode(orderCode);
+		Order order = countingLockTimeouts(() -> orderRepository.findByOrderCodeWithLock(orderCode))
 				.orElseThrow(() -> new OrderNotFoundException(orderCode));
 
 		validateOrderInProgress(orderCode, order);
+		validateOrderStation(orderCode, order, stationId);
 
 		order.setStatus(OrderStatus.COMPLETED);
-		Order savedOrder = orderRepository.save(order);
+		order.setLeaseExpiresAt(null);
+		// Flush immediato: la risposta e l'evento devono avere la versione incrementata (ETag)
+		Order savedOrder = orderRepository.saveAndFlush(order);
+		if (savedOrder.getStation() != null) {
+			kitchenStationService.releaseSlot(savedOrder.getStation());
+		}
 		log.info("Ordine {} completato ({} -> {})", savedOrder.getOrderCode(), OrderStatus.IN_PROGRESS, OrderStatus.COMPLETED);
-		return orderMapper.toOrderResponse(savedOrder);
+		return publishStatusChange(orderMapper.toOrderResponse(savedOrder), OrderStatus.IN_PROGRESS);
+	}
+
+	/**
+	 * Rinnova la presa in carico di un ordine IN_PROGRESS della stazione di default.
+	 */
+	@Transactional
+	public OrderLeaseResponse renewLease(String orderCode) {
+		return renewLease(orderCode, kitchenStationService.getDefaultStation());
+	}
+
+	/**
+	 * Rinnova la presa in carico di un ordine IN_PROGRESS (heartbeat della stazione) per un'altra leaseDuration.
+	 * Un solo UPDATE, limitato agli ordini della stazione indicata: il database viene riletto solo se l'ordine
+	 * non esiste, non è in lavorazione o è in carico a un'altra stazione.
+	 */
+	@Transactional
+	public OrderLeaseResponse renewLease(String orderCode, String stationId) {
+		requireExistingOrderCode(orderCode);
+		LocalDateTime leaseExpiresAt = leaseExpiresAt();
+		if (orderRepository.renewLease(orderCode, stationId, leaseExpiresAt) == 0) {
+			Order order = orderRepository.findByOrderCode(orderCode)
+					.orElseThrow(() -> new OrderNotFoundException(orderCode));
+			if (order.getStatus() != OrderStatus.IN_PROGRESS) {
+				throw new InvalidOrderStateException(
+						"L'ordine deve essere " + OrderStatus.IN_PROGRESS + " per rinnovarne la presa in carico. Stato attuale: "
+								+ order.getStatus());
+			}
+			validateOrderStation(orderCode, order, stationId);
+		}
+		return OrderLeaseResponse.builder()
+				.orderCode(orderCode)
+				.leaseExpiresAt(leaseExpiresAt)
+				.build();
+	}
+
+	private LocalDateTime leaseExpiresAt() {
+		return LocalDateTime.now().plus(leaseDuration);
+	}
+
+	/**
+	 * Pubblica la transizione di stato sul bus eventi dell'applicazione.
+	 * I listener (cache, notifiche ai clienti) la ricevono solo dopo il commit.
+	 */
+	private OrderResponse publishStatusChange(OrderResponse response, OrderStatus previousStatus) {
+		eventPublisher.publishEvent(new OrderStatusChangedEvent(response, previousStatus));
+		return response;
+	}
+
+	/**
+	 * Esegue una query con lock pessimistico contando i timeout di attesa del lock. Su PostgreSQL l'attesa
+	 * è interrotta dal timeout della query (QueryTimeoutException), altrove dal timeout del lock.
+	 */
+	private <T> T countingLockTimeouts(Supplier<T> lockingQuery) {
+		try {
+			return lockingQuery.get();
+		} catch (PessimisticLockingFailureException | QueryTimeoutException ex) {
+			orderMetrics.recordRejection(Rejection.LOCK_TIMEOUT);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Un codice che non è un UUID, o che il filtro dei codici esclude, non può esistere:
+	 * risponde come ordine non trovato senza accedere al database.
+	 */
+	/**
+	 * Forma canonica (minuscola) di un codice valido, la stessa del database e delle chiavi della cache:
+	 * le varianti in maiuscolo dello stesso codice trovano la stessa voce. Un codice non valido resta com'è.
+	 */
+	private static String canonicalOrderCode(String orderCode) {
+		return OrderCodeGenerator.isValid(orderCode) ? UUID.fromString(orderCode).toString() : orderCode;
+	}
+
+	private void requireExistingOrderCode(String orderCode) {
+		if (!OrderCodeGenerator.isValid(orderCode)) {
+			throw new OrderNotFoundException(orderCode);
+		}
+		if (!orderCodeFilter.mightExist(orderCode)) {
+			throw OrderNotFoundException.unknownCode();
+		}
+	}
+
+	private static void validateOrderStation(String orderCode, Order order, String stationId) {
+		if (!stationId.equals(order.getStation())) {
+			log.warn("La stazione {} ha tentato di agire sull'ordine {} in carico alla stazione {}",
+					stationId, orderCode, order.getStation());
+			throw new InvalidOrderStateException(
+					"L'ordine è in carico alla stazione " + order.getStation() + ", non a " + stationId);
+		}
 	}
 
 	private static void validateOrderInProgress(String orderCode, Order order) {
@@ -156,12 +512,4 @@ public class OrderServiceImpl implements OrderService {
 					"L'ordine deve essere " + OrderStatus.IN_PROGRESS + " per essere completato. Stato attuale: " + order.getStatus());
 		}
 	}
-
-	/**
-	 * Genera un codice ordine univoco nel formato UUID standard.
-	 * Esempio: 550e8400-e29b-41d4-a716-446655440000
-	 */
-	private String generateOrderCode() {
-		return UUID.randomUUID().toString();
-	}
 }
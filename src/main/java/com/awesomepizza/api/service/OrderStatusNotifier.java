@@ -0,0 +1,177 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.config.OrderStreamProperties;
+import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Notifica ai clienti i cambi di stato degli ordini, tramite Server-Sent Events o long-poll.
+ * Le connessioni in attesa sono indicizzate per codice ordine e vengono servite
+ * dagli eventi {@link OrderStatusChangedEvent}, senza interrogare il database.
+ * Ogni sottoscrizione viene registrata prima di leggere lo stato attuale,
+ * così un cambio di stato concorrente non viene perso.
+ * Gli invii su uno stream sono serializzati con un {@link ReentrantLock} e non con synchronized:
+ * sotto il lock si legge lo stato e si scrive sul socket, operazioni bloccanti che con i
+ * virtual thread (Java 21) terrebbero occupato il carrier thread dentro un blocco synchronized.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStatusNotifier {
+
+	static final String STATUS_EVENT = "status";
+
+	private final OrderService orderService;
+	private final OrderStreamProperties properties;
+
+	private final Map<String, Set<StatusStream>> streams = new ConcurrentHashMap<>();
+	private final Map<String, Set<StatusWaiter>> waiters = new ConcurrentHashMap<>();
+
+	/**
+	 * Apre uno stream SSE sullo stato dell'ordine: invia subito lo stato attuale
+	 * e poi un evento a ogni cambio, chiudendo lo stream quando l'ordine è completato.
+	 */
+	public SseEmitter subscribe(String orderCode) {
+		SseEmitter emitter = new SseEmitter(properties.sseTimeout().toMillis());
+		StatusStream stream = new StatusStream(emitter, new ReentrantLock());
+		register(streams, orderCode, stream);
+		emitter.onCompletion(() -> unregister(streams, orderCode, stream));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> unregister(streams, orderCode, stream));
+
+		// Lock sullo stream: un evento concorrente viene inviato dopo lo stato attuale, mai prima
+		stream.lock().lock();
+		try {
+			OrderStatusResponse current;
+			try {
+				current = orderService.getOrderStatusByCode(orderCode);
+			} catch (RuntimeException e) {
+				unregister(streams, orderCode, stream);
+				throw e;
+			}
+			doSend(orderCode, stream, current);
+		} finally {
+			stream.lock().unlock();
+		}
+		return emitter;
+	}
+
+	/**
+	 * Attende che lo stato dell'ordine sia diverso da quello indicato (long-poll).
+	 * Se lo è già risponde subito; allo scadere dell'attesa restituisce lo stato attuale.
+	 */
+	public DeferredResult<OrderStatusResponse> awaitStatusChange(String orderCode, OrderStatus ifStatusNot) {
+		DeferredResult<OrderStatusResponse> result = new DeferredResult<>(
+				properties.longPollTimeout().toMillis(),
+				() -> orderService.getOrderStatusByCode(orderCode));
+		StatusWaiter waiter = new StatusWaiter(ifStatusNot, result);
+		register(waiters, orderCode, waiter);
+		result.onCompletion(() -> unregister(waiters, orderCode, waiter));
+
+		OrderStatusResponse current;
+		try {
+			current = orderService.getOrderStatusByCode(orderCode);
+		} catch (RuntimeException e) {
+			unregister(waiters, orderCode, waiter);
+			throw e;
+		}
+		if (current.getStatus() != ifStatusNot) {
+			unregister(waiters, orderCode, waiter);
+			result.setResult(current);
+		}
+		return result;
+	}
+
+	/**
+	 * Inoltra il nuovo stato alle connessioni in attesa sull'ordine.
+	 * Eseguito dopo il commit: gli errori vengono solo registrati per non
+	 * propagarsi al chiamante di una transazione già confermata.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+		String orderCode = event.orderCode();
+		OrderStatusResponse status = OrderStatusResponse.builder()
+				.status(event.status())
+				.version(event.order().getVersion())
+				.build();
+
+		Set<StatusWaiter> orderWaiters = waiters.get(orderCode);
+		if (orderWaiters != null) {
+			orderWaiters.stream()
+					.filter(waiter -> waiter.ifStatusNot() != event.status())
+					.forEach(waiter -> waiter.result().setResult(status));
+		}
+
+		Set<StatusStream> orderStreams = event.status() == OrderStatus.COMPLETED
+				? streams.remove(orderCode)
+				: streams.get(orderCode);
+		if (orderStreams != null) {
+			orderStreams.forEach(stream -> send(orderCode, stream, status));
+		}
+	}
+
+	int subscriberCount(String orderCode) {
+		return streams.getOrDefault(orderCode, Set.of()).size()
+				+ waiters.getOrDefault(orderCode, Set.of()).size();
+	}
+
+	private void send(String orderCode, StatusStream stream, OrderStatusResponse status) {
+		stream.lock().lock();
+		try {
+			doSend(orderCode, stream, status);
+		} finally {
+			stream.lock().unlock();
+		}
+	}
+
+	private void doSend(String orderCode, StatusStream stream, OrderStatusResponse status) {
+		try {
+			stream.emitter().send(SseEmitter.event().name(STATUS_EVENT).data(status));
+			if (status.getStatus() == OrderStatus.COMPLETED) {
+				stream.emitter().complete();
+			}
+		} catch (IOException | IllegalStateException e) {
+			log.debug("Stream SSE dell'ordine {} chiuso dal client: {}", orderCode, e.getMessage());
+			unregister(streams, orderCode, stream);
+		}
+	}
+
+	/**
+	 * L'aggiunta avviene dentro compute, atomica rispetto a unregister: con computeIfAbsent seguito da add,
+	 * unregister potrebbe rimuovere l'insieme rimasto vuoto tra le due operazioni e l'iscritto finirebbe
+	 * in un insieme non più raggiungibile, senza ricevere notifiche.
+	 */
+	private static <T> void register(Map<String, Set<T>> registry, String orderCode, T subscriber) {
+		registry.compute(orderCode, (code, subscribers) -> {
+			Set<T> registered = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+			registered.add(subscriber);
+			return registered;
+		});
+	}
+
+	private static <T> void unregister(Map<String, Set<T>> registry, String orderCode, T subscriber) {
+		registry.computeIfPresent(orderCode, (code, subscribers) -> {
+			subscribers.remove(subscriber);
+			return subscribers.isEmpty() ? null : subscribers;
+		});
+	}
+
+	private record StatusStream(SseEmitter emitter, Lock lock) {
+	}
+
+	private record StatusWaiter(OrderStatus ifStatusNot, DeferredResult<OrderStatusResponse> result) {
+	}
+}
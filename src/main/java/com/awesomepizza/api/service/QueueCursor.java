@@ -0,0 +1,42 @@
+package com.awesomepizza.api.service;
+
+import com.awesomepizza.api.exception.InvalidQueueCursorException;
+import com.awesomepizza.api.repository.OrderQueueRow;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posizione nella coda ordini per la paginazione keyset: l'ultimo elemento restituito,
+ * identificato dalla coppia (virtualFinishAt, id) che corrisponde all'ordinamento della coda.
+ * Al client viene esposto solo in forma opaca (Base64 URL-safe).
+ */
+record QueueCursor(LocalDateTime virtualFinishAt, Long id) {
+
+	private static final String SEPARATOR = "|";
+
+	static QueueCursor of(OrderQueueRow row) {
+		return new QueueCursor(row.virtualFinishAt(), row.orderId());
+	}
+
+	String encode() {
+		String raw = virtualFinishAt + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static QueueCursor decode(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separatorIndex = raw.lastIndexOf(SEPARATOR);
+			if (separatorIndex < 0) {
+				throw new InvalidQueueCursorException(cursor);
+			}
+			return new QueueCursor(
+					LocalDateTime.parse(raw.substring(0, separatorIndex)),
+					Long.valueOf(raw.substring(separatorIndex + 1)));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidQueueCursorException(cursor);
+		}
+	}
+}
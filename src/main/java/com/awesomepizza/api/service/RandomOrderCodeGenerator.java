@@ -0,0 +1,19 @@
+package com.awesomepizza.api.service;
+
+import java.util.UUID;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Genera codici UUID versione 4, completamente casuali.
+ * Attivabile con {@code awesome-pizza.orders.code-generator=random}.
+ */
+@Component
+@ConditionalOnProperty(name = "awesome-pizza.orders.code-generator", havingValue = "random")
+public class RandomOrderCodeGenerator implements OrderCodeGenerator {
+
+	@Override
+	public String generate() {
+		return UUID.randomUUID().toString();
+	}
+}
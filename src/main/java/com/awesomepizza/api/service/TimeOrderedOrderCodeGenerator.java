@@ -0,0 +1,58 @@
+package com.awesomepizza.api.service;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Genera codici UUID versione 7 (RFC 9562): i primi 48 bit sono il timestamp Unix in millisecondi,
+ * quindi codici consecutivi finiscono in pagine adiacenti dell'indice univoco invece di
+ * distribuirsi a caso come gli UUID v4.
+ * I 12 bit rand_a sono usati come contatore: i codici generati dalla stessa istanza sono
+ * strettamente crescenti anche nello stesso millisecondo. Restano 62 bit casuali (SecureRandom),
+ * sufficienti a rendere i codici non indovinabili.
+ */
+@Component
+@ConditionalOnProperty(name = "awesome-pizza.orders.code-generator", havingValue = "uuid-v7", matchIfMissing = true)
+public class TimeOrderedOrderCodeGenerator implements OrderCodeGenerator {
+
+	private static final int COUNTER_BITS = 12;
+	private static final long VERSION_7 = 0x7000L;
+	private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+	private static final long RAND_B_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+	private final Clock clock;
+	private final SecureRandom random = new SecureRandom();
+
+	/**
+	 * Ultimo valore emesso: timestamp in millisecondi seguito dai 12 bit del contatore.
+	 * Se il contatore si esaurisce nello stesso millisecondo il timestamp avanza di uno.
+	 */
+	private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+	@Autowired
+	public TimeOrderedOrderCodeGenerator() {
+		this(Clock.systemUTC());
+	}
+
+	TimeOrderedOrderCodeGenerator(Clock clock) {
+		this.clock = clock;
+	}
+
+	@Override
+	public String generate() {
+		long now = clock.millis() << COUNTER_BITS;
+		long timestampAndCounter = lastTimestampAndCounter.updateAndGet(last -> Math.max(now, last + 1));
+
+		long timestamp = timestampAndCounter >>> COUNTER_BITS;
+		long counter = timestampAndCounter & ((1L << COUNTER_BITS) - 1);
+
+		long mostSigBits = (timestamp << 16) | VERSION_7 | counter;
+		long leastSigBits = VARIANT_RFC_4122 | (random.nextLong() & RAND_B_MASK);
+		return new UUID(mostSigBits, leastSigBits).toString();
+	}
+}
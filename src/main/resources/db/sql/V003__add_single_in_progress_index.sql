@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:3
+--comment: Enforce at most one IN_PROGRESS order at database level (guards the SKIP LOCKED claim path)
+
+CREATE UNIQUE INDEX uq_orders_single_in_progress ON orders(status) WHERE status = 'IN_PROGRESS';
+
+--rollback DROP INDEX uq_orders_single_in_progress;
@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:4
+--comment: Multi-station kitchen: station per order and per-station IN_PROGRESS counters
+
+CREATE TABLE kitchen_stations (
+    id VARCHAR(50) PRIMARY KEY,
+    capacity INTEGER NOT NULL CHECK (capacity > 0),
+    in_progress INTEGER NOT NULL DEFAULT 0 CHECK (in_progress >= 0)
+);
+
+ALTER TABLE orders ADD COLUMN station VARCHAR(50);
+
+-- Il limite di ordini IN_PROGRESS è ora applicato dai contatori per stazione
+DROP INDEX uq_orders_single_in_progress;
+
+--rollback CREATE UNIQUE INDEX uq_orders_single_in_progress ON orders(status) WHERE status = 'IN_PROGRESS';
+--rollback ALTER TABLE orders DROP COLUMN station;
+--rollback DROP TABLE kitchen_stations;
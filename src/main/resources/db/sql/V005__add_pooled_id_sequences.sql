@@ -0,0 +1,28 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:5
+--comment: Pooled sequences for orders and order_items ids (enables Hibernate JDBC batch inserts)
+
+-- Con l'optimizer pooled di Hibernate ogni valore della sequenza riserva un blocco di 50 id:
+-- il primo valore restituito deve quindi superare di 50 l'id più alto già presente
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('orders_seq', COALESCE((SELECT MAX(id) FROM orders), 0) + 50, false);
+
+CREATE SEQUENCE order_items_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('order_items_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 50, false);
+
+-- Gli id sono assegnati da Hibernate: le sequenze dei BIGSERIAL non vengono più usate
+ALTER TABLE orders ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE orders_id_seq;
+
+ALTER TABLE order_items ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE order_items_id_seq;
+
+--rollback CREATE SEQUENCE order_items_id_seq OWNED BY order_items.id;
+--rollback SELECT setval('order_items_id_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 1, false);
+--rollback ALTER TABLE order_items ALTER COLUMN id SET DEFAULT nextval('order_items_id_seq');
+--rollback CREATE SEQUENCE orders_id_seq OWNED BY orders.id;
+--rollback SELECT setval('orders_id_seq', COALESCE((SELECT MAX(id) FROM orders), 0) + 1, false);
+--rollback ALTER TABLE orders ALTER COLUMN id SET DEFAULT nextval('orders_id_seq');
+--rollback DROP SEQUENCE order_items_seq;
+--rollback DROP SEQUENCE orders_seq;
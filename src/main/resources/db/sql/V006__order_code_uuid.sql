@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:6
+--comment: Store order_code as native uuid (16 bytes) instead of VARCHAR(255)
+
+-- Il vincolo UNIQUE viene ricostruito sul nuovo tipo
+ALTER TABLE orders ALTER COLUMN order_code TYPE uuid USING order_code::uuid;
+
+--rollback ALTER TABLE orders ALTER COLUMN order_code TYPE VARCHAR(255) USING order_code::text;
@@ -0,0 +1,21 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:7
+--comment: Replace full status/created_at indexes with partial indexes on the queue states
+
+-- Gli indici contengono solo gli ordini in coda o in lavorazione: la loro dimensione non cresce
+-- con lo storico degli ordini COMPLETED. L'id è incluso per l'ordinamento FIFO (created_at, id)
+-- e per il confronto del cursore keyset.
+CREATE INDEX idx_orders_pending_created_at ON orders(created_at, id) WHERE status = 'PENDING';
+CREATE INDEX idx_orders_in_progress_created_at ON orders(created_at, id) WHERE status = 'IN_PROGRESS';
+
+-- Sostituiti dagli indici parziali: nessuna query filtra o ordina su tutti gli ordini
+DROP INDEX idx_orders_status_created_at;
+DROP INDEX idx_orders_status;
+DROP INDEX idx_orders_created_at;
+
+--rollback CREATE INDEX idx_orders_created_at ON orders(created_at);
+--rollback CREATE INDEX idx_orders_status ON orders(status);
+--rollback CREATE INDEX idx_orders_status_created_at ON orders(status, created_at);
+--rollback DROP INDEX idx_orders_in_progress_created_at;
+--rollback DROP INDEX idx_orders_pending_created_at;
@@ -0,0 +1,31 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:8
+--comment: History tables for archived COMPLETED orders, keeping orders/order_items small
+
+CREATE TABLE orders_history (
+    id BIGINT PRIMARY KEY,
+    order_code uuid NOT NULL UNIQUE,
+    customer_name VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    station VARCHAR(50),
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE TABLE order_items_history (
+    id BIGINT PRIMARY KEY,
+    pizza_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    order_id BIGINT NOT NULL,
+    CONSTRAINT fk_order_items_history_order FOREIGN KEY (order_id) REFERENCES orders_history(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_order_items_history_order_id ON order_items_history(order_id);
+
+-- Ordini completati in attesa di archiviazione: l'indice contiene solo quelli non ancora spostati
+CREATE INDEX idx_orders_completed_created_at ON orders(created_at) WHERE status = 'COMPLETED';
+
+--rollback DROP INDEX idx_orders_completed_created_at;
+--rollback DROP TABLE order_items_history;
+--rollback DROP TABLE orders_history;
@@ -0,0 +1,300 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:9-functions runOnChange:true splitStatements:false
+--comment: Maintenance functions for the daily created_at partitions of orders and order_items
+
+-- Crea le partizioni giornaliere di orders e order_items per i giorni [from_day, to_day) che ne sono privi.
+-- Ogni partizione ha un CHECK equivalente al suo intervallo, che resta dopo il DETACH: l'ATTACH allo storico
+-- lo usa come prova che le righe rientrano nell'intervallo e non scandisce la partizione.
+-- Gli ordini di quei giorni finiti nelle partizioni di default (job fermo) vengono spostati nelle nuove partizioni.
+-- Restituisce il numero di giorni creati.
+CREATE OR REPLACE FUNCTION create_order_partitions(from_day date, to_day date) RETURNS integer AS $$
+DECLARE
+    day date := from_day;
+    suffix text;
+    created integer := 0;
+    moved integer;
+BEGIN
+    WHILE day < to_day LOOP
+        suffix := to_char(day, 'YYYYMMDD');
+        IF to_regclass('orders_p' || suffix) IS NULL THEN
+            -- La creazione di una partizione verifica che la partizione di default non contenga righe del suo
+            -- intervallo: vanno tolte prima e reinserite dopo (i trigger su orders aggiornano order_codes)
+            moved := 0;
+            IF EXISTS (SELECT 1 FROM orders_default WHERE created_at >= day AND created_at < day + 1) THEN
+                CREATE TEMPORARY TABLE moved_orders ON COMMIT DROP AS
+                    SELECT * FROM orders_default WHERE created_at >= day AND created_at < day + 1;
+                CREATE TEMPORARY TABLE moved_order_items ON COMMIT DROP AS
+                    SELECT * FROM order_items_default WHERE order_created_at >= day AND order_created_at < day + 1;
+                DELETE FROM order_items_default WHERE order_created_at >= day AND order_created_at < day + 1;
+                DELETE FROM orders_default WHERE created_at >= day AND created_at < day + 1;
+                moved := 1;
+            END IF;
+
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders (CONSTRAINT %I CHECK (created_at >= %L AND created_at < %L))'
+                    || ' FOR VALUES FROM (%L) TO (%L)',
+                'orders_p' || suffix, 'orders_p' || suffix || '_range', day, day + 1, day, day + 1);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items'
+                    || ' (CONSTRAINT %I CHECK (order_created_at >= %L AND order_created_at < %L))'
+                    || ' FOR VALUES FROM (%L) TO (%L)',
+                'order_items_p' || suffix, 'order_items_p' || suffix || '_range', day, day + 1, day, day + 1);
+
+            IF moved > 0 THEN
+                INSERT INTO orders SELECT * FROM moved_orders;
+                GET DIAGNOSTICS moved = ROW_COUNT;
+                INSERT INTO order_items SELECT * FROM moved_order_items;
+                DROP TABLE moved_order_items;
+                DROP TABLE moved_orders;
+                RAISE WARNING 'Spostati % ordini dalla partizione di default a %', moved, 'orders_p' || suffix;
+            END IF;
+            created := created + 1;
+        END IF;
+        day := day + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Sposta nelle tabelle storiche la prima partizione giornaliera successiva ad after_day che termina entro cutoff:
+-- DETACH da orders/order_items e ATTACH a orders_history/order_items_history, senza copiare né cancellare righe.
+-- Gli ordini del giorno non ancora COMPLETED (bloccati o abbandonati) non trattengono la partizione nelle tabelle
+-- attive: vengono spostati con le loro pizze nelle partizioni di default, dove restano visibili e modificabili.
+-- Una partizione per chiamata: il lock esclusivo su orders preso dal DETACH dura fino al commit, quindi ogni
+-- giorno va archiviato nella propria transazione. Grazie al CHECK sull'intervallo l'ATTACH non scandisce righe;
+-- lock_timeout fa fallire la chiamata invece di bloccare la coda dietro il DETACH o dietro un ordine in lavorazione.
+-- Restituisce il giorno archiviato e il numero di ordini spostati nella partizione di default,
+-- nessuna riga se non ci sono altri giorni da archiviare.
+DROP FUNCTION IF EXISTS archive_next_order_partition(date, timestamp);
+CREATE FUNCTION archive_next_order_partition(after_day date, cutoff timestamp)
+    RETURNS TABLE (archived_day date, moved_orders integer) AS $$
+DECLARE
+    part record;
+    day date;
+    suffix text;
+    moved integer;
+    partial_index record;
+BEGIN
+    FOR part IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders'::regclass AND c.relname ~ '^orders_p[0-9]{8}$'
+            AND c.relname > 'orders_p' || to_char(after_day, 'YYYYMMDD')
+        ORDER BY c.relname
+    LOOP
+        suffix := substr(part.relname, length('orders_p') + 1);
+        day := to_date(suffix, 'YYYYMMDD');
+        EXIT WHEN day + 1 > cutoff;
+
+        -- Gli ordini ancora aperti escono dalla partizione prima del DETACH e vi rientrano dopo, quando il giorno
+        -- non ha più una partizione e finiscono in quella di default (i trigger su orders aggiornano order_codes)
+        EXECUTE format('CREATE TEMPORARY TABLE straggler_orders ON COMMIT DROP AS SELECT * FROM %I WHERE status <> %L',
+            part.relname, 'COMPLETED');
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        IF moved > 0 THEN
+            EXECUTE format('CREATE TEMPORARY TABLE straggler_order_items ON COMMIT DROP AS'
+                    || ' SELECT * FROM %I WHERE order_id IN (SELECT id FROM straggler_orders)',
+                'order_items_p' || suffix);
+            EXECUTE format('DELETE FROM %I WHERE order_id IN (SELECT id FROM straggler_orders)', 'order_items_p' || suffix);
+            EXECUTE format('DELETE FROM %I WHERE id IN (SELECT id FROM straggler_orders)', part.relname);
+        END IF;
+
+        -- Gli items vanno staccati per primi e senza la FK verso orders, altrimenti il DETACH della
+        -- partizione di orders fallirebbe per le righe che la referenziano
+        EXECUTE format('ALTER TABLE order_items DETACH PARTITION %I', 'order_items_p' || suffix);
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT fk_order_items_order', 'order_items_p' || suffix);
+        EXECUTE format('ALTER TABLE orders DETACH PARTITION %I', part.relname);
+
+        -- Gli indici parziali della coda non servono nello storico
+        FOR partial_index IN
+            SELECT ic.relname FROM pg_index x JOIN pg_class ic ON ic.oid = x.indexrelid
+            WHERE x.indrelid = part.relname::regclass AND x.indpred IS NOT NULL
+        LOOP
+            EXECUTE format('DROP INDEX %I', partial_index.relname);
+        END LOOP;
+
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', part.relname, 'orders_history_p' || suffix);
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', 'order_items_p' || suffix, 'order_items_history_p' || suffix);
+        EXECUTE format('ALTER TABLE orders_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            'orders_history_p' || suffix, day, day + 1);
+        EXECUTE format('ALTER TABLE order_items_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+            'order_items_history_p' || suffix, day, day + 1);
+
+        IF moved > 0 THEN
+            INSERT INTO orders SELECT * FROM straggler_orders;
+            INSERT INTO order_items SELECT * FROM straggler_order_items;
+            DROP TABLE straggler_order_items;
+            RAISE WARNING 'Partizione % archiviata: % ordini non completati spostati nella partizione di default',
+                part.relname, moved;
+        END IF;
+        DROP TABLE straggler_orders;
+
+        archived_day := day;
+        moved_orders := moved;
+        RETURN NEXT;
+        RETURN;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql SET lock_timeout = '3s';
+
+-- Registra in order_codes il codice di ogni nuovo ordine: la chiave primaria di order_codes
+-- impone l'unicità di order_code su tutte le partizioni, attive e archiviate
+CREATE OR REPLACE FUNCTION register_order_code() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO order_codes (order_code, order_id, created_at) VALUES (NEW.order_code, NEW.id, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rimuove da order_codes il codice di un ordine cancellato
+CREATE OR REPLACE FUNCTION unregister_order_code() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM order_codes WHERE order_code = OLD.order_code;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+--rollback DROP FUNCTION unregister_order_code();
+--rollback DROP FUNCTION register_order_code();
+--rollback DROP FUNCTION archive_next_order_partition(date, timestamp);
+--rollback DROP FUNCTION create_order_partitions(date, date);
+
+--changeset awesome-pizza:9
+--comment: Daily range partitioning on created_at for orders, order_items and the history tables
+
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE order_items_history RENAME TO order_items_history_unpartitioned;
+ALTER TABLE orders_history RENAME TO orders_history_unpartitioned;
+
+-- La chiave di partizionamento deve far parte di PK e vincoli UNIQUE: l'unicità globale di order_code
+-- è imposta dalla tabella non partizionata order_codes (vedi sotto)
+CREATE TABLE orders (
+    id BIGINT NOT NULL,
+    order_code uuid NOT NULL,
+    customer_name VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL CHECK (status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED')),
+    created_at TIMESTAMP NOT NULL,
+    station VARCHAR(50)
+) PARTITION BY RANGE (created_at);
+
+-- order_created_at replica created_at dell'ordine, così gli items stanno nella partizione dello stesso giorno
+CREATE TABLE order_items (
+    id BIGINT NOT NULL,
+    pizza_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 1,
+    order_id BIGINT NOT NULL,
+    order_created_at TIMESTAMP NOT NULL
+) PARTITION BY RANGE (order_created_at);
+
+-- Le partizioni archiviate vengono agganciate a orders_history e order_items_history, che devono avere
+-- le stesse colonne delle tabelle attive: ogni colonna aggiunta a orders o order_items va aggiunta anche qui.
+CREATE TABLE orders_history (
+    id BIGINT NOT NULL,
+    order_code uuid NOT NULL,
+    customer_name VARCHAR(255) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    station VARCHAR(50)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_items_history (
+    id BIGINT NOT NULL,
+    pizza_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 1,
+    order_id BIGINT NOT NULL,
+    order_created_at TIMESTAMP NOT NULL
+) PARTITION BY RANGE (order_created_at);
+
+-- Le partizioni di default raccolgono gli ordini di un giorno la cui partizione non esiste ancora (job di
+-- manutenzione fermo) invece di far fallire l'INSERT; create_order_partitions li sposta nella partizione del giorno
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+-- Anche gli ordini già archiviati rientrano nelle tabelle attive: archive_order_partitions
+-- li riporta nello storico a partizioni intere
+SELECT create_order_partitions(
+    LEAST(current_date,
+        (SELECT MIN(created_at)::date FROM orders_unpartitioned),
+        (SELECT MIN(created_at)::date FROM orders_history_unpartitioned)),
+    current_date + 14);
+
+INSERT INTO orders (id, order_code, customer_name, status, created_at, station)
+SELECT id, order_code, customer_name, status, created_at, station FROM orders_unpartitioned
+UNION ALL
+SELECT id, order_code, customer_name, status, created_at, station FROM orders_history_unpartitioned;
+
+INSERT INTO order_items (id, pizza_name, quantity, order_id, order_created_at)
+SELECT i.id, i.pizza_name, i.quantity, i.order_id, o.created_at
+FROM order_items_unpartitioned i JOIN orders_unpartitioned o ON o.id = i.order_id
+UNION ALL
+SELECT i.id, i.pizza_name, i.quantity, i.order_id, o.created_at
+FROM order_items_history_unpartitioned i JOIN orders_history_unpartitioned o ON o.id = i.order_id;
+
+DROP TABLE order_items_history_unpartitioned;
+DROP TABLE orders_history_unpartitioned;
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+-- Vincoli e indici dopo il caricamento; definiti sulle tabelle padre, vengono creati su ogni partizione
+ALTER TABLE orders ADD CONSTRAINT orders_pkey PRIMARY KEY (id, created_at);
+ALTER TABLE order_items ADD CONSTRAINT order_items_pkey PRIMARY KEY (id, order_created_at);
+ALTER TABLE order_items ADD CONSTRAINT fk_order_items_order
+    FOREIGN KEY (order_id, order_created_at) REFERENCES orders(id, created_at) ON DELETE CASCADE;
+CREATE INDEX idx_orders_order_code ON orders(order_code);
+CREATE INDEX idx_order_items_order_id ON order_items(order_id);
+CREATE INDEX idx_orders_pending_created_at ON orders(created_at, id) WHERE status = 'PENDING';
+CREATE INDEX idx_orders_in_progress_created_at ON orders(created_at, id) WHERE status = 'IN_PROGRESS';
+
+ALTER TABLE orders_history ADD CONSTRAINT orders_history_pkey PRIMARY KEY (id, created_at);
+-- Lo storico non ha la FK degli items verso orders_history: a ogni ATTACH verrebbe validata scandendo la partizione.
+-- Ordini e items di un giorno vengono archiviati insieme, quindi restano comunque coerenti.
+ALTER TABLE order_items_history ADD CONSTRAINT order_items_history_pkey PRIMARY KEY (id, order_created_at);
+CREATE INDEX idx_orders_history_order_code ON orders_history(order_code);
+CREATE INDEX idx_order_items_history_order_id ON order_items_history(order_id);
+
+-- Indice globale dei codici, attivi e archiviati: la chiave primaria impone l'unicità di order_code, che le
+-- tabelle partizionate non possono imporre senza created_at. È alimentato da un trigger a ogni INSERT su orders;
+-- l'archiviazione sposta le partizioni con DETACH/ATTACH, senza INSERT né DELETE, quindi i codici restano.
+CREATE TABLE order_codes (
+    order_code uuid PRIMARY KEY,
+    order_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO order_codes (order_code, order_id, created_at) SELECT order_code, id, created_at FROM orders;
+
+CREATE TRIGGER trg_orders_register_order_code AFTER INSERT ON orders
+    FOR EACH ROW EXECUTE FUNCTION register_order_code();
+CREATE TRIGGER trg_orders_unregister_order_code AFTER DELETE ON orders
+    FOR EACH ROW EXECUTE FUNCTION unregister_order_code();
+CREATE TRIGGER trg_orders_history_unregister_order_code AFTER DELETE ON orders_history
+    FOR EACH ROW EXECUTE FUNCTION unregister_order_code();
+
+--rollback DROP TRIGGER trg_orders_history_unregister_order_code ON orders_history;
+--rollback DROP TRIGGER trg_orders_unregister_order_code ON orders;
+--rollback DROP TRIGGER trg_orders_register_order_code ON orders;
+--rollback DROP TABLE order_codes;
+--rollback ALTER TABLE order_items RENAME TO order_items_partitioned;
+--rollback ALTER TABLE orders RENAME TO orders_partitioned;
+--rollback ALTER TABLE order_items_history RENAME TO order_items_history_partitioned;
+--rollback ALTER TABLE orders_history RENAME TO orders_history_partitioned;
+--rollback ALTER INDEX idx_order_items_order_id RENAME TO idx_order_items_order_id_partitioned;
+--rollback ALTER INDEX idx_orders_pending_created_at RENAME TO idx_orders_pending_created_at_partitioned;
+--rollback ALTER INDEX idx_orders_in_progress_created_at RENAME TO idx_orders_in_progress_created_at_partitioned;
+--rollback ALTER INDEX idx_order_items_history_order_id RENAME TO idx_order_items_history_order_id_partitioned;
+--rollback CREATE TABLE orders (id BIGINT PRIMARY KEY, order_code uuid NOT NULL UNIQUE, customer_name VARCHAR(255) NOT NULL, status VARCHAR(50) NOT NULL CHECK (status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED')), created_at TIMESTAMP NOT NULL, station VARCHAR(50));
+--rollback CREATE TABLE order_items (id BIGINT PRIMARY KEY, pizza_name VARCHAR(255) NOT NULL, quantity INTEGER NOT NULL DEFAULT 1, order_id BIGINT NOT NULL, CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE);
+--rollback CREATE TABLE orders_history (id BIGINT PRIMARY KEY, order_code uuid NOT NULL UNIQUE, customer_name VARCHAR(255) NOT NULL, status VARCHAR(50) NOT NULL, created_at TIMESTAMP NOT NULL, station VARCHAR(50), archived_at TIMESTAMP NOT NULL DEFAULT now());
+--rollback CREATE TABLE order_items_history (id BIGINT PRIMARY KEY, pizza_name VARCHAR(255) NOT NULL, quantity INTEGER NOT NULL, order_id BIGINT NOT NULL, CONSTRAINT fk_order_items_history_order FOREIGN KEY (order_id) REFERENCES orders_history(id) ON DELETE CASCADE);
+--rollback INSERT INTO orders SELECT id, order_code, customer_name, status, created_at, station FROM orders_partitioned;
+--rollback INSERT INTO order_items SELECT id, pizza_name, quantity, order_id FROM order_items_partitioned;
+--rollback INSERT INTO orders_history (id, order_code, customer_name, status, created_at, station) SELECT id, order_code, customer_name, status, created_at, station FROM orders_history_partitioned;
+--rollback INSERT INTO order_items_history SELECT id, pizza_name, quantity, order_id FROM order_items_history_partitioned;
+--rollback DROP TABLE order_items_partitioned;
+--rollback DROP TABLE orders_partitioned;
+--rollback DROP TABLE order_items_history_partitioned;
+--rollback DROP TABLE orders_history_partitioned;
+--rollback CREATE INDEX idx_order_items_order_id ON order_items(order_id);
+--rollback CREATE INDEX idx_orders_pending_created_at ON orders(created_at, id) WHERE status = 'PENDING';
+--rollback CREATE INDEX idx_orders_in_progress_created_at ON orders(created_at, id) WHERE status = 'IN_PROGRESS';
+--rollback CREATE INDEX idx_orders_completed_created_at ON orders(created_at) WHERE status = 'COMPLETED';
+--rollback CREATE INDEX idx_order_items_history_order_id ON order_items_history(order_id);
@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:10
+--comment: Add optimistic version column to orders and orders_history
+
+-- Versione dell'ordine (@Version su Order), incrementata a ogni modifica: è l'ETag delle risposte
+-- GET /api/orders/{orderCode}. Il default costante non riscrive le partizioni esistenti.
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE orders_history ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+--rollback ALTER TABLE orders_history DROP COLUMN version;
+--rollback ALTER TABLE orders DROP COLUMN version;
@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:11
+--comment: Add lease expiry to IN_PROGRESS orders and the index used by the lease reaper
+
+-- Scadenza della presa in carico: impostata dalla presa in carico, rinnovata dall'heartbeat della stazione.
+ALTER TABLE orders ADD COLUMN lease_expires_at TIMESTAMP;
+ALTER TABLE orders_history ADD COLUMN lease_expires_at TIMESTAMP;
+
+-- Il reaper legge solo le prese in carico scadute, in ordine di scadenza: l'indice parziale contiene
+-- solo gli ordini IN_PROGRESS ed è eliminato all'archiviazione come gli altri indici della coda.
+CREATE INDEX idx_orders_in_progress_lease_expires_at ON orders(lease_expires_at) WHERE status = 'IN_PROGRESS';
+
+-- Gli ordini già in lavorazione restano senza scadenza: la assegna OrderLeaseReaper con l'orologio
+-- dell'applicazione, lo stesso di created_at e dei rinnovi, non con now() del database.
+
+--rollback DROP INDEX idx_orders_in_progress_lease_expires_at;
+--rollback ALTER TABLE orders_history DROP COLUMN lease_expires_at;
+--rollback ALTER TABLE orders DROP COLUMN lease_expires_at;
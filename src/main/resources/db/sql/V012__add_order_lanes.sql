@@ -0,0 +1,30 @@
+--liquibase formatted sql
+
+--changeset awesome-pizza:12
+--comment: Add queue lanes and the weighted fair queuing order of PENDING orders
+
+-- Corsia dell'ordine (EXPRESS, STANDARD, LARGE) e istante virtuale entro cui servirlo:
+-- la coda PENDING è servita per virtual_finish_at crescente invece che per created_at.
+-- Il default costante non riscrive le partizioni esistenti.
+ALTER TABLE orders ADD COLUMN lane VARCHAR(20) NOT NULL DEFAULT 'STANDARD';
+ALTER TABLE orders ADD COLUMN virtual_finish_at TIMESTAMP;
+ALTER TABLE orders_history ADD COLUMN lane VARCHAR(20) NOT NULL DEFAULT 'STANDARD';
+ALTER TABLE orders_history ADD COLUMN virtual_finish_at TIMESTAMP;
+
+-- Gli ordini ancora attivi mantengono la loro posizione FIFO; i completati restano senza istante virtuale
+UPDATE orders SET virtual_finish_at = created_at WHERE status IN ('PENDING', 'IN_PROGRESS');
+
+-- Presa in carico, lettura e paginazione keyset della coda nell'ordine in cui viene servita
+CREATE INDEX idx_orders_pending_virtual_finish_at ON orders(virtual_finish_at, id) WHERE status = 'PENDING';
+-- Ultimo ordine in coda di ciascuna corsia, letto alla creazione di ogni ordine
+CREATE INDEX idx_orders_pending_lane_virtual_finish_at ON orders(lane, virtual_finish_at) WHERE status = 'PENDING';
+-- Nessuna query legge più la coda per data di creazione
+DROP INDEX idx_orders_pending_created_at;
+
+--rollback CREATE INDEX idx_orders_pending_created_at ON orders(created_at, id) WHERE status = 'PENDING';
+--rollback DROP INDEX idx_orders_pending_lane_virtual_finish_at;
+--rollback DROP INDEX idx_orders_pending_virtual_finish_at;
+--rollback ALTER TABLE orders_history DROP COLUMN virtual_finish_at;
+--rollback ALTER TABLE orders_history DROP COLUMN lane;
+--rollback ALTER TABLE orders DROP COLUMN virtual_finish_at;
+--rollback ALTER TABLE orders DROP COLUMN lane;
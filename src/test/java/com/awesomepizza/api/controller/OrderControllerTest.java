@@ -1,29 +1,50 @@
 package com.awesomepizza.api.controller;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.awesomepizza.api.dto.CreateOrderBatchRequest;
 import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
 import com.awesomepizza.api.dto.OrderItemRequest;
+import com.awesomepizza.api.dto.OrderLeaseResponse;
+import com.awesomepizza.api.dto.OrderPositionResponse;
 import com.awesomepizza.api.dto.OrderItemResponse;
+import com.awesomepizza.api.dto.OrderQueueSliceResponse;
 import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.dto.OrderStatusBatchRequest;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.exception.InvalidClaimCountException;
 import com.awesomepizza.api.exception.InvalidOrderStateException;
-import com.awesomepizza.api.exception.NoOrdersInQueueException;
+import com.awesomepizza.api.exception.InvalidQueueCursorException;
+import com.awesomepizza.api.exception.KitchenStationNotFoundException;
+import com.awesomepizza.api.exception.OrderAlreadyInProgressException;
 import com.awesomepizza.api.exception.OrderNotFoundException;
 import com.awesomepizza.api.model.OrderStatus;
 import com.awesomepizza.api.service.OrderService;
+import com.awesomepizza.api.service.OrderStatusNotifier;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -34,9 +55,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @WebMvcTest(OrderController.class)
 @DisplayName("OrderController Tests")
@@ -51,6 +76,9 @@ class OrderControllerTest {
 	@MockitoBean
 	private OrderService orderService;
 
+	@MockitoBean
+	private OrderStatusNotifier orderStatusNotifier;
+
 	@Nested
 	@DisplayName("POST /api/orders")
 	class CreateOrderTests {
@@ -218,6 +246,97 @@ class OrderControllerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("POST /api/orders/batch")
+	class CreateOrdersBatchTests {
+
+		@Test
+		@DisplayName("dovrebbe creare tutti gli ordini e restituire 201")
+		void shouldCreateAllOrdersAndReturn201() throws Exception {
+			// Given
+			CreateOrderRequest first = CreateOrderRequest.builder()
+					.customerName("Mario Rossi")
+					.items(List.of(OrderItemRequest.builder().pizzaName("Margherita").quantity(2).build()))
+					.build();
+			CreateOrderRequest second = CreateOrderRequest.builder()
+					.customerName("Luigi Verdi")
+					.items(List.of(OrderItemRequest.builder().pizzaName("Diavola").quantity(1).build()))
+					.build();
+			CreateOrderBatchRequest request = CreateOrderBatchRequest.builder()
+					.orders(List.of(first, second))
+					.build();
+
+			when(orderService.createOrders(List.of(first, second))).thenReturn(List.of(
+					OrderResponse.builder().orderCode("codice-1").customerName("Mario Rossi").status(OrderStatus.PENDING).build(),
+					OrderResponse.builder().orderCode("codice-2").customerName("Luigi Verdi").status(OrderStatus.PENDING).build()));
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(request)))
+					.andExpect(status().isCreated())
+					.andExpect(jsonPath("$", hasSize(2)))
+					.andExpect(jsonPath("$[0].orderCode", is("codice-1")))
+					.andExpect(jsonPath("$[1].customerName", is("Luigi Verdi")));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 indicando l'ordine non valido nel batch")
+		void shouldReturn400WithInvalidOrderIndex() throws Exception {
+			// Given
+			CreateOrderBatchRequest request = CreateOrderBatchRequest.builder()
+					.orders(List.of(
+							CreateOrderRequest.builder()
+									.customerName("Mario Rossi")
+									.items(List.of(OrderItemRequest.builder().pizzaName("Margherita").quantity(1).build()))
+									.build(),
+							CreateOrderRequest.builder()
+									.customerName("")
+									.items(List.of(OrderItemRequest.builder().pizzaName("Margherita").quantity(1).build()))
+									.build()))
+					.build();
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(request)))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message", containsString("orders[1].customerName")));
+			verify(orderService, never()).createOrders(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 se il batch è vuoto")
+		void shouldReturn400WhenBatchIsEmpty() throws Exception {
+			// When/Then
+			mockMvc.perform(post("/api/orders/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("{\"orders\": []}"))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.status").value(400));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 se il batch supera la dimensione massima")
+		void shouldReturn400WhenBatchIsTooLarge() throws Exception {
+			// Given
+			CreateOrderRequest order = CreateOrderRequest.builder()
+					.customerName("Mario Rossi")
+					.items(List.of(OrderItemRequest.builder().pizzaName("Margherita").quantity(1).build()))
+					.build();
+			CreateOrderBatchRequest request = CreateOrderBatchRequest.builder()
+					.orders(Collections.nCopies(CreateOrderBatchRequest.MAX_ORDERS + 1, order))
+					.build();
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(request)))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message", containsString("orders")));
+		}
+	}
+
 	@Nested
 	@DisplayName("GET /api/orders/{orderCode}")
 	class GetOrderTests {
@@ -252,6 +371,45 @@ class OrderControllerTest {
 					.andExpect(jsonPath("$.items[0].quantity", is(2)));
 		}
 
+		@Test
+		@DisplayName("dovrebbe restituire la versione dell'ordine come ETag")
+		void shouldReturnVersionAsETag() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.getOrderByCode(orderCode)).thenReturn(OrderResponse.builder()
+					.orderCode(orderCode)
+					.status(OrderStatus.PENDING)
+					.version(3L)
+					.items(List.of())
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/" + orderCode))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+					.andExpect(jsonPath("$.version", is(3)));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 304 senza corpo se l'ordine non è cambiato")
+		void shouldReturn304WhenOrderNotModified() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.getOrderByCode(orderCode)).thenReturn(OrderResponse.builder()
+					.orderCode(orderCode)
+					.status(OrderStatus.PENDING)
+					.version(3L)
+					.items(List.of())
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/" + orderCode).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+					.andExpect(status().isNotModified())
+					.andExpect(content().string(""));
+			mockMvc.perform(get("/api/orders/" + orderCode).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+					.andExpect(status().isOk());
+		}
+
 		@Test
 		@DisplayName("dovrebbe restituire 404 se l'ordine non esiste")
 		void shouldReturn404WhenOrderNotFound() throws Exception {
@@ -267,6 +425,44 @@ class OrderControllerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("GET /api/orders/{orderCode}/position")
+	class GetOrderPositionTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire la posizione in coda e l'attesa stimata")
+		void shouldReturnOrderPosition() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.getOrderPosition(orderCode)).thenReturn(OrderPositionResponse.builder()
+					.orderCode(orderCode)
+					.status(OrderStatus.PENDING)
+					.position(7)
+					.estimatedWaitSeconds(720L)
+					.estimatedReadyAt(LocalDateTime.of(2026, 10, 17, 19, 12))
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/" + orderCode + "/position"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.position", is(7)))
+					.andExpect(jsonPath("$.estimatedWaitSeconds", is(720)))
+					.andExpect(jsonPath("$.estimatedReadyAt", is("2026-10-17T19:12:00")));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 404 se l'ordine non esiste")
+		void shouldReturn404WhenOrderNotFound() throws Exception {
+			// Given
+			String nonExistentCode = UUID.randomUUID().toString();
+			when(orderService.getOrderPosition(nonExistentCode)).thenThrow(new OrderNotFoundException(nonExistentCode));
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/" + nonExistentCode + "/position"))
+					.andExpect(status().isNotFound());
+		}
+	}
+
 	@Nested
 	@DisplayName("GET /api/orders/{orderCode}/status")
 	class GetOrderStatusTests {
@@ -288,6 +484,22 @@ class OrderControllerTest {
 					.andExpect(jsonPath("$.status", is("IN_PROGRESS")));
 		}
 
+		@Test
+		@DisplayName("dovrebbe restituire 304 se la versione dell'ordine non è cambiata")
+		void shouldReturn304WhenStatusNotModified() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.getOrderStatusByCode(orderCode)).thenReturn(OrderStatusResponse.builder()
+					.status(OrderStatus.IN_PROGRESS)
+					.version(1L)
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/" + orderCode + "/status").header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+					.andExpect(status().isNotModified())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+		}
+
 		@Test
 		@DisplayName("dovrebbe restituire 404 se l'ordine non esiste")
 		void shouldReturn404WhenOrderNotFoundForStatus() throws Exception {
@@ -303,6 +515,129 @@ class OrderControllerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("POST /api/orders/status:batch")
+	class GetOrderStatusesTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire la mappa codice ordine → stato")
+		void shouldReturnStatusesByOrderCode() throws Exception {
+			// Given
+			String firstCode = UUID.randomUUID().toString();
+			String secondCode = UUID.randomUUID().toString();
+			OrderStatusBatchRequest request = OrderStatusBatchRequest.builder()
+					.orderCodes(List.of(firstCode, secondCode))
+					.build();
+			Map<String, OrderStatusResponse> statuses = new LinkedHashMap<>();
+			statuses.put(firstCode, OrderStatusResponse.builder().status(OrderStatus.PENDING).version(0L).build());
+			statuses.put(secondCode, OrderStatusResponse.builder().status(OrderStatus.COMPLETED).version(2L).build());
+			when(orderService.getOrderStatusesByCode(List.of(firstCode, secondCode))).thenReturn(statuses);
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/status:batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(request)))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$['" + firstCode + "'].status", is("PENDING")))
+					.andExpect(jsonPath("$['" + secondCode + "'].version", is(2)));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 se la richiesta supera il numero massimo di codici")
+		void shouldReturn400WhenTooManyOrderCodes() throws Exception {
+			// Given
+			OrderStatusBatchRequest request = OrderStatusBatchRequest.builder()
+					.orderCodes(Collections.nCopies(OrderStatusBatchRequest.MAX_ORDER_CODES + 1, UUID.randomUUID().toString()))
+					.build();
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/status:batch")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(objectMapper.writeValueAsString(request)))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message", containsString("orderCodes")));
+			verify(orderService, never()).getOrderStatusesByCode(any());
+		}
+	}
+
+	@Nested
+	@DisplayName("GET /api/orders/{orderCode}/status?ifStatusNot (long-poll)")
+	class AwaitOrderStatusChangeTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire il nuovo stato quando cambia")
+		void shouldReturnChangedStatus() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			DeferredResult<OrderStatusResponse> deferred = new DeferredResult<>();
+			when(orderStatusNotifier.awaitStatusChange(orderCode, OrderStatus.PENDING)).thenReturn(deferred);
+
+			// When
+			MvcResult result = mockMvc.perform(get("/api/orders/{orderCode}/status", orderCode)
+							.param("ifStatusNot", "PENDING"))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			deferred.setResult(OrderStatusResponse.builder().status(OrderStatus.IN_PROGRESS).build());
+
+			// Then
+			mockMvc.perform(asyncDispatch(result))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.status", is("IN_PROGRESS")));
+			verify(orderService, never()).getOrderStatusByCode(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 per uno stato non valido")
+		void shouldReturn400ForInvalidStatus() throws Exception {
+			// When/Then
+			mockMvc.perform(get("/api/orders/{orderCode}/status", "codice").param("ifStatusNot", "BRUCIATA"))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message", containsString("ifStatusNot")));
+		}
+	}
+
+	@Nested
+	@DisplayName("GET /api/orders/{orderCode}/status/stream")
+	class StreamOrderStatusTests {
+
+		@Test
+		@DisplayName("dovrebbe aprire uno stream SSE con lo stato dell'ordine")
+		void shouldOpenSseStream() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			SseEmitter emitter = new SseEmitter();
+			when(orderStatusNotifier.subscribe(orderCode)).thenReturn(emitter);
+
+			// When
+			MvcResult result = mockMvc.perform(get("/api/orders/{orderCode}/status/stream", orderCode)
+							.accept(MediaType.TEXT_EVENT_STREAM))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			emitter.send(SseEmitter.event().name("status")
+					.data(OrderStatusResponse.builder().status(OrderStatus.COMPLETED).build()));
+			emitter.complete();
+
+			// Then
+			mockMvc.perform(asyncDispatch(result))
+					.andExpect(status().isOk())
+					.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+					.andExpect(content().string(containsString("event:status")))
+					.andExpect(content().string(containsString("\"status\":\"COMPLETED\"")));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 404 per ordine non trovato")
+		void shouldReturn404WhenOrderNotFound() throws Exception {
+			// Given
+			when(orderStatusNotifier.subscribe("inesistente")).thenThrow(new OrderNotFoundException("inesistente"));
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/{orderCode}/status/stream", "inesistente")
+							.accept(MediaType.TEXT_EVENT_STREAM))
+					.andExpect(status().isNotFound());
+		}
+	}
+
 	@Nested
 	@DisplayName("GET /api/orders/queue")
 	class GetQueueTests {
@@ -346,6 +681,33 @@ class OrderControllerTest {
 					.andExpect(jsonPath("$.totalPages", is(1)));
 		}
 
+		@Test
+		@DisplayName("dovrebbe restituire 304 finché nessun ordine della pagina cambia versione")
+		void shouldReturn304UntilAnOrderChanges() throws Exception {
+			// Given
+			OrderResponse order = OrderResponse.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.status(OrderStatus.PENDING)
+					.version(0L)
+					.items(List.of())
+					.build();
+			when(orderService.getOrderQueue(any(Pageable.class)))
+					.thenReturn(new PageImpl<>(List.of(order), PageRequest.of(0, 20), 1));
+			String etag = mockMvc.perform(get("/api/orders/queue"))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+			// When/Then - stesso contenuto
+			mockMvc.perform(get("/api/orders/queue").header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isNotModified());
+
+			// When/Then - l'ordine è stato modificato
+			order.setVersion(1L);
+			mockMvc.perform(get("/api/orders/queue").header(HttpHeaders.IF_NONE_MATCH, etag))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.content", hasSize(1)));
+		}
+
 		@Test
 		@DisplayName("dovrebbe restituire una pagina vuota quando la coda è vuota")
 		void shouldReturnEmptyPage() throws Exception {
@@ -361,6 +723,154 @@ class OrderControllerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("GET /api/orders/queue/cursor")
+	class GetQueueByCursorTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire gli ordini e il cursore della pagina successiva")
+		void shouldReturnSliceWithNextCursor() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			OrderQueueSliceResponse slice = OrderQueueSliceResponse.builder()
+					.orders(List.of(OrderResponse.builder()
+							.orderCode(orderCode)
+							.customerName("Primo")
+							.status(OrderStatus.PENDING)
+							.items(List.of())
+							.build()))
+					.nextCursor("cursore-successivo")
+					.build();
+
+			when(orderService.getOrderQueue("cursore-corrente", 10)).thenReturn(slice);
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/cursor")
+							.param("cursor", "cursore-corrente")
+							.param("size", "10"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.orders", hasSize(1)))
+					.andExpect(jsonPath("$.orders[0].orderCode", is(orderCode)))
+					.andExpect(jsonPath("$.nextCursor", is("cursore-successivo")))
+					.andExpect(jsonPath("$.totalElements").doesNotExist());
+		}
+
+		@Test
+		@DisplayName("dovrebbe usare la prima pagina e la dimensione di default senza parametri")
+		void shouldUseDefaultsWithoutParameters() throws Exception {
+			// Given
+			when(orderService.getOrderQueue(null, 20))
+					.thenReturn(OrderQueueSliceResponse.builder().orders(List.of()).build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/cursor"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.orders", hasSize(0)))
+					.andExpect(jsonPath("$.nextCursor").doesNotExist());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 per un cursore non valido")
+		void shouldReturn400ForInvalidCursor() throws Exception {
+			// Given
+			when(orderService.getOrderQueue("rotto", 20))
+					.thenThrow(new InvalidQueueCursorException("rotto"));
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/cursor").param("cursor", "rotto"))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.status").value(400));
+		}
+	}
+
+	@Nested
+	@DisplayName("GET /api/orders/queue/snapshot")
+	class GetKitchenQueueTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire la vista completa con la sua versione")
+		void shouldReturnFullViewWithVersion() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.getKitchenQueue(null, null)).thenReturn(KitchenQueueResponse.builder()
+					.epoch("epoca-1")
+					.version(12)
+					.full(true)
+					.orders(List.of(OrderResponse.builder()
+							.orderCode(orderCode)
+							.status(OrderStatus.IN_PROGRESS)
+							.items(List.of())
+							.build()))
+					.removedOrderCodes(List.of())
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/snapshot"))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"epoca-1-12\""))
+					.andExpect(jsonPath("$.epoch", is("epoca-1")))
+					.andExpect(jsonPath("$.version", is(12)))
+					.andExpect(jsonPath("$.full", is(true)))
+					.andExpect(jsonPath("$.orders", hasSize(1)))
+					.andExpect(jsonPath("$.orders[0].orderCode", is(orderCode)));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 304 se la versione della vista non è cambiata")
+		void shouldReturn304WhenViewNotModified() throws Exception {
+			// Given
+			when(orderService.getKitchenQueue(null, null)).thenReturn(KitchenQueueResponse.builder()
+					.epoch("epoca-1")
+					.version(12)
+					.full(true)
+					.orders(List.of())
+					.removedOrderCodes(List.of())
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/snapshot").header(HttpHeaders.IF_NONE_MATCH, "\"epoca-1-12\""))
+					.andExpect(status().isNotModified());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire la vista se la stessa versione viene da un'altra epoca")
+		void shouldReturnViewWhenVersionIsFromAnotherEpoch() throws Exception {
+			// Given - il display ha visto la versione 12 di un'altra istanza
+			when(orderService.getKitchenQueue(null, null)).thenReturn(KitchenQueueResponse.builder()
+					.epoch("epoca-2")
+					.version(12)
+					.full(true)
+					.orders(List.of())
+					.removedOrderCodes(List.of())
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/snapshot").header(HttpHeaders.IF_NONE_MATCH, "\"epoca-1-12\""))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.ETAG, "\"epoca-2-12\""));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire i cambiamenti successivi alla versione indicata")
+		void shouldReturnChangesSinceVersion() throws Exception {
+			// Given
+			when(orderService.getKitchenQueue("epoca-1", 10L)).thenReturn(KitchenQueueResponse.builder()
+					.epoch("epoca-1")
+					.version(12)
+					.full(false)
+					.orders(List.of())
+					.removedOrderCodes(List.of("completato"))
+					.build());
+
+			// When/Then
+			mockMvc.perform(get("/api/orders/queue/snapshot").param("epoch", "epoca-1").param("sinceVersion", "10"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.full", is(false)))
+					.andExpect(jsonPath("$.orders", hasSize(0)))
+					.andExpect(jsonPath("$.removedOrderCodes[0]", is("completato")));
+		}
+	}
+
 	@Nested
 	@DisplayName("PUT /api/orders/next")
 	class TakeNextOrderTests {
@@ -380,7 +890,7 @@ class OrderControllerTest {
 							.pizzaName("Quattro Formaggi").quantity(1).build()))
 					.build();
 
-			when(orderService.takeNextOrder()).thenReturn(response);
+			when(orderService.takeNextOrder()).thenReturn(Optional.of(response));
 
 			// When/Then
 			mockMvc.perform(post("/api/orders/next"))
@@ -394,14 +904,105 @@ class OrderControllerTest {
 		}
 
 		@Test
-		@DisplayName("dovrebbe restituire 404 se la coda è vuota")
-		void shouldReturn404WhenQueueIsEmpty() throws Exception {
+		@DisplayName("dovrebbe prendere il prossimo ordine per la stazione richiesta")
+		void shouldTakeNextOrderForStation() throws Exception {
 			// Given
-			when(orderService.takeNextOrder()).thenThrow(new NoOrdersInQueueException());
+			String orderCode = UUID.randomUUID().toString();
+			OrderResponse response = OrderResponse.builder()
+					.orderCode(orderCode)
+					.customerName("Cliente")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.items(List.of())
+					.build();
+
+			when(orderService.takeNextOrder("forno-2")).thenReturn(Optional.of(response));
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/next").param("station", "forno-2"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.orderCode", is(orderCode)))
+					.andExpect(jsonPath("$.station", is("forno-2")));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 404 se la stazione non esiste")
+		void shouldReturn404WhenStationNotFound() throws Exception {
+			// Given
+			when(orderService.takeNextOrder("forno-99"))
+					.thenThrow(new KitchenStationNotFoundException("forno-99"));
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/next").param("station", "forno-99"))
+					.andExpect(status().isNotFound())
+					.andExpect(jsonPath("$.status").value(404));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 409 se la stazione è alla capacità massima")
+		void shouldReturn409WhenStationIsFull() throws Exception {
+			// Given
+			when(orderService.takeNextOrder("forno-2"))
+					.thenThrow(new OrderAlreadyInProgressException("forno-2"));
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/next").param("station", "forno-2"))
+					.andExpect(status().isConflict())
+					.andExpect(jsonPath("$.status").value(409));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 204 senza corpo se la coda è vuota")
+		void shouldReturn204WhenQueueIsEmpty() throws Exception {
+			// Given
+			when(orderService.takeNextOrder()).thenReturn(Optional.empty());
 
 			// When/Then
 			mockMvc.perform(post("/api/orders/next"))
-					.andExpect(status().isNotFound());
+					.andExpect(status().isNoContent())
+					.andExpect(content().string(""));
+		}
+
+		@Test
+		@DisplayName("dovrebbe prendere più ordini con il parametro count")
+		void shouldTakeNextOrdersWithCount() throws Exception {
+			// Given
+			List<OrderResponse> responses = List.of(
+					OrderResponse.builder().orderCode("order-1").status(OrderStatus.IN_PROGRESS).station("banco-1").build(),
+					OrderResponse.builder().orderCode("order-2").status(OrderStatus.IN_PROGRESS).station("banco-1").build());
+
+			when(orderService.takeNextOrders("banco-1", 2)).thenReturn(responses);
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/next").param("count", "2").param("station", "banco-1"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$", hasSize(2)))
+					.andExpect(jsonPath("$[0].orderCode", is("order-1")))
+					.andExpect(jsonPath("$[1].orderCode", is("order-2")));
+			verify(orderService, never()).takeNextOrder(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 204 con il parametro count se la coda è vuota")
+		void shouldReturn204WithCountWhenQueueIsEmpty() throws Exception {
+			// Given
+			when(orderService.takeNextOrders(3)).thenReturn(List.of());
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/next").param("count", "3"))
+					.andExpect(status().isNoContent());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 400 se count è fuori dai limiti")
+		void shouldReturn400WhenCountIsOutOfRange() throws Exception {
+			// Given
+			when(orderService.takeNextOrders(0)).thenThrow(new InvalidClaimCountException(0, 20));
+
+			// When/Then
+			mockMvc.perform(post("/api/orders/next").param("count", "0"))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.status", is(400)));
 		}
 	}
 
@@ -451,6 +1052,24 @@ class OrderControllerTest {
 					.andExpect(jsonPath("$.message").exists());
 		}
 
+		@Test
+		@DisplayName("dovrebbe completare l'ordine per conto della stazione indicata")
+		void shouldCompleteOrderForStation() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.completeOrder(orderCode, "forno-2")).thenReturn(OrderResponse.builder()
+					.orderCode(orderCode)
+					.status(OrderStatus.COMPLETED)
+					.station("forno-2")
+					.build());
+
+			// When/Then
+			mockMvc.perform(put("/api/orders/" + orderCode + "/complete").param("station", "forno-2"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.station", is("forno-2")));
+			verify(orderService, never()).completeOrder(orderCode);
+		}
+
 		@Test
 		@DisplayName("dovrebbe restituire 404 se l'ordine non esiste")
 		void shouldReturn404WhenOrderNotFoundForComplete() throws Exception {
@@ -466,4 +1085,54 @@ class OrderControllerTest {
 					.andExpect(jsonPath("$.message").exists());
 		}
 	}
+
+	@Nested
+	@DisplayName("PUT /api/orders/{orderCode}/heartbeat")
+	class HeartbeatTests {
+
+		@Test
+		@DisplayName("dovrebbe rinnovare la presa in carico e restituire la nuova scadenza")
+		void shouldRenewLease() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.renewLease(eq(orderCode))).thenReturn(OrderLeaseResponse.builder()
+					.orderCode(orderCode)
+					.leaseExpiresAt(LocalDateTime.now().plusMinutes(5))
+					.build());
+
+			// When/Then
+			mockMvc.perform(put("/api/orders/" + orderCode + "/heartbeat"))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.orderCode", is(orderCode)))
+					.andExpect(jsonPath("$.leaseExpiresAt").exists());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 409 se la presa in carico è scaduta e l'ordine è tornato in coda")
+		void shouldReturn409WhenLeaseLost() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.renewLease(eq(orderCode)))
+					.thenThrow(new InvalidOrderStateException("L'ordine deve essere IN_PROGRESS"));
+
+			// When/Then
+			mockMvc.perform(put("/api/orders/" + orderCode + "/heartbeat"))
+					.andExpect(status().isConflict())
+					.andExpect(jsonPath("$.status").value(409));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 409 se l'ordine è in carico a un'altra stazione")
+		void shouldReturn409WhenOrderOwnedByAnotherStation() throws Exception {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderService.renewLease(orderCode, "forno-1"))
+					.thenThrow(new InvalidOrderStateException("L'ordine è in carico alla stazione forno-2, non a forno-1"));
+
+			// When/Then
+			mockMvc.perform(put("/api/orders/" + orderCode + "/heartbeat").param("station", "forno-1"))
+					.andExpect(status().isConflict())
+					.andExpect(jsonPath("$.message", containsString("forno-2")));
+		}
+	}
 }
@@ -60,18 +60,21 @@ class GlobalExceptionHandlerTest {
 	}
 
 	@Nested
-	@DisplayName("NoOrdersInQueueException")
-	class NoOrdersInQueueExceptionTests {
+	@DisplayName("Coda vuota")
+	class EmptyQueueTests {
 
 		@Test
-		@DisplayName("dovrebbe restituire 404 Not Found quando la coda è vuota")
-		void shouldReturn404NoContentWhenQueueIsEmpty() throws Exception {
+		@DisplayName("dovrebbe restituire 204 No Content senza corpo quando la coda è vuota")
+		void shouldReturn204NoContentWhenQueueIsEmpty() throws Exception {
 			// Given - assicurarsi che non ci siano ordini PENDING nella coda
 			// Il test è @Transactional quindi il DB è pulito
 
 			// When/Then
-			mockMvc.perform(post("/api/orders/next"))
-					.andExpect(status().isNotFound());
+			MvcResult result = mockMvc.perform(post("/api/orders/next"))
+					.andExpect(status().isNoContent())
+					.andReturn();
+
+			assertThat(result.getResponse().getContentAsString()).isEmpty();
 		}
 	}
 
@@ -118,6 +121,37 @@ class GlobalExceptionHandlerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("KitchenStationNotFoundException")
+	class KitchenStationNotFoundExceptionTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire 404 con ErrorResponse per stazione non configurata")
+		void shouldReturn404ForUnknownStation() throws Exception {
+			// Given - un ordine in coda
+			mockMvc.perform(post("/api/orders")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("""
+									{
+										"customerName": "Mario Rossi",
+										"items": [{"pizzaName": "Margherita", "quantity": 1}]
+									}
+									"""))
+					.andExpect(status().isCreated());
+
+			// When
+			MvcResult result = mockMvc.perform(post("/api/orders/next").param("station", "forno-inesistente"))
+					.andExpect(status().isNotFound())
+					.andExpect(jsonPath("$.status").value(HttpStatus.NOT_FOUND.value()))
+					.andReturn();
+
+			// Then
+			ErrorResponse response = objectMapper.readValue(
+					result.getResponse().getContentAsString(), ErrorResponse.class);
+			assertThat(response.getMessage()).contains("forno-inesistente");
+		}
+	}
+
 	@Nested
 	@DisplayName("InvalidOrderStateException")
 	class InvalidOrderStateExceptionTests {
@@ -0,0 +1,67 @@
+package com.awesomepizza.api.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+@DisplayName("RateLimitedLog Unit Tests")
+class RateLimitedLogTest {
+
+	private final AtomicLong nanoTime = new AtomicLong();
+	private final Logger logger = (Logger) LoggerFactory.getLogger(RateLimitedLogTest.class);
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+	private RateLimitedLog rateLimitedLog;
+
+	@BeforeEach
+	void setUp() {
+		appender.start();
+		logger.addAppender(appender);
+		rateLimitedLog = new RateLimitedLog(logger, Duration.ofSeconds(1), nanoTime::get);
+	}
+
+	@AfterEach
+	void tearDown() {
+		logger.detachAppender(appender);
+	}
+
+	@Test
+	@DisplayName("dovrebbe scrivere un solo messaggio per intervallo")
+	void shouldWriteOneMessagePerInterval() {
+		// When
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-1");
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-2");
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-3");
+
+		// Then
+		assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+				.containsExactly("Ordine non trovato: codice-1");
+	}
+
+	@Test
+	@DisplayName("dovrebbe riportare il numero di messaggi soppressi nel messaggio successivo")
+	void shouldReportSuppressedMessagesAfterInterval() {
+		// Given
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-1");
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-2");
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-3");
+
+		// When
+		nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+		rateLimitedLog.warn("Ordine non trovato: {}", "codice-4");
+
+		// Then
+		assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage).containsExactly(
+				"Ordine non trovato: codice-1",
+				"Ordine non trovato: codice-4 (2 messaggi simili soppressi)");
+	}
+}
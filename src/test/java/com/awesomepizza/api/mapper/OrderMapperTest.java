@@ -1,14 +1,20 @@
 package com.awesomepizza.api.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.awesomepizza.api.dto.OrderItemResponse;
 import com.awesomepizza.api.dto.OrderResponse;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.model.ArchivedOrder;
+import com.awesomepizza.api.model.ArchivedOrderItem;
 import com.awesomepizza.api.model.Order;
 import com.awesomepizza.api.model.OrderItem;
+import com.awesomepizza.api.model.OrderLane;
 import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderQueueRow;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -43,6 +49,7 @@ class OrderMapperTest {
 					.customerName("Mario Rossi")
 					.status(OrderStatus.PENDING)
 					.createdAt(createdAt)
+					.version(2L)
 					.build();
 
 			// When
@@ -53,6 +60,7 @@ class OrderMapperTest {
 			assertThat(response.getCustomerName()).isEqualTo("Mario Rossi");
 			assertThat(response.getStatus()).isEqualTo(OrderStatus.PENDING);
 			assertThat(response.getCreatedAt()).isEqualTo(createdAt);
+			assertThat(response.getVersion()).isEqualTo(2L);
 		}
 
 		@Test
@@ -138,11 +146,100 @@ class OrderMapperTest {
 		@DisplayName("dovrebbe gestire ordine null restituendo null")
 		void shouldHandleNullOrder() {
 			// Given/When
-			OrderResponse response = orderMapper.toOrderResponse(null);
+			OrderResponse response = orderMapper.toOrderResponse((Order) null);
 
 			// Then
 			assertThat(response).isNull();
 		}
+
+		@Test
+		@DisplayName("dovrebbe mappare un ordine archiviato come un ordine attivo")
+		void shouldMapArchivedOrder() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			ArchivedOrder order = ArchivedOrder.builder()
+					.id(1L)
+					.orderCode(orderCode)
+					.customerName("Mario Rossi")
+					.status(OrderStatus.COMPLETED)
+					.createdAt(LocalDateTime.of(2026, 2, 3, 10, 30, 0))
+					.station("forno-1")
+					.build();
+			order.getItems().add(ArchivedOrderItem.builder().id(2L).pizzaName("Margherita").quantity(2).order(order).build());
+
+			// When
+			OrderResponse response = orderMapper.toOrderResponse(order);
+
+			// Then
+			assertThat(response.getOrderCode()).isEqualTo(orderCode);
+			assertThat(response.getStatus()).isEqualTo(OrderStatus.COMPLETED);
+			assertThat(response.getStation()).isEqualTo("forno-1");
+			assertThat(response.getItems()).singleElement()
+					.satisfies(item -> {
+						assertThat(item.getPizzaName()).isEqualTo("Margherita");
+						assertThat(item.getQuantity()).isEqualTo(2);
+					});
+		}
+	}
+
+	@Nested
+	@DisplayName("toOrderResponses")
+	class ToOrderResponsesTests {
+
+		@Test
+		@DisplayName("dovrebbe raggruppare le righe della coda per ordine mantenendone l'ordine")
+		void shouldGroupQueueRowsByOrder() {
+			// Given
+			LocalDateTime createdAt1 = LocalDateTime.of(2026, 2, 3, 10, 0);
+			LocalDateTime createdAt2 = LocalDateTime.of(2026, 2, 3, 10, 5);
+			List<OrderQueueRow> rows = List.of(
+					new OrderQueueRow(1L, "order-1", "Mario Rossi", OrderStatus.PENDING, createdAt1, OrderLane.STANDARD,
+							createdAt1.plusMinutes(1), null, 3L, "Margherita", 2),
+					new OrderQueueRow(1L, "order-1", "Mario Rossi", OrderStatus.PENDING, createdAt1, OrderLane.STANDARD,
+							createdAt1.plusMinutes(1), null, 3L, "Diavola", 1),
+					new OrderQueueRow(2L, "order-2", "Luigi Verdi", OrderStatus.PENDING, createdAt2, OrderLane.EXPRESS,
+							createdAt2.plusSeconds(20), null, 0L, "Capricciosa", 3));
+
+			// When
+			List<OrderResponse> responses = orderMapper.toOrderResponses(rows);
+
+			// Then
+			assertThat(responses).extracting(OrderResponse::getOrderCode).containsExactly("order-1", "order-2");
+			assertThat(responses.get(0).getCustomerName()).isEqualTo("Mario Rossi");
+			assertThat(responses.get(0).getStatus()).isEqualTo(OrderStatus.PENDING);
+			assertThat(responses.get(0).getCreatedAt()).isEqualTo(createdAt1);
+			assertThat(responses.get(0).getLane()).isEqualTo(OrderLane.STANDARD);
+			assertThat(responses.get(0).getVirtualFinishAt()).isEqualTo(createdAt1.plusMinutes(1));
+			assertThat(responses.get(0).getVersion()).isEqualTo(3L);
+			assertThat(responses.get(0).getItems())
+					.extracting(OrderItemResponse::getPizzaName, OrderItemResponse::getQuantity)
+					.containsExactly(tuple("Margherita", 2), tuple("Diavola", 1));
+			assertThat(responses.get(1).getItems())
+					.extracting(OrderItemResponse::getPizzaName)
+					.containsExactly("Capricciosa");
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire un ordine senza items per una riga senza pizza")
+		void shouldMapRowWithoutItemToEmptyItems() {
+			// Given
+			LocalDateTime createdAt = LocalDateTime.of(2026, 2, 3, 10, 0);
+			List<OrderQueueRow> rows = List.of(new OrderQueueRow(1L, "order-1", "Mario Rossi", OrderStatus.PENDING,
+					createdAt, OrderLane.STANDARD, createdAt, null, 0L, null, null));
+
+			// When
+			List<OrderResponse> responses = orderMapper.toOrderResponses(rows);
+
+			// Then
+			assertThat(responses).singleElement().satisfies(response -> assertThat(response.getItems()).isEmpty());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire lista vuota per nessuna riga")
+		void shouldReturnEmptyListForNoRows() {
+			// When/Then
+			assertThat(orderMapper.toOrderResponses(List.of())).isEmpty();
+		}
 	}
 
 	@Nested
@@ -171,7 +268,7 @@ class OrderMapperTest {
 		@DisplayName("dovrebbe gestire item null restituendo null")
 		void shouldHandleNullItem() {
 			// Given/When
-			OrderItemResponse response = orderMapper.toOrderItemResponse(null);
+			OrderItemResponse response = orderMapper.toOrderItemResponse((OrderItem) null);
 
 			// Then
 			assertThat(response).isNull();
@@ -208,10 +305,26 @@ class OrderMapperTest {
 		@DisplayName("dovrebbe gestire ordine null restituendo null")
 		void shouldHandleNullOrder() {
 			// Given/When
-			OrderStatusResponse response = orderMapper.toOrderStatusResponse(null);
+			OrderStatusResponse response = orderMapper.toOrderStatusResponse((Order) null);
 
 			// Then
 			assertThat(response).isNull();
 		}
+
+		@Test
+		@DisplayName("dovrebbe mappare lo stato da un OrderResponse")
+		void shouldMapStatusFromOrderResponse() {
+			// Given
+			OrderResponse order = OrderResponse.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.status(OrderStatus.IN_PROGRESS)
+					.build();
+
+			// When
+			OrderStatusResponse response = orderMapper.toOrderStatusResponse(order);
+
+			// Then
+			assertThat(response.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+		}
 	}
 }
@@ -0,0 +1,73 @@
+package com.awesomepizza.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesomepizza.api.model.ArchivedOrder;
+import com.awesomepizza.api.model.ArchivedOrderItem;
+import com.awesomepizza.api.model.OrderStatus;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+@DataJpaTest
+@DisplayName("ArchivedOrderRepository Tests")
+class ArchivedOrderRepositoryTest {
+
+	@Autowired
+	private ArchivedOrderRepository archivedOrderRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Nested
+	@DisplayName("findByOrderCode")
+	class FindByOrderCodeTests {
+
+		@Test
+		@DisplayName("dovrebbe trovare un ordine archiviato con i suoi items")
+		void shouldFindArchivedOrderWithItems() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			ArchivedOrder order = entityManager.persist(ArchivedOrder.builder()
+					.id(10L)
+					.orderCode(orderCode)
+					.customerName("Mario Rossi")
+					.status(OrderStatus.COMPLETED)
+					.createdAt(LocalDateTime.now().minusDays(30))
+					.station("forno-1")
+					.build());
+			entityManager.persist(ArchivedOrderItem.builder().id(20L).pizzaName("Margherita").quantity(2).order(order)
+					.orderCreatedAt(order.getCreatedAt()).build());
+			entityManager.persist(ArchivedOrderItem.builder().id(21L).pizzaName("Diavola").quantity(1).order(order)
+					.orderCreatedAt(order.getCreatedAt()).build());
+			entityManager.flush();
+			entityManager.clear();
+
+			// When
+			Optional<ArchivedOrder> found = archivedOrderRepository.findByOrderCode(orderCode);
+
+			// Then
+			assertThat(found).isPresent();
+			assertThat(found.get().getStatus()).isEqualTo(OrderStatus.COMPLETED);
+			assertThat(found.get().getItems())
+					.extracting(ArchivedOrderItem::getPizzaName)
+					.containsExactly("Margherita", "Diavola");
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire Optional vuoto per codice non archiviato")
+		void shouldReturnEmptyForUnknownCode() {
+			// When
+			Optional<ArchivedOrder> found = archivedOrderRepository.findByOrderCode(UUID.randomUUID().toString());
+
+			// Then
+			assertThat(found).isEmpty();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.awesomepizza.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CreatedAtRange Unit Tests")
+class CreatedAtRangeTest {
+
+	private static final Instant GENERATED_AT = Instant.parse("2026-10-17T18:30:00Z");
+
+	@Nested
+	@DisplayName("codici UUID v7")
+	class Version7Tests {
+
+		@Test
+		@DisplayName("dovrebbe ricavare l'intervallo dal timestamp del codice con un giorno di margine")
+		void shouldDeriveRangeFromCodeTimestamp() {
+			// Given
+			String orderCode = uuidV7(GENERATED_AT).toString();
+			LocalDateTime generatedAt = LocalDateTime.ofInstant(GENERATED_AT, ZoneId.systemDefault());
+
+			// When
+			CreatedAtRange range = CreatedAtRange.of(orderCode);
+
+			// Then
+			assertThat(range.from()).isEqualTo(generatedAt.minusDays(1));
+			assertThat(range.to()).isEqualTo(generatedAt.plusDays(1));
+		}
+
+		@Test
+		@DisplayName("dovrebbe coprire tutti i codici richiesti insieme")
+		void shouldCoverAllCodes() {
+			// Given
+			Instant later = GENERATED_AT.plusSeconds(3 * 86_400);
+			UUID[] orderCodes = {uuidV7(later), uuidV7(GENERATED_AT)};
+
+			// When
+			CreatedAtRange range = CreatedAtRange.of(orderCodes);
+
+			// Then
+			assertThat(range.from()).isEqualTo(LocalDateTime.ofInstant(GENERATED_AT, ZoneId.systemDefault()).minusDays(1));
+			assertThat(range.to()).isEqualTo(LocalDateTime.ofInstant(later, ZoneId.systemDefault()).plusDays(1));
+		}
+	}
+
+	@Nested
+	@DisplayName("altri codici")
+	class UnboundedTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire l'intervallo illimitato per un UUID v4")
+		void shouldBeUnboundedForRandomCodes() {
+			assertThat(CreatedAtRange.of(UUID.randomUUID().toString())).isEqualTo(CreatedAtRange.UNBOUNDED);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire l'intervallo illimitato se uno dei codici non è un UUID v7")
+		void shouldBeUnboundedWhenAnyCodeIsNotVersion7() {
+			assertThat(CreatedAtRange.of(new UUID[] {uuidV7(GENERATED_AT), UUID.randomUUID()}))
+					.isEqualTo(CreatedAtRange.UNBOUNDED);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire l'intervallo illimitato per un codice non UUID")
+		void shouldBeUnboundedForMalformedCodes() {
+			assertThat(CreatedAtRange.of("non-un-uuid")).isEqualTo(CreatedAtRange.UNBOUNDED);
+		}
+	}
+
+	private static UUID uuidV7(Instant generatedAt) {
+		long msb = generatedAt.toEpochMilli() << 16 | 0x7000L | 0x123L;
+		return new UUID(msb, 0x8000_0000_0000_0001L);
+	}
+}
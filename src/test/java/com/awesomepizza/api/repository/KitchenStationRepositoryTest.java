@@ -0,0 +1,123 @@
+package com.awesomepizza.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesomepizza.api.model.KitchenStation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+@DataJpaTest
+@DisplayName("KitchenStationRepository Tests")
+class KitchenStationRepositoryTest {
+
+	@Autowired
+	private KitchenStationRepository kitchenStationRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private void givenStation(String id, int capacity, int inProgress) {
+		kitchenStationRepository.saveAndFlush(KitchenStation.builder()
+				.id(id)
+				.capacity(capacity)
+				.inProgress(inProgress)
+				.build());
+	}
+
+	private int inProgressOf(String id) {
+		// Gli UPDATE JPQL non aggiornano il persistence context
+		entityManager.clear();
+		return kitchenStationRepository.findById(id).orElseThrow().getInProgress();
+	}
+
+	@Nested
+	@DisplayName("tryReserveSlot")
+	class TryReserveSlotTests {
+
+		@Test
+		@DisplayName("dovrebbe occupare posti fino alla capacità della stazione")
+		void shouldReserveSlotsUpToCapacity() {
+			// Given
+			givenStation("forno-1", 2, 0);
+
+			// When
+			int first = kitchenStationRepository.tryReserveSlot("forno-1");
+			int second = kitchenStationRepository.tryReserveSlot("forno-1");
+			int third = kitchenStationRepository.tryReserveSlot("forno-1");
+
+			// Then
+			assertThat(first).isEqualTo(1);
+			assertThat(second).isEqualTo(1);
+			assertThat(third).isZero();
+			assertThat(inProgressOf("forno-1")).isEqualTo(2);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire 0 per stazione inesistente")
+		void shouldReturnZeroForUnknownStation() {
+			// When
+			int updated = kitchenStationRepository.tryReserveSlot("forno-99");
+
+			// Then
+			assertThat(updated).isZero();
+		}
+	}
+
+	@Nested
+	@DisplayName("tryReserveSlots")
+	class TryReserveSlotsTests {
+
+		@Test
+		@DisplayName("dovrebbe occupare tutti i posti richiesti o nessuno")
+		void shouldReserveAllSlotsOrNone() {
+			// Given
+			givenStation("banco-1", 4, 1);
+
+			// When
+			int tooMany = kitchenStationRepository.tryReserveSlots("banco-1", 4);
+			int fitting = kitchenStationRepository.tryReserveSlots("banco-1", 3);
+
+			// Then
+			assertThat(tooMany).isZero();
+			assertThat(fitting).isEqualTo(1);
+			assertThat(inProgressOf("banco-1")).isEqualTo(4);
+		}
+	}
+
+	@Nested
+	@DisplayName("releaseSlot")
+	class ReleaseSlotTests {
+
+		@Test
+		@DisplayName("dovrebbe liberare un posto occupato")
+		void shouldReleaseReservedSlot() {
+			// Given
+			givenStation("forno-1", 2, 2);
+
+			// When
+			int updated = kitchenStationRepository.releaseSlot("forno-1");
+
+			// Then
+			assertThat(updated).isEqualTo(1);
+			assertThat(inProgressOf("forno-1")).isEqualTo(1);
+		}
+
+		@Test
+		@DisplayName("non dovrebbe portare il contatore sotto zero")
+		void shouldNotGoBelowZero() {
+			// Given
+			givenStation("forno-1", 1, 0);
+
+			// When
+			int updated = kitchenStationRepository.releaseSlot("forno-1");
+
+			// Then
+			assertThat(updated).isZero();
+			assertThat(inProgressOf("forno-1")).isZero();
+		}
+	}
+}
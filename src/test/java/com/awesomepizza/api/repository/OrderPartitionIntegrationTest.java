@@ -0,0 +1,244 @@
+package com.awesomepizza.api.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.awesomepizza.api.config.OrderArchiveProperties;
+import com.awesomepizza.api.model.ArchivedOrder;
+import com.awesomepizza.api.model.ArchivedOrderItem;
+import com.awesomepizza.api.model.OrderItem;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.service.OrderArchiver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Test delle funzioni SQL di manutenzione delle partizioni (migrazione V009) su PostgreSQL:
+ * creazione delle partizioni giornaliere, partizioni di default, archiviazione e unicità dei codici.
+ * Ogni test usa giorni diversi, perché le partizioni create restano nel database condiviso dalla classe.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("testcontainers")
+@DisplayName("Order Partition Integration Tests")
+class OrderPartitionIntegrationTest {
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ArchivedOrderRepository archivedOrderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private OrderArchiver orderArchiver;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		orderArchiver = new OrderArchiver(orderRepository, archivedOrderRepository,
+				new OrderArchiveProperties(true, Duration.ofDays(7), 14, Duration.ofHours(1)));
+		meterRegistry = new SimpleMeterRegistry();
+		orderArchiver.bindTo(meterRegistry);
+	}
+
+	@Nested
+	@DisplayName("create_order_partitions")
+	class CreatePartitionsTests {
+
+		@Test
+		@DisplayName("dovrebbe creare ogni partizione con il CHECK sul proprio intervallo")
+		void shouldCreatePartitionsWithRangeCheck() {
+			// When
+			Integer created = createPartitions(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 3));
+
+			// Then
+			assertThat(created).isEqualTo(2);
+			assertThat(jdbcTemplate.queryForList(
+					"SELECT conname FROM pg_constraint WHERE contype = 'c' AND conname LIKE '%20200101_range'", String.class))
+					.containsExactlyInAnyOrder("orders_p20200101_range", "order_items_p20200101_range");
+		}
+
+		@Test
+		@DisplayName("dovrebbe spostare dalla partizione di default gli ordini del giorno creato")
+		void shouldMoveOrdersOutOfDefaultPartition() {
+			// Given - il giorno non ha ancora una partizione: l'ordine finisce in orders_default
+			LocalDateTime createdAt = LocalDateTime.of(2020, 2, 1, 12, 0);
+			String orderCode = insertOrder(createdAt, OrderStatus.PENDING);
+			assertThat(partitionOf(orderCode)).isEqualTo("orders_default");
+
+			// When
+			createPartitions(createdAt.toLocalDate(), createdAt.toLocalDate().plusDays(1));
+
+			// Then
+			assertThat(partitionOf(orderCode)).isEqualTo("orders_p20200201");
+			assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items_p20200201", Integer.class))
+					.isEqualTo(1);
+			assertThat(orderRepository.findByOrderCode(orderCode)).isPresent();
+			assertThat(registeredCodes(orderCode)).isEqualTo(1);
+		}
+	}
+
+	@Nested
+	@DisplayName("archiviazione")
+	class ArchiveTests {
+
+		@Test
+		@DisplayName("dovrebbe archiviare i giorni terminati lasciando attivi gli ordini non completati")
+		void shouldArchiveDaysKeepingOpenOrdersActive() {
+			// Given - il giorno centrale ha un ordine rimasto PENDING
+			LocalDateTime completedDay = LocalDateTime.of(2020, 3, 1, 12, 0);
+			LocalDateTime openDay = completedDay.plusDays(1);
+			LocalDateTime secondCompletedDay = completedDay.plusDays(2);
+			createPartitions(completedDay.toLocalDate(), secondCompletedDay.toLocalDate().plusDays(1));
+			String completed = insertOrder(completedDay, OrderStatus.COMPLETED);
+			String open = insertOrder(openDay, OrderStatus.PENDING);
+			String completedSameDay = insertOrder(openDay, OrderStatus.COMPLETED);
+			String secondCompleted = insertOrder(secondCompletedDay, OrderStatus.COMPLETED);
+
+			// When
+			int archived = orderArchiver.archiveCompletedOrders();
+
+			// Then - anche il giorno con l'ordine aperto è archiviato, l'ordine resta nella partizione di default
+			assertThat(archived).isEqualTo(3);
+			assertThat(partitionOf(completed)).isNull();
+			assertThat(partitionOf(completedSameDay)).isNull();
+			assertThat(partitionOf(secondCompleted)).isNull();
+			assertThat(partitionOf(open)).isEqualTo("orders_default");
+			assertThat(orderRepository.findByOrderCode(open).orElseThrow().getItems())
+					.extracting(OrderItem::getPizzaName).containsExactly("Margherita");
+			assertThat(registeredCodes(open)).isEqualTo(1);
+			assertThat(meterRegistry.get("awesome-pizza.orders.archive.stragglers").functionCounter().count()).isEqualTo(1);
+			ArchivedOrder archivedOrder = archivedOrderRepository.findByOrderCode(completed).orElseThrow();
+			assertThat(archivedOrder.getItems()).extracting(ArchivedOrderItem::getPizzaName).containsExactly("Margherita");
+			assertThat(archivedOrderRepository.findByOrderCode(completedSameDay)).isPresent();
+			assertThat(jdbcTemplate.queryForObject(
+					"SELECT count(*) FROM pg_inherits WHERE inhrelid = 'orders_history_p20200301'::regclass"
+							+ " AND inhparent = 'orders_history'::regclass", Integer.class))
+					.isEqualTo(1);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lasciare il CHECK sull'intervallo nelle partizioni archiviate")
+		void shouldKeepRangeCheckOnArchivedPartitions() {
+			// Given
+			LocalDateTime createdAt = LocalDateTime.of(2020, 4, 1, 12, 0);
+			createPartitions(createdAt.toLocalDate(), createdAt.toLocalDate().plusDays(1));
+			insertOrder(createdAt, OrderStatus.COMPLETED);
+
+			// When
+			orderArchiver.archiveCompletedOrders();
+
+			// Then
+			assertThat(jdbcTemplate.queryForList(
+					"SELECT conrelid::regclass::text FROM pg_constraint WHERE conname LIKE '%20200401_range'", String.class))
+					.containsExactlyInAnyOrder("orders_history_p20200401", "order_items_history_p20200401");
+		}
+	}
+
+	@Nested
+	@DisplayName("unicità di order_code")
+	class OrderCodeUniquenessTests {
+
+		@Test
+		@DisplayName("dovrebbe rifiutare un codice già usato da un ordine di un altro giorno")
+		void shouldRejectDuplicateCodeAcrossPartitions() {
+			// Given
+			LocalDateTime createdAt = LocalDateTime.of(2020, 5, 1, 12, 0);
+			createPartitions(createdAt.toLocalDate(), createdAt.toLocalDate().plusDays(2));
+			String orderCode = insertOrder(createdAt, OrderStatus.COMPLETED);
+
+			// When/Then
+			assertThatThrownBy(() -> insertOrder(orderCode, createdAt.plusDays(1), OrderStatus.PENDING))
+					.isInstanceOf(DataIntegrityViolationException.class);
+		}
+
+		@Test
+		@DisplayName("dovrebbe rifiutare un codice già usato da un ordine archiviato")
+		void shouldRejectCodeOfArchivedOrder() {
+			// Given
+			LocalDateTime createdAt = LocalDateTime.of(2020, 6, 1, 12, 0);
+			createPartitions(createdAt.toLocalDate(), createdAt.toLocalDate().plusDays(1));
+			String orderCode = insertOrder(createdAt, OrderStatus.COMPLETED);
+			orderArchiver.archiveCompletedOrders();
+
+			// When/Then
+			assertThat(registeredCodes(orderCode)).isEqualTo(1);
+			assertThatThrownBy(() -> insertOrder(orderCode, LocalDateTime.now(), OrderStatus.PENDING))
+					.isInstanceOf(DataIntegrityViolationException.class);
+		}
+
+		@Test
+		@DisplayName("dovrebbe liberare il codice di un ordine cancellato")
+		void shouldReleaseCodeOfDeletedOrder() {
+			// Given
+			String orderCode = insertOrder(LocalDateTime.now(), OrderStatus.PENDING);
+
+			// When
+			jdbcTemplate.update("DELETE FROM orders WHERE order_code = ?::uuid", orderCode);
+
+			// Then
+			assertThat(registeredCodes(orderCode)).isZero();
+		}
+	}
+
+	private Integer createPartitions(LocalDate from, LocalDate to) {
+		return jdbcTemplate.queryForObject("SELECT create_order_partitions(?, ?)", Integer.class, from, to);
+	}
+
+	private String insertOrder(LocalDateTime createdAt, OrderStatus status) {
+		return insertOrder(uuidV7(createdAt).toString(), createdAt, status);
+	}
+
+	private String insertOrder(String orderCode, LocalDateTime createdAt, OrderStatus status) {
+		Long orderId = jdbcTemplate.queryForObject("SELECT nextval('orders_seq')", Long.class);
+		jdbcTemplate.update("INSERT INTO orders (id, order_code, customer_name, status, created_at)"
+				+ " VALUES (?, ?::uuid, 'Mario Rossi', ?, ?)", orderId, orderCode, status.name(), createdAt);
+		jdbcTemplate.update("INSERT INTO order_items (id, pizza_name, quantity, order_id, order_created_at)"
+				+ " VALUES (nextval('order_items_seq'), 'Margherita', 1, ?, ?)", orderId, createdAt);
+		return orderCode;
+	}
+
+	private String partitionOf(String orderCode) {
+		return jdbcTemplate.queryForList("SELECT tableoid::regclass::text FROM orders WHERE order_code = ?::uuid",
+				String.class, orderCode).stream().findFirst().orElse(null);
+	}
+
+	private Integer registeredCodes(String orderCode) {
+		return jdbcTemplate.queryForObject("SELECT count(*) FROM order_codes WHERE order_code = ?::uuid",
+				Integer.class, orderCode);
+	}
+
+	/**
+	 * Codice UUID v7 generato all'istante createdAt, come quelli di TimeOrderedOrderCodeGenerator.
+	 */
+	private static UUID uuidV7(LocalDateTime createdAt) {
+		long millis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		UUID random = UUID.randomUUID();
+		long msb = millis << 16 | 0x7000L | (random.getMostSignificantBits() & 0x0FFFL);
+		return new UUID(msb, random.getLeastSignificantBits());
+	}
+}
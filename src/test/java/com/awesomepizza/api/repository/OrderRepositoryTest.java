@@ -1,11 +1,17 @@
 package com.awesomepizza.api.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
+import com.awesomepizza.api.model.ArchivedOrder;
 import com.awesomepizza.api.model.Order;
 import com.awesomepizza.api.model.OrderItem;
+import com.awesomepizza.api.model.OrderLane;
 import com.awesomepizza.api.model.OrderStatus;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,8 +20,8 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 @DataJpaTest
 @DisplayName("OrderRepository Tests")
@@ -38,6 +44,7 @@ class OrderRepositoryTest {
 					.customerName("Mario Rossi")
 					.status(OrderStatus.PENDING)
 					.build();
+			order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
 			orderRepository.save(order);
 
 			// When
@@ -46,6 +53,7 @@ class OrderRepositoryTest {
 			// Then
 			assertThat(found).isPresent();
 			assertThat(found.get().getOrderCode()).isEqualTo(orderCode);
+			assertThat(found.get().getItems()).extracting(OrderItem::getPizzaName).containsExactly("Margherita");
 		}
 
 		@Test
@@ -74,6 +82,94 @@ class OrderRepositoryTest {
 	 * questi test non testano la logica di lock pessimistico in sé, ma verificano
 	 * solo che il metodo funzioni correttamente nel contesto del repository.
 	 */
+	@Nested
+	@DisplayName("saveAll")
+	class SaveAllTests {
+
+		@Test
+		@DisplayName("dovrebbe assegnare gli id da sequenza a ordini e items")
+		void shouldAssignSequenceIdsToOrdersAndItems() {
+			// Given
+			List<Order> orders = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				Order order = Order.builder()
+						.orderCode(UUID.randomUUID().toString())
+						.customerName("Cliente " + i)
+						.status(OrderStatus.PENDING)
+						.build();
+				order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+				order.addItem(OrderItem.builder().pizzaName("Diavola").quantity(2).build());
+				orders.add(order);
+			}
+
+			// When
+			List<Order> saved = orderRepository.saveAll(orders);
+			orderRepository.flush();
+
+			// Then
+			assertThat(saved).extracting(Order::getId).doesNotContainNull().doesNotHaveDuplicates();
+			assertThat(saved).flatExtracting(Order::getItems)
+					.extracting(OrderItem::getId)
+					.hasSize(6)
+					.doesNotContainNull()
+					.doesNotHaveDuplicates();
+			assertThat(orderRepository.count()).isEqualTo(3);
+		}
+
+		@Test
+		@DisplayName("dovrebbe copiare createdAt dell'ordine negli items (chiave di partizionamento)")
+		void shouldCopyOrderCreatedAtToItems() {
+			// Given
+			LocalDateTime createdAt = LocalDateTime.of(2026, 3, 1, 12, 0);
+			Order order = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Mario Rossi")
+					.createdAt(createdAt)
+					.build();
+			order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+
+			// When
+			Order saved = orderRepository.saveAll(List.of(order)).get(0);
+			orderRepository.flush();
+
+			// Then
+			assertThat(saved.getItems()).extracting(OrderItem::getOrderCreatedAt).containsExactly(createdAt);
+		}
+	}
+
+	@Nested
+	@DisplayName("aggiornamento dell'entità")
+	class PartitionKeyTests {
+
+		@Autowired
+		private TestEntityManager entityManager;
+
+		@Test
+		@DisplayName("dovrebbe aggiornare l'ordine confrontando anche created_at (chiave di partizionamento)")
+		void shouldMatchCreatedAtWhenUpdating() {
+			// Given - created_at della riga cambiato senza passare dall'entità caricata
+			Order order = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Mario Rossi")
+					.createdAt(LocalDateTime.of(2026, 3, 1, 12, 0))
+					.build();
+			Long id = orderRepository.saveAndFlush(order).getId();
+			entityManager.clear();
+			Order loaded = orderRepository.findById(id).orElseThrow();
+			entityManager.getEntityManager()
+					.createNativeQuery("UPDATE orders SET created_at = created_at + INTERVAL '1' DAY WHERE id = ?")
+					.setParameter(1, id)
+					.executeUpdate();
+
+			// When
+			loaded.setStatus(OrderStatus.IN_PROGRESS);
+
+			// Then - l'UPDATE cerca la riga anche per created_at, quindi non la trova
+			assertThatThrownBy(() -> orderRepository.saveAndFlush(loaded))
+					.isInstanceOf(OptimisticLockingFailureException.class);
+		}
+	}
+
 	@Nested
 	@DisplayName("findByOrderCodeWithLock")
 	class FindByOrderCodeWithLockTests {
@@ -111,46 +207,86 @@ class OrderRepositoryTest {
 	}
 
 	@Nested
-	@DisplayName("findIdsByStatusOrderByCreatedAtAsc")
-	class FindIdsByStatusOrderByCreatedAtAscTests {
+	@DisplayName("findPendingQueueRows")
+	class FindPendingQueueRowsTests {
 
 		@Test
-		@DisplayName("dovrebbe restituire gli ID degli ordini PENDING ordinati per data creazione")
-		void shouldReturnPendingOrderIdsOrderedByCreatedAt() {
+		@DisplayName("dovrebbe restituire gli ordini PENDING ordinati per data creazione")
+		void shouldReturnPendingOrdersOrderedByCreatedAt() {
 			// Given
-			String orderCode1 = UUID.randomUUID().toString();
-			String orderCode2 = UUID.randomUUID().toString();
 			Order order1 = Order.builder()
-					.orderCode(orderCode1)
+					.orderCode(UUID.randomUUID().toString())
 					.customerName("Primo Cliente")
 					.status(OrderStatus.PENDING)
 					.createdAt(LocalDateTime.now().minusMinutes(30))
 					.build();
 			Order order2 = Order.builder()
-					.orderCode(orderCode2)
+					.orderCode(UUID.randomUUID().toString())
 					.customerName("Secondo Cliente")
 					.status(OrderStatus.PENDING)
 					.createdAt(LocalDateTime.now().minusMinutes(10))
 					.build();
 
-			Order saved1 = orderRepository.save(order1);
 			Order saved2 = orderRepository.save(order2);
+			Order saved1 = orderRepository.save(order1);
+
+			// When
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRows(0, 100);
+
+			// Then
+			assertThat(orderIds(rows)).containsExactly(saved1.getId(), saved2.getId());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire una riga per pizza, nell'ordine degli items")
+		void shouldReturnOneRowPerItem() {
+			// Given
+			Order order = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Mario Rossi")
+					.status(OrderStatus.PENDING)
+					.build();
+			order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(2).build());
+			order.addItem(OrderItem.builder().pizzaName("Diavola").quantity(1).build());
+			Order saved = orderRepository.save(order);
 
 			// When
-			Page<Long> idPage = orderRepository.findIdsByStatusOrderByCreatedAtAsc(
-					OrderStatus.PENDING, PageRequest.of(0, 100));
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRows(0, 100);
 
 			// Then
-			assertThat(idPage.getContent()).hasSize(2);
-			assertThat(idPage.getContent().get(0)).isEqualTo(saved1.getId());
-			assertThat(idPage.getContent().get(1)).isEqualTo(saved2.getId());
-			assertThat(idPage.getTotalElements()).isEqualTo(2);
+			assertThat(rows).hasSize(2);
+			assertThat(rows).extracting(OrderQueueRow::orderCode).containsOnly(saved.getOrderCode());
+			assertThat(rows).extracting(OrderQueueRow::customerName).containsOnly("Mario Rossi");
+			assertThat(rows).extracting(OrderQueueRow::pizzaName).containsExactly("Margherita", "Diavola");
+			assertThat(rows).extracting(OrderQueueRow::quantity).containsExactly(2, 1);
 		}
 
 		@Test
-		@DisplayName("dovrebbe rispettare la paginazione")
-		void shouldRespectPagination() {
+		@DisplayName("dovrebbe restituire una riga senza pizza per un ordine senza items")
+		void shouldReturnRowWithoutItemForOrderWithoutItems() {
 			// Given
+			Order saved = orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente")
+					.status(OrderStatus.PENDING)
+					.build());
+
+			// When
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRows(0, 100);
+
+			// Then
+			assertThat(rows).singleElement().satisfies(row -> {
+				assertThat(row.orderId()).isEqualTo(saved.getId());
+				assertThat(row.pizzaName()).isNull();
+				assertThat(row.quantity()).isNull();
+			});
+		}
+
+		@Test
+		@DisplayName("dovrebbe applicare offset e limite agli ordini e non alle righe")
+		void shouldApplyOffsetAndLimitToOrders() {
+			// Given
+			List<Order> saved = new ArrayList<>();
 			for (int i = 0; i < 5; i++) {
 				Order order = Order.builder()
 						.orderCode(UUID.randomUUID().toString())
@@ -158,113 +294,259 @@ class OrderRepositoryTest {
 						.status(OrderStatus.PENDING)
 						.createdAt(LocalDateTime.now().minusMinutes(60 - (i + 1) * 10))
 						.build();
-				orderRepository.save(order);
+				order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+				order.addItem(OrderItem.builder().pizzaName("Diavola").quantity(1).build());
+				saved.add(orderRepository.save(order));
 			}
 
-			// When - richiesta con limite di 3 elementi
-			Page<Long> idPage = orderRepository.findIdsByStatusOrderByCreatedAtAsc(
-					OrderStatus.PENDING, PageRequest.of(0, 3));
+			// When - seconda pagina da 2 ordini
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRows(2, 2);
 
 			// Then
-			assertThat(idPage.getContent()).hasSize(3);
-			assertThat(idPage.getTotalElements()).isEqualTo(5);
-			assertThat(idPage.getTotalPages()).isEqualTo(2);
+			assertThat(rows).hasSize(4);
+			assertThat(orderIds(rows)).containsExactly(saved.get(2).getId(), saved.get(3).getId());
 		}
 
 		@Test
-		@DisplayName("dovrebbe restituire pagina vuota quando non ci sono ordini con lo stato richiesto")
-		void shouldReturnEmptyPageWhenNoOrdersWithRequestedStatus() {
+		@DisplayName("dovrebbe ignorare ordini con stato diverso da PENDING")
+		void shouldIgnoreNonPendingOrders() {
 			// Given
-			Order completedOrder = Order.builder()
+			Order pendingOrder = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente Pending")
+					.status(OrderStatus.PENDING)
+					.build();
+			Order inProgressOrder = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente In Progress")
+					.status(OrderStatus.IN_PROGRESS)
+					.build();
+			Order savedPending = orderRepository.save(pendingOrder);
+			orderRepository.save(inProgressOrder);
+
+			// When
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRows(0, 100);
+
+			// Then
+			assertThat(orderIds(rows)).containsExactly(savedPending.getId());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire lista vuota quando non ci sono ordini PENDING")
+		void shouldReturnEmptyListWhenNoPendingOrders() {
+			// Given
+			orderRepository.save(Order.builder()
 					.orderCode(UUID.randomUUID().toString())
 					.customerName("Cliente")
 					.status(OrderStatus.COMPLETED)
-					.build();
-			orderRepository.save(completedOrder);
+					.build());
 
 			// When
-			Page<Long> idPage = orderRepository.findIdsByStatusOrderByCreatedAtAsc(
-					OrderStatus.PENDING, PageRequest.of(0, 100));
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRows(0, 100);
 
 			// Then
-			assertThat(idPage.getContent()).isEmpty();
-			assertThat(idPage.getTotalElements()).isZero();
+			assertThat(rows).isEmpty();
 		}
+	}
+
+	@Nested
+	@DisplayName("findFirstPendingQueueRows / findPendingQueueRowsAfter (keyset)")
+	class KeysetQueueTests {
 
 		@Test
-		@DisplayName("dovrebbe filtrare solo ordini con lo stato specificato")
-		void shouldFilterOnlyOrdersWithSpecifiedStatus() {
+		@DisplayName("dovrebbe restituire i primi ordini in ordine FIFO rispettando il limite")
+		void shouldReturnFirstOrdersInFifoOrder() {
 			// Given
-			Order pendingOrder = Order.builder()
+			List<Order> saved = savePendingOrders(5);
+
+			// When
+			List<OrderQueueRow> rows = orderRepository.findFirstPendingQueueRows(3);
+
+			// Then
+			assertThat(orderIds(rows)).containsExactly(saved.get(0).getId(), saved.get(1).getId(), saved.get(2).getId());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire gli ordini successivi alla posizione (createdAt, id)")
+		void shouldReturnOrdersAfterPosition() {
+			// Given
+			List<Order> saved = savePendingOrders(5);
+			Order last = saved.get(1);
+
+			// When
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRowsAfter(last.getCreatedAt(), last.getId(), 10);
+
+			// Then
+			assertThat(orderIds(rows)).containsExactly(saved.get(2).getId(), saved.get(3).getId(), saved.get(4).getId());
+		}
+
+		@Test
+		@DisplayName("dovrebbe usare l'id per distinguere ordini con la stessa data di creazione")
+		void shouldBreakTiesOnId() {
+			// Given
+			LocalDateTime sameTime = LocalDateTime.now().minusMinutes(5).withNano(0);
+			Order first = orderRepository.save(Order.builder()
 					.orderCode(UUID.randomUUID().toString())
-					.customerName("Cliente Pending")
+					.customerName("Primo")
 					.status(OrderStatus.PENDING)
-					.build();
-			Order inProgressOrder = Order.builder()
+					.createdAt(sameTime)
+					.build());
+			Order second = orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Secondo")
+					.status(OrderStatus.PENDING)
+					.createdAt(sameTime)
+					.build());
+
+			// When
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRowsAfter(sameTime, first.getId(), 10);
+
+			// Then
+			assertThat(orderIds(rows)).containsExactly(second.getId());
+		}
+
+		@Test
+		@DisplayName("dovrebbe ignorare ordini con stato diverso")
+		void shouldIgnoreOtherStatuses() {
+			// Given
+			List<Order> saved = savePendingOrders(2);
+			orderRepository.save(Order.builder()
 					.orderCode(UUID.randomUUID().toString())
 					.customerName("Cliente In Progress")
 					.status(OrderStatus.IN_PROGRESS)
-					.build();
-			Order savedPending = orderRepository.save(pendingOrder);
-			orderRepository.save(inProgressOrder);
+					.createdAt(LocalDateTime.now())
+					.build());
+			Order first = saved.get(0);
 
 			// When
-			Page<Long> idPage = orderRepository.findIdsByStatusOrderByCreatedAtAsc(
-					OrderStatus.PENDING, PageRequest.of(0, 100));
+			List<OrderQueueRow> rows = orderRepository.findPendingQueueRowsAfter(first.getCreatedAt(), first.getId(), 10);
 
 			// Then
-			assertThat(idPage.getContent()).hasSize(1);
-			assertThat(idPage.getContent().get(0)).isEqualTo(savedPending.getId());
+			assertThat(orderIds(rows)).containsExactly(saved.get(1).getId());
+		}
+
+		private List<Order> savePendingOrders(int count) {
+			// Precisione al secondo: il cursore viene costruito dai valori letti dal database
+			LocalDateTime base = LocalDateTime.now().withNano(0);
+			List<Order> saved = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				Order order = Order.builder()
+						.orderCode(UUID.randomUUID().toString())
+						.customerName("Cliente " + (i + 1))
+						.status(OrderStatus.PENDING)
+						.createdAt(base.minusMinutes(60 - (i + 1) * 10L))
+						.build();
+				order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+				order.addItem(OrderItem.builder().pizzaName("Diavola").quantity(2).build());
+				saved.add(orderRepository.save(order));
+			}
+			return saved;
 		}
 	}
 
 	@Nested
-	@DisplayName("findByIdsWithItems")
-	class FindByIdsWithItemsTests {
+	@DisplayName("findActiveQueueRows")
+	class FindActiveQueueRowsTests {
 
 		@Test
-		@DisplayName("dovrebbe restituire ordini con items dato un elenco di ID")
-		void shouldReturnOrdersWithItemsByIds() {
+		@DisplayName("dovrebbe restituire gli ordini PENDING e IN_PROGRESS in ordine FIFO, con le pizze")
+		void shouldReturnPendingAndInProgressOrders() {
 			// Given
-			Order order1 = Order.builder()
+			LocalDateTime now = LocalDateTime.now();
+			Order inProgress = Order.builder()
 					.orderCode(UUID.randomUUID().toString())
-					.customerName("Primo Cliente")
-					.status(OrderStatus.PENDING)
+					.customerName("In preparazione")
+					.status(OrderStatus.IN_PROGRESS)
+					.createdAt(now.minusMinutes(10))
 					.build();
-			OrderItem item1 = OrderItem.builder().pizzaName("Margherita").quantity(2).build();
-			order1.addItem(item1);
-
-			Order order2 = Order.builder()
+			inProgress.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+			Order pending = Order.builder()
 					.orderCode(UUID.randomUUID().toString())
-					.customerName("Secondo Cliente")
+					.customerName("In attesa")
 					.status(OrderStatus.PENDING)
+					.createdAt(now.minusMinutes(5))
 					.build();
-			OrderItem item2 = OrderItem.builder().pizzaName("Diavola").quantity(1).build();
-			order2.addItem(item2);
+			Order completed = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Completato")
+					.status(OrderStatus.COMPLETED)
+					.createdAt(now.minusMinutes(20))
+					.build();
+			orderRepository.saveAll(List.of(pending, completed, inProgress));
 
-			Order saved1 = orderRepository.save(order1);
-			Order saved2 = orderRepository.save(order2);
+			// When
+			List<OrderQueueRow> rows = orderRepository.findActiveQueueRows();
+
+			// Then
+			assertThat(orderIds(rows)).containsExactly(inProgress.getId(), pending.getId());
+			assertThat(rows).extracting(OrderQueueRow::status)
+					.containsExactly(OrderStatus.IN_PROGRESS, OrderStatus.PENDING);
+			assertThat(rows).extracting(OrderQueueRow::pizzaName).containsExactly("Margherita", null);
+		}
+	}
+
+	@Nested
+	@DisplayName("findStatusesByOrderCodes")
+	class FindStatusesByOrderCodesTests {
+
+		@Autowired
+		private TestEntityManager entityManager;
+
+		@Test
+		@DisplayName("dovrebbe restituire stato e versione degli ordini attivi e archiviati con una sola query")
+		void shouldReturnStatusesOfActiveAndArchivedOrders() {
+			// Given
+			Order pending = orderRepository.saveAndFlush(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("In attesa")
+					.status(OrderStatus.PENDING)
+					.build());
+			String archivedCode = UUID.randomUUID().toString();
+			entityManager.persist(ArchivedOrder.builder()
+					.id(10L)
+					.orderCode(archivedCode)
+					.customerName("Archiviato")
+					.status(OrderStatus.COMPLETED)
+					.createdAt(LocalDateTime.now().minusDays(30))
+					.version(2L)
+					.build());
+			entityManager.flush();
+			UUID unknownCode = UUID.randomUUID();
 
 			// When
-			List<Order> orders = orderRepository.findByIdsWithItems(
-					List.of(saved1.getId(), saved2.getId()));
+			List<OrderStatusRow> rows = orderRepository.findStatusesByOrderCodes(new UUID[] {
+					UUID.fromString(pending.getOrderCode()), UUID.fromString(archivedCode), unknownCode});
 
 			// Then
-			assertThat(orders).hasSize(2);
-			assertThat(orders.get(0).getItems()).hasSize(1);
-			assertThat(orders.get(0).getItems().get(0).getPizzaName()).isEqualTo("Margherita");
-			assertThat(orders.get(1).getItems()).hasSize(1);
-			assertThat(orders.get(1).getItems().get(0).getPizzaName()).isEqualTo("Diavola");
+			assertThat(rows)
+					.extracting(OrderStatusRow::getOrderCode, OrderStatusRow::getStatus, OrderStatusRow::getVersion)
+					.containsExactlyInAnyOrder(
+							tuple(pending.getOrderCode(), OrderStatus.PENDING, 0L),
+							tuple(archivedCode, OrderStatus.COMPLETED, 2L));
 		}
+	}
+
+	@Nested
+	@DisplayName("countPending")
+	class CountPendingTests {
 
 		@Test
-		@DisplayName("dovrebbe restituire lista vuota per ID inesistenti")
-		void shouldReturnEmptyListForNonExistentIds() {
+		@DisplayName("dovrebbe contare solo gli ordini PENDING")
+		void shouldCountOnlyPendingOrders() {
+			// Given
+			for (OrderStatus status : List.of(OrderStatus.PENDING, OrderStatus.PENDING, OrderStatus.IN_PROGRESS)) {
+				orderRepository.save(Order.builder()
+						.orderCode(UUID.randomUUID().toString())
+						.customerName("Cliente")
+						.status(status)
+						.build());
+			}
+
 			// When
-			List<Order> orders = orderRepository.findByIdsWithItems(List.of(999L, 998L));
+			long pending = orderRepository.countPending();
 
 			// Then
-			assertThat(orders).isEmpty();
+			assertThat(pending).isEqualTo(2);
 		}
 	}
 
@@ -354,8 +636,8 @@ class OrderRepositoryTest {
 	 * solo che il metodo funzioni correttamente nel contesto del repository.
 	 */
 	@Nested
-	@DisplayName("findFirstByStatusOrderByCreatedAtAsc (with lock)")
-	class FindFirstByStatusOrderByCreatedAtAscTests {
+	@DisplayName("findFirstPendingWithLock")
+	class FindFirstPendingWithLockTests {
 
 		@Test
 		@DisplayName("dovrebbe restituire il primo ordine PENDING (FIFO)")
@@ -379,7 +661,7 @@ class OrderRepositoryTest {
 			orderRepository.save(secondOrder);
 
 			// When
-			Optional<Order> found = orderRepository.findFirstByStatusOrderByCreatedAtAsc(OrderStatus.PENDING);
+			Optional<Order> found = orderRepository.findFirstPendingWithLock();
 
 			// Then
 			assertThat(found).isPresent();
@@ -400,7 +682,7 @@ class OrderRepositoryTest {
 			orderRepository.save(completedOrder);
 
 			// When
-			Optional<Order> found = orderRepository.findFirstByStatusOrderByCreatedAtAsc(OrderStatus.PENDING);
+			Optional<Order> found = orderRepository.findFirstPendingWithLock();
 
 			// Then
 			assertThat(found).isEmpty();
@@ -428,11 +710,265 @@ class OrderRepositoryTest {
 			orderRepository.save(pendingOrder);
 
 			// When
-			Optional<Order> found = orderRepository.findFirstByStatusOrderByCreatedAtAsc(OrderStatus.PENDING);
+			Optional<Order> found = orderRepository.findFirstPendingWithLock();
 
 			// Then
 			assertThat(found).isPresent();
 			assertThat(found.get().getOrderCode()).isEqualTo(pendingOrderCode);
 		}
+
+		@Test
+		@DisplayName("dovrebbe servire la coda per istante virtuale e non per data di creazione")
+		void shouldReturnOrderWithEarliestVirtualFinishTime() {
+			// Given - il catering è arrivato prima, ma l'ordine express ha l'istante virtuale più vicino
+			LocalDateTime now = LocalDateTime.now();
+			orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Catering")
+					.lane(OrderLane.LARGE)
+					.createdAt(now.minusMinutes(5))
+					.virtualFinishAt(now.plusMinutes(15))
+					.build());
+			Order express = orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente al banco")
+					.lane(OrderLane.EXPRESS)
+					.createdAt(now.minusMinutes(1))
+					.virtualFinishAt(now.minusMinutes(1).plusSeconds(8))
+					.build());
+
+			// When
+			Optional<Order> found = orderRepository.findFirstPendingWithLock();
+
+			// Then
+			assertThat(found).map(Order::getOrderCode).contains(express.getOrderCode());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire i primi limit ordini PENDING (FIFO)")
+		void shouldReturnFirstPendingOrdersUpToLimit() {
+			// Given
+			LocalDateTime base = LocalDateTime.now();
+			List<Order> saved = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				saved.add(orderRepository.save(Order.builder()
+						.orderCode(UUID.randomUUID().toString())
+						.customerName("Cliente " + (i + 1))
+						.status(OrderStatus.PENDING)
+						.createdAt(base.minusMinutes(30 - i * 10L))
+						.build()));
+			}
+
+			// When
+			List<Order> found = orderRepository.findFirstPendingWithLock(2);
+
+			// Then
+			assertThat(found).extracting(Order::getOrderCode)
+					.containsExactly(saved.get(0).getOrderCode(), saved.get(1).getOrderCode());
+		}
+	}
+
+	@Nested
+	@DisplayName("findAllWithItemsByIdIn")
+	class FindAllWithItemsByIdInTests {
+
+		@Autowired
+		private TestEntityManager entityManager;
+
+		@Test
+		@DisplayName("dovrebbe restituire gli ordini in ordine FIFO con le pizze caricate")
+		void shouldReturnOrdersInFifoOrderWithItems() {
+			// Given
+			LocalDateTime base = LocalDateTime.now();
+			Order later = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Secondo Cliente")
+					.createdAt(base.minusMinutes(10))
+					.build();
+			later.addItem(OrderItem.builder().pizzaName("Diavola").quantity(1).build());
+			Order earlier = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Primo Cliente")
+					.createdAt(base.minusMinutes(30))
+					.build();
+			earlier.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+			earlier.addItem(OrderItem.builder().pizzaName("Capricciosa").quantity(2).build());
+			List<Long> ids = orderRepository.saveAll(List.of(later, earlier)).stream().map(Order::getId).toList();
+			entityManager.flush();
+			entityManager.clear();
+
+			// When
+			List<Order> found = orderRepository.findAllWithItemsByIdIn(ids);
+			entityManager.clear();
+
+			// Then - le pizze sono già caricate anche dopo il distacco dal persistence context
+			assertThat(found).extracting(Order::getCustomerName).containsExactly("Primo Cliente", "Secondo Cliente");
+			assertThat(found.get(0).getItems()).extracting(OrderItem::getPizzaName)
+					.containsExactlyInAnyOrder("Margherita", "Capricciosa");
+			assertThat(found.get(1).getItems()).extracting(OrderItem::getPizzaName).containsExactly("Diavola");
+		}
+	}
+
+	@Nested
+	@DisplayName("findLastPendingVirtualFinishAt")
+	class FindLastPendingVirtualFinishAtTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire l'istante virtuale più alto tra gli ordini PENDING della corsia")
+		void shouldReturnLatestVirtualFinishTimeOfLane() {
+			// Given
+			LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+			for (int minutes : new int[] {3, 7, 5}) {
+				orderRepository.save(Order.builder()
+						.orderCode(UUID.randomUUID().toString())
+						.customerName("Cliente standard")
+						.lane(OrderLane.STANDARD)
+						.virtualFinishAt(now.plusMinutes(minutes))
+						.build());
+			}
+			orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente in lavorazione")
+					.status(OrderStatus.IN_PROGRESS)
+					.lane(OrderLane.STANDARD)
+					.virtualFinishAt(now.plusMinutes(30))
+					.build());
+
+			// When/Then
+			assertThat(orderRepository.findLastPendingVirtualFinishAt(OrderLane.STANDARD)).contains(now.plusMinutes(7));
+			assertThat(orderRepository.findLastPendingVirtualFinishAt(OrderLane.EXPRESS)).isEmpty();
+		}
+	}
+
+	@Nested
+	@DisplayName("prese in carico a scadenza")
+	class LeaseTests {
+
+		@Autowired
+		private TestEntityManager entityManager;
+
+		@Test
+		@DisplayName("dovrebbe rinnovare la presa in carico solo degli ordini IN_PROGRESS della stazione")
+		void shouldRenewLeaseOnlyForInProgressOrders() {
+			// Given
+			LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+			Order inProgress = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente In Progress")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
+					.leaseExpiresAt(now.plusSeconds(10))
+					.build();
+			inProgress.addItem(OrderItem.builder().pizzaName("Margherita").quantity(1).build());
+			inProgress = orderRepository.save(inProgress);
+			Order pending = Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente Pending")
+					.status(OrderStatus.PENDING)
+					.build();
+			pending.addItem(OrderItem.builder().pizzaName("Diavola").quantity(1).build());
+			pending = orderRepository.save(pending);
+			entityManager.flush();
+			entityManager.clear();
+
+			// When
+			int renewed = orderRepository.renewLease(inProgress.getOrderCode(), "forno-1", now.plusMinutes(5));
+			int otherStation = orderRepository.renewLease(inProgress.getOrderCode(), "forno-2", now.plusMinutes(10));
+			int notRenewed = orderRepository.renewLease(pending.getOrderCode(), "forno-1", now.plusMinutes(5));
+			entityManager.clear();
+
+			// Then
+			assertThat(renewed).isEqualTo(1);
+			assertThat(otherStation).isZero();
+			assertThat(notRenewed).isZero();
+			Order reloaded = orderRepository.findByOrderCode(inProgress.getOrderCode()).orElseThrow();
+			assertThat(reloaded.getLeaseExpiresAt()).isEqualTo(now.plusMinutes(5));
+			assertThat(reloaded.getVersion()).isEqualTo(inProgress.getVersion());
+			assertThat(orderRepository.findByOrderCode(pending.getOrderCode()).orElseThrow().getLeaseExpiresAt())
+					.isNull();
+		}
+
+		@Test
+		@DisplayName("dovrebbe trovare gli ordini IN_PROGRESS scaduti, dal più vecchio, fino al limite")
+		void shouldFindExpiredLeasesOldestFirst() {
+			// Given
+			LocalDateTime now = LocalDateTime.now();
+			List<String> expiredCodes = new ArrayList<>();
+			for (int minutes : new int[] {1, 3, 2}) {
+				expiredCodes.add(orderRepository.save(Order.builder()
+						.orderCode(UUID.randomUUID().toString())
+						.customerName("Cliente scaduto")
+						.status(OrderStatus.IN_PROGRESS)
+						.station("forno-1")
+						.leaseExpiresAt(now.minusMinutes(minutes))
+						.build()).getOrderCode());
+			}
+			orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente attivo")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.leaseExpiresAt(now.plusMinutes(5))
+					.build());
+			orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente completato")
+					.status(OrderStatus.COMPLETED)
+					.leaseExpiresAt(now.minusMinutes(10))
+					.build());
+
+			// When
+			List<Order> found = orderRepository.findExpiredLeasesForUpdate(now, 2);
+
+			// Then
+			assertThat(found).extracting(Order::getOrderCode)
+					.containsExactly(expiredCodes.get(1), expiredCodes.get(2));
+		}
+
+		@Test
+		@DisplayName("dovrebbe assegnare una scadenza solo agli ordini IN_PROGRESS che non ne hanno")
+		void shouldGrantLeasesOnlyToInProgressOrdersWithout() {
+			// Given
+			LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+			Order withoutLease = orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente senza scadenza")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
+					.build());
+			Order withLease = orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente con scadenza")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
+					.leaseExpiresAt(now.plusMinutes(1))
+					.build());
+			Order pending = orderRepository.save(Order.builder()
+					.orderCode(UUID.randomUUID().toString())
+					.customerName("Cliente in coda")
+					.status(OrderStatus.PENDING)
+					.build());
+			entityManager.flush();
+			entityManager.clear();
+
+			// When
+			int granted = orderRepository.grantMissingLeases(now.plusMinutes(5));
+			entityManager.clear();
+
+			// Then
+			assertThat(granted).isEqualTo(1);
+			assertThat(orderRepository.findById(withoutLease.getId()).orElseThrow().getLeaseExpiresAt())
+					.isEqualTo(now.plusMinutes(5));
+			assertThat(orderRepository.findById(withLease.getId()).orElseThrow().getLeaseExpiresAt())
+					.isEqualTo(now.plusMinutes(1));
+			assertThat(orderRepository.findById(pending.getId()).orElseThrow().getLeaseExpiresAt()).isNull();
+		}
+	}
+
+	/**
+	 * ID degli ordini nelle righe della coda, una volta per ordine e nell'ordine delle righe.
+	 */
+	private static List<Long> orderIds(List<OrderQueueRow> rows) {
+		return rows.stream().map(OrderQueueRow::orderId).distinct().toList();
 	}
 }
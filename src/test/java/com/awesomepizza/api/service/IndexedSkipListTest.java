@@ -0,0 +1,109 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("IndexedSkipList Unit Tests")
+class IndexedSkipListTest {
+
+	private IndexedSkipList<Integer> list;
+
+	@BeforeEach
+	void setUp() {
+		list = new IndexedSkipList<>(Comparator.naturalOrder());
+	}
+
+	@Nested
+	@DisplayName("inserimento e rimozione")
+	class AddRemoveTests {
+
+		@Test
+		@DisplayName("non dovrebbe inserire due volte lo stesso valore")
+		void shouldRejectDuplicates() {
+			// When/Then
+			assertThat(list.add(5)).isTrue();
+			assertThat(list.add(5)).isFalse();
+			assertThat(list.size()).isEqualTo(1);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire false rimuovendo un valore assente")
+		void shouldReturnFalseWhenRemovingMissingValue() {
+			// Given
+			list.add(5);
+
+			// When/Then
+			assertThat(list.remove(7)).isFalse();
+			assertThat(list.remove(5)).isTrue();
+			assertThat(list.remove(5)).isFalse();
+			assertThat(list.size()).isZero();
+		}
+
+		@Test
+		@DisplayName("dovrebbe svuotarsi e tornare utilizzabile")
+		void shouldClear() {
+			// Given
+			for (int i = 0; i < 100; i++) {
+				list.add(i);
+			}
+
+			// When
+			list.clear();
+			list.add(7);
+
+			// Then
+			assertThat(list.size()).isEqualTo(1);
+			assertThat(list.rank(7)).isZero();
+			assertThat(list.rank(8)).isEqualTo(1);
+		}
+	}
+
+	@Nested
+	@DisplayName("posizione")
+	class RankTests {
+
+		@Test
+		@DisplayName("dovrebbe contare i valori che precedono, anche per un valore assente")
+		void shouldCountSmallerValues() {
+			// Given
+			for (int value : new int[] {40, 10, 30, 20}) {
+				list.add(value);
+			}
+
+			// When/Then
+			assertThat(list.rank(10)).isZero();
+			assertThat(list.rank(30)).isEqualTo(2);
+			assertThat(list.rank(25)).isEqualTo(2);
+			assertThat(list.rank(99)).isEqualTo(4);
+			assertThat(list.rank(1)).isZero();
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire le stesse posizioni di un insieme ordinato dopo inserimenti e rimozioni casuali")
+		void shouldMatchSortedSetRanks() {
+			// Given
+			Random random = new Random(42);
+			TreeSet<Integer> expected = new TreeSet<>();
+
+			// When/Then
+			for (int i = 0; i < 5000; i++) {
+				int value = random.nextInt(1000);
+				if (random.nextInt(3) == 0) {
+					assertThat(list.remove(value)).isEqualTo(expected.remove(value));
+				} else {
+					assertThat(list.add(value)).isEqualTo(expected.add(value));
+				}
+				int probe = random.nextInt(1000);
+				assertThat(list.rank(probe)).isEqualTo(expected.headSet(probe).size());
+			}
+			assertThat(list.size()).isEqualTo(expected.size());
+		}
+	}
+}
@@ -0,0 +1,370 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderQueueViewProperties;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderQueueRow;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("KitchenQueueView Unit Tests")
+class KitchenQueueViewTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 19, 0);
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private OrderMapper orderMapper;
+
+	private KitchenQueueView view;
+
+	@BeforeEach
+	void setUp() {
+		view = new KitchenQueueView(orderRepository, orderMapper, new OrderQueueViewProperties(3));
+	}
+
+	@Nested
+	@DisplayName("vista completa")
+	class FullViewTests {
+
+		@Test
+		@DisplayName("dovrebbe inizializzarsi con gli ordini attivi su database")
+		void shouldInitializeFromDatabase() {
+			// Given
+			List<OrderQueueRow> rows = List.of();
+			when(orderRepository.findActiveQueueRows()).thenReturn(rows);
+			when(orderMapper.toOrderResponses(rows))
+					.thenReturn(List.of(order("a", 1, OrderStatus.IN_PROGRESS), order("b", 2, OrderStatus.PENDING)));
+
+			// When
+			view.run(null);
+			KitchenQueueResponse response = view.changesSince(null, null);
+
+			// Then
+			assertThat(response.isFull()).isTrue();
+			assertThat(response.getVersion()).isEqualTo(1);
+			assertThat(codes(response.getOrders())).containsExactly("a", "b");
+		}
+
+		@Test
+		@DisplayName("dovrebbe seguire le transizioni mantenendo l'ordine FIFO")
+		void shouldFollowStatusTransitionsInFifoOrder() {
+			// When - creati in ordine inverso rispetto a createdAt, poi "b" preso in carico e "a" completato
+			view.onOrderStatusChanged(event(order("c", 3, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.IN_PROGRESS), OrderStatus.PENDING));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.COMPLETED), OrderStatus.PENDING));
+
+			// Then
+			KitchenQueueResponse response = view.changesSince(null, null);
+			assertThat(response.getVersion()).isEqualTo(5);
+			assertThat(codes(response.getOrders())).containsExactly("b", "c");
+			assertThat(response.getOrders()).extracting(OrderResponse::getStatus)
+					.containsExactly(OrderStatus.IN_PROGRESS, OrderStatus.PENDING);
+		}
+
+		@Test
+		@DisplayName("dovrebbe ordinare gli ordini per istante virtuale e non per creazione")
+		void shouldOrderByVirtualFinishTime() {
+			// Given - il catering "a" è arrivato per primo, ma l'ordine express "b" va servito prima
+			OrderResponse catering = order("a", 1, OrderStatus.PENDING);
+			catering.setVirtualFinishAt(NOW.plusMinutes(20));
+			OrderResponse express = order("b", 2, OrderStatus.PENDING);
+
+			// When
+			view.onOrderStatusChanged(event(catering, null));
+			view.onOrderStatusChanged(event(express, null));
+
+			// Then
+			assertThat(codes(view.changesSince(null, null).getOrders())).containsExactly("b", "a");
+		}
+
+		@Test
+		@DisplayName("dovrebbe mettere in coda alla creazione gli ordini senza istante virtuale")
+		void shouldFallBackToCreationTimeWithoutVirtualFinishTime() {
+			// Given - evento di un'istanza non ancora aggiornata
+			OrderResponse legacy = order("a", 3, OrderStatus.PENDING);
+			legacy.setVirtualFinishAt(null);
+
+			// When
+			view.onOrderStatusChanged(event(order("b", 5, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(legacy, null));
+
+			// Then
+			assertThat(codes(view.changesSince(null, null).getOrders())).containsExactly("a", "b");
+		}
+
+		@Test
+		@DisplayName("dovrebbe mantenere lo stato degli eventi ricevuti durante il caricamento")
+		void shouldKeepEventsReceivedWhileLoading() {
+			// Given - "a" completato dopo che la query di avvio l'aveva letto PENDING
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.COMPLETED), OrderStatus.PENDING));
+
+			// When
+			view.load(List.of(order("a", 1, OrderStatus.PENDING), order("b", 2, OrderStatus.PENDING)), 0);
+
+			// Then
+			assertThat(codes(view.changesSince(null, null).getOrders())).containsExactly("b");
+		}
+	}
+
+	@Nested
+	@DisplayName("eventi in ritardo")
+	class StaleEventTests {
+
+		@Test
+		@DisplayName("dovrebbe ignorare un evento con una versione dell'ordine già superata")
+		void shouldIgnoreOutdatedEvent() {
+			// Given - la presa in carico (versione 1) arriva prima della creazione (versione 0)
+			view.onOrderStatusChanged(event(versioned(order("a", 1, OrderStatus.IN_PROGRESS), 1), OrderStatus.PENDING));
+
+			// When
+			view.onOrderStatusChanged(event(versioned(order("a", 1, OrderStatus.PENDING), 0), null));
+
+			// Then
+			KitchenQueueResponse response = view.changesSince(null, null);
+			assertThat(response.getVersion()).isEqualTo(1);
+			assertThat(response.getOrders()).extracting(OrderResponse::getStatus).containsExactly(OrderStatus.IN_PROGRESS);
+		}
+
+		@Test
+		@DisplayName("non dovrebbe far rientrare un ordine completato con un evento precedente")
+		void shouldNotReAddCompletedOrder() {
+			// Given
+			view.onOrderStatusChanged(event(versioned(order("a", 1, OrderStatus.PENDING), 0), null));
+			view.onOrderStatusChanged(event(versioned(order("a", 1, OrderStatus.COMPLETED), 2), OrderStatus.IN_PROGRESS));
+
+			// When - la presa in carico di un'altra istanza arriva dopo il completamento
+			view.onOrderStatusChanged(event(versioned(order("a", 1, OrderStatus.IN_PROGRESS), 1), OrderStatus.PENDING));
+
+			// Then
+			assertThat(view.changesSince(null, null).getOrders()).isEmpty();
+		}
+
+		@Test
+		@DisplayName("dovrebbe ricaricare la vista dal database mantenendo gli eventi arrivati durante la lettura")
+		void shouldResyncFromDatabase() {
+			// Given - "a" nella vista ma completato mentre il listener era disconnesso
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			List<OrderQueueRow> rows = List.of();
+			when(orderRepository.findActiveQueueRows()).thenReturn(rows);
+			when(orderMapper.toOrderResponses(rows)).thenReturn(List.of(order("b", 2, OrderStatus.PENDING)));
+
+			// When
+			view.resync();
+
+			// Then
+			KitchenQueueResponse response = view.changesSince(null, null);
+			assertThat(codes(response.getOrders())).containsExactly("b");
+			assertThat(view.changesSince(epoch(), 1L).isFull()).isTrue();
+		}
+	}
+
+	@Nested
+	@DisplayName("cambiamenti dalla versione")
+	class ChangesSinceTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire solo l'ultimo stato degli ordini cambiati e quelli rimossi")
+		void shouldReturnLatestChangesAndRemovedOrders() {
+			// Given
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			long seen = view.changesSince(null, null).getVersion();
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.IN_PROGRESS), OrderStatus.PENDING));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.COMPLETED), OrderStatus.PENDING));
+
+			// When
+			KitchenQueueResponse response = view.changesSince(epoch(), seen);
+
+			// Then
+			assertThat(response.isFull()).isFalse();
+			assertThat(response.getVersion()).isEqualTo(4);
+			assertThat(response.getOrders()).singleElement()
+					.extracting(OrderResponse::getOrderCode, OrderResponse::getStatus)
+					.containsExactly("b", OrderStatus.IN_PROGRESS);
+			assertThat(response.getRemovedOrderCodes()).containsExactly("a");
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire una risposta vuota per la versione corrente")
+		void shouldReturnNoChangesForCurrentVersion() {
+			// Given
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+
+			// When
+			KitchenQueueResponse response = view.changesSince(epoch(), 1L);
+
+			// Then
+			assertThat(response.isFull()).isFalse();
+			assertThat(response.getOrders()).isEmpty();
+			assertThat(response.getRemovedOrderCodes()).isEmpty();
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire la vista completa se i cambiamenti non sono più nel registro")
+		void shouldReturnFullViewWhenChangesAreNoLongerRetained() {
+			// Given - il registro conserva 3 modifiche, ne arrivano 4
+			for (int i = 1; i <= 4; i++) {
+				view.onOrderStatusChanged(event(order("o" + i, i, OrderStatus.PENDING), null));
+			}
+
+			// Then
+			assertThat(view.changesSince(epoch(), 1L).isFull()).isFalse();
+			assertThat(view.changesSince(epoch(), 0L).isFull()).isTrue();
+			assertThat(codes(view.changesSince(epoch(), 0L).getOrders())).containsExactly("o1", "o2", "o3", "o4");
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire la vista completa per una versione futura")
+		void shouldReturnFullViewForUnknownVersion() {
+			// Given
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+
+			// When
+			KitchenQueueResponse response = view.changesSince(epoch(), 42L);
+
+			// Then
+			assertThat(response.isFull()).isTrue();
+			assertThat(codes(response.getOrders())).containsExactly("a");
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire la vista completa per una versione di un'altra epoca")
+		void shouldReturnFullViewForVersionOfAnotherEpoch() {
+			// Given - un'altra istanza, o questa prima di un riavvio, ha raggiunto la stessa versione
+			KitchenQueueView other = new KitchenQueueView(orderRepository, orderMapper, new OrderQueueViewProperties(3));
+			other.onOrderStatusChanged(event(order("x", 1, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.PENDING), null));
+			KitchenQueueResponse seen = other.changesSince(null, null);
+
+			// When
+			KitchenQueueResponse response = view.changesSince(seen.getEpoch(), seen.getVersion());
+
+			// Then
+			assertThat(seen.getEpoch()).isNotEqualTo(epoch());
+			assertThat(response.isFull()).isTrue();
+			assertThat(codes(response.getOrders())).containsExactly("a", "b");
+			assertThat(view.changesSince(null, 1L).isFull()).isTrue();
+		}
+
+		@Test
+		@DisplayName("non dovrebbe registrare il completamento di un ordine assente dalla vista")
+		void shouldIgnoreCompletionOfUnknownOrder() {
+			// When
+			view.onOrderStatusChanged(event(order("x", 1, OrderStatus.COMPLETED), OrderStatus.IN_PROGRESS));
+
+			// Then
+			assertThat(view.changesSince(null, null).getVersion()).isZero();
+		}
+	}
+
+	@Nested
+	@DisplayName("posizione in coda")
+	class PositionTests {
+
+		@Test
+		@DisplayName("dovrebbe contare solo gli ordini PENDING serviti prima")
+		void shouldCountPendingOrdersAhead() {
+			// Given
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("c", 3, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.IN_PROGRESS), OrderStatus.PENDING));
+
+			// When/Then
+			assertThat(view.position("a")).hasValueSatisfying(position -> assertThat(position.ordersAhead()).isZero());
+			assertThat(view.position("b")).hasValueSatisfying(position -> assertThat(position.ordersAhead()).isZero());
+			assertThat(view.position("c")).hasValueSatisfying(position -> assertThat(position.ordersAhead()).isEqualTo(1));
+		}
+
+		@Test
+		@DisplayName("dovrebbe seguire l'istante virtuale e non l'ordine di arrivo")
+		void shouldFollowVirtualFinishTime() {
+			// Given - l'ordine arrivato per ultimo è servito per primo
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.PENDING), null));
+			view.onOrderStatusChanged(event(order("b", 2, OrderStatus.PENDING), null));
+			OrderResponse express = order("c", 3, OrderStatus.PENDING);
+			express.setVirtualFinishAt(NOW);
+			view.onOrderStatusChanged(event(express, null));
+
+			// When/Then
+			assertThat(view.position("c")).hasValueSatisfying(position -> assertThat(position.ordersAhead()).isZero());
+			assertThat(view.position("b")).hasValueSatisfying(position -> assertThat(position.ordersAhead()).isEqualTo(2));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire una posizione vuota per ordini completati o sconosciuti")
+		void shouldReturnEmptyForInactiveOrders() {
+			// Given
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.IN_PROGRESS), OrderStatus.PENDING));
+			view.onOrderStatusChanged(event(order("a", 1, OrderStatus.COMPLETED), OrderStatus.IN_PROGRESS));
+
+			// When/Then
+			assertThat(view.position("a")).isEmpty();
+			assertThat(view.position("x")).isEmpty();
+		}
+
+		@Test
+		@DisplayName("dovrebbe ricalcolare le posizioni dopo il caricamento da database")
+		void shouldRebuildPositionsOnLoad() {
+			// Given
+			view.onOrderStatusChanged(event(order("x", 0, OrderStatus.PENDING), null));
+			long readVersion = view.changesSince(null, null).getVersion();
+
+			// When
+			view.load(List.of(order("a", 1, OrderStatus.PENDING), order("b", 2, OrderStatus.PENDING)), readVersion);
+
+			// Then
+			assertThat(view.position("x")).isEmpty();
+			assertThat(view.position("b")).hasValueSatisfying(position -> assertThat(position.ordersAhead()).isEqualTo(1));
+		}
+	}
+
+	private String epoch() {
+		return view.changesSince(null, null).getEpoch();
+	}
+
+	private static List<String> codes(List<OrderResponse> orders) {
+		return orders.stream().map(OrderResponse::getOrderCode).toList();
+	}
+
+	private static OrderResponse order(String orderCode, int minute, OrderStatus status) {
+		return OrderResponse.builder()
+				.orderCode(orderCode)
+				.status(status)
+				.createdAt(NOW.plusMinutes(minute))
+				.virtualFinishAt(NOW.plusMinutes(minute))
+				.items(List.of())
+				.build();
+	}
+
+	private static OrderResponse versioned(OrderResponse order, long version) {
+		order.setVersion(version);
+		return order;
+	}
+
+	private static OrderStatusChangedEvent event(OrderResponse order, OrderStatus previousStatus) {
+		return new OrderStatusChangedEvent(order, previousStatus);
+	}
+}
@@ -0,0 +1,207 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.KitchenProperties;
+import com.awesomepizza.api.exception.KitchenStationNotFoundException;
+import com.awesomepizza.api.exception.OrderAlreadyInProgressException;
+import com.awesomepizza.api.model.KitchenStation;
+import com.awesomepizza.api.repository.KitchenStationRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("KitchenStationService Unit Tests")
+class KitchenStationServiceTest {
+
+	@Mock
+	private KitchenStationRepository kitchenStationRepository;
+
+	@Mock
+	private OrderMetrics orderMetrics;
+
+	private KitchenStationService kitchenStationService(Map<String, Integer> stations) {
+		return new KitchenStationService(kitchenStationRepository, new KitchenProperties("forno-1", stations), orderMetrics);
+	}
+
+	@Nested
+	@DisplayName("reserveSlot")
+	class ReserveSlotTests {
+
+		@Test
+		@DisplayName("dovrebbe occupare un posto se la stazione ha capacità residua")
+		void shouldReserveSlotWhenCapacityAvailable() {
+			// Given
+			when(kitchenStationRepository.tryReserveSlot("forno-1")).thenReturn(1);
+
+			// When/Then
+			assertThatCode(() -> kitchenStationService(Map.of()).reserveSlot("forno-1"))
+					.doesNotThrowAnyException();
+			verify(kitchenStationRepository, never()).existsById(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderAlreadyInProgressException se la stazione è piena")
+		void shouldThrowOrderAlreadyInProgressExceptionWhenStationIsFull() {
+			// Given
+			when(kitchenStationRepository.tryReserveSlot("forno-1")).thenReturn(0);
+			when(kitchenStationRepository.existsById("forno-1")).thenReturn(true);
+
+			// When/Then
+			assertThatThrownBy(() -> kitchenStationService(Map.of()).reserveSlot("forno-1"))
+					.isInstanceOf(OrderAlreadyInProgressException.class)
+					.hasMessageContaining("forno-1");
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.STATION_BUSY);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare KitchenStationNotFoundException per stazione non configurata")
+		void shouldThrowKitchenStationNotFoundExceptionForUnknownStation() {
+			// Given
+			when(kitchenStationRepository.tryReserveSlot("forno-99")).thenReturn(0);
+			when(kitchenStationRepository.existsById("forno-99")).thenReturn(false);
+
+			// When/Then
+			assertThatThrownBy(() -> kitchenStationService(Map.of()).reserveSlot("forno-99"))
+					.isInstanceOf(KitchenStationNotFoundException.class)
+					.hasMessageContaining("forno-99");
+		}
+	}
+
+	@Nested
+	@DisplayName("reserveSlots")
+	class ReserveSlotsTests {
+
+		@Test
+		@DisplayName("dovrebbe occupare tutti i posti con un solo aggiornamento")
+		void shouldReserveAllSlotsAtOnce() {
+			// Given
+			when(kitchenStationRepository.tryReserveSlots("banco-1", 3)).thenReturn(1);
+
+			// When/Then
+			assertThatCode(() -> kitchenStationService(Map.of()).reserveSlots("banco-1", 3))
+					.doesNotThrowAnyException();
+			verify(kitchenStationRepository, never()).tryReserveSlot(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderAlreadyInProgressException se i posti liberi non bastano")
+		void shouldThrowOrderAlreadyInProgressExceptionWhenCapacityIsNotEnough() {
+			// Given
+			when(kitchenStationRepository.tryReserveSlots("banco-1", 3)).thenReturn(0);
+			when(kitchenStationRepository.existsById("banco-1")).thenReturn(true);
+
+			// When/Then
+			assertThatThrownBy(() -> kitchenStationService(Map.of()).reserveSlots("banco-1", 3))
+					.isInstanceOf(OrderAlreadyInProgressException.class);
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.STATION_BUSY);
+		}
+	}
+
+	@Nested
+	@DisplayName("claimableSlots")
+	class ClaimableSlotsTests {
+
+		@Test
+		@DisplayName("dovrebbe limitare gli ordini da prendere ai posti liberi della stazione")
+		void shouldCapCountToFreeSlots() {
+			// Given
+			when(kitchenStationRepository.findById("forno-1"))
+					.thenReturn(Optional.of(KitchenStation.builder().id("forno-1").capacity(1).inProgress(0).build()));
+			when(kitchenStationRepository.findById("banco-1"))
+					.thenReturn(Optional.of(KitchenStation.builder().id("banco-1").capacity(9).inProgress(2).build()));
+
+			// When/Then
+			assertThat(kitchenStationService(Map.of()).claimableSlots("forno-1", 5)).isEqualTo(1);
+			assertThat(kitchenStationService(Map.of()).claimableSlots("banco-1", 5)).isEqualTo(5);
+			assertThat(kitchenStationService(Map.of()).claimableSlots("banco-1", 20)).isEqualTo(7);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderAlreadyInProgressException se la stazione è piena")
+		void shouldThrowOrderAlreadyInProgressExceptionWhenStationIsFull() {
+			// Given
+			when(kitchenStationRepository.findById("forno-1"))
+					.thenReturn(Optional.of(KitchenStation.builder().id("forno-1").capacity(1).inProgress(1).build()));
+
+			// When/Then
+			assertThatThrownBy(() -> kitchenStationService(Map.of()).claimableSlots("forno-1", 3))
+					.isInstanceOf(OrderAlreadyInProgressException.class);
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.STATION_BUSY);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare KitchenStationNotFoundException per stazione non configurata")
+		void shouldThrowKitchenStationNotFoundExceptionForUnknownStation() {
+			// Given
+			when(kitchenStationRepository.findById("forno-99")).thenReturn(Optional.empty());
+
+			// When/Then
+			assertThatThrownBy(() -> kitchenStationService(Map.of()).claimableSlots("forno-99", 3))
+					.isInstanceOf(KitchenStationNotFoundException.class);
+		}
+	}
+
+	@Nested
+	@DisplayName("run (sincronizzazione configurazione)")
+	class RunTests {
+
+		@Test
+		@DisplayName("dovrebbe creare la stazione di default con capacità 1 se non configurata")
+		void shouldCreateDefaultStationWithCapacityOne() {
+			// Given
+			when(kitchenStationRepository.findById("forno-1")).thenReturn(Optional.empty());
+
+			// When
+			kitchenStationService(Map.of()).run(null);
+
+			// Then
+			ArgumentCaptor<KitchenStation> captor = ArgumentCaptor.forClass(KitchenStation.class);
+			verify(kitchenStationRepository).save(captor.capture());
+			assertThat(captor.getValue().getId()).isEqualTo("forno-1");
+			assertThat(captor.getValue().getCapacity()).isEqualTo(1);
+			assertThat(captor.getValue().getInProgress()).isZero();
+		}
+
+		@Test
+		@DisplayName("dovrebbe aggiornare la capacità senza azzerare il contatore delle stazioni esistenti")
+		void shouldUpdateCapacityWithoutResettingCounter() {
+			// Given
+			KitchenStation existing = KitchenStation.builder().id("forno-1").capacity(1).inProgress(1).build();
+			when(kitchenStationRepository.findById("forno-1")).thenReturn(Optional.of(existing));
+			when(kitchenStationRepository.findById("forno-2")).thenReturn(Optional.empty());
+
+			// When
+			kitchenStationService(Map.of("forno-1", 2, "forno-2", 3)).run(null);
+
+			// Then
+			ArgumentCaptor<KitchenStation> captor = ArgumentCaptor.forClass(KitchenStation.class);
+			verify(kitchenStationRepository, times(2)).save(captor.capture());
+			List<KitchenStation> saved = captor.getAllValues();
+			assertThat(saved).anySatisfy(station -> {
+				assertThat(station.getId()).isEqualTo("forno-1");
+				assertThat(station.getCapacity()).isEqualTo(2);
+				assertThat(station.getInProgress()).isEqualTo(1);
+			});
+			assertThat(saved).anySatisfy(station -> {
+				assertThat(station.getId()).isEqualTo("forno-2");
+				assertThat(station.getCapacity()).isEqualTo(3);
+			});
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderArchiveProperties;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.ArchivedPartitionRow;
+import com.awesomepizza.api.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderArchiver Unit Tests")
+class OrderArchiverTest {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 10, 1);
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private ArchivedOrderRepository archivedOrderRepository;
+
+	private OrderArchiver orderArchiver;
+
+	@BeforeEach
+	void setUp() {
+		orderArchiver = new OrderArchiver(orderRepository, archivedOrderRepository,
+				new OrderArchiveProperties(true, Duration.ofDays(7), 14, Duration.ofHours(1)));
+	}
+
+	@Test
+	@DisplayName("dovrebbe creare le partizioni future prima di archiviare quelle vecchie")
+	void shouldCreatePartitionsAheadThenArchive() {
+		// Given
+		when(orderRepository.createPartitionsAhead(14)).thenReturn(1);
+		when(archivedOrderRepository.archiveNextPartition(eq(LocalDate.EPOCH), any())).thenReturn(archived(DAY, 0));
+		when(archivedOrderRepository.archiveNextPartition(eq(DAY), any())).thenReturn(Optional.empty());
+
+		// When
+		int archived = orderArchiver.archiveCompletedOrders();
+
+		// Then
+		assertThat(archived).isEqualTo(1);
+		InOrder inOrder = inOrder(orderRepository, archivedOrderRepository);
+		inOrder.verify(orderRepository).createPartitionsAhead(14);
+		inOrder.verify(archivedOrderRepository).archiveNextPartition(eq(LocalDate.EPOCH), any());
+	}
+
+	@Test
+	@DisplayName("dovrebbe archiviare un giorno per chiamata ripartendo dall'ultimo archiviato")
+	void shouldArchiveOneDayPerCall() {
+		// Given
+		when(archivedOrderRepository.archiveNextPartition(eq(LocalDate.EPOCH), any())).thenReturn(archived(DAY, 0));
+		when(archivedOrderRepository.archiveNextPartition(eq(DAY), any())).thenReturn(archived(DAY.plusDays(2), 0));
+		when(archivedOrderRepository.archiveNextPartition(eq(DAY.plusDays(2)), any())).thenReturn(Optional.empty());
+
+		// When
+		int archived = orderArchiver.archiveCompletedOrders();
+
+		// Then
+		assertThat(archived).isEqualTo(2);
+		InOrder inOrder = inOrder(archivedOrderRepository);
+		inOrder.verify(archivedOrderRepository).archiveNextPartition(eq(LocalDate.EPOCH), any());
+		inOrder.verify(archivedOrderRepository).archiveNextPartition(eq(DAY), any());
+		inOrder.verify(archivedOrderRepository).archiveNextPartition(eq(DAY.plusDays(2)), any());
+	}
+
+	@Test
+	@DisplayName("dovrebbe contare gli ordini non completati rimasti attivi e proseguire con i giorni successivi")
+	void shouldCountStragglersAndContinue() {
+		// Given
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		orderArchiver.bindTo(registry);
+		when(archivedOrderRepository.archiveNextPartition(eq(LocalDate.EPOCH), any())).thenReturn(archived(DAY, 2));
+		when(archivedOrderRepository.archiveNextPartition(eq(DAY), any())).thenReturn(archived(DAY.plusDays(1), 1));
+		when(archivedOrderRepository.archiveNextPartition(eq(DAY.plusDays(1)), any())).thenReturn(Optional.empty());
+
+		// When
+		int archived = orderArchiver.archiveCompletedOrders();
+
+		// Then
+		assertThat(archived).isEqualTo(2);
+		assertThat(orderArchiver.stragglers()).isEqualTo(3);
+		assertThat(registry.get(OrderArchiver.STRAGGLERS).functionCounter().count()).isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("dovrebbe archiviare solo i giorni più vecchi dell'età minima")
+	void shouldUseMinAgeAsCutoff() {
+		// Given
+		ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+
+		// When
+		orderArchiver.archiveCompletedOrders();
+
+		// Then
+		verify(archivedOrderRepository).archiveNextPartition(eq(LocalDate.EPOCH), cutoff.capture());
+		assertThat(cutoff.getValue()).isBetween(
+				LocalDateTime.now().minusDays(7).minusMinutes(1), LocalDateTime.now().minusDays(7));
+	}
+
+	private static Optional<ArchivedPartitionRow> archived(LocalDate day, int movedOrders) {
+		return Optional.of(new ArchivedPartitionRow() {
+			@Override
+			public LocalDate getArchivedDay() {
+				return day;
+			}
+
+			@Override
+			public int getMovedOrders() {
+				return movedOrders;
+			}
+		});
+	}
+}
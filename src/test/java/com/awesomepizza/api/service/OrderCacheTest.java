@@ -0,0 +1,147 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesomepizza.api.config.OrderCacheProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("OrderCache Unit Tests")
+class OrderCacheTest {
+
+	private OrderCache orderCache;
+
+	@BeforeEach
+	void setUp() {
+		orderCache = new OrderCache(new OrderCacheProperties(100, Duration.ofMinutes(1)));
+	}
+
+	@Nested
+	@DisplayName("putIfAbsent")
+	class PutIfAbsentTests {
+
+		@Test
+		@DisplayName("dovrebbe inserire un ordine non presente")
+		void shouldInsertMissingOrder() {
+			// When
+			orderCache.putIfAbsent(order("codice-1", OrderStatus.PENDING));
+
+			// Then
+			assertThat(orderCache.get("codice-1").getStatus()).isEqualTo(OrderStatus.PENDING);
+		}
+
+		@Test
+		@DisplayName("non dovrebbe sovrascrivere un aggiornamento più recente")
+		void shouldNotOverwriteNewerValue() {
+			// Given
+			orderCache.onOrderStatusChanged(event("codice-1", OrderStatus.IN_PROGRESS));
+
+			// When - una lettura dal database iniziata prima dell'aggiornamento
+			orderCache.putIfAbsent(order("codice-1", OrderStatus.PENDING));
+
+			// Then
+			assertThat(orderCache.get("codice-1").getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+		}
+	}
+
+	@Nested
+	@DisplayName("onOrderStatusChanged")
+	class OnOrderStatusChangedTests {
+
+		@Test
+		@DisplayName("dovrebbe sostituire l'ordine in cache con il nuovo stato")
+		void shouldReplaceCachedOrder() {
+			// Given
+			orderCache.putIfAbsent(order("codice-1", OrderStatus.PENDING));
+
+			// When
+			orderCache.onOrderStatusChanged(event("codice-1", OrderStatus.IN_PROGRESS));
+
+			// Then
+			assertThat(orderCache.get("codice-1").getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+		}
+
+		@Test
+		@DisplayName("dovrebbe inserire un ordine appena creato")
+		void shouldInsertCreatedOrder() {
+			// When
+			orderCache.onOrderStatusChanged(new OrderStatusChangedEvent(order("codice-1", OrderStatus.PENDING), null));
+
+			// Then
+			assertThat(orderCache.get("codice-1").getStatus()).isEqualTo(OrderStatus.PENDING);
+		}
+
+		@Test
+		@DisplayName("non dovrebbe sostituire l'ordine con una versione precedente arrivata in ritardo")
+		void shouldKeepNewerVersion() {
+			// Given
+			OrderResponse completed = order("codice-1", OrderStatus.COMPLETED);
+			completed.setVersion(2L);
+			orderCache.onOrderStatusChanged(new OrderStatusChangedEvent(completed, OrderStatus.IN_PROGRESS));
+			OrderResponse inProgress = order("codice-1", OrderStatus.IN_PROGRESS);
+			inProgress.setVersion(1L);
+
+			// When
+			orderCache.onOrderStatusChanged(new OrderStatusChangedEvent(inProgress, OrderStatus.PENDING));
+
+			// Then
+			assertThat(orderCache.get("codice-1").getStatus()).isEqualTo(OrderStatus.COMPLETED);
+		}
+
+		@Test
+		@DisplayName("dovrebbe svuotarsi su richiesta")
+		void shouldInvalidateAll() {
+			// Given
+			orderCache.putIfAbsent(order("codice-1", OrderStatus.PENDING));
+
+			// When
+			orderCache.invalidateAll();
+
+			// Then
+			assertThat(orderCache.get("codice-1")).isNull();
+		}
+	}
+
+	@Nested
+	@DisplayName("metriche")
+	class MetricsTests {
+
+		@Test
+		@DisplayName("dovrebbe esporre hit e miss della cache")
+		void shouldExposeHitAndMissCounters() {
+			// Given
+			SimpleMeterRegistry registry = new SimpleMeterRegistry();
+			orderCache.bindTo(registry);
+			orderCache.putIfAbsent(order("codice-1", OrderStatus.PENDING));
+
+			// When
+			orderCache.get("codice-1");
+			orderCache.get("codice-1");
+			orderCache.get("codice-sconosciuto");
+
+			// Then
+			assertThat(registry.get("cache.gets").tag("cache", "orders").tag("result", "hit")
+					.functionCounter().count()).isEqualTo(2);
+			assertThat(registry.get("cache.gets").tag("cache", "orders").tag("result", "miss")
+					.functionCounter().count()).isEqualTo(1);
+		}
+	}
+
+	private static OrderStatusChangedEvent event(String orderCode, OrderStatus status) {
+		return new OrderStatusChangedEvent(order(orderCode, status), null);
+	}
+
+	private static OrderResponse order(String orderCode, OrderStatus status) {
+		return OrderResponse.builder()
+				.orderCode(orderCode)
+				.status(status)
+				.build();
+	}
+}
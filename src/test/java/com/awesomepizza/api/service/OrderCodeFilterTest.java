@@ -0,0 +1,211 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderCodeFilterProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderCodeFilter Unit Tests")
+class OrderCodeFilterTest {
+
+	private static final Instant NOW = Instant.parse("2026-10-17T19:00:00Z");
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private ArchivedOrderRepository archivedOrderRepository;
+
+	private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+
+	/**
+	 * Codici UUID v7 generati un'ora fa: fuori dalla finestra dei codici recenti.
+	 */
+	private final TimeOrderedOrderCodeGenerator oldCodes =
+			new TimeOrderedOrderCodeGenerator(Clock.fixed(NOW.minus(Duration.ofHours(1)), ZoneOffset.UTC));
+
+	private OrderCodeFilter orderCodeFilter;
+
+	@BeforeEach
+	void setUp() {
+		orderCodeFilter = newFilter(true);
+	}
+
+	@Nested
+	@DisplayName("filtro di Bloom")
+	class BloomFilterTests {
+
+		@Test
+		@DisplayName("non dovrebbe avere falsi negativi e rispettare la probabilità di falso positivo")
+		void shouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+			// Given
+			BloomFilter filter = BloomFilter.create(10_000, 0.01, DataSize.ofMegabytes(1).toBytes());
+			List<UUID> inserted = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID()).toList();
+			inserted.forEach(filter::put);
+
+			// When
+			long falsePositives = IntStream.range(0, 10_000)
+					.filter(i -> filter.mightContain(UUID.randomUUID()))
+					.count();
+
+			// Then
+			assertThat(inserted).allMatch(filter::mightContain);
+			assertThat(falsePositives).isLessThan(200);
+			assertThat(filter.isSaturated()).isFalse();
+		}
+
+		@Test
+		@DisplayName("non dovrebbe superare la memoria massima")
+		void shouldNotExceedMaximumSize() {
+			// When
+			BloomFilter filter = BloomFilter.create(100_000_000, 0.01, DataSize.ofKilobytes(64).toBytes());
+
+			// Then
+			assertThat(filter.sizeInBytes()).isEqualTo(DataSize.ofKilobytes(64).toBytes());
+		}
+	}
+
+	@Nested
+	@DisplayName("codici ordine")
+	class MightExistTests {
+
+		@Test
+		@DisplayName("dovrebbe considerare esistente ogni codice finché non è caricato")
+		void shouldAllowEveryCodeBeforeLoading() {
+			assertThat(orderCodeFilter.mightExist(oldCodes.generate())).isTrue();
+		}
+
+		@Test
+		@DisplayName("dovrebbe escludere i codici assenti da ordini attivi e archiviati")
+		void shouldRejectCodesMissingFromDatabase() {
+			// Given
+			String active = oldCodes.generate();
+			String archived = oldCodes.generate();
+			load(List.of(active), List.of(archived));
+
+			// Then
+			assertThat(orderCodeFilter.mightExist(active)).isTrue();
+			assertThat(orderCodeFilter.mightExist(archived)).isTrue();
+			assertThat(orderCodeFilter.mightExist(oldCodes.generate())).isFalse();
+		}
+
+		@Test
+		@DisplayName("dovrebbe aggiungere i codici ricevuti dagli eventi di cambio stato")
+		void shouldAddCodesFromStatusChangedEvents() {
+			// Given
+			load(List.of(), List.of());
+			String created = oldCodes.generate();
+
+			// When
+			orderCodeFilter.onOrderStatusChanged(new OrderStatusChangedEvent(
+					OrderResponse.builder().orderCode(created).status(OrderStatus.PENDING).build(), null));
+
+			// Then
+			assertThat(orderCodeFilter.mightExist(created)).isTrue();
+		}
+
+		@Test
+		@DisplayName("dovrebbe cercare sempre su database i codici UUID v7 appena generati")
+		void shouldAllowRecentCodes() {
+			// Given - creato da un'altra istanza, notifica non ancora arrivata
+			load(List.of(), List.of());
+			String recent = new TimeOrderedOrderCodeGenerator(clock).generate();
+
+			// Then
+			assertThat(orderCodeFilter.mightExist(recent)).isTrue();
+		}
+
+		@Test
+		@DisplayName("non dovrebbe escludere alcun codice se disabilitato")
+		void shouldAllowEveryCodeWhenDisabled() {
+			// Given
+			orderCodeFilter = newFilter(false);
+
+			// When
+			orderCodeFilter.rebuild();
+
+			// Then
+			assertThat(orderCodeFilter.mightExist(oldCodes.generate())).isTrue();
+		}
+	}
+
+	@Nested
+	@DisplayName("ricostruzione concorrente")
+	class ConcurrentRebuildTests {
+
+		@Test
+		@DisplayName("non dovrebbe perdere un codice aggiunto mentre il filtro ricostruito sostituisce quello in uso")
+		void shouldNotLoseCodeAddedDuringSwap() throws Exception {
+			// Given - la ricostruzione ha già letto i codici su database quando l'ordine viene creato
+			load(List.of(), List.of());
+			String created = oldCodes.generate();
+			CountDownLatch codesRead = new CountDownLatch(1);
+			CountDownLatch orderCreated = new CountDownLatch(1);
+			when(orderRepository.streamOrderCodes()).thenAnswer(invocation -> {
+				codesRead.countDown();
+				orderCreated.await();
+				return Stream.empty();
+			});
+			when(archivedOrderRepository.streamOrderCodes()).thenAnswer(invocation -> Stream.empty());
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			Future<?> rebuild = executor.submit(orderCodeFilter::rebuild);
+			assertThat(codesRead.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// When - il filtro viene sostituito mentre il listener gestisce l'evento dell'ordine
+			OrderResponse order = mock(OrderResponse.class);
+			when(order.getOrderCode()).thenAnswer(invocation -> {
+				orderCreated.countDown();
+				rebuild.get(5, TimeUnit.SECONDS);
+				return created;
+			});
+			orderCodeFilter.onOrderStatusChanged(new OrderStatusChangedEvent(order, null));
+			executor.shutdown();
+
+			// Then
+			assertThat(orderCodeFilter.mightExist(created)).isTrue();
+		}
+	}
+
+	private void load(List<String> activeCodes, List<String> archivedCodes) {
+		when(orderRepository.count()).thenReturn((long) activeCodes.size());
+		when(archivedOrderRepository.count()).thenReturn((long) archivedCodes.size());
+		when(orderRepository.streamOrderCodes()).thenReturn(activeCodes.stream());
+		when(archivedOrderRepository.streamOrderCodes()).thenReturn(archivedCodes.stream());
+		orderCodeFilter.run(null);
+	}
+
+	private OrderCodeFilter newFilter(boolean enabled) {
+		return new OrderCodeFilter(orderRepository, archivedOrderRepository, TransactionOperations.withoutTransaction(),
+				new OrderCodeFilterProperties(enabled, 1000, 0.01, DataSize.ofMegabytes(1), Duration.ofMinutes(1)),
+				clock);
+	}
+}
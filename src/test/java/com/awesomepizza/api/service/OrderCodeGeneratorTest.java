@@ -0,0 +1,105 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("OrderCodeGenerator Unit Tests")
+class OrderCodeGeneratorTest {
+
+	@Nested
+	@DisplayName("TimeOrderedOrderCodeGenerator")
+	class TimeOrderedTests {
+
+		@Test
+		@DisplayName("dovrebbe generare UUID versione 7 con il timestamp corrente")
+		void shouldGenerateVersion7WithTimestamp() {
+			// Given
+			Instant now = Instant.parse("2026-02-03T10:15:30.123Z");
+			TimeOrderedOrderCodeGenerator generator =
+					new TimeOrderedOrderCodeGenerator(Clock.fixed(now, ZoneOffset.UTC));
+
+			// When
+			UUID uuid = UUID.fromString(generator.generate());
+
+			// Then
+			assertThat(uuid.version()).isEqualTo(7);
+			assertThat(uuid.variant()).isEqualTo(2);
+			assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(now.toEpochMilli());
+		}
+
+		@Test
+		@DisplayName("dovrebbe generare codici strettamente crescenti nello stesso millisecondo")
+		void shouldGenerateStrictlyIncreasingCodesWithinSameMillisecond() {
+			// Given - più codici del contatore a 12 bit, tutti nello stesso millisecondo
+			TimeOrderedOrderCodeGenerator generator = new TimeOrderedOrderCodeGenerator(
+					Clock.fixed(Instant.parse("2026-02-03T10:15:30Z"), ZoneOffset.UTC));
+
+			// When
+			List<String> codes = new ArrayList<>();
+			for (int i = 0; i < 5000; i++) {
+				codes.add(generator.generate());
+			}
+
+			// Then - l'ordine lessicografico dei codici coincide con l'ordine di generazione
+			assertThat(codes).isSorted().doesNotHaveDuplicates();
+			assertThat(codes).allSatisfy(code -> assertThat(UUID.fromString(code).version()).isEqualTo(7));
+		}
+
+		@Test
+		@DisplayName("dovrebbe generare codici validi in forma canonica")
+		void shouldGenerateCanonicalCodes() {
+			// When
+			String code = new TimeOrderedOrderCodeGenerator().generate();
+
+			// Then
+			assertThat(code).matches("[a-f0-9]{8}-[a-f0-9]{4}-7[a-f0-9]{3}-[89ab][a-f0-9]{3}-[a-f0-9]{12}");
+			assertThat(OrderCodeGenerator.isValid(code)).isTrue();
+		}
+	}
+
+	@Nested
+	@DisplayName("RandomOrderCodeGenerator")
+	class RandomTests {
+
+		@Test
+		@DisplayName("dovrebbe generare UUID versione 4")
+		void shouldGenerateVersion4() {
+			// When
+			UUID uuid = UUID.fromString(new RandomOrderCodeGenerator().generate());
+
+			// Then
+			assertThat(uuid.version()).isEqualTo(4);
+		}
+	}
+
+	@Nested
+	@DisplayName("isValid")
+	class IsValidTests {
+
+		@ParameterizedTest(name = "dovrebbe rifiutare il codice \"{0}\"")
+		@NullSource
+		@ValueSource(strings = {"", "test-order-code", "1-1-1-1-1", "0190a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a5g"})
+		@DisplayName("dovrebbe rifiutare codici che non sono UUID canonici")
+		void shouldRejectInvalidCodes(String orderCode) {
+			assertThat(OrderCodeGenerator.isValid(orderCode)).isFalse();
+		}
+
+		@Test
+		@DisplayName("dovrebbe accettare UUID canonici")
+		void shouldAcceptCanonicalUuid() {
+			assertThat(OrderCodeGenerator.isValid(UUID.randomUUID().toString())).isTrue();
+		}
+	}
+}
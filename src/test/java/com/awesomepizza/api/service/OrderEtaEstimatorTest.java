@@ -0,0 +1,224 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.KitchenProperties;
+import com.awesomepizza.api.config.OrderEtaProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("OrderEtaEstimator Unit Tests")
+class OrderEtaEstimatorTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 19, 0);
+
+	private OrderRepository orderRepository;
+	private OrderEtaEstimator estimator;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository = mock(OrderRepository.class);
+		estimator = new OrderEtaEstimator(new OrderEtaProperties(3, Duration.ofMinutes(10)),
+				new KitchenProperties("forno-1", Map.of("forno-1", 1, "forno-2", 2)), orderRepository);
+	}
+
+	@Nested
+	@DisplayName("media mobile")
+	class AverageTests {
+
+		@Test
+		@DisplayName("dovrebbe usare la durata di default prima di aver osservato preparazioni")
+		void shouldUseDefaultWithoutSamples() {
+			assertThat(estimator.averagePreparationTime()).isEqualTo(Duration.ofMinutes(10));
+		}
+
+		@Test
+		@DisplayName("dovrebbe mediare solo le ultime preparazioni completate")
+		void shouldAverageLatestCompletions() {
+			// Given - quattro preparazioni da 2, 4, 6 e 8 minuti con una finestra di 3
+			for (int i = 1; i <= 4; i++) {
+				prepare("order-" + i, Duration.ofMinutes(2L * i));
+			}
+
+			// When/Then
+			assertThat(estimator.averagePreparationTime()).isEqualTo(Duration.ofMinutes(6));
+		}
+
+		@Test
+		@DisplayName("non dovrebbe misurare un ordine tornato in coda")
+		void shouldIgnoreRequeuedOrders() {
+			// Given
+			take("order-1", NOW);
+			estimator.onOrderStatusChanged(event("order-1", OrderStatus.PENDING, OrderStatus.IN_PROGRESS),
+					NOW.plusMinutes(30));
+
+			// When
+			estimator.onOrderStatusChanged(event("order-1", OrderStatus.COMPLETED, OrderStatus.IN_PROGRESS),
+					NOW.plusMinutes(31));
+
+			// Then
+			assertThat(estimator.averagePreparationTime()).isEqualTo(Duration.ofMinutes(10));
+		}
+	}
+
+	@Nested
+	@DisplayName("attesa stimata")
+	class EstimateTests {
+
+		@Test
+		@DisplayName("dovrebbe stimare le ondate necessarie con tutte le stazioni in parallelo")
+		void shouldEstimateWavesForPendingOrders() {
+			// Given - capacità totale 3 ordini, preparazione media di 4 minuti
+			prepare("order-1", Duration.ofMinutes(4));
+
+			// When/Then
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 0), NOW)).isEqualTo(Duration.ofMinutes(4));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 2), NOW)).isEqualTo(Duration.ofMinutes(4));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 3), NOW)).isEqualTo(Duration.ofMinutes(8));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 7), NOW)).isEqualTo(Duration.ofMinutes(12));
+		}
+
+		@Test
+		@DisplayName("dovrebbe attendere che si liberino i posti occupati dagli ordini in preparazione")
+		void shouldWaitForSlotsHeldByOrdersInProgress() {
+			// Given - capacità 3, preparazione media di 4 minuti, tutti i posti occupati da un minuto
+			prepare("order-1", Duration.ofMinutes(4));
+			take("in-forno-1", NOW);
+			take("in-forno-2", NOW);
+			take("in-forno-3", NOW);
+			LocalDateTime now = NOW.plusMinutes(1);
+
+			// When/Then - il primo posto si libera tra 3 minuti
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 0), now)).isEqualTo(Duration.ofMinutes(7));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 2), now)).isEqualTo(Duration.ofMinutes(7));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 3), now)).isEqualTo(Duration.ofMinutes(11));
+		}
+
+		@Test
+		@DisplayName("dovrebbe usare prima i posti liberi e poi quelli che si liberano")
+		void shouldUseFreeSlotsFirst() {
+			// Given - un solo posto occupato, che si libera tra 3 minuti
+			prepare("order-1", Duration.ofMinutes(4));
+			take("in-forno-1", NOW);
+			LocalDateTime now = NOW.plusMinutes(1);
+
+			// When/Then
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 0), now)).isEqualTo(Duration.ofMinutes(4));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 1), now)).isEqualTo(Duration.ofMinutes(4));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 2), now)).isEqualTo(Duration.ofMinutes(7));
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 3), now)).isEqualTo(Duration.ofMinutes(8));
+		}
+
+		@Test
+		@DisplayName("dovrebbe considerare solo le prese in carico più recenti se superano i posti")
+		void shouldUseLatestStartsWhenMoreThanCapacity() {
+			// Given - capacità 3, quattro ordini in preparazione: uno visto da 3 minuti, gli altri da 1
+			prepare("order-1", Duration.ofMinutes(4));
+			take("in-forno-1", NOW);
+			take("in-forno-2", NOW.plusMinutes(2));
+			take("in-forno-3", NOW.plusMinutes(2));
+			take("in-forno-4", NOW.plusMinutes(2));
+			LocalDateTime now = NOW.plusMinutes(3);
+
+			// When/Then - il primo posto si libera tra 3 minuti, non subito
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 0), now)).isEqualTo(Duration.ofMinutes(7));
+		}
+
+		@Test
+		@DisplayName("dovrebbe sottrarre il tempo già trascorso per un ordine in preparazione")
+		void shouldSubtractElapsedTimeForOrdersInProgress() {
+			// Given
+			prepare("order-1", Duration.ofMinutes(4));
+			take("in-forno", NOW);
+
+			// When/Then
+			assertThat(estimator.estimateWait(position(OrderStatus.IN_PROGRESS, 0), NOW.plusMinutes(1)))
+					.isEqualTo(Duration.ofMinutes(3));
+			assertThat(estimator.estimateWait(position(OrderStatus.IN_PROGRESS, 0), NOW.plusMinutes(5)))
+					.isZero();
+		}
+	}
+
+	@Nested
+	@DisplayName("avvio")
+	class StartupTests {
+
+		@Test
+		@DisplayName("dovrebbe occupare i posti con gli ordini già IN_PROGRESS su database")
+		void shouldSeedOrdersInProgressAtStartup() {
+			// Given - capacità 3, tutti i posti occupati prima del riavvio
+			when(orderRepository.findInProgressOrderCodes()).thenReturn(List.of("in-forno-1", "in-forno-2", "in-forno-3"));
+
+			// When
+			estimator.run(null);
+
+			// Then - senza eventi i posti risultano occupati per un'intera preparazione
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 0), LocalDateTime.now().plusSeconds(1)))
+					.isGreaterThan(Duration.ofMinutes(19));
+		}
+
+		@Test
+		@DisplayName("non dovrebbe sovrascrivere una presa in carico già vista da un evento")
+		void shouldKeepStartsSeenFromEvents() {
+			// Given
+			prepare("order-1", Duration.ofMinutes(4));
+			take("in-forno", NOW);
+
+			// When
+			estimator.seed(List.of("in-forno"), NOW.plusMinutes(3));
+
+			// Then
+			assertThat(estimator.estimateWait(position(OrderStatus.IN_PROGRESS, 0), NOW.plusMinutes(3)))
+					.isEqualTo(Duration.ofMinutes(1));
+		}
+
+		@Test
+		@DisplayName("dovrebbe liberare il posto di un ordine registrato all'avvio quando viene completato")
+		void shouldReleaseSeededSlotOnCompletion() {
+			// Given
+			prepare("order-1", Duration.ofMinutes(4));
+			estimator.seed(List.of("in-forno-1", "in-forno-2", "in-forno-3"), NOW);
+
+			// When
+			estimator.onOrderStatusChanged(event("in-forno-1", OrderStatus.COMPLETED, OrderStatus.IN_PROGRESS),
+					NOW.plusMinutes(1));
+
+			// Then - un posto è di nuovo libero, e la preparazione senza inizio noto non cambia la media
+			assertThat(estimator.estimateWait(position(OrderStatus.PENDING, 0), NOW.plusMinutes(1)))
+					.isEqualTo(Duration.ofMinutes(4));
+			assertThat(estimator.averagePreparationTime()).isEqualTo(Duration.ofMinutes(4));
+		}
+	}
+
+	private void prepare(String orderCode, Duration preparation) {
+		take(orderCode, NOW);
+		estimator.onOrderStatusChanged(event(orderCode, OrderStatus.COMPLETED, OrderStatus.IN_PROGRESS),
+				NOW.plus(preparation));
+	}
+
+	private void take(String orderCode, LocalDateTime at) {
+		estimator.onOrderStatusChanged(event(orderCode, OrderStatus.IN_PROGRESS, OrderStatus.PENDING), at);
+	}
+
+	private static KitchenQueueView.QueuePosition position(OrderStatus status, int ordersAhead) {
+		OrderResponse order = OrderResponse.builder().orderCode("in-forno").status(status).build();
+		return new KitchenQueueView.QueuePosition(order, ordersAhead);
+	}
+
+	private static OrderStatusChangedEvent event(String orderCode, OrderStatus status, OrderStatus previousStatus) {
+		return new OrderStatusChangedEvent(OrderResponse.builder().orderCode(orderCode).status(status).build(),
+				previousStatus);
+	}
+}
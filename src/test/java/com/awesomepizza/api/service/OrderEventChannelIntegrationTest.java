@@ -0,0 +1,144 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.OrderItemRequest;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.model.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Test del canale LISTEN/NOTIFY tra le istanze su PostgreSQL reale.
+ * L'altra istanza è simulata da una connessione che invia o ascolta direttamente sul canale.
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("testcontainers")
+@DisplayName("OrderEventChannel Integration Tests")
+class OrderEventChannelIntegrationTest {
+
+	private static final String CHANNEL = "order_events";
+
+	@Container
+	@ServiceConnection
+	static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	@DisplayName("dovrebbe notificare le altre istanze al commit della transazione")
+	void shouldNotifyOtherNodesOnCommit() throws Exception {
+		try (Connection listener = dataSource.getConnection()) {
+			// Given
+			try (Statement statement = listener.createStatement()) {
+				statement.execute("LISTEN " + CHANNEL);
+			}
+
+			// When
+			OrderResponse created = orderService.createOrder(request("Mario Rossi"));
+
+			// Then
+			List<String> payloads = receive(listener.unwrap(PGConnection.class));
+			assertThat(payloads).singleElement().satisfies(payload -> {
+				OrderEventChannel.OrderEventMessage message =
+						objectMapper.readValue(payload, OrderEventChannel.OrderEventMessage.class);
+				assertThat(message.orderCode()).isEqualTo(created.getOrderCode());
+				assertThat(message.previousStatus()).isNull();
+				assertThat(message.order().getStatus()).isEqualTo(OrderStatus.PENDING);
+			});
+		}
+	}
+
+	@Test
+	@DisplayName("dovrebbe applicare a cache e vista della cucina le transizioni di un'altra istanza")
+	void shouldApplyTransitionsFromOtherNodes() throws Exception {
+		// Given - ordine letto e messo in cache da questa istanza
+		OrderResponse created = orderService.createOrder(request("Luigi Verdi"));
+		assertThat(orderService.getOrderByCode(created.getOrderCode()).getStatus()).isEqualTo(OrderStatus.PENDING);
+
+		// When - un'altra istanza lo prende in carico
+		OrderResponse taken = OrderResponse.builder()
+				.orderCode(created.getOrderCode())
+				.customerName(created.getCustomerName())
+				.status(OrderStatus.IN_PROGRESS)
+				.createdAt(created.getCreatedAt())
+				.station("forno-remoto")
+				.version(created.getVersion() + 1)
+				.items(created.getItems())
+				.build();
+		notifyChannel(objectMapper.writeValueAsString(
+				new OrderEventChannel.OrderEventMessage("altra-istanza", created.getOrderCode(), OrderStatus.PENDING, taken)));
+
+		// Then
+		assertThat(eventually(() -> orderService.getOrderByCode(created.getOrderCode()).getStatus()))
+				.isEqualTo(OrderStatus.IN_PROGRESS);
+		assertThat(orderService.getKitchenQueue(null, null).getOrders())
+				.filteredOn(order -> order.getOrderCode().equals(created.getOrderCode()))
+				.extracting(OrderResponse::getStation)
+				.containsExactly("forno-remoto");
+	}
+
+	private void notifyChannel(String payload) throws Exception {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+			statement.setString(1, CHANNEL);
+			statement.setString(2, payload);
+			statement.execute();
+		}
+	}
+
+	private static List<String> receive(PGConnection connection) throws Exception {
+		List<String> payloads = new ArrayList<>();
+		PGNotification[] notifications = connection.getNotifications(5000);
+		if (notifications != null) {
+			for (PGNotification notification : notifications) {
+				payloads.add(notification.getParameter());
+			}
+		}
+		return payloads;
+	}
+
+	/**
+	 * Il listener applica gli eventi su un proprio thread: attende fino a 5 secondi che il valore cambi.
+	 */
+	private static OrderStatus eventually(Supplier<OrderStatus> status) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (status.get() != OrderStatus.IN_PROGRESS && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		return status.get();
+	}
+
+	private static CreateOrderRequest request(String customerName) {
+		return CreateOrderRequest.builder()
+				.customerName(customerName)
+				.items(List.of(OrderItemRequest.builder().pizzaName("Margherita").quantity(1).build()))
+				.build();
+	}
+}
@@ -0,0 +1,192 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderEventChannelProperties;
+import com.awesomepizza.api.dto.OrderItemResponse;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderEventChannel Unit Tests")
+class OrderEventChannelTest {
+
+	private static final String CHANNEL = "order_events";
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private OrderMapper orderMapper;
+
+	@Mock
+	private OrderCache orderCache;
+
+	@Mock
+	private KitchenQueueView kitchenQueueView;
+
+	@Mock
+	private OrderCodeFilter orderCodeFilter;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private JdbcConnectionDetails connectionDetails;
+
+	@Captor
+	private ArgumentCaptor<OrderStatusChangedEvent> eventCaptor;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+	private OrderEventChannel channel;
+
+	@BeforeEach
+	void setUp() {
+		channel = newNode();
+	}
+
+	@Nested
+	@DisplayName("invio")
+	class PublishTests {
+
+		@Test
+		@DisplayName("dovrebbe inviare l'evento sul canale con pg_notify")
+		void shouldNotifyChannel() {
+			// Given
+			OrderStatusChangedEvent event = new OrderStatusChangedEvent(order("codice-1", 1), OrderStatus.PENDING);
+
+			// When
+			channel.onOrderStatusChanged(event);
+
+			// Then
+			verify(orderRepository).notifyChannel(eq(CHANNEL), eq(channel.payload(event)));
+		}
+
+		@Test
+		@DisplayName("dovrebbe omettere l'ordine se il payload supera il limite di NOTIFY")
+		void shouldOmitOrderFromOversizedPayload() throws Exception {
+			// Given
+			OrderResponse order = order("codice-1", 0);
+			order.setItems(IntStream.range(0, 200)
+					.mapToObj(i -> OrderItemResponse.builder().pizzaName("Pizza speciale numero " + i).quantity(1).build())
+					.toList());
+
+			// When
+			String payload = channel.payload(new OrderStatusChangedEvent(order, null));
+
+			// Then
+			assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(OrderEventChannel.MAX_PAYLOAD_BYTES);
+			assertThat(objectMapper.readValue(payload, OrderEventChannel.OrderEventMessage.class))
+					.satisfies(message -> {
+						assertThat(message.orderCode()).isEqualTo("codice-1");
+						assertThat(message.order()).isNull();
+					});
+		}
+	}
+
+	@Nested
+	@DisplayName("ricezione")
+	class DispatchTests {
+
+		@Test
+		@DisplayName("dovrebbe ripubblicare localmente l'evento di un'altra istanza")
+		void shouldRepublishEventFromOtherNode() {
+			// Given
+			String payload = newNode().payload(new OrderStatusChangedEvent(order("codice-1", 1), OrderStatus.PENDING));
+
+			// When
+			channel.dispatch(payload);
+
+			// Then
+			verify(eventPublisher).publishEvent(eventCaptor.capture());
+			assertThat(eventCaptor.getValue().orderCode()).isEqualTo("codice-1");
+			assertThat(eventCaptor.getValue().status()).isEqualTo(OrderStatus.IN_PROGRESS);
+			assertThat(eventCaptor.getValue().previousStatus()).isEqualTo(OrderStatus.PENDING);
+			assertThat(eventCaptor.getValue().order().getVersion()).isEqualTo(1L);
+		}
+
+		@Test
+		@DisplayName("dovrebbe ignorare le proprie notifiche")
+		void shouldIgnoreOwnNotifications() {
+			// When
+			channel.dispatch(channel.payload(new OrderStatusChangedEvent(order("codice-1", 1), OrderStatus.PENDING)));
+
+			// Then
+			verify(eventPublisher, never()).publishEvent(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe rileggere dal database un ordine omesso dal payload")
+		void shouldReloadOmittedOrder() throws Exception {
+			// Given
+			String payload = objectMapper.writeValueAsString(
+					new OrderEventChannel.OrderEventMessage("altra-istanza", "codice-1", OrderStatus.PENDING, null));
+			Order entity = Order.builder().orderCode("codice-1").build();
+			when(orderRepository.findByOrderCode("codice-1")).thenReturn(Optional.of(entity));
+			when(orderMapper.toOrderResponse(entity)).thenReturn(order("codice-1", 1));
+
+			// When
+			channel.dispatch(payload);
+
+			// Then
+			verify(eventPublisher).publishEvent(eventCaptor.capture());
+			assertThat(eventCaptor.getValue().order().getVersion()).isEqualTo(1L);
+		}
+
+		@Test
+		@DisplayName("dovrebbe ignorare un messaggio non valido")
+		void shouldIgnoreInvalidMessage() {
+			// When
+			channel.dispatch("non è json");
+
+			// Then
+			verify(eventPublisher, never()).publishEvent(any());
+		}
+	}
+
+	private OrderEventChannel newNode() {
+		return new OrderEventChannel(orderRepository, orderMapper, orderCache, kitchenQueueView, orderCodeFilter, eventPublisher,
+				objectMapper, connectionDetails,
+				new OrderEventChannelProperties(true, CHANNEL, Duration.ofSeconds(5), Duration.ofSeconds(5)));
+	}
+
+	private static OrderResponse order(String orderCode, long version) {
+		return OrderResponse.builder()
+				.orderCode(orderCode)
+				.customerName("Mario Rossi")
+				.status(version == 0 ? OrderStatus.PENDING : OrderStatus.IN_PROGRESS)
+				.createdAt(LocalDateTime.of(2026, 10, 17, 19, 0))
+				.version(version)
+				.items(List.of(OrderItemResponse.builder().pizzaName("Margherita").quantity(1).build()))
+				.build();
+	}
+}
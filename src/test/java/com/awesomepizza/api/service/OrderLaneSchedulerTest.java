@@ -0,0 +1,184 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderLaneProperties;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderItem;
+import com.awesomepizza.api.model.OrderLane;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderLaneScheduler Unit Tests")
+class OrderLaneSchedulerTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 19, 0);
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	private OrderLaneScheduler scheduler;
+
+	@BeforeEach
+	void setUp() {
+		scheduler = newScheduler(true);
+	}
+
+	@Nested
+	@DisplayName("corsie")
+	class LaneTests {
+
+		@Test
+		@DisplayName("dovrebbe assegnare la corsia in base al numero di pizze")
+		void shouldAssignLaneByPizzaCount() {
+			assertThat(scheduler.laneOf(1)).isEqualTo(OrderLane.EXPRESS);
+			assertThat(scheduler.laneOf(2)).isEqualTo(OrderLane.EXPRESS);
+			assertThat(scheduler.laneOf(3)).isEqualTo(OrderLane.STANDARD);
+			assertThat(scheduler.laneOf(9)).isEqualTo(OrderLane.STANDARD);
+			assertThat(scheduler.laneOf(10)).isEqualTo(OrderLane.LARGE);
+		}
+	}
+
+	@Nested
+	@DisplayName("istante virtuale")
+	class VirtualFinishTests {
+
+		@Test
+		@DisplayName("dovrebbe partire dalla creazione se la corsia è vuota")
+		void shouldStartFromCreationWhenLaneIsEmpty() {
+			// Given
+			when(orderRepository.findLastPendingVirtualFinishAt(OrderLane.EXPRESS)).thenReturn(Optional.empty());
+			Order order = order(1, NOW);
+
+			// When
+			scheduler.schedule(List.of(order));
+
+			// Then - 1 pizza da 30s con peso 4
+			assertThat(order.getLane()).isEqualTo(OrderLane.EXPRESS);
+			assertThat(order.getVirtualFinishAt()).isEqualTo(NOW.plus(Duration.ofMillis(7500)));
+		}
+
+		@Test
+		@DisplayName("dovrebbe accodarsi all'ultimo ordine della corsia se non è ancora stato superato")
+		void shouldQueueBehindLastOrderOfLane() {
+			// Given
+			when(orderRepository.findLastPendingVirtualFinishAt(OrderLane.STANDARD))
+					.thenReturn(Optional.of(NOW.plusMinutes(5)));
+			Order order = order(4, NOW);
+
+			// When
+			scheduler.schedule(List.of(order));
+
+			// Then - 4 pizze da 30s con peso 2
+			assertThat(order.getVirtualFinishAt()).isEqualTo(NOW.plusMinutes(6));
+		}
+
+		@Test
+		@DisplayName("dovrebbe ignorare un ultimo ordine della corsia già superato dalla creazione")
+		void shouldIgnoreLastOrderBeforeCreation() {
+			// Given
+			when(orderRepository.findLastPendingVirtualFinishAt(OrderLane.LARGE))
+					.thenReturn(Optional.of(NOW.minusHours(1)));
+			Order order = order(40, NOW);
+
+			// When
+			scheduler.schedule(List.of(order));
+
+			// Then - 40 pizze da 30s con peso 1
+			assertThat(order.getVirtualFinishAt()).isEqualTo(NOW.plusMinutes(20));
+		}
+
+		@Test
+		@DisplayName("dovrebbe leggere una sola volta per corsia l'ultimo ordine di un batch")
+		void shouldReadLastOrderOncePerLane() {
+			// Given
+			when(orderRepository.findLastPendingVirtualFinishAt(any())).thenReturn(Optional.empty());
+			List<Order> batch = List.of(order(1, NOW), order(1, NOW), order(5, NOW));
+
+			// When
+			scheduler.schedule(batch);
+
+			// Then
+			assertThat(batch).extracting(Order::getVirtualFinishAt).containsExactly(
+					NOW.plus(Duration.ofMillis(7500)), NOW.plusSeconds(15), NOW.plus(Duration.ofMillis(75_000)));
+			verify(orderRepository).findLastPendingVirtualFinishAt(OrderLane.EXPRESS);
+			verify(orderRepository).findLastPendingVirtualFinishAt(OrderLane.STANDARD);
+		}
+
+		@Test
+		@DisplayName("dovrebbe servire le corsie in proporzione al peso senza bloccare per sempre gli ordini grandi")
+		void shouldShareKitchenByWeight() {
+			// Given - un catering, poi 20 ordini express e 10 standard nello stesso minuto, poi un express 21 minuti dopo
+			when(orderRepository.findLastPendingVirtualFinishAt(any())).thenReturn(Optional.empty());
+			Order catering = order(40, NOW);
+			List<Order> orders = new ArrayList<>(List.of(catering));
+			for (int i = 0; i < 20; i++) {
+				orders.add(order(1, NOW.plusSeconds(i)));
+			}
+			for (int i = 0; i < 10; i++) {
+				orders.add(order(4, NOW.plusSeconds(i)));
+			}
+			Order late = order(1, NOW.plusMinutes(21));
+			orders.add(late);
+
+			// When
+			scheduler.schedule(orders);
+
+			// Then
+			List<Order> queue = orders.stream()
+					.sorted(Comparator.comparing(Order::getVirtualFinishAt))
+					.toList();
+			// Gli ordini express non attendono il catering arrivato prima di loro
+			assertThat(queue.subList(0, 5)).extracting(Order::getLane).containsOnly(OrderLane.EXPRESS);
+			// Express e standard si alternano: nessuna corsia monopolizza la cucina
+			assertThat(queue).extracting(Order::getLane)
+					.containsSubsequence(OrderLane.EXPRESS, OrderLane.STANDARD, OrderLane.EXPRESS, OrderLane.STANDARD);
+			// Gli ordini arrivati dopo il suo istante virtuale non scavalcano più il catering
+			assertThat(queue.indexOf(catering)).isLessThan(queue.indexOf(late));
+		}
+
+		@Test
+		@DisplayName("non dovrebbe assegnare corsie se disabilitate")
+		void shouldLeaveOrdersInFifoWhenDisabled() {
+			// Given
+			scheduler = newScheduler(false);
+			Order order = order(40, NOW);
+
+			// When
+			scheduler.schedule(List.of(order));
+
+			// Then
+			assertThat(order.getLane()).isEqualTo(OrderLane.STANDARD);
+			assertThat(order.getVirtualFinishAt()).isNull();
+			verify(orderRepository, never()).findLastPendingVirtualFinishAt(any());
+		}
+	}
+
+	private OrderLaneScheduler newScheduler(boolean enabled) {
+		return new OrderLaneScheduler(orderRepository,
+				new OrderLaneProperties(enabled, 2, 10, 4, 2, 1, Duration.ofSeconds(30)));
+	}
+
+	private static Order order(int pizzas, LocalDateTime createdAt) {
+		Order order = Order.builder().customerName("Cliente").createdAt(createdAt).build();
+		order.addItem(OrderItem.builder().pizzaName("Margherita").quantity(pizzas).build());
+		return order;
+	}
+}
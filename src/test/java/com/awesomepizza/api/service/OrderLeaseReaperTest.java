@@ -0,0 +1,120 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderLeaseProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderLeaseReaper Unit Tests")
+class OrderLeaseReaperTest {
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@Mock
+	private OrderMapper orderMapper;
+
+	@Mock
+	private KitchenStationService kitchenStationService;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	private OrderLeaseReaper orderLeaseReaper;
+
+	@BeforeEach
+	void setUp() {
+		orderLeaseReaper = new OrderLeaseReaper(orderRepository, orderMapper, kitchenStationService, eventPublisher,
+				new OrderLeaseProperties(true, Duration.ofMinutes(5), Duration.ofSeconds(30), 100));
+	}
+
+	@Test
+	@DisplayName("dovrebbe riportare in coda gli ordini scaduti e liberare il posto nella stazione")
+	void shouldRequeueExpiredOrdersAndReleaseSlots() {
+		// Given
+		Order expired = Order.builder()
+				.id(1L)
+				.orderCode("order-1")
+				.status(OrderStatus.IN_PROGRESS)
+				.station("forno-1")
+				.leaseExpiresAt(LocalDateTime.now().minusMinutes(1))
+				.build();
+		OrderResponse response = OrderResponse.builder()
+				.orderCode("order-1")
+				.status(OrderStatus.PENDING)
+				.build();
+		when(orderRepository.findExpiredLeasesForUpdate(any(LocalDateTime.class), eq(100)))
+				.thenReturn(List.of(expired));
+		when(orderMapper.toOrderResponse(expired)).thenReturn(response);
+
+		// When
+		int reaped = orderLeaseReaper.reapExpiredLeases();
+
+		// Then
+		assertThat(reaped).isEqualTo(1);
+		assertThat(expired.getStatus()).isEqualTo(OrderStatus.PENDING);
+		assertThat(expired.getStation()).isNull();
+		assertThat(expired.getLeaseExpiresAt()).isNull();
+		verify(kitchenStationService).releaseSlot("forno-1");
+		// L'evento è pubblicato solo dopo il flush, con la versione già incrementata
+		InOrder inOrder = inOrder(orderRepository, eventPublisher);
+		inOrder.verify(orderRepository).flush();
+		inOrder.verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(response, OrderStatus.IN_PROGRESS));
+	}
+
+	@Test
+	@DisplayName("non dovrebbe fare nulla se non ci sono prese in carico scadute")
+	void shouldDoNothingWhenNoLeaseExpired() {
+		// Given
+		when(orderRepository.findExpiredLeasesForUpdate(any(LocalDateTime.class), eq(100))).thenReturn(List.of());
+
+		// When
+		int reaped = orderLeaseReaper.reapExpiredLeases();
+
+		// Then
+		assertThat(reaped).isZero();
+		verify(orderRepository, never()).flush();
+		verifyNoInteractions(kitchenStationService, eventPublisher);
+	}
+
+	@Test
+	@DisplayName("dovrebbe assegnare una presa in carico piena agli ordini in lavorazione senza scadenza")
+	void shouldGrantLeasesToOrdersWithout() {
+		// Given - ordini già in lavorazione prima della migrazione V011
+		when(orderRepository.findExpiredLeasesForUpdate(any(LocalDateTime.class), eq(100))).thenReturn(List.of());
+		ArgumentCaptor<LocalDateTime> leaseExpiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+
+		// When
+		orderLeaseReaper.reapExpiredLeases();
+
+		// Then - scadenza calcolata con l'orologio dell'applicazione, come i rinnovi
+		verify(orderRepository).grantMissingLeases(leaseExpiresAt.capture());
+		assertThat(leaseExpiresAt.getValue()).isBetween(
+				LocalDateTime.now().plusMinutes(4), LocalDateTime.now().plusMinutes(5));
+	}
+}
@@ -0,0 +1,104 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderMetrics Unit Tests")
+class OrderMetricsTest {
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	private OrderMetrics orderMetrics;
+	private SimpleMeterRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		orderMetrics = new OrderMetrics(orderRepository);
+		registry = new SimpleMeterRegistry();
+		orderMetrics.bindTo(registry);
+	}
+
+	@Nested
+	@DisplayName("gauge degli ordini per stato")
+	class DepthTests {
+
+		@Test
+		@DisplayName("dovrebbe inizializzarsi con il conteggio su database")
+		void shouldInitializeFromDatabaseCount() {
+			// Given
+			when(orderRepository.countByStatus(OrderStatus.PENDING)).thenReturn(7L);
+			when(orderRepository.countByStatus(OrderStatus.IN_PROGRESS)).thenReturn(2L);
+
+			// When
+			orderMetrics.run(null);
+
+			// Then
+			assertThat(depth(OrderStatus.PENDING)).isEqualTo(7);
+			assertThat(depth(OrderStatus.IN_PROGRESS)).isEqualTo(2);
+		}
+
+		@Test
+		@DisplayName("dovrebbe seguire le transizioni di stato senza interrogare il database")
+		void shouldFollowStatusTransitions() {
+			// When - due ordini creati, uno preso in carico e poi completato
+			orderMetrics.onOrderStatusChanged(event(OrderStatus.PENDING, null));
+			orderMetrics.onOrderStatusChanged(event(OrderStatus.PENDING, null));
+			orderMetrics.onOrderStatusChanged(event(OrderStatus.IN_PROGRESS, OrderStatus.PENDING));
+			assertThat(depth(OrderStatus.IN_PROGRESS)).isEqualTo(1);
+			orderMetrics.onOrderStatusChanged(event(OrderStatus.COMPLETED, OrderStatus.IN_PROGRESS));
+
+			// Then
+			assertThat(depth(OrderStatus.PENDING)).isEqualTo(1);
+			assertThat(depth(OrderStatus.IN_PROGRESS)).isZero();
+		}
+	}
+
+	@Nested
+	@DisplayName("richieste rifiutate")
+	class RejectionTests {
+
+		@Test
+		@DisplayName("dovrebbe contare i rifiuti per motivo")
+		void shouldCountRejectionsByReason() {
+			// When
+			orderMetrics.recordRejection(OrderMetrics.Rejection.QUEUE_EMPTY);
+			orderMetrics.recordRejection(OrderMetrics.Rejection.QUEUE_EMPTY);
+			orderMetrics.recordRejection(OrderMetrics.Rejection.LOCK_TIMEOUT);
+
+			// Then
+			assertThat(rejections("queue-empty")).isEqualTo(2);
+			assertThat(rejections("lock-timeout")).isEqualTo(1);
+			assertThat(rejections("station-busy")).isZero();
+		}
+	}
+
+	private double depth(OrderStatus status) {
+		return registry.get(OrderMetrics.DEPTH).tag("status", status.name()).gauge().value();
+	}
+
+	private double rejections(String reason) {
+		return registry.get(OrderMetrics.REJECTIONS).tag("reason", reason).functionCounter().count();
+	}
+
+	private static OrderStatusChangedEvent event(OrderStatus status, OrderStatus previousStatus) {
+		return new OrderStatusChangedEvent(OrderResponse.builder()
+				.orderCode("codice-1")
+				.status(status)
+				.build(), previousStatus);
+	}
+}
@@ -0,0 +1,156 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.exception.OrderNotFoundException;
+import com.awesomepizza.api.model.OrderStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("OrderReadCoalescer Unit Tests")
+class OrderReadCoalescerTest {
+
+	private static final int READERS = 8;
+
+	private OrderReadCoalescer coalescer;
+	private AtomicInteger loads;
+	private CountDownLatch release;
+
+	@BeforeEach
+	void setUp() {
+		coalescer = new OrderReadCoalescer();
+		loads = new AtomicInteger();
+		release = new CountDownLatch(1);
+	}
+
+	@Test
+	@DisplayName("dovrebbe eseguire una sola lettura per richieste concorrenti dello stesso ordine")
+	void shouldShareSingleLoadBetweenConcurrentReaders() throws Exception {
+		// Given
+		OrderResponse order = OrderResponse.builder().orderCode("codice-1").status(OrderStatus.COMPLETED).build();
+
+		// When
+		List<Future<OrderResponse>> results = readConcurrently("codice-1", orderCode -> {
+			loads.incrementAndGet();
+			awaitRelease();
+			return order;
+		});
+
+		// Then
+		for (Future<OrderResponse> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(order);
+		}
+		assertThat(loads).hasValue(1);
+		assertThat(coalescer.coalesced()).isEqualTo(READERS - 1);
+	}
+
+	@Test
+	@DisplayName("dovrebbe propagare a tutte le richieste accorpate l'eccezione della lettura")
+	void shouldPropagateLoadFailureToCoalescedReaders() throws Exception {
+		// When
+		List<Future<OrderResponse>> results = readConcurrently("codice-1", orderCode -> {
+			loads.incrementAndGet();
+			awaitRelease();
+			throw new OrderNotFoundException(orderCode);
+		});
+
+		// Then
+		for (Future<OrderResponse> result : results) {
+			assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+					.hasCauseInstanceOf(OrderNotFoundException.class);
+		}
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	@DisplayName("dovrebbe propagare alle richieste accorpate anche un Error della lettura")
+	void shouldPropagateErrorToCoalescedReaders() throws Exception {
+		// When
+		List<Future<OrderResponse>> results = readConcurrently("codice-1", orderCode -> {
+			loads.incrementAndGet();
+			awaitRelease();
+			throw new StackOverflowError();
+		});
+
+		// Then
+		for (Future<OrderResponse> result : results) {
+			assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+					.hasCauseInstanceOf(StackOverflowError.class);
+		}
+		assertThat(loads).hasValue(1);
+		assertThat(coalescer.load("codice-1", orderCode -> OrderResponse.builder().orderCode(orderCode).build()))
+				.extracting(OrderResponse::getOrderCode).isEqualTo("codice-1");
+	}
+
+	@Test
+	@DisplayName("dovrebbe eseguire una nuova lettura dopo che la precedente è terminata")
+	void shouldLoadAgainAfterPreviousLoadCompleted() {
+		// Given
+		Function<String, OrderResponse> loader = orderCode -> {
+			loads.incrementAndGet();
+			return OrderResponse.builder().orderCode(orderCode).build();
+		};
+
+		// When
+		coalescer.load("codice-1", loader);
+		coalescer.load("codice-1", loader);
+		coalescer.load("codice-2", loader);
+
+		// Then
+		assertThat(loads).hasValue(3);
+		assertThat(coalescer.coalesced()).isZero();
+	}
+
+	@Test
+	@DisplayName("dovrebbe esporre il contatore delle richieste accorpate")
+	void shouldExposeCoalescedCounter() {
+		// Given
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+		// When
+		coalescer.bindTo(registry);
+
+		// Then
+		assertThat(registry.get(OrderReadCoalescer.COALESCED).functionCounter().count()).isZero();
+	}
+
+	/**
+	 * Avvia READERS letture concorrenti e sblocca il loader solo quando tutte tranne la prima sono in attesa.
+	 */
+	private List<Future<OrderResponse>> readConcurrently(String orderCode, Function<String, OrderResponse> loader)
+			throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(READERS);
+		List<Future<OrderResponse>> results = new ArrayList<>();
+		for (int i = 0; i < READERS; i++) {
+			results.add(executor.submit(() -> coalescer.load(orderCode, loader)));
+		}
+		long deadline = System.currentTimeMillis() + 5000;
+		while (coalescer.coalesced() < READERS - 1 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+		executor.shutdown();
+		return results;
+	}
+
+	private void awaitRelease() {
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
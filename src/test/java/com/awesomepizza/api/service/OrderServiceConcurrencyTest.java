@@ -6,18 +6,22 @@ import com.awesomepizza.api.dto.CreateOrderRequest;
 import com.awesomepizza.api.dto.OrderItemRequest;
 import com.awesomepizza.api.dto.OrderResponse;
 import com.awesomepizza.api.exception.InvalidOrderStateException;
-import com.awesomepizza.api.exception.NoOrdersInQueueException;
 import com.awesomepizza.api.exception.OrderAlreadyInProgressException;
+import com.awesomepizza.api.model.KitchenStation;
 import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.KitchenStationRepository;
 import com.awesomepizza.api.repository.OrderRepository;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +31,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -53,9 +58,22 @@ class OrderServiceConcurrencyTest {
 	@Autowired
 	private OrderRepository orderRepository;
 
+	@Autowired
+	private KitchenStationRepository kitchenStationRepository;
+
+	@Autowired
+	private OrderLeaseReaper orderLeaseReaper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	@BeforeEach
 	void setUp() {
 		orderRepository.deleteAll();
+		// Azzera i contatori delle stazioni lasciati dagli ordini IN_PROGRESS del test precedente
+		List<KitchenStation> stations = kitchenStationRepository.findAll();
+		stations.forEach(station -> station.setInProgress(0));
+		kitchenStationRepository.saveAll(stations);
 	}
 
 	@Nested
@@ -93,7 +111,7 @@ class OrderServiceConcurrencyTest {
 				executor.submit(() -> {
 					try {
 						startLatch.await(); // Aspetta che tutti i thread siano pronti
-						OrderResponse response = orderService.takeNextOrder();
+						OrderResponse response = orderService.takeNextOrder().orElseThrow();
 						takenOrderCodes.add(response.getOrderCode());
 						successCount.incrementAndGet();
 					} catch (OrderAlreadyInProgressException e) {
@@ -133,7 +151,7 @@ class OrderServiceConcurrencyTest {
 			}
 
 			// When: Worker prende ordine 1 → IN_PROGRESS
-			OrderResponse firstOrder = orderService.takeNextOrder();
+			OrderResponse firstOrder = orderService.takeNextOrder().orElseThrow();
 			assertThat(firstOrder.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
 
 			// Worker completa ordine 1 → COMPLETED
@@ -141,7 +159,7 @@ class OrderServiceConcurrencyTest {
 			assertThat(completedOrder.getStatus()).isEqualTo(OrderStatus.COMPLETED);
 
 			// Altro worker prende ordine 2 → deve funzionare!
-			OrderResponse secondOrder = orderService.takeNextOrder();
+			OrderResponse secondOrder = orderService.takeNextOrder().orElseThrow();
 
 			// Then: ordine 2 è IN_PROGRESS e diverso dal primo
 			assertThat(secondOrder.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
@@ -155,6 +173,182 @@ class OrderServiceConcurrencyTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("takeNextOrders concurrency")
+	class TakeNextOrdersConcurrencyTests {
+
+		@Test
+		@DisplayName("dovrebbe assegnare a ogni chiamata ordini diversi, nell'ordine della coda e con le pizze")
+		void shouldClaimDisjointBatches() throws Exception {
+			// Given: 9 ordini, stazione banco-preparazione con capacità 9 (application-testcontainers.properties)
+			int numberOfWorkers = 3;
+			int batchSize = 3;
+			for (int i = 0; i < numberOfWorkers * batchSize; i++) {
+				orderService.createOrder(CreateOrderRequest.builder()
+						.customerName("Cliente " + i)
+						.items(List.of(OrderItemRequest.builder()
+								.pizzaName("Margherita")
+								.quantity(i + 1)
+								.build()))
+						.build());
+			}
+
+			// When: 3 worker prendono 3 ordini ciascuno contemporaneamente
+			ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+			CountDownLatch startLatch = new CountDownLatch(1);
+			List<Future<List<OrderResponse>>> batches = new ArrayList<>();
+			for (int i = 0; i < numberOfWorkers; i++) {
+				batches.add(executor.submit(() -> {
+					startLatch.await();
+					return orderService.takeNextOrders("banco-preparazione", batchSize);
+				}));
+			}
+			startLatch.countDown();
+
+			// Then: nessun ordine è preso due volte e ogni lotto è nell'ordine della coda
+			Set<String> takenOrderCodes = new HashSet<>();
+			for (Future<List<OrderResponse>> batch : batches) {
+				List<OrderResponse> orders = batch.get(10, TimeUnit.SECONDS);
+				assertThat(orders).hasSize(batchSize);
+				assertThat(orders).extracting(OrderResponse::getVirtualFinishAt).isSorted();
+				assertThat(orders).allSatisfy(order -> {
+					assertThat(order.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+					assertThat(order.getStation()).isEqualTo("banco-preparazione");
+					assertThat(order.getItems()).hasSize(1);
+				});
+				orders.forEach(order -> takenOrderCodes.add(order.getOrderCode()));
+			}
+			executor.shutdown();
+
+			assertThat(takenOrderCodes).hasSize(numberOfWorkers * batchSize);
+			assertThat(orderRepository.countByStatus(OrderStatus.PENDING)).isZero();
+			assertThat(kitchenStationRepository.findById("banco-preparazione").orElseThrow().getInProgress())
+					.isEqualTo(numberOfWorkers * batchSize);
+		}
+	}
+
+	@Nested
+	@DisplayName("lease reaper concurrency")
+	class LeaseReaperConcurrencyTests {
+
+		@Test
+		@DisplayName("dovrebbe riportare in coda ogni ordine scaduto una sola volta con più istanze del reaper")
+		void shouldRequeueEachExpiredOrderOnce() throws Exception {
+			// Given: 6 ordini presi in carico dal banco e la cui presa in carico è scaduta
+			int numberOfOrders = 6;
+			for (int i = 0; i < numberOfOrders; i++) {
+				orderService.createOrder(CreateOrderRequest.builder()
+						.customerName("Cliente " + i)
+						.items(List.of(OrderItemRequest.builder()
+								.pizzaName("Diavola")
+								.quantity(1)
+								.build()))
+						.build());
+			}
+			List<OrderResponse> taken = orderService.takeNextOrders("banco-preparazione", numberOfOrders);
+			assertThat(taken).hasSize(numberOfOrders);
+			jdbcTemplate.update("UPDATE orders SET lease_expires_at = now() - interval '1 minute'"
+					+ " WHERE status = 'IN_PROGRESS'");
+
+			// When: due istanze del reaper eseguono insieme
+			int numberOfReapers = 2;
+			ExecutorService executor = Executors.newFixedThreadPool(numberOfReapers);
+			CountDownLatch startLatch = new CountDownLatch(1);
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int i = 0; i < numberOfReapers; i++) {
+				results.add(executor.submit(() -> {
+					startLatch.await();
+					return orderLeaseReaper.reapExpiredLeases();
+				}));
+			}
+			startLatch.countDown();
+			int reaped = 0;
+			for (Future<Integer> result : results) {
+				reaped += result.get(10, TimeUnit.SECONDS);
+			}
+			executor.shutdown();
+
+			// Then: ogni ordine torna in coda una volta e il contatore della stazione torna a zero
+			assertThat(reaped).isEqualTo(numberOfOrders);
+			assertThat(orderRepository.countByStatus(OrderStatus.PENDING)).isEqualTo(numberOfOrders);
+			assertThat(kitchenStationRepository.findById("banco-preparazione").orElseThrow().getInProgress())
+					.isZero();
+			// La coda FIFO è intatta: il prossimo ordine è ancora il primo creato
+			assertThat(orderService.takeNextOrder("banco-preparazione")).get()
+					.extracting(OrderResponse::getOrderCode)
+					.isEqualTo(taken.get(0).getOrderCode());
+		}
+	}
+
+	@Nested
+	@DisplayName("multi-station concurrency")
+	class MultiStationConcurrencyTests {
+
+		@Test
+		@DisplayName("dovrebbe permettere fino a 'capacità' ordini IN_PROGRESS per stazione")
+		void shouldAllowUpToCapacityOrdersInProgressPerStation() throws InterruptedException {
+			// Given: 6 ordini, stazione forno-doppio con capacità 2 (application-testcontainers.properties)
+			int numberOfOrders = 6;
+			int numberOfWorkers = 5;
+
+			for (int i = 0; i < numberOfOrders; i++) {
+				CreateOrderRequest request = CreateOrderRequest.builder()
+						.customerName("Cliente " + i)
+						.items(List.of(OrderItemRequest.builder()
+								.pizzaName("Marinara")
+								.quantity(1)
+								.build()))
+						.build();
+				orderService.createOrder(request);
+			}
+
+			// When: 5 worker della stessa stazione + 1 worker della stazione di default
+			ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers + 1);
+			CountDownLatch startLatch = new CountDownLatch(1);
+			CountDownLatch endLatch = new CountDownLatch(numberOfWorkers + 1);
+
+			AtomicInteger doubleStationSuccessCount = new AtomicInteger(0);
+			AtomicInteger alreadyInProgressCount = new AtomicInteger(0);
+			AtomicInteger defaultStationSuccessCount = new AtomicInteger(0);
+
+			for (int i = 0; i < numberOfWorkers; i++) {
+				executor.submit(() -> {
+					try {
+						startLatch.await();
+						orderService.takeNextOrder("forno-doppio").orElseThrow();
+						doubleStationSuccessCount.incrementAndGet();
+					} catch (OrderAlreadyInProgressException e) {
+						alreadyInProgressCount.incrementAndGet();
+					} catch (Exception ignored) {
+					} finally {
+						endLatch.countDown();
+					}
+				});
+			}
+			executor.submit(() -> {
+				try {
+					startLatch.await();
+					orderService.takeNextOrder().orElseThrow();
+					defaultStationSuccessCount.incrementAndGet();
+				} catch (Exception ignored) {
+				} finally {
+					endLatch.countDown();
+				}
+			});
+
+			startLatch.countDown();
+			endLatch.await(10, TimeUnit.SECONDS);
+			executor.shutdown();
+
+			// Then: la stazione doppia lavora 2 ordini, quella di default lavora in parallelo il suo
+			assertThat(doubleStationSuccessCount.get()).isEqualTo(2);
+			assertThat(alreadyInProgressCount.get()).isEqualTo(numberOfWorkers - 2);
+			assertThat(defaultStationSuccessCount.get()).isEqualTo(1);
+			assertThat(orderRepository.countByStatus(OrderStatus.IN_PROGRESS)).isEqualTo(3);
+			assertThat(kitchenStationRepository.findById("forno-doppio").orElseThrow().getInProgress()).isEqualTo(2);
+		}
+	}
+
 	@Nested
 	@DisplayName("completeOrder concurrency")
 	class CompleteOrderConcurrencyTests {
@@ -171,7 +365,7 @@ class OrderServiceConcurrencyTest {
 							.build()))
 					.build();
 			orderService.createOrder(request);
-			OrderResponse inProgress = orderService.takeNextOrder();
+			OrderResponse inProgress = orderService.takeNextOrder().orElseThrow();
 			String orderCode = inProgress.getOrderCode();
 
 			// When: 5 thread provano a completare lo stesso ordine
@@ -250,15 +444,20 @@ class OrderServiceConcurrencyTest {
 						// Ogni worker tenta più cicli take→complete
 						for (int cycle = 0; cycle < 3; cycle++) {
 							try {
-								OrderResponse taken = orderService.takeNextOrder();
+								Optional<OrderResponse> next = orderService.takeNextOrder();
+								if (next.isEmpty()) {
+									// Atteso: coda vuota
+									continue;
+								}
+								OrderResponse taken = next.get();
 								takeSuccessCount.incrementAndGet();
 								processedOrders.add(taken.getOrderCode());
 
 								// Completa immediatamente l'ordine preso
 								orderService.completeOrder(taken.getOrderCode());
 								completeSuccessCount.incrementAndGet();
-							} catch (OrderAlreadyInProgressException | NoOrdersInQueueException e) {
-								// Atteso: altro worker ha l'ordine o coda vuota
+							} catch (OrderAlreadyInProgressException e) {
+								// Atteso: altro worker ha l'ordine
 							} catch (InvalidOrderStateException e) {
 								// Atteso: ordine già completato da altro thread
 							}
@@ -2,26 +2,48 @@ package com.awesomepizza.api.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.awesomepizza.api.dto.CreateOrderRequest;
+import com.awesomepizza.api.dto.KitchenQueueResponse;
 import com.awesomepizza.api.dto.OrderItemRequest;
+import com.awesomepizza.api.dto.OrderLeaseResponse;
+import com.awesomepizza.api.dto.OrderPositionResponse;
+import com.awesomepizza.api.dto.OrderQueueSliceResponse;
 import com.awesomepizza.api.dto.OrderResponse;
 import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.exception.InvalidClaimCountException;
 import com.awesomepizza.api.exception.InvalidOrderStateException;
-import com.awesomepizza.api.exception.NoOrdersInQueueException;
+import com.awesomepizza.api.exception.InvalidQueueCursorException;
 import com.awesomepizza.api.exception.OrderAlreadyInProgressException;
 import com.awesomepizza.api.exception.OrderNotFoundException;
 import com.awesomepizza.api.mapper.OrderMapper;
+import com.awesomepizza.api.model.ArchivedOrder;
 import com.awesomepizza.api.model.Order;
+import com.awesomepizza.api.model.OrderLane;
 import com.awesomepizza.api.model.OrderStatus;
+import com.awesomepizza.api.repository.ArchivedOrderRepository;
+import com.awesomepizza.api.repository.OrderQueueRow;
 import com.awesomepizza.api.repository.OrderRepository;
+import com.awesomepizza.api.repository.OrderStatusRow;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,15 +51,21 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("OrderService Unit Tests")
@@ -49,18 +77,56 @@ class OrderServiceTest {
 	@Mock
 	private OrderMapper orderMapper;
 
+	@Mock
+	private KitchenStationService kitchenStationService;
+
+	@Mock
+	private OrderCache orderCache;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private OrderMetrics orderMetrics;
+
+	@Mock
+	private ArchivedOrderRepository archivedOrderRepository;
+
+	@Mock
+	private KitchenQueueView kitchenQueueView;
+
+	@Spy
+	private OrderFactory orderFactory = new OrderFactory(new TimeOrderedOrderCodeGenerator());
+
+	@Spy
+	private OrderReadCoalescer orderReadCoalescer;
+
+	@Mock
+	private OrderCodeFilter orderCodeFilter;
+
+	@Mock
+	private OrderLaneScheduler orderLaneScheduler;
+
+	@Mock
+	private OrderEtaEstimator orderEtaEstimator;
+
 	@InjectMocks
 	private OrderServiceImpl orderService;
 
 	@Captor
 	private ArgumentCaptor<Order> orderCaptor;
 
+	@Captor
+	private ArgumentCaptor<List<Order>> orderListCaptor;
+
 	private CreateOrderRequest validRequest;
 	private Order sampleOrder;
 	private OrderResponse sampleResponse;
 
 	@BeforeEach
 	void setUp() {
+		lenient().when(orderCodeFilter.mightExist(any())).thenReturn(true);
+
 		validRequest = CreateOrderRequest.builder()
 				.customerName("Mario Rossi")
 				.items(List.of(
@@ -102,6 +168,7 @@ class OrderServiceTest {
 			Order savedOrder = orderCaptor.getValue();
 			assertThat(savedOrder.getCustomerName()).isEqualTo("Mario Rossi");
 			assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.PENDING);
+			verify(orderLaneScheduler).schedule(List.of(savedOrder));
 		}
 
 		@Test
@@ -153,10 +220,57 @@ class OrderServiceTest {
 
 			// Then
 			verify(orderMapper).toOrderResponse(sampleOrder);
+			verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(sampleResponse, null));
 			assertThat(response).isEqualTo(sampleResponse);
 		}
 	}
 
+	@Nested
+	@DisplayName("createOrders")
+	class CreateOrdersTests {
+
+		@Test
+		@DisplayName("dovrebbe salvare tutti gli ordini con un'unica chiamata al repository")
+		void shouldSaveAllOrdersAtOnce() {
+			// Given
+			CreateOrderRequest secondRequest = CreateOrderRequest.builder()
+					.customerName("Luigi Verdi")
+					.items(List.of(OrderItemRequest.builder().pizzaName("Capricciosa").quantity(1).build()))
+					.build();
+			when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+			when(orderMapper.toOrderResponse(any(Order.class))).thenReturn(sampleResponse);
+
+			// When
+			List<OrderResponse> responses = orderService.createOrders(List.of(validRequest, secondRequest));
+
+			// Then
+			verify(orderRepository).saveAll(orderListCaptor.capture());
+			verify(orderRepository, never()).save(any());
+			List<Order> savedOrders = orderListCaptor.getValue();
+			assertThat(savedOrders).extracting(Order::getCustomerName).containsExactly("Mario Rossi", "Luigi Verdi");
+			assertThat(savedOrders).allSatisfy(order -> assertThat(order.getStatus()).isEqualTo(OrderStatus.PENDING));
+			assertThat(savedOrders.get(0).getItems()).hasSize(2);
+			assertThat(savedOrders).extracting(Order::getOrderCode).doesNotHaveDuplicates();
+			assertThat(responses).hasSize(2);
+			// Corsia e istante virtuale assegnati a tutto il batch insieme, prima del salvataggio
+			verify(orderLaneScheduler).schedule(savedOrders);
+		}
+
+		@Test
+		@DisplayName("dovrebbe pubblicare un evento di creazione per ogni ordine")
+		void shouldPublishEventForEachOrder() {
+			// Given
+			when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+			when(orderMapper.toOrderResponse(any(Order.class))).thenReturn(sampleResponse);
+
+			// When
+			orderService.createOrders(List.of(validRequest, validRequest, validRequest));
+
+			// Then
+			verify(eventPublisher, times(3)).publishEvent(new OrderStatusChangedEvent(sampleResponse, null));
+		}
+	}
+
 	@Nested
 	@DisplayName("getOrderByCode")
 	class GetOrderByCodeTests {
@@ -175,9 +289,66 @@ class OrderServiceTest {
 			// Then
 			verify(orderRepository).findByOrderCode(orderCode);
 			verify(orderMapper).toOrderResponse(sampleOrder);
+			verify(orderCache).putIfAbsent(sampleResponse);
 			assertThat(response).isEqualTo(sampleResponse);
 		}
 
+		@Test
+		@DisplayName("dovrebbe lanciare OrderNotFoundException per un codice non UUID senza accedere al database")
+		void shouldThrowOrderNotFoundForMalformedCodeWithoutHittingDatabase() {
+			// When/Then
+			assertThatThrownBy(() -> orderService.getOrderByCode("codice-non-valido"))
+					.isInstanceOf(OrderNotFoundException.class)
+					.hasMessageContaining("codice-non-valido");
+
+			verify(orderRepository, never()).findByOrderCode(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderNotFoundException per un codice escluso dal filtro senza accedere al database")
+		void shouldThrowOrderNotFoundForUnknownCodeWithoutHittingDatabase() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderCodeFilter.mightExist(orderCode)).thenReturn(false);
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.getOrderByCode(orderCode))
+					.isSameAs(OrderNotFoundException.unknownCode());
+
+			verify(orderRepository, never()).findByOrderCode(any());
+			verify(archivedOrderRepository, never()).findByOrderCode(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire l'ordine dalla cache senza accedere al database")
+		void shouldReturnCachedOrderWithoutHittingDatabase() {
+			// Given
+			when(orderCache.get("test-order-code")).thenReturn(sampleResponse);
+
+			// When
+			OrderResponse response = orderService.getOrderByCode("test-order-code");
+
+			// Then
+			assertThat(response).isSameAs(sampleResponse);
+			verify(orderRepository, never()).findByOrderCode(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe trovare in cache l'ordine richiesto con il codice in maiuscolo")
+		void shouldReturnCachedOrderForUpperCaseCode() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderCache.get(orderCode)).thenReturn(sampleResponse);
+
+			// When
+			OrderResponse response = orderService.getOrderByCode(orderCode.toUpperCase());
+
+			// Then
+			assertThat(response).isSameAs(sampleResponse);
+			verify(orderCodeFilter, never()).mightExist(any());
+			verify(orderRepository, never()).findByOrderCode(any());
+		}
+
 		@Test
 		@DisplayName("dovrebbe lanciare OrderNotFoundException quando ordine non trovato")
 		void shouldThrowOrderNotFoundExceptionWhenNotFound() {
@@ -190,7 +361,45 @@ class OrderServiceTest {
 					.isInstanceOf(OrderNotFoundException.class)
 					.hasMessageContaining(orderCode);
 
-			verify(orderMapper, never()).toOrderResponse(any());
+			verify(archivedOrderRepository).findByOrderCode(orderCode);
+			verify(orderMapper, never()).toOrderResponse(any(Order.class));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire dallo storico un ordine archiviato")
+		void shouldFallBackToArchivedOrder() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			ArchivedOrder archivedOrder = ArchivedOrder.builder()
+					.id(1L)
+					.orderCode(orderCode)
+					.status(OrderStatus.COMPLETED)
+					.build();
+			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.empty());
+			when(archivedOrderRepository.findByOrderCode(orderCode)).thenReturn(Optional.of(archivedOrder));
+			when(orderMapper.toOrderResponse(archivedOrder)).thenReturn(sampleResponse);
+
+			// When
+			OrderResponse response = orderService.getOrderByCode(orderCode);
+
+			// Then
+			assertThat(response).isEqualTo(sampleResponse);
+			verify(orderCache).putIfAbsent(sampleResponse);
+		}
+
+		@Test
+		@DisplayName("non dovrebbe interrogare lo storico per un ordine attivo")
+		void shouldNotQueryHistoryForActiveOrder() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.of(sampleOrder));
+			when(orderMapper.toOrderResponse(sampleOrder)).thenReturn(sampleResponse);
+
+			// When
+			orderService.getOrderByCode(orderCode);
+
+			// Then
+			verify(archivedOrderRepository, never()).findByOrderCode(any());
 		}
 	}
 
@@ -208,15 +417,54 @@ class OrderServiceTest {
 					.build();
 
 			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.of(sampleOrder));
-			when(orderMapper.toOrderStatusResponse(sampleOrder)).thenReturn(statusResponse);
+			when(orderMapper.toOrderResponse(sampleOrder)).thenReturn(sampleResponse);
+			when(orderMapper.toOrderStatusResponse(sampleResponse)).thenReturn(statusResponse);
 
 			// When
 			OrderStatusResponse response = orderService.getOrderStatusByCode(orderCode);
 
 			// Then
 			verify(orderRepository).findByOrderCode(orderCode);
-			verify(orderMapper).toOrderStatusResponse(sampleOrder);
+			verify(orderCache).putIfAbsent(sampleResponse);
+			assertThat(response.getStatus()).isEqualTo(OrderStatus.PENDING);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire lo stato dalla cache senza accedere al database")
+		void shouldReturnCachedStatusWithoutHittingDatabase() {
+			// Given
+			OrderStatusResponse statusResponse = OrderStatusResponse.builder()
+					.status(OrderStatus.PENDING)
+					.build();
+			when(orderCache.get("test-order-code")).thenReturn(sampleResponse);
+			when(orderMapper.toOrderStatusResponse(sampleResponse)).thenReturn(statusResponse);
+
+			// When
+			OrderStatusResponse response = orderService.getOrderStatusByCode("test-order-code");
+
+			// Then
 			assertThat(response.getStatus()).isEqualTo(OrderStatus.PENDING);
+			verify(orderRepository, never()).findByOrderCode(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe trovare in cache lo stato dell'ordine richiesto con il codice in maiuscolo")
+		void shouldReturnCachedStatusForUpperCaseCode() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			OrderStatusResponse statusResponse = OrderStatusResponse.builder()
+					.status(OrderStatus.PENDING)
+					.build();
+			when(orderCache.get(orderCode)).thenReturn(sampleResponse);
+			when(orderMapper.toOrderStatusResponse(sampleResponse)).thenReturn(statusResponse);
+
+			// When
+			OrderStatusResponse response = orderService.getOrderStatusByCode(orderCode.toUpperCase());
+
+			// Then
+			assertThat(response).isSameAs(statusResponse);
+			verify(orderCodeFilter, never()).mightExist(any());
+			verify(orderRepository, never()).findByOrderCode(any());
 		}
 
 		@Test
@@ -231,7 +479,81 @@ class OrderServiceTest {
 					.isInstanceOf(OrderNotFoundException.class)
 					.hasMessageContaining(orderCode);
 
-			verify(orderMapper, never()).toOrderStatusResponse(any());
+			verify(orderMapper, never()).toOrderStatusResponse(any(OrderResponse.class));
+		}
+	}
+
+	@Nested
+	@DisplayName("getOrderStatusesByCode")
+	class GetOrderStatusesByCodeTests {
+
+		@Test
+		@DisplayName("dovrebbe leggere con una sola query gli ordini assenti dalla cache, nell'ordine della richiesta")
+		void shouldLoadCacheMissesWithSingleQuery() {
+			// Given
+			String cachedCode = UUID.randomUUID().toString();
+			String storedCode = UUID.randomUUID().toString();
+			String unknownCode = UUID.randomUUID().toString();
+			OrderStatusResponse cachedStatus = OrderStatusResponse.builder().status(OrderStatus.PENDING).version(0L).build();
+			OrderStatusResponse storedStatus = OrderStatusResponse.builder().status(OrderStatus.COMPLETED).version(2L).build();
+			OrderStatusRow storedRow = mock(OrderStatusRow.class);
+			when(storedRow.getOrderCode()).thenReturn(storedCode);
+
+			when(orderCache.get(cachedCode)).thenReturn(sampleResponse);
+			when(orderCache.get(storedCode)).thenReturn(null);
+			when(orderCache.get(unknownCode)).thenReturn(null);
+			when(orderMapper.toOrderStatusResponse(sampleResponse)).thenReturn(cachedStatus);
+			when(orderRepository.findStatusesByOrderCodes(
+					new UUID[] {UUID.fromString(storedCode), UUID.fromString(unknownCode)}))
+					.thenReturn(List.of(storedRow));
+			when(orderMapper.toOrderStatusResponse(storedRow)).thenReturn(storedStatus);
+
+			// When
+			Map<String, OrderStatusResponse> statuses = orderService.getOrderStatusesByCode(
+					List.of(storedCode, unknownCode, cachedCode, storedCode));
+
+			// Then
+			assertThat(statuses).containsExactly(entry(storedCode, storedStatus), entry(cachedCode, cachedStatus));
+			verify(orderRepository).findStatusesByOrderCodes(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe indicizzare il risultato per codice come richiesto, anche in maiuscolo")
+		void shouldKeyResultsByRequestedCode() {
+			// Given - il database restituisce il codice in minuscolo
+			String storedCode = UUID.randomUUID().toString();
+			String upperCaseCode = storedCode.toUpperCase();
+			OrderStatusResponse storedStatus = OrderStatusResponse.builder().status(OrderStatus.COMPLETED).version(2L).build();
+			OrderStatusRow storedRow = mock(OrderStatusRow.class);
+			when(storedRow.getOrderCode()).thenReturn(storedCode);
+			when(orderRepository.findStatusesByOrderCodes(new UUID[] {UUID.fromString(storedCode)}))
+					.thenReturn(List.of(storedRow));
+			when(orderMapper.toOrderStatusResponse(storedRow)).thenReturn(storedStatus);
+
+			// When
+			Map<String, OrderStatusResponse> statuses = orderService.getOrderStatusesByCode(
+					List.of(upperCaseCode, storedCode));
+
+			// Then
+			assertThat(statuses).containsExactly(entry(upperCaseCode, storedStatus), entry(storedCode, storedStatus));
+		}
+
+		@Test
+		@DisplayName("non dovrebbe accedere al database per ordini in cache o codici non validi")
+		void shouldNotHitDatabaseForCachedOrInvalidCodes() {
+			// Given
+			OrderStatusResponse statusResponse = OrderStatusResponse.builder().status(OrderStatus.PENDING).build();
+			when(orderCache.get("test-order-code")).thenReturn(sampleResponse);
+			when(orderCache.get("non-un-uuid")).thenReturn(null);
+			when(orderMapper.toOrderStatusResponse(sampleResponse)).thenReturn(statusResponse);
+
+			// When
+			Map<String, OrderStatusResponse> statuses = orderService.getOrderStatusesByCode(
+					List.of("test-order-code", "non-un-uuid"));
+
+			// Then
+			assertThat(statuses).containsOnlyKeys("test-order-code");
+			verify(orderRepository, never()).findStatusesByOrderCodes(any());
 		}
 	}
 
@@ -240,22 +562,16 @@ class OrderServiceTest {
 	class GetOrderQueueTests {
 
 		@Test
-		@DisplayName("dovrebbe restituire una pagina di ordini PENDING")
+		@DisplayName("dovrebbe restituire una pagina di ordini PENDING senza conteggio se la pagina è incompleta")
 		void shouldReturnPagedPendingOrders() {
 			// Given
 			Pageable pageable = PageRequest.of(0, 20);
-			Order order1 = Order.builder().id(1L).orderCode("order-1").status(OrderStatus.PENDING).build();
-			Order order2 = Order.builder().id(2L).orderCode("order-2").status(OrderStatus.PENDING).build();
+			List<OrderQueueRow> rows = List.of(queueRow(1L, LocalDateTime.of(2026, 2, 3, 10, 0)),
+					queueRow(2L, LocalDateTime.of(2026, 2, 3, 10, 5)));
 			OrderResponse response1 = OrderResponse.builder().orderCode("order-1").status(OrderStatus.PENDING).build();
 			OrderResponse response2 = OrderResponse.builder().orderCode("order-2").status(OrderStatus.PENDING).build();
-
-			Page<Long> idPage = new PageImpl<>(List.of(1L, 2L), pageable, 2);
-			when(orderRepository.findIdsByStatusOrderByCreatedAtAsc(OrderStatus.PENDING, pageable))
-					.thenReturn(idPage);
-			when(orderRepository.findByIdsWithItems(List.of(1L, 2L)))
-					.thenReturn(List.of(order1, order2));
-			when(orderMapper.toOrderResponse(order1)).thenReturn(response1);
-			when(orderMapper.toOrderResponse(order2)).thenReturn(response2);
+			when(orderRepository.findPendingQueueRows(0, 20)).thenReturn(rows);
+			when(orderMapper.toOrderResponses(rows)).thenReturn(List.of(response1, response2));
 
 			// When
 			Page<OrderResponse> result = orderService.getOrderQueue(pageable);
@@ -264,6 +580,27 @@ class OrderServiceTest {
 			assertThat(result.getContent()).hasSize(2);
 			assertThat(result.getTotalElements()).isEqualTo(2);
 			assertThat(result.getContent().get(0).getOrderCode()).isEqualTo("order-1");
+			verify(orderRepository, never()).countPending();
+		}
+
+		@Test
+		@DisplayName("dovrebbe contare gli ordini PENDING quando la pagina è piena")
+		void shouldCountWhenPageIsFull() {
+			// Given
+			Pageable pageable = PageRequest.of(1, 2);
+			List<OrderQueueRow> rows = List.of(queueRow(3L, LocalDateTime.of(2026, 2, 3, 10, 0)),
+					queueRow(4L, LocalDateTime.of(2026, 2, 3, 10, 5)));
+			when(orderRepository.findPendingQueueRows(2, 2)).thenReturn(rows);
+			when(orderMapper.toOrderResponses(rows)).thenReturn(List.of(sampleResponse, sampleResponse));
+			when(orderRepository.countPending()).thenReturn(7L);
+
+			// When
+			Page<OrderResponse> result = orderService.getOrderQueue(pageable);
+
+			// Then
+			assertThat(result.getContent()).hasSize(2);
+			assertThat(result.getTotalElements()).isEqualTo(7);
+			assertThat(result.getTotalPages()).isEqualTo(4);
 		}
 
 		@Test
@@ -271,8 +608,7 @@ class OrderServiceTest {
 		void shouldReturnEmptyPageWhenNoOrders() {
 			// Given
 			Pageable pageable = PageRequest.of(0, 20);
-			when(orderRepository.findIdsByStatusOrderByCreatedAtAsc(OrderStatus.PENDING, pageable))
-					.thenReturn(Page.empty(pageable));
+			when(orderRepository.findPendingQueueRows(0, 20)).thenReturn(List.of());
 
 			// When
 			Page<OrderResponse> result = orderService.getOrderQueue(pageable);
@@ -280,7 +616,191 @@ class OrderServiceTest {
 			// Then
 			assertThat(result.getContent()).isEmpty();
 			assertThat(result.getTotalElements()).isZero();
-			verify(orderRepository, never()).findByIdsWithItems(any());
+			verify(orderRepository, never()).countPending();
+		}
+	}
+
+	@Nested
+	@DisplayName("getOrderQueue (cursore)")
+	class GetOrderQueueByCursorTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire la prima pagina e il cursore della successiva senza conteggio")
+		void shouldReturnFirstSliceWithNextCursor() {
+			// Given
+			LocalDateTime createdAt2 = LocalDateTime.of(2026, 2, 3, 10, 5);
+			List<OrderQueueRow> rows = List.of(
+					queueRow(1L, LocalDateTime.of(2026, 2, 3, 10, 0)),
+					queueRow(2L, createdAt2),
+					queueRow(2L, createdAt2),
+					queueRow(3L, LocalDateTime.of(2026, 2, 3, 10, 10)));
+			when(orderRepository.findFirstPendingQueueRows(3)).thenReturn(rows);
+			when(orderMapper.toOrderResponses(rows)).thenReturn(List.of(sampleResponse, sampleResponse, sampleResponse));
+
+			// When
+			OrderQueueSliceResponse result = orderService.getOrderQueue(null, 2);
+
+			// Then
+			assertThat(result.getOrders()).hasSize(2);
+			assertThat(result.getNextCursor()).isNotNull();
+			assertThat(QueueCursor.decode(result.getNextCursor())).isEqualTo(new QueueCursor(createdAt2, 2L));
+			verify(orderRepository, never()).countPending();
+		}
+
+		@Test
+		@DisplayName("dovrebbe riprendere dalla posizione indicata dal cursore")
+		void shouldSeekFromCursor() {
+			// Given
+			LocalDateTime createdAt = LocalDateTime.of(2026, 2, 3, 10, 5);
+			String cursor = new QueueCursor(createdAt, 2L).encode();
+			List<OrderQueueRow> rows = List.of(queueRow(3L, LocalDateTime.of(2026, 2, 3, 10, 10)));
+			when(orderRepository.findPendingQueueRowsAfter(createdAt, 2L, 3)).thenReturn(rows);
+			when(orderMapper.toOrderResponses(rows)).thenReturn(List.of(sampleResponse));
+
+			// When
+			OrderQueueSliceResponse result = orderService.getOrderQueue(cursor, 2);
+
+			// Then
+			assertThat(result.getOrders()).hasSize(1);
+			assertThat(result.getNextCursor()).isNull();
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire una pagina vuota quando la coda è vuota")
+		void shouldReturnEmptySliceWhenQueueIsEmpty() {
+			// Given
+			when(orderRepository.findFirstPendingQueueRows(21)).thenReturn(List.of());
+
+			// When
+			OrderQueueSliceResponse result = orderService.getOrderQueue(null, 20);
+
+			// Then
+			assertThat(result.getOrders()).isEmpty();
+			assertThat(result.getNextCursor()).isNull();
+		}
+
+		@Test
+		@DisplayName("dovrebbe limitare la dimensione della pagina al massimo consentito")
+		void shouldClampPageSize() {
+			// Given
+			when(orderRepository.findFirstPendingQueueRows(anyInt())).thenReturn(List.of());
+
+			// When
+			orderService.getOrderQueue(null, 10_000);
+
+			// Then
+			verify(orderRepository).findFirstPendingQueueRows(OrderServiceImpl.MAX_QUEUE_PAGE_SIZE + 1);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare InvalidQueueCursorException per un cursore non valido")
+		void shouldThrowForInvalidCursor() {
+			// When/Then
+			assertThatThrownBy(() -> orderService.getOrderQueue("non-un-cursore!", 20))
+					.isInstanceOf(InvalidQueueCursorException.class);
+		}
+	}
+
+	@Nested
+	@DisplayName("getOrderPosition")
+	class GetOrderPositionTests {
+
+		@Test
+		@DisplayName("dovrebbe restituire posizione e attesa stimata dalla memoria senza accedere al database")
+		void shouldReturnPositionFromMemory() {
+			// Given
+			KitchenQueueView.QueuePosition position = new KitchenQueueView.QueuePosition(sampleResponse, 6);
+			when(kitchenQueueView.position("test-order-code")).thenReturn(Optional.of(position));
+			when(orderEtaEstimator.estimateWait(position)).thenReturn(Duration.ofMinutes(12));
+
+			// When
+			OrderPositionResponse response = orderService.getOrderPosition("test-order-code");
+
+			// Then
+			assertThat(response.getStatus()).isEqualTo(OrderStatus.PENDING);
+			assertThat(response.getPosition()).isEqualTo(7);
+			assertThat(response.getEstimatedWaitSeconds()).isEqualTo(720);
+			assertThat(response.getEstimatedReadyAt()).isAfter(LocalDateTime.now().plusMinutes(11));
+			verifyNoInteractions(orderRepository);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire posizione 0 per un ordine in preparazione")
+		void shouldReturnZeroForOrderInProgress() {
+			// Given
+			sampleResponse.setStatus(OrderStatus.IN_PROGRESS);
+			KitchenQueueView.QueuePosition position = new KitchenQueueView.QueuePosition(sampleResponse, 0);
+			when(kitchenQueueView.position("test-order-code")).thenReturn(Optional.of(position));
+			when(orderEtaEstimator.estimateWait(position)).thenReturn(Duration.ofMinutes(3));
+
+			// When
+			OrderPositionResponse response = orderService.getOrderPosition("test-order-code");
+
+			// Then
+			assertThat(response.getPosition()).isZero();
+			assertThat(response.getEstimatedWaitSeconds()).isEqualTo(180);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire solo lo stato per un ordine non più in coda")
+		void shouldReturnOnlyStatusForCompletedOrder() {
+			// Given
+			OrderResponse completed = OrderResponse.builder()
+					.orderCode("test-order-code")
+					.status(OrderStatus.COMPLETED)
+					.build();
+			when(kitchenQueueView.position("test-order-code")).thenReturn(Optional.empty());
+			when(orderCache.get("test-order-code")).thenReturn(completed);
+			when(orderMapper.toOrderStatusResponse(completed))
+					.thenReturn(OrderStatusResponse.builder().status(OrderStatus.COMPLETED).build());
+
+			// When
+			OrderPositionResponse response = orderService.getOrderPosition("test-order-code");
+
+			// Then
+			assertThat(response.getStatus()).isEqualTo(OrderStatus.COMPLETED);
+			assertThat(response.getPosition()).isNull();
+			assertThat(response.getEstimatedReadyAt()).isNull();
+			verifyNoInteractions(orderEtaEstimator);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderNotFoundException per un codice inesistente")
+		void shouldThrowWhenOrderNotFound() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(kitchenQueueView.position(orderCode)).thenReturn(Optional.empty());
+			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.empty());
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.getOrderPosition(orderCode))
+					.isInstanceOf(OrderNotFoundException.class);
+		}
+	}
+
+	@Nested
+	@DisplayName("getKitchenQueue")
+	class GetKitchenQueueTests {
+
+		@Test
+		@DisplayName("dovrebbe servire la vista della cucina dalla memoria senza accedere al database")
+		void shouldServeKitchenQueueFromMemory() {
+			// Given
+			KitchenQueueResponse view = KitchenQueueResponse.builder()
+					.epoch("epoca-1")
+					.version(7)
+					.full(false)
+					.orders(List.of(sampleResponse))
+					.removedOrderCodes(List.of())
+					.build();
+			when(kitchenQueueView.changesSince("epoca-1", 5L)).thenReturn(view);
+
+			// When
+			KitchenQueueResponse result = orderService.getKitchenQueue("epoca-1", 5L);
+
+			// Then
+			assertThat(result).isSameAs(view);
+			verifyNoInteractions(orderRepository);
 		}
 	}
 
@@ -301,53 +821,80 @@ class OrderServiceTest {
 					.id(1L)
 					.orderCode("order-1")
 					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
 					.build();
 			OrderResponse expectedResponse = OrderResponse.builder()
 					.orderCode("order-1")
 					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
 					.build();
 
+			when(kitchenStationService.getDefaultStation()).thenReturn("forno-1");
 			// Trova il primo PENDING
-			when(orderRepository.findFirstByStatusOrderByCreatedAtAsc(eq(OrderStatus.PENDING)))
+			when(orderRepository.findFirstPendingWithLock())
 					.thenReturn(Optional.of(pendingOrder));
-			// Double-check: nessun IN_PROGRESS
-			when(orderRepository.existsByStatus(eq(OrderStatus.IN_PROGRESS)))
-					.thenReturn(false);
-			when(orderRepository.save(argThat(o -> o.getStatus() == OrderStatus.IN_PROGRESS)))
+			when(orderRepository.saveAndFlush(argThat(o -> o.getStatus() == OrderStatus.IN_PROGRESS)))
 					.thenReturn(inProgressOrder);
 			when(orderMapper.toOrderResponse(inProgressOrder)).thenReturn(expectedResponse);
 
 			// When
-			OrderResponse response = orderService.takeNextOrder();
+			OrderResponse response = orderService.takeNextOrder().orElseThrow();
 
 			// Then
-			verify(orderRepository).save(orderCaptor.capture());
+			verify(orderRepository).saveAndFlush(orderCaptor.capture());
 			Order savedOrder = orderCaptor.getValue();
 			assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
 			assertThat(savedOrder.getOrderCode()).isEqualTo("order-1");
+			assertThat(savedOrder.getStation()).isEqualTo("forno-1");
+			assertThat(savedOrder.getLeaseExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(4));
 			assertThat(response.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
 			assertThat(response.getOrderCode()).isEqualTo("order-1");
+			// Il limite è verificato sul contatore della stazione, non con una scansione della tabella
+			verify(kitchenStationService).reserveSlot("forno-1");
+			verify(orderRepository, never()).existsByStatus(any());
+			verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(response, OrderStatus.PENDING));
 		}
 
 		@Test
-		@DisplayName("dovrebbe lanciare NoOrdersInQueueException se la coda è vuota")
-		void shouldThrowNoOrdersInQueueExceptionWhenQueueIsEmpty() {
+		@DisplayName("dovrebbe restituire un risultato vuoto se la coda è vuota")
+		void shouldReturnEmptyWhenQueueIsEmpty() {
 			// Given - nessun ordine PENDING
-			when(orderRepository.findFirstByStatusOrderByCreatedAtAsc(eq(OrderStatus.PENDING)))
+			when(kitchenStationService.getDefaultStation()).thenReturn("forno-1");
+			when(orderRepository.findFirstPendingWithLock())
 					.thenReturn(Optional.empty());
 
+			// When
+			Optional<OrderResponse> response = orderService.takeNextOrder();
+
+			// Then
+			assertThat(response).isEmpty();
+			// Con la coda vuota il contatore della stazione non viene toccato
+			verify(kitchenStationService, never()).reserveSlot(any());
+			verify(orderRepository, never()).saveAndFlush(any());
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.QUEUE_EMPTY);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderAlreadyInProgressException senza toccare la coda se la stazione è piena")
+		void shouldThrowOrderAlreadyInProgressExceptionWhenStationIsFull() {
+			// Given
+			when(kitchenStationService.getDefaultStation()).thenReturn("forno-1");
+			when(kitchenStationService.claimableSlots("forno-1", 1))
+					.thenThrow(OrderAlreadyInProgressException.stationBusy("forno-1"));
+
 			// When/Then
 			assertThatThrownBy(() -> orderService.takeNextOrder())
-					.isInstanceOf(NoOrdersInQueueException.class);
+					.isInstanceOf(OrderAlreadyInProgressException.class)
+					.hasMessageContaining("forno-1");
 
-			// Non dovrebbe mai arrivare al double-check
-			verify(orderRepository, never()).existsByStatus(any());
-			verify(orderRepository, never()).save(any());
+			verify(orderRepository, never()).findFirstPendingWithLock();
+			verify(orderRepository, never()).saveAndFlush(any());
+			verify(kitchenStationService, never()).reserveSlot(any());
 		}
 
 		@Test
-		@DisplayName("dovrebbe lanciare OrderAlreadyInProgressException se esiste già un ordine in lavorazione")
-		void shouldThrowOrderAlreadyInProgressExceptionWhenAnotherOrderIsInProgress() {
+		@DisplayName("dovrebbe assegnare l'ordine alla stazione richiesta")
+		void shouldAssignOrderToRequestedStation() {
 			// Given
 			Order pendingOrder = Order.builder()
 					.id(1L)
@@ -355,19 +902,223 @@ class OrderServiceTest {
 					.status(OrderStatus.PENDING)
 					.build();
 
-			// Prima trova un PENDING
-			when(orderRepository.findFirstByStatusOrderByCreatedAtAsc(eq(OrderStatus.PENDING)))
+			when(orderRepository.findFirstPendingWithLock())
 					.thenReturn(Optional.of(pendingOrder));
-			// Poi il double-check trova un IN_PROGRESS
-			when(orderRepository.existsByStatus(eq(OrderStatus.IN_PROGRESS)))
-					.thenReturn(true);
+			when(orderRepository.saveAndFlush(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+			when(orderMapper.toOrderResponse(pendingOrder)).thenReturn(OrderResponse.builder()
+					.orderCode("order-1")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.build());
+
+			// When
+			orderService.takeNextOrder("forno-2");
+
+			// Then
+			verify(orderRepository).saveAndFlush(orderCaptor.capture());
+			assertThat(orderCaptor.getValue().getStation()).isEqualTo("forno-2");
+			verify(kitchenStationService).reserveSlot("forno-2");
+			verify(kitchenStationService, never()).getDefaultStation();
+		}
+	}
+
+	@Nested
+	@DisplayName("takeNextOrder (SKIP_LOCKED)")
+	class TakeNextOrderSkipLockedTests {
+
+		@BeforeEach
+		void useSkipLockedStrategy() {
+			ReflectionTestUtils.setField(orderService, "claimStrategy", OrderClaimStrategy.SKIP_LOCKED);
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire l'ordine preso in carico dall'UPDATE atomico")
+		void shouldReturnClaimedOrder() {
+			// Given
+			Order claimedOrder = Order.builder()
+					.id(1L)
+					.orderCode("order-1")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
+					.build();
+			OrderResponse expectedResponse = OrderResponse.builder()
+					.orderCode("order-1")
+					.status(OrderStatus.IN_PROGRESS)
+					.build();
+
+			when(kitchenStationService.getDefaultStation()).thenReturn("forno-1");
+			when(orderRepository.claimNextPendingOrder(eq("forno-1"), any())).thenReturn(Optional.of(claimedOrder));
+			when(orderMapper.toOrderResponse(claimedOrder)).thenReturn(expectedResponse);
+
+			// When
+			OrderResponse response = orderService.takeNextOrder().orElseThrow();
+
+			// Then
+			assertThat(response.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+			assertThat(response.getOrderCode()).isEqualTo("order-1");
+			verify(kitchenStationService).reserveSlot("forno-1");
+			verify(orderRepository, never()).findFirstPendingWithLock();
+			verify(orderRepository, never()).saveAndFlush(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire un risultato vuoto se nessun ordine è stato preso")
+		void shouldReturnEmptyWhenNothingClaimed() {
+			// Given
+			when(orderRepository.claimNextPendingOrder(eq("forno-2"), any())).thenReturn(Optional.empty());
+
+			// When
+			Optional<OrderResponse> response = orderService.takeNextOrder("forno-2");
+
+			// Then
+			assertThat(response).isEmpty();
+
+			verify(kitchenStationService, never()).reserveSlot(any());
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.QUEUE_EMPTY);
+		}
+
+		@Test
+		@DisplayName("dovrebbe propagare OrderAlreadyInProgressException se una presa in carico concorrente occupa l'ultimo posto")
+		void shouldThrowOrderAlreadyInProgressExceptionWhenLastSlotIsTaken() {
+			// Given
+			Order claimedOrder = Order.builder()
+					.id(1L)
+					.orderCode("order-1")
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.build();
+
+			when(orderRepository.claimNextPendingOrder(eq("forno-2"), any())).thenReturn(Optional.of(claimedOrder));
+			doThrow(new OrderAlreadyInProgressException("forno-2"))
+					.when(kitchenStationService).reserveSlot("forno-2");
 
 			// When/Then
-			assertThatThrownBy(() -> orderService.takeNextOrder())
-					.isInstanceOf(OrderAlreadyInProgressException.class)
-					.hasMessageContaining("già presente un ordine in lavorazione");
+			assertThatThrownBy(() -> orderService.takeNextOrder("forno-2"))
+					.isInstanceOf(OrderAlreadyInProgressException.class);
 
-			verify(orderRepository, never()).save(any());
+			verify(orderMapper, never()).toOrderResponse(any(Order.class));
+		}
+	}
+
+	@Nested
+	@DisplayName("takeNextOrders")
+	class TakeNextOrdersTests {
+
+		@BeforeEach
+		void useSkipLockedStrategy() {
+			ReflectionTestUtils.setField(orderService, "claimStrategy", OrderClaimStrategy.SKIP_LOCKED);
+		}
+
+		@Test
+		@DisplayName("dovrebbe prendere in carico più ordini con una sola istruzione e restituirli in ordine FIFO")
+		void shouldClaimOrdersInSingleStatement() {
+			// Given - RETURNING non garantisce l'ordine delle righe
+			Order first = Order.builder().id(1L).orderCode("order-1").status(OrderStatus.IN_PROGRESS).build();
+			Order second = Order.builder().id(2L).orderCode("order-2").status(OrderStatus.IN_PROGRESS).build();
+			OrderResponse firstResponse = OrderResponse.builder().orderCode("order-1").status(OrderStatus.IN_PROGRESS).build();
+			OrderResponse secondResponse = OrderResponse.builder().orderCode("order-2").status(OrderStatus.IN_PROGRESS).build();
+
+			when(kitchenStationService.claimableSlots("banco-1", 3)).thenReturn(3);
+			when(orderRepository.claimNextPendingOrders(eq("banco-1"), any(), eq(3))).thenReturn(List.of(second, first));
+			when(orderRepository.findAllWithItemsByIdIn(List.of(2L, 1L))).thenReturn(List.of(first, second));
+			when(orderMapper.toOrderResponse(first)).thenReturn(firstResponse);
+			when(orderMapper.toOrderResponse(second)).thenReturn(secondResponse);
+
+			// When
+			List<OrderResponse> responses = orderService.takeNextOrders("banco-1", 3);
+
+			// Then
+			assertThat(responses).containsExactly(firstResponse, secondResponse);
+			// Un solo UPDATE sul contatore per tutti gli ordini presi
+			verify(kitchenStationService).reserveSlots("banco-1", 2);
+			verify(kitchenStationService, never()).reserveSlot(any());
+			verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(firstResponse, OrderStatus.PENDING));
+			verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(secondResponse, OrderStatus.PENDING));
+		}
+
+		@Test
+		@DisplayName("dovrebbe restituire una lista vuota se la coda è vuota")
+		void shouldReturnEmptyListWhenQueueIsEmpty() {
+			// Given
+			when(kitchenStationService.getDefaultStation()).thenReturn("forno-1");
+			when(kitchenStationService.claimableSlots("forno-1", 5)).thenReturn(1);
+			when(orderRepository.claimNextPendingOrders(eq("forno-1"), any(), eq(1))).thenReturn(List.of());
+
+			// When
+			List<OrderResponse> responses = orderService.takeNextOrders(5);
+
+			// Then
+			assertThat(responses).isEmpty();
+			verify(kitchenStationService, never()).reserveSlots(any(), anyInt());
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.QUEUE_EMPTY);
+		}
+
+		@ParameterizedTest
+		@ValueSource(ints = {-1, 0, OrderServiceImpl.MAX_CLAIM_COUNT + 1})
+		@DisplayName("dovrebbe rifiutare un numero di ordini fuori dai limiti senza prenderne nessuno")
+		void shouldRejectInvalidClaimCount(int count) {
+			// When/Then
+			assertThatThrownBy(() -> orderService.takeNextOrders("banco-1", count))
+					.isInstanceOf(InvalidClaimCountException.class)
+					.hasMessageContaining(String.valueOf(count));
+
+			verify(kitchenStationService, never()).claimableSlots(any(), anyInt());
+			verify(orderRepository, never()).claimNextPendingOrders(any(), any(), anyInt());
+		}
+
+		@Test
+		@DisplayName("dovrebbe prendere al massimo gli ordini per cui la stazione ha posto")
+		void shouldCapClaimCountToFreeSlots() {
+			// Given - forno-1 ha un solo posto libero
+			Order pending = Order.builder().id(1L).orderCode("order-1").status(OrderStatus.IN_PROGRESS).build();
+			when(kitchenStationService.claimableSlots("forno-1", 3)).thenReturn(1);
+			when(orderRepository.claimNextPendingOrders(eq("forno-1"), any(), eq(1))).thenReturn(List.of(pending));
+			when(orderRepository.findAllWithItemsByIdIn(List.of(1L))).thenReturn(List.of(pending));
+			when(orderMapper.toOrderResponse(pending)).thenReturn(OrderResponse.builder().orderCode("order-1").build());
+
+			// When
+			List<OrderResponse> responses = orderService.takeNextOrders("forno-1", 3);
+
+			// Then
+			assertThat(responses).hasSize(1);
+			verify(kitchenStationService).reserveSlots("forno-1", 1);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderAlreadyInProgressException senza prendere ordini se la stazione è piena")
+		void shouldNotClaimWhenStationIsFull() {
+			// Given
+			when(kitchenStationService.claimableSlots("forno-1", 3))
+					.thenThrow(OrderAlreadyInProgressException.stationBusy("forno-1"));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.takeNextOrders("forno-1", 3))
+					.isInstanceOf(OrderAlreadyInProgressException.class);
+
+			verify(orderRepository, never()).claimNextPendingOrders(any(), any(), anyInt());
+		}
+
+		@Test
+		@DisplayName("dovrebbe assegnare gli ordini alla stazione con il lock pessimistico")
+		void shouldClaimOrdersWithPessimisticLock() {
+			// Given
+			ReflectionTestUtils.setField(orderService, "claimStrategy", OrderClaimStrategy.PESSIMISTIC_LOCK);
+			Order pending = Order.builder().id(1L).orderCode("order-1").status(OrderStatus.PENDING).build();
+
+			when(kitchenStationService.claimableSlots("banco-1", 2)).thenReturn(2);
+			when(orderRepository.findFirstPendingWithLock(2)).thenReturn(List.of(pending));
+			when(orderRepository.saveAllAndFlush(List.of(pending))).thenReturn(List.of(pending));
+			when(orderRepository.findAllWithItemsByIdIn(List.of(1L))).thenReturn(List.of(pending));
+			when(orderMapper.toOrderResponse(pending)).thenReturn(OrderResponse.builder().orderCode("order-1").build());
+
+			// When
+			List<OrderResponse> responses = orderService.takeNextOrders("banco-1", 2);
+
+			// Then
+			assertThat(responses).hasSize(1);
+			assertThat(pending.getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+			assertThat(pending.getStation()).isEqualTo("banco-1");
+			verify(kitchenStationService).reserveSlots("banco-1", 1);
 		}
 	}
 
@@ -385,12 +1136,14 @@ class OrderServiceTest {
 					.orderCode(orderCode)
 					.customerName("Mario Rossi")
 					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-1")
 					.build();
 			Order completedOrder = Order.builder()
 					.id(1L)
 					.orderCode(orderCode)
 					.customerName("Mario Rossi")
 					.status(OrderStatus.COMPLETED)
+					.station("forno-1")
 					.build();
 			OrderResponse expectedResponse = OrderResponse.builder()
 					.orderCode(orderCode)
@@ -399,21 +1152,67 @@ class OrderServiceTest {
 					.build();
 
 			when(orderRepository.findByOrderCodeWithLock(eq(orderCode))).thenReturn(Optional.of(inProgressOrder));
-			when(orderRepository.save(argThat(o -> o.getStatus() == OrderStatus.COMPLETED)))
+			when(orderRepository.saveAndFlush(argThat(o -> o.getStatus() == OrderStatus.COMPLETED)))
 					.thenReturn(completedOrder);
 			when(orderMapper.toOrderResponse(completedOrder)).thenReturn(expectedResponse);
 
 			// When
-			OrderResponse response = orderService.completeOrder(orderCode);
+			OrderResponse response = orderService.completeOrder(orderCode, "forno-1");
 
 			// Then
 			verify(orderRepository).findByOrderCodeWithLock(eq(orderCode));
-			verify(orderRepository).save(orderCaptor.capture());
+			verify(orderRepository).saveAndFlush(orderCaptor.capture());
 			Order savedOrder = orderCaptor.getValue();
 			assertThat(savedOrder.getStatus()).isEqualTo(OrderStatus.COMPLETED);
 			assertThat(savedOrder.getOrderCode()).isEqualTo(orderCode);
+			assertThat(savedOrder.getLeaseExpiresAt()).isNull();
 			assertThat(response.getStatus()).isEqualTo(OrderStatus.COMPLETED);
 			assertThat(response.getOrderCode()).isEqualTo(orderCode);
+			verify(kitchenStationService).releaseSlot("forno-1");
+			verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(expectedResponse, OrderStatus.IN_PROGRESS));
+		}
+
+		@Test
+		@DisplayName("dovrebbe completare con la stazione di default se la stazione non è indicata")
+		void shouldCompleteWithDefaultStation() {
+			// Given - l'ordine è in carico a un'altra stazione
+			String orderCode = UUID.randomUUID().toString();
+			Order inProgressOrder = Order.builder()
+					.id(1L)
+					.orderCode(orderCode)
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.build();
+			when(kitchenStationService.getDefaultStation()).thenReturn("forno-1");
+			when(orderRepository.findByOrderCodeWithLock(eq(orderCode))).thenReturn(Optional.of(inProgressOrder));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode))
+					.isInstanceOf(InvalidOrderStateException.class)
+					.hasMessageContaining("forno-1");
+		}
+
+		@Test
+		@DisplayName("dovrebbe rifiutare il completamento da una stazione che non ha l'ordine")
+		void shouldRejectCompletionFromAnotherStation() {
+			// Given - la presa in carico di forno-1 è scaduta e l'ordine è passato a forno-2
+			String orderCode = UUID.randomUUID().toString();
+			Order inProgressOrder = Order.builder()
+					.id(1L)
+					.orderCode(orderCode)
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.build();
+			when(orderRepository.findByOrderCodeWithLock(eq(orderCode))).thenReturn(Optional.of(inProgressOrder));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode, "forno-1"))
+					.isInstanceOf(InvalidOrderStateException.class)
+					.hasMessageContaining("forno-2");
+
+			verify(orderRepository, never()).saveAndFlush(any());
+			verify(kitchenStationService, never()).releaseSlot(any());
+			verifyNoInteractions(eventPublisher);
 		}
 
 		@Test
@@ -430,12 +1229,13 @@ class OrderServiceTest {
 			when(orderRepository.findByOrderCodeWithLock(eq(orderCode))).thenReturn(Optional.of(pendingOrder));
 
 			// When/Then
-			assertThatThrownBy(() -> orderService.completeOrder(orderCode))
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode, "forno-1"))
 					.isInstanceOf(InvalidOrderStateException.class)
 					.hasMessageContaining("IN_PROGRESS")
 					.hasMessageContaining("PENDING");
 
-			verify(orderRepository, never()).save(any());
+			verify(orderRepository, never()).saveAndFlush(any());
+			verify(kitchenStationService, never()).releaseSlot(any());
 		}
 
 		@Test
@@ -452,12 +1252,12 @@ class OrderServiceTest {
 			when(orderRepository.findByOrderCodeWithLock(eq(orderCode))).thenReturn(Optional.of(completedOrder));
 
 			// When/Then
-			assertThatThrownBy(() -> orderService.completeOrder(orderCode))
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode, "forno-1"))
 					.isInstanceOf(InvalidOrderStateException.class)
 					.hasMessageContaining("IN_PROGRESS")
 					.hasMessageContaining("COMPLETED");
 
-			verify(orderRepository, never()).save(any());
+			verify(orderRepository, never()).saveAndFlush(any());
 		}
 
 		@Test
@@ -468,12 +1268,124 @@ class OrderServiceTest {
 			when(orderRepository.findByOrderCodeWithLock(eq(orderCode))).thenReturn(Optional.empty());
 
 			// When/Then
-			assertThatThrownBy(() -> orderService.completeOrder(orderCode))
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode, "forno-1"))
 					.isInstanceOf(OrderNotFoundException.class)
 					.hasMessageContaining(orderCode);
 
 			verify(orderRepository).findByOrderCodeWithLock(eq(orderCode));
-			verify(orderRepository, never()).save(any());
+			verify(orderRepository, never()).saveAndFlush(any());
+		}
+
+		@Test
+		@DisplayName("dovrebbe contare il timeout del lock e rilanciare l'eccezione")
+		void shouldRecordLockTimeoutAndRethrow() {
+			// Given - il lock sull'ordine è tenuto da un'altra transazione oltre il timeout
+			String orderCode = UUID.randomUUID().toString();
+			when(orderRepository.findByOrderCodeWithLock(eq(orderCode)))
+					.thenThrow(new CannotAcquireLockException("lock timeout"));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode, "forno-1"))
+					.isInstanceOf(CannotAcquireLockException.class);
+
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.LOCK_TIMEOUT);
+			verify(orderRepository, never()).saveAndFlush(any());
 		}
+
+		@Test
+		@DisplayName("dovrebbe contare come timeout del lock il timeout della query con lock")
+		void shouldRecordQueryTimeoutAsLockTimeout() {
+			// Given - su PostgreSQL l'attesa del lock è interrotta dal timeout della query
+			String orderCode = UUID.randomUUID().toString();
+			when(orderRepository.findByOrderCodeWithLock(eq(orderCode)))
+					.thenThrow(new QueryTimeoutException("canceling statement due to user request"));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.completeOrder(orderCode, "forno-1"))
+					.isInstanceOf(QueryTimeoutException.class);
+
+			verify(orderMetrics).recordRejection(OrderMetrics.Rejection.LOCK_TIMEOUT);
+		}
+	}
+
+	@Nested
+	@DisplayName("renewLease")
+	class RenewLeaseTests {
+
+		@Test
+		@DisplayName("dovrebbe rinnovare la presa in carico con un solo UPDATE")
+		void shouldRenewLeaseWithSingleUpdate() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderRepository.renewLease(eq(orderCode), eq("forno-1"), any(LocalDateTime.class))).thenReturn(1);
+
+			// When
+			OrderLeaseResponse response = orderService.renewLease(orderCode, "forno-1");
+
+			// Then
+			assertThat(response.getOrderCode()).isEqualTo(orderCode);
+			assertThat(response.getLeaseExpiresAt()).isAfter(LocalDateTime.now().plusMinutes(4));
+			verify(orderRepository, never()).findByOrderCode(any());
+			verifyNoInteractions(eventPublisher);
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare InvalidOrderStateException se l'ordine non è IN_PROGRESS")
+		void shouldThrowInvalidOrderStateExceptionWhenOrderNotInProgress() {
+			// Given - la presa in carico è scaduta e l'ordine è tornato in coda
+			String orderCode = UUID.randomUUID().toString();
+			Order pendingOrder = Order.builder()
+					.id(1L)
+					.orderCode(orderCode)
+					.status(OrderStatus.PENDING)
+					.build();
+			when(orderRepository.renewLease(eq(orderCode), eq("forno-1"), any(LocalDateTime.class))).thenReturn(0);
+			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.of(pendingOrder));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.renewLease(orderCode, "forno-1"))
+					.isInstanceOf(InvalidOrderStateException.class)
+					.hasMessageContaining("IN_PROGRESS")
+					.hasMessageContaining("PENDING");
+		}
+
+		@Test
+		@DisplayName("dovrebbe rifiutare l'heartbeat di una stazione che non ha l'ordine")
+		void shouldRejectRenewalFromAnotherStation() {
+			// Given - la presa in carico di forno-1 è scaduta e l'ordine è passato a forno-2
+			String orderCode = UUID.randomUUID().toString();
+			Order takenOver = Order.builder()
+					.id(1L)
+					.orderCode(orderCode)
+					.status(OrderStatus.IN_PROGRESS)
+					.station("forno-2")
+					.build();
+			when(orderRepository.renewLease(eq(orderCode), eq("forno-1"), any(LocalDateTime.class))).thenReturn(0);
+			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.of(takenOver));
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.renewLease(orderCode, "forno-1"))
+					.isInstanceOf(InvalidOrderStateException.class)
+					.hasMessageContaining("forno-2");
+		}
+
+		@Test
+		@DisplayName("dovrebbe lanciare OrderNotFoundException per ordine non trovato")
+		void shouldThrowOrderNotFoundExceptionWhenNotFound() {
+			// Given
+			String orderCode = UUID.randomUUID().toString();
+			when(orderRepository.renewLease(eq(orderCode), eq("forno-1"), any(LocalDateTime.class))).thenReturn(0);
+			when(orderRepository.findByOrderCode(orderCode)).thenReturn(Optional.empty());
+
+			// When/Then
+			assertThatThrownBy(() -> orderService.renewLease(orderCode, "forno-1"))
+					.isInstanceOf(OrderNotFoundException.class)
+					.hasMessageContaining(orderCode);
+		}
+	}
+
+	private static OrderQueueRow queueRow(Long orderId, LocalDateTime createdAt) {
+		return new OrderQueueRow(orderId, "order-" + orderId, "Cliente", OrderStatus.PENDING, createdAt,
+				OrderLane.STANDARD, createdAt, null, 0L, "Margherita", 1);
 	}
 }
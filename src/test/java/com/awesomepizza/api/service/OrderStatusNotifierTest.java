@@ -0,0 +1,147 @@
+package com.awesomepizza.api.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.awesomepizza.api.config.OrderStreamProperties;
+import com.awesomepizza.api.dto.OrderResponse;
+import com.awesomepizza.api.dto.OrderStatusResponse;
+import com.awesomepizza.api.event.OrderStatusChangedEvent;
+import com.awesomepizza.api.exception.OrderNotFoundException;
+import com.awesomepizza.api.model.OrderStatus;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderStatusNotifier Unit Tests")
+class OrderStatusNotifierTest {
+
+	private static final String ORDER_CODE = "test-order-code";
+
+	@Mock
+	private OrderService orderService;
+
+	private OrderStatusNotifier notifier;
+
+	@BeforeEach
+	void setUp() {
+		notifier = new OrderStatusNotifier(orderService,
+				new OrderStreamProperties(Duration.ofMinutes(10), Duration.ofSeconds(30)));
+	}
+
+	@Nested
+	@DisplayName("awaitStatusChange")
+	class AwaitStatusChangeTests {
+
+		@Test
+		@DisplayName("dovrebbe rispondere subito se lo stato è già diverso")
+		void shouldReturnImmediatelyWhenStatusAlreadyDiffers() {
+			// Given
+			when(orderService.getOrderStatusByCode(ORDER_CODE)).thenReturn(status(OrderStatus.IN_PROGRESS));
+
+			// When
+			DeferredResult<OrderStatusResponse> result = notifier.awaitStatusChange(ORDER_CODE, OrderStatus.PENDING);
+
+			// Then
+			assertThat(result.hasResult()).isTrue();
+			assertThat(((OrderStatusResponse) result.getResult()).getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+			assertThat(notifier.subscriberCount(ORDER_CODE)).isZero();
+		}
+
+		@Test
+		@DisplayName("dovrebbe attendere e rispondere al cambio di stato")
+		void shouldWaitForStatusChange() {
+			// Given
+			when(orderService.getOrderStatusByCode(ORDER_CODE)).thenReturn(status(OrderStatus.PENDING));
+
+			// When
+			DeferredResult<OrderStatusResponse> result = notifier.awaitStatusChange(ORDER_CODE, OrderStatus.PENDING);
+
+			// Then
+			assertThat(result.hasResult()).isFalse();
+			assertThat(notifier.subscriberCount(ORDER_CODE)).isEqualTo(1);
+
+			notifier.onOrderStatusChanged(event(OrderStatus.IN_PROGRESS, OrderStatus.PENDING));
+			assertThat(((OrderStatusResponse) result.getResult()).getStatus()).isEqualTo(OrderStatus.IN_PROGRESS);
+		}
+
+		@Test
+		@DisplayName("non dovrebbe rispondere agli eventi di altri ordini")
+		void shouldIgnoreEventsOfOtherOrders() {
+			// Given
+			when(orderService.getOrderStatusByCode(ORDER_CODE)).thenReturn(status(OrderStatus.PENDING));
+			DeferredResult<OrderStatusResponse> result = notifier.awaitStatusChange(ORDER_CODE, OrderStatus.PENDING);
+
+			// When
+			notifier.onOrderStatusChanged(new OrderStatusChangedEvent(
+					OrderResponse.builder().orderCode("altro-ordine").status(OrderStatus.IN_PROGRESS).build(),
+					OrderStatus.PENDING));
+
+			// Then
+			assertThat(result.hasResult()).isFalse();
+		}
+
+		@Test
+		@DisplayName("dovrebbe propagare OrderNotFoundException senza lasciare attese registrate")
+		void shouldPropagateOrderNotFound() {
+			// Given
+			when(orderService.getOrderStatusByCode(ORDER_CODE)).thenThrow(new OrderNotFoundException(ORDER_CODE));
+
+			// When/Then
+			assertThatThrownBy(() -> notifier.awaitStatusChange(ORDER_CODE, OrderStatus.PENDING))
+					.isInstanceOf(OrderNotFoundException.class);
+			assertThat(notifier.subscriberCount(ORDER_CODE)).isZero();
+		}
+	}
+
+	@Nested
+	@DisplayName("subscribe")
+	class SubscribeTests {
+
+		@Test
+		@DisplayName("dovrebbe registrare lo stream fino al completamento dell'ordine")
+		void shouldKeepStreamUntilOrderCompleted() {
+			// Given
+			when(orderService.getOrderStatusByCode(ORDER_CODE)).thenReturn(status(OrderStatus.PENDING));
+
+			// When
+			notifier.subscribe(ORDER_CODE);
+			notifier.onOrderStatusChanged(event(OrderStatus.IN_PROGRESS, OrderStatus.PENDING));
+
+			// Then
+			assertThat(notifier.subscriberCount(ORDER_CODE)).isEqualTo(1);
+
+			notifier.onOrderStatusChanged(event(OrderStatus.COMPLETED, OrderStatus.IN_PROGRESS));
+			assertThat(notifier.subscriberCount(ORDER_CODE)).isZero();
+		}
+
+		@Test
+		@DisplayName("dovrebbe propagare OrderNotFoundException senza lasciare stream registrati")
+		void shouldPropagateOrderNotFound() {
+			// Given
+			when(orderService.getOrderStatusByCode(ORDER_CODE)).thenThrow(new OrderNotFoundException(ORDER_CODE));
+
+			// When/Then
+			assertThatThrownBy(() -> notifier.subscribe(ORDER_CODE))
+					.isInstanceOf(OrderNotFoundException.class);
+			assertThat(notifier.subscriberCount(ORDER_CODE)).isZero();
+		}
+	}
+
+	private static OrderStatusResponse status(OrderStatus status) {
+		return OrderStatusResponse.builder().status(status).build();
+	}
+
+	private static OrderStatusChangedEvent event(OrderStatus status, OrderStatus previousStatus) {
+		return new OrderStatusChangedEvent(
+				OrderResponse.builder().orderCode(ORDER_CODE).status(status).build(), previousStatus);
+	}
+}